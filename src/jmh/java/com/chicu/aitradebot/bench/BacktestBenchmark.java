@@ -0,0 +1,54 @@
+package com.chicu.aitradebot.bench;
+
+import com.chicu.aitradebot.ai.tuning.eval.BacktestMetrics;
+import com.chicu.aitradebot.ai.tuning.eval.CandleBar;
+import com.chicu.aitradebot.ai.tuning.eval.impl.BacktestServiceImpl;
+import com.chicu.aitradebot.common.enums.StrategyType;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 🧪 Полный бэктест по 20k свечам (загрузка свечей — из памяти, без БД/биржи).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class BacktestBenchmark {
+
+    @Param({"SCALPING", "WINDOW_SCALPING"})
+    public StrategyType type;
+
+    private BacktestServiceImpl service;
+    private Map<String, Object> params;
+    private Instant from;
+    private Instant to;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<CandleBar> bars = BenchFixtures.candleBars();
+        service = new BacktestServiceImpl((chatId, t, symbol, tf, startAt, endAt, limit) -> bars);
+
+        // значения по умолчанию из StrategySettings / UI
+        params = Map.of(
+                "windowSize", 30,
+                "takeProfitPct", "0.40",
+                "stopLossPct", "0.25",
+                "commissionPct", "0.10",
+                "riskPerTradePct", "1.0"
+        );
+        from = bars.getFirst().openTime();
+        to = bars.getLast().openTime().plusSeconds(60);
+    }
+
+    @Benchmark
+    public BacktestMetrics run() {
+        return service.run(1L, type, BenchFixtures.SYMBOL, "1m", params, from, to);
+    }
+}
@@ -0,0 +1,122 @@
+package com.chicu.aitradebot.bench;
+
+import com.chicu.aitradebot.ai.tuning.eval.CandleBar;
+import com.chicu.aitradebot.market.model.Candle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * 🧱 Данные для бенчмарков — детерминированные (seed), чтобы прогоны были сравнимы между версиями.
+ *
+ *  - aggTrade JSON: файл -Djmh.aggTrades=path (по строке на сообщение, как пишет биржа в combined stream)
+ *    или синтетика в том же формате
+ *  - свечи: 20k минутных баров случайного блуждания (≈ 2 недели)
+ */
+final class BenchFixtures {
+
+    static final String SYMBOL = "BTCUSDT";
+    static final int BARS = 20_000;
+    static final long MINUTE_MS = 60_000L;
+    static final long START_MS = 1_735_689_600_000L; // 2025-01-01T00:00:00Z
+    private static final long SEED = 42L;
+
+    private BenchFixtures() {
+    }
+
+    /**
+     * Сообщения aggTrade в формате Binance combined stream: {"stream":..,"data":{..}}.
+     */
+    static List<String> aggTrades(int count) {
+        String file = System.getProperty("jmh.aggTrades");
+        if (file != null && !file.isBlank()) {
+            try {
+                List<String> lines = Files.readAllLines(Path.of(file), StandardCharsets.UTF_8).stream()
+                        .filter(l -> !l.isBlank()).toList();
+                if (!lines.isEmpty()) return lines;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        Random rnd = new Random(SEED);
+        List<String> out = new ArrayList<>(count);
+        double price = 97_000.0;
+        long ts = START_MS;
+        long aggId = 3_400_000_000L;
+
+        for (int i = 0; i < count; i++) {
+            price = Math.max(1.0, price * (1 + rnd.nextGaussian() * 0.0002));
+            ts += 1 + rnd.nextInt(40);
+            double qty = 0.00005 + rnd.nextDouble() * 0.05;
+
+            out.add(String.format(Locale.ROOT,
+                    "{\"stream\":\"btcusdt@aggTrade\",\"data\":{\"e\":\"aggTrade\",\"E\":%d,\"s\":\"%s\",\"a\":%d,"
+                            + "\"p\":\"%.2f\",\"q\":\"%.5f\",\"f\":%d,\"l\":%d,\"T\":%d,\"m\":%b,\"M\":true}}",
+                    ts + 1, SYMBOL, aggId, price, qty, aggId * 2, aggId * 2, ts, rnd.nextBoolean()));
+            aggId++;
+        }
+        return out;
+    }
+
+    /**
+     * 20k минутных свечей (все закрыты), время по возрастанию.
+     */
+    static List<Candle> candles() {
+        double[][] ohlcv = walk();
+        List<Candle> out = new ArrayList<>(BARS);
+        for (int i = 0; i < BARS; i++) {
+            double[] b = ohlcv[i];
+            out.add(new Candle(START_MS + i * MINUTE_MS, b[0], b[1], b[2], b[3], b[4], true));
+        }
+        return out;
+    }
+
+    static List<CandleBar> candleBars() {
+        double[][] ohlcv = walk();
+        List<CandleBar> out = new ArrayList<>(BARS);
+        for (int i = 0; i < BARS; i++) {
+            double[] b = ohlcv[i];
+            out.add(new CandleBar(Instant.ofEpochMilli(START_MS + i * MINUTE_MS),
+                    bd(b[0]), bd(b[1]), bd(b[2]), bd(b[3]), bd(b[4])));
+        }
+        return out;
+    }
+
+    static List<Double> closes() {
+        double[][] ohlcv = walk();
+        List<Double> out = new ArrayList<>(BARS);
+        for (double[] b : ohlcv) out.add(b[3]);
+        return out;
+    }
+
+    private static double[][] walk() {
+        Random rnd = new Random(SEED);
+        double[][] out = new double[BARS][];
+        double close = 97_000.0;
+
+        for (int i = 0; i < BARS; i++) {
+            double open = close;
+            close = Math.max(1.0, open * (1 + rnd.nextGaussian() * 0.0012));
+            double high = Math.max(open, close) * (1 + Math.abs(rnd.nextGaussian()) * 0.0005);
+            double low = Math.min(open, close) * (1 - Math.abs(rnd.nextGaussian()) * 0.0005);
+            double vol = 5 + rnd.nextDouble() * 40;
+            out[i] = new double[]{open, high, low, close, vol};
+        }
+        return out;
+    }
+
+    private static BigDecimal bd(double v) {
+        return BigDecimal.valueOf(v).setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,35 @@
+package com.chicu.aitradebot.bench;
+
+import com.chicu.aitradebot.market.CandleResampler;
+import com.chicu.aitradebot.market.model.Candle;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 🕯 Ресемплинг 20k минутных свечей в старший ТФ.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CandleResamplerBenchmark {
+
+    @Param({"5m", "1h", "4h"})
+    public String targetTf;
+
+    private List<Candle> source;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        source = BenchFixtures.candles();
+    }
+
+    @Benchmark
+    public List<Candle> resample() {
+        return CandleResampler.resample(source, targetTf);
+    }
+}
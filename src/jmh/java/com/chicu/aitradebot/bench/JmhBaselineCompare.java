@@ -0,0 +1,120 @@
+package com.chicu.aitradebot.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 📊 Сравнение результата JMH (-rf json) с baseline.
+ *
+ * args: baseline.json current.json
+ * -Djmh.threshold=10 — допустимое ухудшение score / gc.alloc.rate.norm в %, выше → exit 1.
+ *
+ * Для AverageTime/SampleTime меньше = лучше, для Throughput — больше.
+ * Baseline нет или он пуст → exit 3 (сравнивать не с чем).
+ */
+public final class JmhBaselineCompare {
+
+    private static final String ALLOC = "gc.alloc.rate.norm";
+
+    private record Result(String mode, double score, String unit, Double alloc) {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: JmhBaselineCompare <baseline.json> <current.json>");
+            System.exit(2);
+        }
+        double threshold = Double.parseDouble(System.getProperty("jmh.threshold", "10"));
+
+        Path basePath = Path.of(args[0]);
+        Map<String, Result> base = Files.isRegularFile(basePath) ? read(basePath) : Map.of();
+        if (base.isEmpty()) {
+            // нет эталона — это не «регрессий 0»: гейт должен упасть, а не пройти молча
+            System.err.printf(Locale.ROOT, "нет baseline: %s отсутствует или пуст — снимите его на эталонной машине%n", args[0]);
+            System.exit(3);
+        }
+
+        Map<String, Result> cur = read(Path.of(args[1]));
+
+        int regressions = 0;
+        System.out.printf(Locale.ROOT, "%-70s %14s %14s %8s %12s %12s %8s%n",
+                "benchmark", "baseline", "current", "Δ%", "alloc base", "alloc cur", "Δ%");
+
+        for (Map.Entry<String, Result> e : new TreeMap<>(cur).entrySet()) {
+            Result c = e.getValue();
+            Result b = base.get(e.getKey());
+            if (b == null) {
+                System.out.printf(Locale.ROOT, "%-70s %14s %14.3f  (нет в baseline)%n", e.getKey(), "-", c.score());
+                continue;
+            }
+
+            double d = pct(b.score(), c.score());
+            boolean lowerIsBetter = !"thrpt".equals(c.mode());
+            double worse = lowerIsBetter ? d : -d;
+
+            Double da = (b.alloc() != null && c.alloc() != null) ? pct(b.alloc(), c.alloc()) : null;
+
+            boolean bad = worse > threshold || (da != null && da > threshold);
+            if (bad) regressions++;
+
+            System.out.printf(Locale.ROOT, "%-70s %14.3f %14.3f %+8.1f %12s %12s %8s %s%n",
+                    e.getKey(), b.score(), c.score(), d,
+                    fmt(b.alloc()), fmt(c.alloc()), da == null ? "-" : String.format(Locale.ROOT, "%+.1f", da),
+                    bad ? "❌" : "");
+        }
+
+        for (String k : base.keySet()) {
+            if (!cur.containsKey(k)) System.out.printf(Locale.ROOT, "%-70s  (нет в текущем прогоне)%n", k);
+        }
+
+        System.out.printf(Locale.ROOT, "%nпорог %.1f%%, регрессий: %d%n", threshold, regressions);
+        if (regressions > 0) System.exit(1);
+    }
+
+    private static Map<String, Result> read(Path file) throws IOException {
+        JsonNode root = new ObjectMapper().readTree(file.toFile());
+        Map<String, Result> out = new LinkedHashMap<>();
+
+        for (JsonNode n : root) {
+            StringBuilder key = new StringBuilder(n.path("benchmark").asText());
+            JsonNode params = n.path("params");
+            if (params.isObject()) {
+                new TreeMap<>(toMap(params)).forEach((k, v) -> key.append(' ').append(k).append('=').append(v));
+            }
+
+            JsonNode pm = n.path("primaryMetric");
+            JsonNode alloc = n.path("secondaryMetrics").path(ALLOC);
+
+            out.put(key.toString(), new Result(
+                    n.path("mode").asText(),
+                    pm.path("score").asDouble(),
+                    pm.path("scoreUnit").asText(),
+                    alloc.isMissingNode() ? null : alloc.path("score").asDouble()
+            ));
+        }
+        return out;
+    }
+
+    private static Map<String, String> toMap(JsonNode obj) {
+        Map<String, String> m = new LinkedHashMap<>();
+        obj.fields().forEachRemaining(f -> m.put(f.getKey(), f.getValue().asText()));
+        return m;
+    }
+
+    private static double pct(double base, double cur) {
+        if (base == 0) return cur == 0 ? 0 : 100;
+        return (cur - base) / Math.abs(base) * 100.0;
+    }
+
+    private static String fmt(Double v) {
+        return v == null ? "-" : String.format(Locale.ROOT, "%.1f", v);
+    }
+}
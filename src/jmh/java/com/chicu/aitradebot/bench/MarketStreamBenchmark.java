@@ -0,0 +1,123 @@
+package com.chicu.aitradebot.bench;
+
+import com.chicu.aitradebot.common.enums.StrategyType;
+import com.chicu.aitradebot.market.MarketStreamManager;
+import com.chicu.aitradebot.market.MarketStreamService;
+import com.chicu.aitradebot.market.model.Candle;
+import com.chicu.aitradebot.market.recorder.TickRecorder;
+import com.chicu.aitradebot.strategy.core.TradingStrategy;
+import com.chicu.aitradebot.strategy.live.LiveChartStream;
+import com.chicu.aitradebot.strategy.live.LiveSubscriptionRegistry;
+import com.chicu.aitradebot.strategy.live.StrategyLiveProperties;
+import com.chicu.aitradebot.strategy.live.StrategyLivePublisher;
+import com.chicu.aitradebot.strategy.registry.StrategyRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 📈 Горячий путь рынка: aggTrade → свеча → стратегия, и чтение кэша свечей.
+ *
+ * MarketStreamService собран как в проде, но без зрителей (LIVE-события не строятся)
+ * и с пустой стратегией — меряется сам конвейер, а не логика стратегии.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MarketStreamBenchmark {
+
+    private static final long CHAT_ID = 1L;
+    private static final StrategyType TYPE = StrategyType.SCALPING;
+
+    // =====================================================
+    // onAggTrade
+    // =====================================================
+
+    private MarketStreamService service;
+    private List<String> messages;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        MarketStreamManager candles = new MarketStreamManager();
+
+        StrategyRegistry registry = new StrategyRegistry();
+        registry.register(TYPE, new SinkStrategy());
+
+        StrategyLivePublisher live = new StrategyLivePublisher(
+                null, new LiveSubscriptionRegistry(null), new LiveChartStream(new StrategyLiveProperties()));
+
+        service = new MarketStreamService(candles, live, registry, null, new ObjectMapper(), TickRecorder.NOOP, null, null, null);
+        messages = BenchFixtures.aggTrades(100_000);
+    }
+
+    @Benchmark
+    public void onAggTrade() {
+        String msg = messages.get(cursor);
+        if (++cursor == messages.size()) cursor = 0;
+        service.onAggTrade(CHAT_ID, TYPE, BenchFixtures.SYMBOL, "1m", msg);
+    }
+
+    @Benchmark
+    public List<Candle> getCandles(CandleCache cache) {
+        return cache.manager.getCandles(BenchFixtures.SYMBOL, "1m", cache.limit);
+    }
+
+    /**
+     * Кэш, заполненный 20k минутных свечей (в памяти остаётся maxCandles = 1500).
+     */
+    @State(Scope.Benchmark)
+    public static class CandleCache {
+
+        @Param({"1", "100", "500", "1500"})
+        public int limit;
+
+        MarketStreamManager manager;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            manager = new MarketStreamManager();
+            for (Candle c : BenchFixtures.candles()) {
+                manager.addCandle(BenchFixtures.SYMBOL, "1m", c);
+            }
+        }
+    }
+
+    /**
+     * Активная стратегия, которая ничего не решает.
+     */
+    private static final class SinkStrategy implements TradingStrategy {
+
+        private volatile BigDecimal lastPrice;
+
+        @Override
+        public void start(Long chatId, String symbol) {
+        }
+
+        @Override
+        public void stop(Long chatId, String symbol) {
+        }
+
+        @Override
+        public boolean isActive(Long chatId) {
+            return true;
+        }
+
+        @Override
+        public Instant getStartedAt(Long chatId) {
+            return null;
+        }
+
+        @Override
+        public void onPriceUpdate(Long chatId, String symbol, BigDecimal price, Instant ts) {
+            lastPrice = price;
+        }
+    }
+}
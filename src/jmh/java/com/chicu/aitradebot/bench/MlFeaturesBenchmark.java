@@ -0,0 +1,55 @@
+package com.chicu.aitradebot.bench;
+
+import com.chicu.aitradebot.ai.ml.dataset.SimpleTpSlLabelerService;
+import com.chicu.aitradebot.ai.ml.features.WindowScalpingFeatureExtractor;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 🤖 Подготовка ML-данных: фичи WINDOW_SCALPING по потоку цен и TP/SL-разметка датасета.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MlFeaturesBenchmark {
+
+    @Param({"30", "200"})
+    public int window;
+
+    private List<Double> prices;
+    private double[] raw;
+    private SimpleTpSlLabelerService labeler;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        prices = BenchFixtures.closes();
+        raw = prices.stream().mapToDouble(Double::doubleValue).toArray();
+        labeler = new SimpleTpSlLabelerService();
+    }
+
+    /**
+     * Все 20k цен через экстрактор (как при построении датасета / в live по тикам).
+     */
+    @Benchmark
+    public void windowScalpingFeatures(Blackhole bh) {
+        WindowScalpingFeatureExtractor fx = new WindowScalpingFeatureExtractor(window);
+        for (double p : raw) {
+            fx.onPrice(p);
+            bh.consume(fx.lastFeatureVector());
+        }
+    }
+
+    /**
+     * Разметка 20k цен, lookahead = window.
+     */
+    @Benchmark
+    public List<Integer> tpSlLabels() {
+        return labeler.label(prices, window, 0.40, 0.25);
+    }
+}
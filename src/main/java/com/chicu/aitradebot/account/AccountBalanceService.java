@@ -3,6 +3,7 @@ package com.chicu.aitradebot.account;
 import com.chicu.aitradebot.common.enums.NetworkType;
 import com.chicu.aitradebot.common.enums.StrategyType;
 import com.chicu.aitradebot.domain.StrategySettings;
+import com.chicu.aitradebot.account.stream.AccountStreamService;
 import com.chicu.aitradebot.exchange.client.ExchangeClient;
 import com.chicu.aitradebot.exchange.client.ExchangeClientFactory;
 import com.chicu.aitradebot.exchange.client.ExchangeClient.Balance;
@@ -23,6 +24,7 @@ public class AccountBalanceService {
 
     private final StrategySettingsService strategySettingsService;
     private final ExchangeClientFactory exchangeClientFactory;
+    private final AccountStreamService accountStreamService;
 
     public AccountBalanceSnapshot getSnapshot(
             long chatId,
@@ -35,13 +37,9 @@ public class AccountBalanceService {
                 strategySettingsService.getOrCreate(chatId, type, exchangeName, networkType);
 
         try {
-            // ✅ корректная сигнатура
-            ExchangeClient client =
-                    exchangeClientFactory.get(exchangeName, networkType);
-
-            // ✅ реальный тип данных
+            // ✅ из памяти (приватный поток биржи), REST — только если книга не свежая
             Map<String, Balance> full =
-                    safeMap(client.getFullBalance(chatId, networkType));
+                    safeMap(accountStreamService.balances(chatId, exchangeName, networkType));
 
             // 1) только free > 0
             Map<String, Balance> positiveFree = full.entrySet().stream()
@@ -111,6 +109,24 @@ public class AccountBalanceService {
         }
     }
 
+    /**
+     * ⚡ Free-баланс актива без БД: для входа в сделку, когда актив уже известен из настроек.
+     *
+     * @return null — баланс недоступен (нет связи с биржей / актива нет)
+     */
+    public BigDecimal getFreeBalance(long chatId, String exchangeName, NetworkType networkType, String asset) {
+        String a = normalize(asset);
+        if (a == null) return null;
+        try {
+            Balance b = accountStreamService.balances(chatId, exchangeName, networkType).get(a);
+            return (b != null && b.free() > 0.0) ? BigDecimal.valueOf(b.free()) : null;
+        } catch (Exception ex) {
+            log.warn("⚠️ Не удалось получить баланс {} (chatId={}, exchange={}, network={}): {}",
+                    a, chatId, exchangeName, networkType, ex.toString());
+            return null;
+        }
+    }
+
     public AccountFees getAccountFees(long chatId, String exchangeName, NetworkType networkType) {
         ExchangeClient client = exchangeClientFactory.get(exchangeName, networkType);
         return client.getAccountFees(chatId, networkType);
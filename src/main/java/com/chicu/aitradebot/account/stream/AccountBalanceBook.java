@@ -0,0 +1,93 @@
+package com.chicu.aitradebot.account.stream;
+
+import com.chicu.aitradebot.exchange.client.ExchangeClient.Balance;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 📒 Балансы аккаунтов в памяти.
+ *
+ * ❗ Устройство:
+ *  - на аккаунт — неизменяемая Map asset → Balance, при событии заменяется целиком (copy-on-write):
+ *    активов у аккаунта единицы-десятки, а чтение (каждый вход стратегии) — без блокировок
+ *  - события потока несут абсолютные значения по изменившимся активам (delta по составу, не по сумме)
+ *  - REST-сверка заменяет всю карту
+ */
+@Component
+public class AccountBalanceBook {
+
+    public enum Source {
+        REST,
+        STREAM
+    }
+
+    /**
+     * Снимок аккаунта. live — приватный поток подключён и шлёт события.
+     */
+    public record Entry(Map<String, Balance> balances, long updatedAtMs, Source source, boolean live) {
+    }
+
+    private final Map<AccountKey, Entry> book = new ConcurrentHashMap<>();
+
+    public Entry get(AccountKey key) {
+        return book.get(key);
+    }
+
+    public Set<AccountKey> accounts() {
+        return Set.copyOf(book.keySet());
+    }
+
+    /**
+     * Полный снимок из REST (все активы аккаунта).
+     *
+     * @param requestedAtMs когда ушёл REST-запрос: если после этого пришло событие потока,
+     *                      оно новее снимка — снимок отбрасывается
+     */
+    public void replaceAll(AccountKey key, Map<String, Balance> balances, long requestedAtMs) {
+        Map<String, Balance> copy = Map.copyOf(positive(balances.values()));
+        long now = System.currentTimeMillis();
+        book.compute(key, (k, prev) -> {
+            if (prev != null && prev.source() == Source.STREAM && prev.updatedAtMs() > requestedAtMs) {
+                return prev;
+            }
+            return new Entry(copy, now, Source.REST, prev != null && prev.live());
+        });
+    }
+
+    /**
+     * Изменившиеся активы из потока (значения абсолютные; 0/0 — актив обнулился).
+     */
+    public void apply(AccountKey key, Collection<Balance> changed) {
+        long now = System.currentTimeMillis();
+        book.compute(key, (k, prev) -> {
+            Map<String, Balance> next = new HashMap<>(prev != null ? prev.balances() : Map.of());
+            for (Balance b : changed) {
+                if (b.free() + b.locked() > 0) next.put(b.asset(), b);
+                else next.remove(b.asset());
+            }
+            return new Entry(Map.copyOf(next), now, Source.STREAM, true);
+        });
+    }
+
+    public void markLive(AccountKey key, boolean live) {
+        book.computeIfPresent(key, (k, prev) ->
+                prev.live() == live ? prev : new Entry(prev.balances(), prev.updatedAtMs(), prev.source(), live));
+    }
+
+    public void remove(AccountKey key) {
+        book.remove(key);
+    }
+
+    private static Map<String, Balance> positive(Collection<Balance> balances) {
+        Map<String, Balance> out = new HashMap<>();
+        for (Balance b : balances) {
+            if (b != null && b.free() + b.locked() > 0) out.put(b.asset(), b);
+        }
+        return out;
+    }
+}
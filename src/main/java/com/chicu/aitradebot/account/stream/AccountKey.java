@@ -0,0 +1,15 @@
+package com.chicu.aitradebot.account.stream;
+
+import com.chicu.aitradebot.common.enums.NetworkType;
+
+import java.util.Locale;
+
+/**
+ * Аккаунт биржи чата: (chatId, exchange, network) — у каждого свои ключи API.
+ */
+public record AccountKey(long chatId, String exchange, NetworkType network) {
+
+    public static AccountKey of(long chatId, String exchange, NetworkType network) {
+        return new AccountKey(chatId, exchange == null ? "" : exchange.trim().toUpperCase(Locale.ROOT), network);
+    }
+}
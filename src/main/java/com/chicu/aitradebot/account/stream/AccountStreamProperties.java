@@ -0,0 +1,41 @@
+package com.chicu.aitradebot.account.stream;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "account.stream")
+public class AccountStreamProperties {
+
+    /**
+     * Держать балансы в памяти по приватным WS (Binance user-data stream, Bybit private).
+     * false — каждый запрос баланса идёт в REST, как раньше.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Продление listenKey Binance (мин). Ключ живёт 60 минут, биржа советует продлевать каждые 30.
+     */
+    private int binanceKeepaliveMinutes = 30;
+
+    /**
+     * Ping приватного WS Bybit (сек). Без ping биржа закрывает соединение через ~10 минут тишины.
+     */
+    private int bybitPingSeconds = 20;
+
+    /**
+     * Сверка книги балансов с REST (сек): страховка от пропущенных событий.
+     */
+    private int reconcileSeconds = 60;
+
+    /**
+     * Пока поток не подключён, REST-снимок считается свежим столько мс
+     * (дальше — повторный REST при следующем запросе).
+     */
+    private long restMaxAgeMs = 5_000L;
+
+    /**
+     * Пауза перед переподключением упавшего потока (мс).
+     */
+    private long reconnectDelayMs = 5_000L;
+}
@@ -0,0 +1,345 @@
+package com.chicu.aitradebot.account.stream;
+
+import com.chicu.aitradebot.common.enums.NetworkType;
+import com.chicu.aitradebot.domain.ExchangeSettings;
+import com.chicu.aitradebot.exchange.client.ExchangeClient;
+import com.chicu.aitradebot.exchange.client.ExchangeClient.Balance;
+import com.chicu.aitradebot.exchange.client.ExchangeClientFactory;
+import com.chicu.aitradebot.exchange.service.ExchangeSettingsChangedEvent;
+import com.chicu.aitradebot.exchange.service.ExchangeSettingsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 💰 Балансы аккаунтов из памяти, поддерживаемые приватными потоками бирж.
+ *
+ * ❗ Правила:
+ *  - поток аккаунта открывается лениво, при первом запросе баланса (ключи API должны быть заданы)
+ *  - пока поток не подключён (или биржа без потока) — REST, снимок живёт restMaxAgeMs
+ *  - при подключении и раз в reconcileSeconds книга сверяется с REST;
+ *    REST-снимок не затирает более свежие события потока
+ *  - обрыв → переподключение через reconnectDelayMs (Binance — с новым listenKey)
+ *  - keepalive: Binance PUT listenKey, Bybit ping
+ */
+@Slf4j
+@Service
+public class AccountStreamService implements PrivateAccountStream.Sink {
+
+    private final AccountBalanceBook book;
+    private final ExchangeClientFactory clients;
+    private final ExchangeSettingsService exchangeSettings;
+    private final OkHttpClient http;
+    private final ObjectMapper mapper;
+    private final ApplicationEventPublisher events;
+    private final AccountStreamProperties props;
+
+    private final Map<AccountKey, PrivateAccountStream> streams = new ConcurrentHashMap<>();
+    private final Set<AccountKey> connecting = ConcurrentHashMap.newKeySet();
+    /** аккаунты без потока (нет ключей / биржа не поддерживается) → когда можно попробовать снова */
+    private final Map<AccountKey, Long> retryAfter = new ConcurrentHashMap<>();
+
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder restLoads = new LongAdder();
+    private final LongAdder balanceEvents = new LongAdder();
+    private final LongAdder orderEvents = new LongAdder();
+    private final LongAdder reconnects = new LongAdder();
+
+    private ScheduledExecutorService scheduler;
+
+    public AccountStreamService(AccountBalanceBook book,
+                                ExchangeClientFactory clients,
+                                ExchangeSettingsService exchangeSettings,
+                                OkHttpClient http,
+                                ObjectMapper mapper,
+                                ApplicationEventPublisher events,
+                                AccountStreamProperties props,
+                                MeterRegistry registry) {
+        this.book = book;
+        this.clients = clients;
+        this.exchangeSettings = exchangeSettings;
+        this.http = http;
+        this.mapper = mapper;
+        this.events = events;
+        this.props = props;
+
+        FunctionCounter.builder("account.balance.memory.hits", memoryHits, LongAdder::sum)
+                .description("Balance reads served from the in-memory book")
+                .register(registry);
+        FunctionCounter.builder("account.balance.rest.loads", restLoads, LongAdder::sum)
+                .description("Balance REST loads (cold reads and reconciles)")
+                .register(registry);
+        FunctionCounter.builder("account.stream.balance.events", balanceEvents, LongAdder::sum)
+                .description("Balance updates received from private exchange streams")
+                .register(registry);
+        FunctionCounter.builder("account.stream.order.events", orderEvents, LongAdder::sum)
+                .description("Order updates received from private exchange streams")
+                .register(registry);
+        FunctionCounter.builder("account.stream.reconnects", reconnects, LongAdder::sum)
+                .description("Private exchange stream reconnects")
+                .register(registry);
+        Gauge.builder("account.stream.live", streams, m -> m.values().stream().filter(PrivateAccountStream::isLive).count())
+                .description("Private exchange streams currently live")
+                .register(registry);
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newScheduledThreadPool(2, r -> {
+            Thread t = new Thread(r, "account-stream");
+            t.setDaemon(true);
+            return t;
+        });
+
+        long keepaliveMin = Math.max(1, props.getBinanceKeepaliveMinutes());
+        scheduler.scheduleWithFixedDelay(() -> keepalive(BinanceUserDataStream.class),
+                keepaliveMin, keepaliveMin, TimeUnit.MINUTES);
+
+        long pingSec = Math.max(1, props.getBybitPingSeconds());
+        scheduler.scheduleWithFixedDelay(() -> keepalive(BybitPrivateStream.class),
+                pingSec, pingSec, TimeUnit.SECONDS);
+
+        long reconcileSec = Math.max(1, props.getReconcileSeconds());
+        scheduler.scheduleWithFixedDelay(this::reconcileAll, reconcileSec, reconcileSec, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) scheduler.shutdownNow();
+        streams.values().forEach(this::closeQuietly);
+        streams.clear();
+    }
+
+    // =====================================================
+    // PUBLIC API
+    // =====================================================
+
+    /**
+     * Балансы аккаунта (asset → free/locked, только ненулевые).
+     * Из памяти, если поток жив или REST-снимок свежий; иначе — REST (исключение пробрасывается).
+     */
+    public Map<String, Balance> balances(long chatId, String exchange, NetworkType network) throws Exception {
+        AccountKey key = AccountKey.of(chatId, exchange, network);
+
+        if (props.isEnabled()) ensureStream(key);
+
+        AccountBalanceBook.Entry e = book.get(key);
+        if (e != null && (e.live() || System.currentTimeMillis() - e.updatedAtMs() < props.getRestMaxAgeMs())) {
+            memoryHits.increment();
+            return e.balances();
+        }
+
+        return loadRest(key);
+    }
+
+    /**
+     * Забыть аккаунт: закрыть поток и очистить книгу (смена ключей, удаление настроек).
+     */
+    public void forget(long chatId, String exchange, NetworkType network) {
+        AccountKey key = AccountKey.of(chatId, exchange, network);
+        PrivateAccountStream s = streams.remove(key);
+        if (s != null) closeQuietly(s);
+        retryAfter.remove(key);
+        book.remove(key);
+    }
+
+    /**
+     * 🔐 Ключи сменились / строка удалена → поток со старым listenKey/подписью закрываем,
+     * следующий balances() поднимет его заново уже с новыми ключами.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSettingsChanged(ExchangeSettingsChangedEvent e) {
+        if (e.change() == ExchangeSettingsChangedEvent.Change.CREATED) return;
+        forget(e.chatId(), e.exchange(), e.network());
+    }
+
+    public boolean isLive(long chatId, String exchange, NetworkType network) {
+        PrivateAccountStream s = streams.get(AccountKey.of(chatId, exchange, network));
+        return s != null && s.isLive();
+    }
+
+    // =====================================================
+    // Sink (потоки)
+    // =====================================================
+
+    @Override
+    public void onBalances(AccountKey key, List<Balance> changed) {
+        balanceEvents.increment();
+        book.apply(key, changed);
+    }
+
+    @Override
+    public void onOrder(ExchangeOrderUpdate update) {
+        orderEvents.increment();
+        if (log.isDebugEnabled()) {
+            log.debug("📬 ORDER UPDATE {} {} {} {} cum={} avg={}", update.account(), update.symbol(),
+                    update.side(), update.status(), update.cumQty(), update.avgPrice());
+        }
+        try {
+            events.publishEvent(update);
+        } catch (Exception e) {
+            log.warn("⚠️ ExchangeOrderUpdate listener failed {}: {}", update.account(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void onLive(AccountKey key, boolean live) {
+        book.markLive(key, live);
+        if (live) {
+            // события несут только изменения — исходное состояние берём из REST
+            schedule(() -> reconcile(key), 0L);
+        }
+    }
+
+    @Override
+    public void onFailure(AccountKey key, String reason) {
+        log.warn("⚠️ ACCOUNT STREAM lost {}: {} (reconnect in {} ms)", key, reason, props.getReconnectDelayMs());
+        PrivateAccountStream s = streams.remove(key);
+        if (s != null) closeQuietly(s);
+        reconnects.increment();
+        schedule(() -> ensureStream(key), props.getReconnectDelayMs());
+    }
+
+    // =====================================================
+    // STREAMS
+    // =====================================================
+
+    private void ensureStream(AccountKey key) {
+        if (streams.containsKey(key)) return;
+
+        Long after = retryAfter.get(key);
+        if (after != null && System.currentTimeMillis() < after) return;
+
+        if (connecting.add(key)) {
+            if (!schedule(() -> open(key), 0L)) connecting.remove(key);
+        }
+    }
+
+    private void open(AccountKey key) {
+        try {
+            if (scheduler.isShutdown()) return;
+
+            ExchangeSettings s = exchangeSettings.getOrCreate(key.chatId(), key.exchange(), key.network());
+            if (s == null || isBlank(s.getApiKey()) || isBlank(s.getApiSecret())) {
+                retryAfter.put(key, System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(props.getReconcileSeconds()));
+                return;
+            }
+
+            PrivateAccountStream stream = switch (key.exchange()) {
+                case "BINANCE" -> new BinanceUserDataStream(key, s.getApiKey(), s.getApiSecret(), http, mapper, this);
+                case "BYBIT" -> new BybitPrivateStream(key, s.getApiKey(), s.getApiSecret(), http, mapper, this);
+                default -> null;
+            };
+            if (stream == null) {
+                retryAfter.put(key, Long.MAX_VALUE);
+                return;
+            }
+
+            // в карту — до connect: обрыв во время подключения должен найти и убрать этот поток
+            streams.put(key, stream);
+            try {
+                stream.connect();
+            } catch (Exception e) {
+                streams.remove(key, stream);
+                throw e;
+            }
+            retryAfter.remove(key);
+            log.info("🔐 ACCOUNT STREAM connecting {}", key);
+
+        } catch (Exception e) {
+            log.warn("⚠️ ACCOUNT STREAM connect failed {}: {}", key, e.toString());
+            retryAfter.put(key, System.currentTimeMillis() + props.getReconnectDelayMs());
+        } finally {
+            connecting.remove(key);
+        }
+    }
+
+    private void keepalive(Class<? extends PrivateAccountStream> type) {
+        for (PrivateAccountStream s : streams.values()) {
+            if (!type.isInstance(s)) continue;
+            try {
+                s.keepalive();
+            } catch (Exception e) {
+                log.warn("⚠️ ACCOUNT STREAM keepalive failed {}: {}", s.key, e.toString());
+            }
+        }
+    }
+
+    private boolean schedule(Runnable task, long delayMs) {
+        try {
+            scheduler.schedule(task, delayMs, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false; // остановка приложения
+        }
+    }
+
+    private void closeQuietly(PrivateAccountStream s) {
+        try {
+            s.close();
+        } catch (Exception ignored) {
+        }
+    }
+
+    // =====================================================
+    // REST
+    // =====================================================
+
+    private Map<String, Balance> loadRest(AccountKey key) throws Exception {
+        long requestedAt = System.currentTimeMillis();
+
+        ExchangeClient client = clients.get(key.exchange(), key.network());
+        Map<String, Balance> full = client.getFullBalance(key.chatId(), key.network());
+        restLoads.increment();
+
+        book.replaceAll(key, full != null ? full : Map.of(), requestedAt);
+        return book.get(key).balances();
+    }
+
+    private void reconcileAll() {
+        for (AccountKey key : streams.keySet()) {
+            reconcile(key);
+        }
+    }
+
+    private void reconcile(AccountKey key) {
+        try {
+            long requestedAt = System.currentTimeMillis();
+            Map<String, Balance> full = clients.get(key.exchange(), key.network())
+                    .getFullBalance(key.chatId(), key.network());
+            restLoads.increment();
+
+            // Bybit-клиент на ошибке отдаёт пустую карту — не обнуляем по ней живую книгу
+            AccountBalanceBook.Entry prev = book.get(key);
+            if ((full == null || full.isEmpty()) && prev != null && !prev.balances().isEmpty()) {
+                log.debug("ACCOUNT reconcile {}: empty REST balance ignored", key);
+                return;
+            }
+            book.replaceAll(key, full != null ? full : Map.of(), requestedAt);
+        } catch (Exception e) {
+            log.warn("⚠️ ACCOUNT reconcile failed {}: {}", key, e.toString());
+        }
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
+}
@@ -0,0 +1,159 @@
+package com.chicu.aitradebot.account.stream;
+
+import com.chicu.aitradebot.common.enums.NetworkType;
+import com.chicu.aitradebot.exchange.client.ExchangeClient.Balance;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 🟡 Binance Spot user-data stream (listenKey).
+ *
+ *  - POST /api/v3/userDataStream → listenKey, WS /ws/{listenKey}
+ *  - PUT каждые 30 минут (иначе ключ истекает через 60)
+ *  - outboundAccountPosition → абсолютные free/locked по изменившимся активам
+ *  - executionReport → ExchangeOrderUpdate
+ *  - listenKeyExpired → обрыв, сервис переподключит с новым ключом
+ */
+@Slf4j
+final class BinanceUserDataStream extends PrivateAccountStream {
+
+    private static final String REST_MAIN = "https://api.binance.com";
+    private static final String REST_TEST = "https://testnet.binance.vision";
+    private static final String WS_MAIN = "wss://stream.binance.com:9443/ws/";
+    private static final String WS_TEST = "wss://stream.testnet.binance.vision/ws/";
+
+    private static final RequestBody EMPTY = RequestBody.create(new byte[0], null);
+
+    private volatile String listenKey;
+
+    BinanceUserDataStream(AccountKey key, String apiKey, String apiSecret,
+                          OkHttpClient http, ObjectMapper mapper, Sink sink) {
+        super(key, apiKey, apiSecret, http, mapper, sink);
+    }
+
+    private String rest() {
+        return key.network() == NetworkType.TESTNET ? REST_TEST : REST_MAIN;
+    }
+
+    @Override
+    void connect() throws Exception {
+        Request req = new Request.Builder()
+                .url(rest() + "/api/v3/userDataStream")
+                .header("X-MBX-APIKEY", apiKey)
+                .post(EMPTY)
+                .build();
+
+        try (Response r = http.newCall(req).execute()) {
+            String body = r.body() != null ? r.body().string() : "";
+            if (!r.isSuccessful()) throw new IOException("listenKey HTTP " + r.code() + ": " + body);
+            listenKey = mapper.readTree(body).path("listenKey").asText(null);
+        }
+        if (listenKey == null || listenKey.isBlank()) throw new IOException("listenKey пустой");
+
+        String url = (key.network() == NetworkType.TESTNET ? WS_TEST : WS_MAIN) + listenKey;
+        ws = http.newWebSocket(new Request.Builder().url(url).build(), this);
+    }
+
+    @Override
+    void keepalive() {
+        String lk = listenKey;
+        if (lk == null || closed) return;
+
+        Request req = new Request.Builder()
+                .url(rest() + "/api/v3/userDataStream?listenKey=" + lk)
+                .header("X-MBX-APIKEY", apiKey)
+                .put(EMPTY)
+                .build();
+
+        try (Response r = http.newCall(req).execute()) {
+            if (!r.isSuccessful()) {
+                log.warn("⚠️ BINANCE listenKey keepalive {} HTTP {}", key, r.code());
+                WebSocket s = ws;
+                lost(s, "keepalive HTTP " + r.code());
+                if (s != null) s.cancel();
+            }
+        } catch (IOException e) {
+            log.warn("⚠️ BINANCE listenKey keepalive {} failed: {}", key, e.toString());
+        }
+    }
+
+    @Override
+    void close() {
+        super.close();
+        String lk = listenKey;
+        if (lk == null) return;
+        Request req = new Request.Builder()
+                .url(rest() + "/api/v3/userDataStream?listenKey=" + lk)
+                .header("X-MBX-APIKEY", apiKey)
+                .delete()
+                .build();
+        try (Response ignored = http.newCall(req).execute()) {
+            // best effort
+        } catch (IOException ignored) {
+        }
+    }
+
+    @Override
+    public void onOpen(@NotNull WebSocket webSocket, @NotNull Response response) {
+        log.info("🔐 BINANCE user-data stream OPEN {}", key);
+        setLive(true);
+    }
+
+    @Override
+    void onText(JsonNode msg) {
+        switch (msg.path("e").asText("")) {
+            case "outboundAccountPosition" -> {
+                List<Balance> changed = new ArrayList<>();
+                for (JsonNode b : msg.path("B")) {
+                    changed.add(new Balance(b.path("a").asText(), dbl(b.path("f")), dbl(b.path("l"))));
+                }
+                if (!changed.isEmpty()) sink.onBalances(key, changed);
+            }
+            case "executionReport" -> sink.onOrder(new ExchangeOrderUpdate(
+                    key,
+                    text(msg.path("s")),
+                    text(msg.path("S")),
+                    text(msg.path("i")),
+                    text(msg.path("c")),
+                    text(msg.path("X")),
+                    dec(msg.path("z")),
+                    avg(msg),
+                    dec(msg.path("l")),
+                    dec(msg.path("L")),
+                    dec(msg.path("n")),
+                    text(msg.path("N")),
+                    msg.path("T").asLong(msg.path("E").asLong())
+            ));
+            case "listenKeyExpired" -> {
+                log.warn("⚠️ BINANCE listenKey expired {}", key);
+                WebSocket s = ws;
+                lost(s, "listenKeyExpired");
+                if (s != null) s.cancel();
+            }
+            default -> {
+                // balanceUpdate (депозит/вывод) придёт и как outboundAccountPosition
+            }
+        }
+    }
+
+    /** Средняя цена = cumQuote / cumQty (Z / z). */
+    private static BigDecimal avg(JsonNode msg) {
+        BigDecimal z = dec(msg.path("z"));
+        BigDecimal quote = dec(msg.path("Z"));
+        if (z == null || quote == null || z.signum() <= 0) return null;
+        return quote.divide(z, 12, RoundingMode.HALF_UP).stripTrailingZeros();
+    }
+}
@@ -0,0 +1,165 @@
+package com.chicu.aitradebot.account.stream;
+
+import com.chicu.aitradebot.common.enums.NetworkType;
+import com.chicu.aitradebot.exchange.client.ExchangeClient.Balance;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import org.jetbrains.annotations.NotNull;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 🟠 Bybit v5 private WS: auth → subscribe wallet, order; ping каждые 20 секунд.
+ *
+ * free/locked считаются так же, как в BybitExchangeClient.getFullBalance,
+ * чтобы REST-сверка не «дёргала» книгу на ровном месте.
+ */
+@Slf4j
+final class BybitPrivateStream extends PrivateAccountStream {
+
+    private static final String WS_MAIN = "wss://stream.bybit.com/v5/private";
+    private static final String WS_DEMO = "wss://stream-demo.bybit.com/v5/private";
+
+    private static final long AUTH_TTL_MS = 10_000L;
+
+    BybitPrivateStream(AccountKey key, String apiKey, String apiSecret,
+                       OkHttpClient http, ObjectMapper mapper, Sink sink) {
+        super(key, apiKey, apiSecret, http, mapper, sink);
+    }
+
+    @Override
+    void connect() {
+        // TESTNET у нас — demo-trading (как в BybitExchangeClient)
+        String url = key.network() == NetworkType.TESTNET ? WS_DEMO : WS_MAIN;
+        ws = http.newWebSocket(new Request.Builder().url(url).build(), this);
+    }
+
+    @Override
+    void keepalive() {
+        WebSocket s = ws;
+        if (s != null && !closed) s.send("{\"op\":\"ping\"}");
+    }
+
+    @Override
+    public void onOpen(@NotNull WebSocket webSocket, @NotNull Response response) {
+        long expires = System.currentTimeMillis() + AUTH_TTL_MS;
+        String sig = hmac("GET/realtime" + expires);
+        webSocket.send("{\"op\":\"auth\",\"args\":[\"" + apiKey + "\"," + expires + ",\"" + sig + "\"]}");
+    }
+
+    @Override
+    void onText(JsonNode msg) {
+        String op = msg.path("op").asText("");
+
+        if ("auth".equals(op)) {
+            if (msg.path("success").asBoolean(false)) {
+                log.info("🔐 BYBIT private stream AUTH OK {}", key);
+                WebSocket s = ws;
+                if (s != null) s.send("{\"op\":\"subscribe\",\"args\":[\"wallet\",\"order\"]}");
+            } else {
+                log.warn("⚠️ BYBIT private stream AUTH FAILED {}: {}", key, msg.path("ret_msg").asText());
+                WebSocket s = ws;
+                lost(s, "auth failed");
+                if (s != null) s.cancel();
+            }
+            return;
+        }
+        if ("subscribe".equals(op)) {
+            if (msg.path("success").asBoolean(false)) setLive(true);
+            return;
+        }
+
+        switch (msg.path("topic").asText("")) {
+            case "wallet" -> onWallet(msg.path("data"));
+            case "order" -> onOrders(msg.path("data"));
+            default -> {
+                // pong
+            }
+        }
+    }
+
+    private void onWallet(JsonNode data) {
+        List<Balance> changed = new ArrayList<>();
+        for (JsonNode acc : data) {
+            for (JsonNode c : acc.path("coin")) {
+                String asset = c.path("coin").asText("");
+                if (asset.isBlank()) continue;
+
+                BigDecimal wallet = orZero(dec(c.path("walletBalance")));
+                BigDecimal withdraw = orZero(dec(c.path("availableToWithdraw")));
+                BigDecimal free = withdraw.signum() > 0 ? withdraw : wallet;
+                BigDecimal locked = wallet.subtract(free).max(BigDecimal.ZERO);
+
+                changed.add(new Balance(asset, free.doubleValue(), locked.doubleValue()));
+            }
+        }
+        if (!changed.isEmpty()) sink.onBalances(key, changed);
+    }
+
+    private void onOrders(JsonNode data) {
+        for (JsonNode o : data) {
+            sink.onOrder(new ExchangeOrderUpdate(
+                    key,
+                    text(o.path("symbol")),
+                    side(text(o.path("side"))),
+                    text(o.path("orderId")),
+                    text(o.path("orderLinkId")),
+                    status(text(o.path("orderStatus"))),
+                    dec(o.path("cumExecQty")),
+                    dec(o.path("avgPrice")),
+                    null,
+                    null,
+                    dec(o.path("cumExecFee")),
+                    text(o.path("feeCurrency")),
+                    o.path("updatedTime").asLong(System.currentTimeMillis())
+            ));
+        }
+    }
+
+    // =====================================================
+    // helpers
+    // =====================================================
+
+    private String hmac(String data) {
+        try {
+            Mac m = Mac.getInstance("HmacSHA256");
+            m.init(new SecretKeySpec(apiSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(m.doFinal(data.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException("Ошибка подписи Bybit", e);
+        }
+    }
+
+    private static BigDecimal orZero(BigDecimal v) {
+        return v != null ? v : BigDecimal.ZERO;
+    }
+
+    private static String side(String s) {
+        return s == null ? null : s.toUpperCase(Locale.ROOT);
+    }
+
+    static String status(String s) {
+        if (s == null) return null;
+        return switch (s) {
+            case "New", "Untriggered", "Triggered", "Created" -> "NEW";
+            case "PartiallyFilled" -> "PARTIALLY_FILLED";
+            case "Filled" -> "FILLED";
+            case "Cancelled", "PartiallyFilledCanceled" -> "CANCELED";
+            case "Rejected" -> "REJECTED";
+            case "Deactivated" -> "EXPIRED";
+            default -> s.toUpperCase(Locale.ROOT);
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package com.chicu.aitradebot.account.stream;
+
+import java.math.BigDecimal;
+
+/**
+ * 📬 Изменение ордера из приватного потока биржи (Binance executionReport, Bybit order).
+ * Публикуется как Spring-событие.
+ *
+ * status нормализован к Binance-стилю: NEW / PARTIALLY_FILLED / FILLED / CANCELED / REJECTED / EXPIRED.
+ * lastQty/lastPrice — последнее исполнение (Bybit отдаёт только накопленные значения → null).
+ */
+public record ExchangeOrderUpdate(
+        AccountKey account,
+        String symbol,
+        String side,
+        String orderId,
+        String clientOrderId,
+        String status,
+        BigDecimal cumQty,
+        BigDecimal avgPrice,
+        BigDecimal lastQty,
+        BigDecimal lastPrice,
+        BigDecimal fee,
+        String feeAsset,
+        long time
+) {
+}
@@ -0,0 +1,151 @@
+package com.chicu.aitradebot.account.stream;
+
+import com.chicu.aitradebot.exchange.client.ExchangeClient.Balance;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 🔐 Приватный WS-поток одного аккаунта (общая часть Binance / Bybit).
+ *
+ * Жизненный цикл ведёт AccountStreamService: connect → keepalive по расписанию → close.
+ * При обрыве поток сообщает sink.onFailure, переподключение — тоже забота сервиса.
+ */
+@Slf4j
+abstract class PrivateAccountStream extends WebSocketListener {
+
+    interface Sink {
+        void onBalances(AccountKey key, List<Balance> changed);
+
+        void onOrder(ExchangeOrderUpdate update);
+
+        void onLive(AccountKey key, boolean live);
+
+        void onFailure(AccountKey key, String reason);
+    }
+
+    protected final AccountKey key;
+    protected final String apiKey;
+    protected final String apiSecret;
+    protected final OkHttpClient http;
+    protected final ObjectMapper mapper;
+    protected final Sink sink;
+
+    protected volatile WebSocket ws;
+    protected volatile boolean live;
+    protected volatile boolean closed;
+
+    PrivateAccountStream(AccountKey key,
+                         String apiKey,
+                         String apiSecret,
+                         OkHttpClient http,
+                         ObjectMapper mapper,
+                         Sink sink) {
+        this.key = key;
+        this.apiKey = apiKey;
+        this.apiSecret = apiSecret;
+        this.http = http;
+        this.mapper = mapper;
+        this.sink = sink;
+    }
+
+    /**
+     * Открыть поток. Может делать блокирующий REST (listenKey) — вызывается из планировщика сервиса.
+     */
+    abstract void connect() throws Exception;
+
+    /**
+     * Продлить жизнь потока (listenKey PUT / ping).
+     */
+    abstract void keepalive();
+
+    abstract void onText(JsonNode msg);
+
+    boolean isLive() {
+        return live;
+    }
+
+    void close() {
+        closed = true;
+        live = false;
+        WebSocket s = ws;
+        if (s != null) s.close(1000, "bye");
+    }
+
+    protected void setLive(boolean v) {
+        if (live == v) return;
+        live = v;
+        sink.onLive(key, v);
+    }
+
+    // =====================================================
+    // WebSocketListener
+    // =====================================================
+
+    @Override
+    public void onMessage(@NotNull WebSocket webSocket, @NotNull String text) {
+        if (webSocket != ws) return;
+        try {
+            onText(mapper.readTree(text));
+        } catch (Exception e) {
+            log.warn("⚠️ ACCOUNT STREAM {} bad message: {}", key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onClosing(@NotNull WebSocket webSocket, int code, @NotNull String reason) {
+        webSocket.close(1000, null);
+    }
+
+    @Override
+    public void onClosed(@NotNull WebSocket webSocket, int code, @NotNull String reason) {
+        lost(webSocket, "closed " + code + " " + reason);
+    }
+
+    @Override
+    public void onFailure(@NotNull WebSocket webSocket, @NotNull Throwable t, Response response) {
+        lost(webSocket, t.toString());
+    }
+
+    /**
+     * Соединение потеряно (однократно на соединение: дальше его колбэки игнорируются).
+     */
+    protected void lost(WebSocket webSocket, String reason) {
+        if (webSocket == null || webSocket != ws) return;
+        ws = null;
+        setLive(false);
+        if (!closed) sink.onFailure(key, reason);
+    }
+
+    // =====================================================
+    // helpers
+    // =====================================================
+
+    protected static BigDecimal dec(JsonNode n) {
+        if (n == null || n.isNull() || n.isMissingNode()) return null;
+        String s = n.asText();
+        if (s == null || s.isBlank()) return null;
+        try {
+            return new BigDecimal(s);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    protected static double dbl(JsonNode n) {
+        BigDecimal d = dec(n);
+        return d != null ? d.doubleValue() : 0.0;
+    }
+
+    protected static String text(JsonNode n) {
+        return (n == null || n.isNull() || n.isMissingNode()) ? null : n.asText();
+    }
+}
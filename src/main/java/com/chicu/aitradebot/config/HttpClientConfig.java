@@ -1,10 +1,14 @@
 package com.chicu.aitradebot.config;
 
+import com.chicu.aitradebot.exchange.sim.ExchangeSimProperties;
+import com.chicu.aitradebot.exchange.sim.SimEndpointRewriter;
+import okhttp3.ConnectionPool;
 import okhttp3.OkHttpClient;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class HttpClientConfig {
@@ -12,14 +16,24 @@ public class HttpClientConfig {
     /**
      * 🌐 ЕДИНЫЙ OkHttpClient для всего приложения
      * Используется Binance / Bybit / Market WS
+     *
+     * 🧪 exchange.sim.enabled=true → все биржевые хосты уходят на встроенный симулятор.
+     *
+     * Пул: по умолчанию OkHttp держит 5 простаивающих соединений — при прогреве десятков чатов
+     * остальные TLS-рукопожатия делаются заново. Держим больше и дольше (биржи не рвут keep-alive раньше минуты).
      */
     @Bean
-    public OkHttpClient okHttpClient() {
-        return new OkHttpClient.Builder()
+    public OkHttpClient okHttpClient(ExchangeSimProperties sim) {
+        OkHttpClient.Builder b = new OkHttpClient.Builder()
                 .connectTimeout(Duration.ofSeconds(10))
                 .readTimeout(Duration.ofSeconds(30))
                 .writeTimeout(Duration.ofSeconds(30))
-                .retryOnConnectionFailure(true)
-                .build();
+                .connectionPool(new ConnectionPool(32, 60, TimeUnit.SECONDS))
+                .retryOnConnectionFailure(true);
+
+        if (sim.isEnabled()) {
+            b.addInterceptor(new SimEndpointRewriter(sim.getBaseUrl()));
+        }
+        return b.build();
     }
 }
@@ -1,8 +1,11 @@
 package com.chicu.aitradebot.config;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Clock;
+
 /**
  * Конфигурация стратегий.
  * Ручная регистрация больше не нужна —
@@ -11,4 +14,13 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 @Slf4j
 public class StrategyConfig {
+
+    /**
+     * Часы стратегий (startedAt, перечитывание настроек).
+     * В live — системные, replay-песочница подставляет свои виртуальные (ReplayClock).
+     */
+    @Bean
+    public Clock strategyClock() {
+        return Clock.systemUTC();
+    }
 }
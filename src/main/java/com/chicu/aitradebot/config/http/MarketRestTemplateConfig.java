@@ -1,9 +1,13 @@
 package com.chicu.aitradebot.config.http;
 
+import com.chicu.aitradebot.exchange.sim.ExchangeSimProperties;
+import com.chicu.aitradebot.exchange.sim.SimEndpointRewriter;
+import org.apache.hc.client5.http.config.ConnectionConfig;
 import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.util.TimeValue;
 import org.apache.hc.core5.util.Timeout;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
@@ -19,6 +23,10 @@ public class MarketRestTemplateConfig {
         PoolingHttpClientConnectionManager cm = new PoolingHttpClientConnectionManager();
         cm.setMaxTotal(200);
         cm.setDefaultMaxPerRoute(50);
+        cm.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setValidateAfterInactivity(TimeValue.ofSeconds(5))   // проверить сокет, простоявший дольше
+                .setTimeToLive(TimeValue.ofMinutes(10))               // не держать одно соединение вечно (балансировщик биржи)
+                .build());
         return cm;
     }
 
@@ -34,6 +42,8 @@ public class MarketRestTemplateConfig {
         return HttpClients.custom()
                 .setConnectionManager(marketConnManager)
                 .setDefaultRequestConfig(cfg)
+                // keep-alive = время простоя, после которого соединение всё равно выселяется
+                .setKeepAliveStrategy((response, context) -> TimeValue.ofSeconds(20))
                 .evictExpiredConnections()
                 .evictIdleConnections(Timeout.ofSeconds(20))
                 .build();
@@ -41,7 +51,13 @@ public class MarketRestTemplateConfig {
 
     @Bean
     @Qualifier("marketRestTemplate")
-    public RestTemplate marketRestTemplate(CloseableHttpClient marketHttpClient) {
-        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(marketHttpClient));
+    public RestTemplate marketRestTemplate(CloseableHttpClient marketHttpClient, ExchangeSimProperties sim) {
+        RestTemplate rest = new RestTemplate(new HttpComponentsClientHttpRequestFactory(marketHttpClient));
+
+        // 🧪 симулятор бирж: api.binance.com / api.bybit.com → /sim/**
+        if (sim.isEnabled()) {
+            rest.getInterceptors().add(new SimEndpointRewriter(sim.getBaseUrl()));
+        }
+        return rest;
     }
 }
@@ -11,6 +11,8 @@ import java.time.LocalDateTime;
         name = "orders",
         indexes = {
                 @Index(name = "idx_orders_chat_symbol", columnList = "chat_id,symbol"),
+                // keyset-пагинация: сравнение (created_at, id) и ORDER BY прямо по индексу
+                @Index(name = "idx_orders_chat_symbol_created", columnList = "chat_id,symbol,created_at,id"),
                 @Index(name = "idx_orders_chat_strategy", columnList = "chat_id,strategy_type"),
                 @Index(name = "idx_orders_status", columnList = "status")
         }
@@ -74,6 +76,18 @@ public class OrderEntity {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    /** исполненное количество (частичные исполнения paper-движка) */
+    @Column(name = "executed_qty", precision = 28, scale = 12)
+    private BigDecimal executedQty;
+
+    /** средняя цена исполнения */
+    @Column(name = "avg_price", precision = 28, scale = 12)
+    private BigDecimal avgPrice;
+
+    /** комиссия в quote-активе (maker / taker) */
+    @Column(name = "commission", precision = 28, scale = 12)
+    private BigDecimal commission;
+
 
     // ============================================
     // ULTRA-поля (TP/SL, ML, причины, PnL)
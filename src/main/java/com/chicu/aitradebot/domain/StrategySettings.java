@@ -97,6 +97,10 @@ public class StrategySettings {
     @Column(name = "min_risk_reward", precision = 10, scale = 4)
     private BigDecimal minRiskReward;
 
+    /** трейлинг-стоп, % от максимума цены в позиции (null — выключен) */
+    @Column(name = "trailing_stop_pct", precision = 10, scale = 4)
+    private BigDecimal trailingStopPct;
+
     @Builder.Default
     @Column(nullable = false)
     private int leverage = 1;
@@ -5,6 +5,10 @@ import com.chicu.aitradebot.common.enums.StrategyType;
 import com.chicu.aitradebot.domain.ExchangeSettings;
 import com.chicu.aitradebot.exchange.client.ExchangeClient;
 import com.chicu.aitradebot.exchange.enums.OrderSide;
+import com.chicu.aitradebot.exchange.http.ExchangeRequest;
+import com.chicu.aitradebot.exchange.http.ExchangeRestClient;
+import com.chicu.aitradebot.exchange.http.HmacSha256;
+import com.chicu.aitradebot.exchange.http.RequestPriority;
 import com.chicu.aitradebot.exchange.model.AccountFees;
 import com.chicu.aitradebot.exchange.model.AccountInfo;
 import com.chicu.aitradebot.exchange.model.Order;
@@ -13,17 +17,12 @@ import com.chicu.aitradebot.market.model.SymbolDescriptor;
 import lombok.extern.slf4j.Slf4j;
 import org.json.JSONArray;
 import org.json.JSONObject;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.*;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestTemplate;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -34,20 +33,30 @@ public class BinanceExchangeClient implements ExchangeClient {
     private static final String MAIN = "https://api.binance.com";
     private static final String TEST = "https://testnet.binance.vision";
 
+    private static final String EXCHANGE = "BINANCE";
+
+    // вес запросов (REQUEST_WEIGHT) по документации Binance Spot API
+    private static final int W_KLINES = 2;
+    private static final int W_PRICE = 2;
+    private static final int W_EXCHANGE_INFO = 20;
+    private static final int W_TICKER_24H_ALL = 80;
+    private static final int W_ACCOUNT = 20;
+    private static final int W_ORDER = 1;
+
     private final ExchangeSettingsService settingsService;
-    private final RestTemplate rest;
+    private final ExchangeRestClient http;
 
     public BinanceExchangeClient(
             ExchangeSettingsService settingsService,
-            @Qualifier("marketRestTemplate") RestTemplate rest
+            ExchangeRestClient http
     ) {
         this.settingsService = settingsService;
-        this.rest = rest;
+        this.http = http;
     }
 
     @Override
     public String getExchangeName() {
-        return "BINANCE";
+        return EXCHANGE;
     }
 
     private String baseUrl(NetworkType net) {
@@ -75,7 +84,7 @@ public class BinanceExchangeClient implements ExchangeClient {
         String url = MAIN + "/api/v3/klines?symbol=" + symbol +
                      "&interval=" + interval + "&limit=" + limit;
 
-        JSONArray arr = new JSONArray(rest.getForObject(url, String.class));
+        JSONArray arr = new JSONArray(http.get(EXCHANGE, url, RequestPriority.MARKET, W_KLINES));
         List<Kline> out = new ArrayList<>();
 
         for (int i = 0; i < arr.length(); i++) {
@@ -98,7 +107,7 @@ public class BinanceExchangeClient implements ExchangeClient {
     public double getPrice(String symbol) throws Exception {
         try {
             String url = MAIN + "/api/v3/ticker/price?symbol=" + symbol.toUpperCase();
-            JSONObject json = new JSONObject(rest.getForObject(url, String.class));
+            JSONObject json = new JSONObject(http.get(EXCHANGE, url, RequestPriority.MARKET, W_PRICE));
             return json.getDouble("price");
         } catch (Exception e) {
             log.error("Ошибка getPrice Binance: {}", e.getMessage());
@@ -110,45 +119,36 @@ public class BinanceExchangeClient implements ExchangeClient {
     // SIGNATURE
     // =====================================================================
 
-    private String hmac(String data, String secret) {
-        try {
-            Mac m = Mac.getInstance("HmacSHA256");
-            m.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
-            byte[] h = m.doFinal(data.getBytes(StandardCharsets.UTF_8));
-
-            StringBuilder sb = new StringBuilder();
-            for (byte b : h) sb.append(String.format("%02x", b));
-
-            return sb.toString();
-        } catch (Exception e) {
-            throw new RuntimeException("Ошибка подписи Binance", e);
-        }
-    }
-
     private String signedRequest(
             ExchangeSettings s,
             String endpoint,
             Map<String, String> params,
-            HttpMethod method
-    ) throws Exception {
+            HttpMethod method,
+            RequestPriority priority,
+            int weight
+    ) {
 
         params.put("recvWindow", "5000");
-        params.put("timestamp", String.valueOf(System.currentTimeMillis()));
-
-        String query = params.entrySet()
-                .stream()
-                .map(e -> e.getKey() + "=" + e.getValue())
-                .collect(Collectors.joining("&"));
 
-        String sig = hmac(query, s.getApiSecret());
-
-        String full = baseUrl(s.getNetwork()) + endpoint + "?" + query + "&signature=" + sig;
+        String endpointUrl = baseUrl(s.getNetwork()) + endpoint;
 
         HttpHeaders headers = new HttpHeaders();
         headers.set("X-MBX-APIKEY", s.getApiKey());
+        HttpEntity<Void> entity = new HttpEntity<>(null, headers);
 
         try {
-            return rest.exchange(full, method, new HttpEntity<>(null, headers), String.class).getBody();
+            // timestamp и подпись — после места в окне лимита и заново на каждом повторе 429
+            return http.exchange(EXCHANGE, endpointUrl, s.getApiKey(), method, () -> {
+                params.put("timestamp", String.valueOf(System.currentTimeMillis()));
+
+                String query = params.entrySet()
+                        .stream()
+                        .map(e -> e.getKey() + "=" + e.getValue())
+                        .collect(Collectors.joining("&"));
+
+                String sig = HmacSha256.hex(s.getApiSecret(), query);
+                return new ExchangeRequest(endpointUrl + "?" + query + "&signature=" + sig, entity);
+            }, priority, weight).getBody();
         } catch (HttpClientErrorException e) {
             throw new RuntimeException("Binance error: " + e.getResponseBodyAsString());
         }
@@ -185,7 +185,7 @@ public class BinanceExchangeClient implements ExchangeClient {
             p.put("timeInForce", "GTC");
         }
 
-        String r = signedRequest(s, "/api/v3/order", p, HttpMethod.POST);
+        String r = signedRequest(s, "/api/v3/order", p, HttpMethod.POST, RequestPriority.ORDER, W_ORDER);
         JSONObject json = new JSONObject(r);
 
         return new OrderResult(
@@ -236,7 +236,7 @@ public class BinanceExchangeClient implements ExchangeClient {
         p.put("symbol", symbol);
         p.put("orderId", orderId);
 
-        String r = signedRequest(s, "/api/v3/order", p, HttpMethod.DELETE);
+        String r = signedRequest(s, "/api/v3/order", p, HttpMethod.DELETE, RequestPriority.ORDER, W_ORDER);
 
         return r.contains("orderId");
     }
@@ -255,7 +255,8 @@ public class BinanceExchangeClient implements ExchangeClient {
     public Map<String, Balance> getFullBalance(Long chatId, NetworkType network) throws Exception {
 
         ExchangeSettings s = resolve(chatId, network);
-        String body = signedRequest(s, "/api/v3/account", new HashMap<>(), HttpMethod.GET);
+        String body = signedRequest(s, "/api/v3/account", new LinkedHashMap<>(), HttpMethod.GET,
+                RequestPriority.ACCOUNT, W_ACCOUNT);
 
         Map<String, Balance> out = new LinkedHashMap<>();
         JSONArray arr = new JSONObject(body).getJSONArray("balances");
@@ -281,7 +282,7 @@ public class BinanceExchangeClient implements ExchangeClient {
     @Override
     public List<String> getAllSymbols() {
         try {
-            String body = rest.getForObject(MAIN + "/api/v3/exchangeInfo", String.class);
+            String body = http.get(EXCHANGE, MAIN + "/api/v3/exchangeInfo", RequestPriority.MARKET, W_EXCHANGE_INFO);
             JSONArray arr = new JSONObject(body).getJSONArray("symbols");
 
             List<String> list = new ArrayList<>();
@@ -312,23 +313,8 @@ public class BinanceExchangeClient implements ExchangeClient {
         try {
             ExchangeSettings s = resolve(chatId, networkType);
 
-            Map<String, String> params = new LinkedHashMap<>();
-            params.put("timestamp", String.valueOf(System.currentTimeMillis()));
-            params.put("recvWindow", "5000");
-
-            String query = params.entrySet().stream()
-                    .map(e -> e.getKey() + "=" + e.getValue())
-                    .collect(Collectors.joining("&"));
-
-            String sign = hmac(query, s.getApiSecret());
-
-            String url = baseUrl(networkType) + "/api/v3/account"
-                         + "?" + query + "&signature=" + sign;
-
-            HttpHeaders h = new HttpHeaders();
-            h.set("X-MBX-APIKEY", s.getApiKey());
-
-            String body = rest.exchange(url, HttpMethod.GET, new HttpEntity<>(null, h), String.class).getBody();
+            String body = signedRequest(s, "/api/v3/account", new LinkedHashMap<>(), HttpMethod.GET,
+                    RequestPriority.ACCOUNT, W_ACCOUNT);
 
             JSONObject json = new JSONObject(body);
 
@@ -383,7 +369,9 @@ public class BinanceExchangeClient implements ExchangeClient {
                     s,
                     "/api/v3/account",
                     new LinkedHashMap<>(),
-                    HttpMethod.GET
+                    HttpMethod.GET,
+                    RequestPriority.ACCOUNT,
+                    W_ACCOUNT
             );
 
             JSONObject json = new JSONObject(body);
@@ -424,7 +412,7 @@ public class BinanceExchangeClient implements ExchangeClient {
         // =========================================================
         JSONObject info;
         try {
-            String infoBody = getForStringWithRetry(baseUrl + "/api/v3/exchangeInfo", "exchangeInfo");
+            String infoBody = getForStringWithRetry(baseUrl + "/api/v3/exchangeInfo", "exchangeInfo", W_EXCHANGE_INFO);
             if (infoBody == null || infoBody.isBlank()) return List.of();
             info = new JSONObject(infoBody);
         } catch (Exception e) {
@@ -440,7 +428,7 @@ public class BinanceExchangeClient implements ExchangeClient {
         // =========================================================
         Map<String, JSONObject> tickerMap = new HashMap<>();
         try {
-            String tickerBody = getForStringWithRetry(baseUrl + "/api/v3/ticker/24hr", "ticker24h");
+            String tickerBody = getForStringWithRetry(baseUrl + "/api/v3/ticker/24hr", "ticker24h", W_TICKER_24H_ALL);
             if (tickerBody != null && !tickerBody.isBlank()) {
                 JSONArray tickers = new JSONArray(tickerBody);
                 for (int i = 0; i < tickers.length(); i++) {
@@ -599,16 +587,16 @@ public class BinanceExchangeClient implements ExchangeClient {
     }
 
     /**
-     * 1 повтор при сетевой проблеме/таймауте.
+     * 1 повтор при сетевой проблеме/таймауте (429 повторяет сам ExchangeRestClient).
      */
-    private String getForStringWithRetry(String url, String label) {
+    private String getForStringWithRetry(String url, String label, int weight) {
         try {
-            return rest.getForObject(url, String.class);
+            return http.get(EXCHANGE, url, RequestPriority.MARKET, weight);
         } catch (Exception e1) {
             // один повтор
             try {
                 log.warn("⚠️ BINANCE {} failed, retrying once… err={}", label, e1.toString());
-                return rest.getForObject(url, String.class);
+                return http.get(EXCHANGE, url, RequestPriority.MARKET, weight);
             } catch (Exception e2) {
                 throw e2;
             }
@@ -21,8 +21,7 @@ public class BinanceMarketStreamAdapter {
 
     private final MarketStreamRouter router;
     private final MarketStreamService marketStreamService;
-
-    private final OkHttpClient client = new OkHttpClient();
+    private final OkHttpClient client; // ✅ общий клиент (таймауты, симулятор)
     private WebSocket ws;
 
     private final AtomicInteger msgId = new AtomicInteger(1);
@@ -4,6 +4,10 @@ import com.chicu.aitradebot.common.enums.NetworkType;
 import com.chicu.aitradebot.domain.ExchangeSettings;
 import com.chicu.aitradebot.exchange.client.ExchangeClient;
 import com.chicu.aitradebot.exchange.enums.OrderSide;
+import com.chicu.aitradebot.exchange.http.ExchangeRequest;
+import com.chicu.aitradebot.exchange.http.ExchangeRestClient;
+import com.chicu.aitradebot.exchange.http.HmacSha256;
+import com.chicu.aitradebot.exchange.http.RequestPriority;
 import com.chicu.aitradebot.exchange.model.AccountFees;
 import com.chicu.aitradebot.exchange.model.AccountInfo;
 import com.chicu.aitradebot.exchange.model.Order;
@@ -12,13 +16,9 @@ import com.chicu.aitradebot.market.model.SymbolDescriptor;
 import lombok.extern.slf4j.Slf4j;
 import org.json.JSONArray;
 import org.json.JSONObject;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.*;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.net.URLEncoder;
@@ -34,15 +34,20 @@ public class BybitExchangeClient implements ExchangeClient {
     private static final String DEMO = "https://api-demo.bybit.com";
     private static final String RECV_WINDOW = "5000";
 
-    private final RestTemplate rest;
+    private static final String EXCHANGE = "BYBIT";
+
+    // лимит Bybit на IP — число запросов, у каждого вес 1
+    private static final int W_REQUEST = 1;
+
+    private final ExchangeRestClient http;
     private final ExchangeSettingsService settingsService;
 
     public BybitExchangeClient(
             ExchangeSettingsService settingsService,
-            @Qualifier("marketRestTemplate") RestTemplate rest
+            ExchangeRestClient http
     ) {
         this.settingsService = settingsService;
-        this.rest = rest;
+        this.http = http;
         log.info("⚠️ BYBIT: TESTNET работает как DEMO (api-demo.bybit.com)");
     }
 
@@ -52,7 +57,7 @@ public class BybitExchangeClient implements ExchangeClient {
 
     @Override
     public String getExchangeName() {
-        return "BYBIT";
+        return EXCHANGE;
     }
 
     private String baseUrl(NetworkType net) {
@@ -71,7 +76,7 @@ public class BybitExchangeClient implements ExchangeClient {
     public double getPrice(String symbol) {
         try {
             String url = MAIN + "/spot/v3/public/quote/ticker/price?symbol=" + symbol.toUpperCase();
-            JSONObject json = new JSONObject(rest.getForObject(url, String.class));
+            JSONObject json = new JSONObject(http.get(EXCHANGE, url, RequestPriority.MARKET, W_REQUEST));
             return json.getJSONObject("result").optDouble("price", 0);
         } catch (Exception e) {
             log.error("❌ Bybit getPrice: {}", e.getMessage());
@@ -90,7 +95,7 @@ public class BybitExchangeClient implements ExchangeClient {
                          "&interval=" + mapIntervalV5(interval) +
                          "&limit=" + limit;
 
-            JSONObject root = new JSONObject(rest.getForObject(url, String.class));
+            JSONObject root = new JSONObject(http.get(EXCHANGE, url, RequestPriority.MARKET, W_REQUEST));
 
             if (root.optInt("retCode", -1) != 0) {
                 log.warn("⚠️ BYBIT KLINES retCode={} msg={}",
@@ -180,7 +185,7 @@ public class BybitExchangeClient implements ExchangeClient {
         }
 
         JSONObject root = new JSONObject(
-                signed(s, "/spot/v3/private/order", p, HttpMethod.POST)
+                signed(s, "/spot/v3/private/order", p, HttpMethod.POST, RequestPriority.ORDER)
         );
 
         // ✅ фикс: обработка ret_code/ret_msg
@@ -234,7 +239,8 @@ public class BybitExchangeClient implements ExchangeClient {
                 s,
                 "/spot/v3/private/cancel-order",
                 Map.of("symbol", symbol.toUpperCase(), "orderId", orderId),
-                HttpMethod.POST
+                HttpMethod.POST,
+                RequestPriority.ORDER
         );
 
         JSONObject root = new JSONObject(raw);
@@ -266,7 +272,8 @@ public class BybitExchangeClient implements ExchangeClient {
                     s,
                     "/v5/account/wallet-balance",
                     Map.of("accountType", "UNIFIED"),
-                    HttpMethod.GET
+                    HttpMethod.GET,
+                    RequestPriority.ACCOUNT
             );
 
             JSONObject root = new JSONObject(raw);
@@ -331,7 +338,7 @@ public class BybitExchangeClient implements ExchangeClient {
     public List<String> getAllSymbols() {
         try {
             JSONArray arr = new JSONObject(
-                    rest.getForObject(MAIN + "/spot/v3/public/symbols", String.class)
+                    http.get(EXCHANGE, MAIN + "/spot/v3/public/symbols", RequestPriority.MARKET, W_REQUEST)
             ).getJSONObject("result").getJSONArray("list");
 
             List<String> out = new ArrayList<>();
@@ -373,34 +380,35 @@ public class BybitExchangeClient implements ExchangeClient {
             ExchangeSettings s,
             String endpoint,
             Map<String, String> params,
-            HttpMethod method
+            HttpMethod method,
+            RequestPriority priority
     ) {
 
         try {
-            long ts = System.currentTimeMillis();
-
             // ✅ фикс: Bybit подпись = timestamp + apiKey + recvWindow + queryString
             // ВАЖНО: queryString должен быть именно тем, что пойдёт в URL/body (encoded)
             String query = toQuery(params);
-            String preSign = ts + s.getApiKey() + RECV_WINDOW + query;
-
-            HttpHeaders h = new HttpHeaders();
-            h.set("X-BAPI-API-KEY", s.getApiKey());
-            h.set("X-BAPI-SIGN", sign(preSign, s.getApiSecret()));
-            h.set("X-BAPI-TIMESTAMP", String.valueOf(ts));
-            h.set("X-BAPI-RECV-WINDOW", RECV_WINDOW);
-
-            // ✅ фикс: для POST Bybit часто ждёт x-www-form-urlencoded
-            if (method == HttpMethod.POST) {
-                h.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
-            }
-
-            String url = baseUrl(s.getNetwork()) + endpoint +
-                         (method == HttpMethod.GET && !query.isEmpty() ? "?" + query : "");
-
-            HttpEntity<String> entity = new HttpEntity<>(method == HttpMethod.POST ? query : null, h);
+            String endpointUrl = baseUrl(s.getNetwork()) + endpoint;
+            String url = endpointUrl + (method == HttpMethod.GET && !query.isEmpty() ? "?" + query : "");
+
+            // timestamp и подпись — после места в окне лимита и заново на каждом повторе 429
+            return http.exchange(EXCHANGE, endpointUrl, s.getApiKey(), method, () -> {
+                long ts = System.currentTimeMillis();
+                String preSign = ts + s.getApiKey() + RECV_WINDOW + query;
+
+                HttpHeaders h = new HttpHeaders();
+                h.set("X-BAPI-API-KEY", s.getApiKey());
+                h.set("X-BAPI-SIGN", HmacSha256.hex(s.getApiSecret(), preSign));
+                h.set("X-BAPI-TIMESTAMP", String.valueOf(ts));
+                h.set("X-BAPI-RECV-WINDOW", RECV_WINDOW);
+
+                // ✅ фикс: для POST Bybit часто ждёт x-www-form-urlencoded
+                if (method == HttpMethod.POST) {
+                    h.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+                }
 
-            return rest.exchange(url, method, entity, String.class).getBody();
+                return new ExchangeRequest(url, new HttpEntity<>(method == HttpMethod.POST ? query : null, h));
+            }, priority, W_REQUEST).getBody();
 
         } catch (Exception e) {
             throw new RuntimeException("Bybit signed request error", e);
@@ -422,15 +430,6 @@ public class BybitExchangeClient implements ExchangeClient {
         return BigDecimal.valueOf(d).stripTrailingZeros().toPlainString();
     }
 
-    private String sign(String data, String secret) throws Exception {
-        Mac mac = Mac.getInstance("HmacSHA256");
-        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
-        byte[] h = mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
-        StringBuilder sb = new StringBuilder();
-        for (byte b : h) sb.append(String.format("%02x", b));
-        return sb.toString();
-    }
-
     private BigDecimal safeDecimal(Object v) {
         if (v == null) return BigDecimal.ZERO;
 
@@ -463,7 +462,8 @@ public class BybitExchangeClient implements ExchangeClient {
                     s,
                     "/v5/account/fee-rate",
                     params,
-                    HttpMethod.GET
+                    HttpMethod.GET,
+                    RequestPriority.ACCOUNT
             );
 
             JSONObject json = new JSONObject(raw);
@@ -675,15 +675,15 @@ public class BybitExchangeClient implements ExchangeClient {
     }
 
     /**
-     * 1 повтор при сетевой проблеме/таймауте.
+     * 1 повтор при сетевой проблеме/таймауте (429 повторяет сам ExchangeRestClient).
      */
     private String getForStringWithRetry(String url, String label) {
         try {
-            return rest.getForObject(url, String.class);
+            return http.get(EXCHANGE, url, RequestPriority.MARKET, W_REQUEST);
         } catch (Exception e1) {
             try {
                 log.warn("⚠️ {} failed, retrying once… err={}", label, e1.toString());
-                return rest.getForObject(url, String.class);
+                return http.get(EXCHANGE, url, RequestPriority.MARKET, W_REQUEST);
             } catch (Exception e2) {
                 throw e2;
             }
@@ -0,0 +1,59 @@
+package com.chicu.aitradebot.exchange.http;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "exchange.rate-limit")
+public class ExchangeRateLimitProperties {
+
+    /**
+     * Учитывать вес запросов и ответы 429 / 418. false — запросы идут как раньше, без ожиданий.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Binance: лимит веса запросов на IP в минуту (REQUEST_WEIGHT).
+     */
+    private int binanceWeightPerMinute = 6000;
+
+    /**
+     * Binance: лимит новых ордеров за 10 секунд (ORDERS).
+     */
+    private int binanceOrdersPer10s = 100;
+
+    /**
+     * Bybit: лимит запросов на IP за 5 секунд.
+     */
+    private int bybitRequestsPer5s = 600;
+
+    /**
+     * Доля окна, доступная запросам MARKET (остальное — запас под аккаунт и ордера).
+     */
+    private double marketShare = 0.7;
+
+    /**
+     * Доля окна, доступная запросам ACCOUNT (ORDER может выбрать окно целиком).
+     */
+    private double accountShare = 0.9;
+
+    /**
+     * Сколько поток готов ждать места в окне / конца бана, мс. Дольше — запрос отклоняется без похода на биржу.
+     */
+    private long maxWaitMs = 5000;
+
+    /**
+     * Повторов после 429 (запрос биржей не исполнен). 418 (бан IP) не повторяется.
+     */
+    private int maxRetries = 2;
+
+    /**
+     * Пауза после 429 без заголовка Retry-After, сек.
+     */
+    private long defaultRetryAfterSeconds = 1;
+
+    /**
+     * Пауза после 418 без заголовка Retry-After, сек.
+     */
+    private long defaultBanSeconds = 120;
+}
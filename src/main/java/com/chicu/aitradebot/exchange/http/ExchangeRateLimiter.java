@@ -0,0 +1,240 @@
+package com.chicu.aitradebot.exchange.http;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 🚦 Учёт лимитов REST бирж — общий для всех чатов (лимит у биржи на IP, а не на чат).
+ *
+ *  - окна веса — на (биржа, сеть): mainnet и testnet — разные хосты со своими лимитами
+ *  - BINANCE: вес за минуту (X-MBX-USED-WEIGHT-1M) на сеть + новые ордера за 10 секунд
+ *    (X-MBX-ORDER-COUNT-10S) — на аккаунт: счётчик в ответе свой у каждого apiKey
+ *  - BYBIT: запросы на IP за 5 секунд (локальный счёт) + лимит ключа на эндпоинт
+ *    (X-Bapi-Limit-Status / X-Bapi-Limit-Reset-Timestamp)
+ *  - 429 / 418: Retry-After закрывает окно сети для всех потоков
+ *
+ * Класс запроса (RequestPriority) задаёт долю окна: MARKET упирается в лимит первым, ORDER — последним.
+ */
+@Slf4j
+@Component
+public class ExchangeRateLimiter {
+
+    public static final String BINANCE = "BINANCE";
+    public static final String BYBIT = "BYBIT";
+
+    private final ExchangeRateLimitProperties props;
+    private final MeterRegistry registry;
+
+    /** биржа + сеть → вес / запросы на IP */
+    private final Map<String, WeightWindow> networkWindows = new ConcurrentHashMap<>();
+    /** биржа + сеть + apiKey → новые ордера Binance */
+    private final Map<String, WeightWindow> orderWindows = new ConcurrentHashMap<>();
+
+    /** ключ Bybit (apiKey + путь) → до какого момента лимит ключа исчерпан */
+    private final Map<String, Long> bybitKeyBlocked = new ConcurrentHashMap<>();
+
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder backoffs = new LongAdder();
+
+    public ExchangeRateLimiter(ExchangeRateLimitProperties props, MeterRegistry registry) {
+        this.props = props;
+        this.registry = registry;
+
+        FunctionCounter.builder("exchange.ratelimit.throttled", throttled, LongAdder::sum)
+                .description("Exchange REST requests that waited for room in the rate-limit window")
+                .register(registry);
+        FunctionCounter.builder("exchange.ratelimit.rejected", rejected, LongAdder::sum)
+                .description("Exchange REST requests rejected locally instead of hitting the exchange limit")
+                .register(registry);
+        FunctionCounter.builder("exchange.ratelimit.backoffs", backoffs, LongAdder::sum)
+                .description("HTTP 429 / 418 responses from exchanges")
+                .register(registry);
+    }
+
+    // =====================================================
+    // ACQUIRE
+    // =====================================================
+
+    /**
+     * Занять место под запрос; ждёт не дольше maxWaitMs.
+     *
+     * @param order новый ордер (Binance считает их отдельно от веса, на аккаунт)
+     * @throws IllegalStateException место не освободится за maxWaitMs — на биржу запрос не уходит
+     */
+    public void acquire(RateLimitScope scope, RequestPriority priority, int weight, boolean order) {
+        if (!props.isEnabled()) return;
+        String exchange = scope.exchange();
+
+        long deadline = System.currentTimeMillis() + props.getMaxWaitMs();
+        boolean waited = false;
+
+        while (true) {
+            long now = System.currentTimeMillis();
+            long wait = tryAcquire(scope, priority, weight, order, now);
+            if (wait == 0) {
+                if (waited) throttled.increment();
+                return;
+            }
+
+            if (now + wait > deadline) {
+                rejected.increment();
+                throw new IllegalStateException(exchange + " rate limit: " + priority
+                                                + " запрос отклонён, окно освободится через " + wait + " мс");
+            }
+
+            waited = true;
+            try {
+                Thread.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(exchange + " rate limit: ожидание прервано", e);
+            }
+        }
+    }
+
+    private long tryAcquire(RateLimitScope scope, RequestPriority priority, int weight, boolean order, long now) {
+        double share = share(priority);
+        String exchange = scope.exchange();
+
+        if (BINANCE.equals(exchange)) {
+            WeightWindow weights = network(scope);
+            long wait = weights.tryAcquire(weight, share, now);
+            if (wait > 0 || !order) return wait;
+
+            wait = orders(scope).tryAcquire(1, share, now);
+            if (wait > 0) weights.release(weight, now);
+            return wait;
+        }
+
+        if (BYBIT.equals(exchange)) {
+            String keyId = scope.keyId();
+            if (keyId != null) {
+                Long until = bybitKeyBlocked.get(keyId);
+                if (until != null) {
+                    if (now < until) return until - now;
+                    bybitKeyBlocked.remove(keyId, until);
+                }
+            }
+            return network(scope).tryAcquire(weight, share, now);
+        }
+
+        return 0;
+    }
+
+    private double share(RequestPriority priority) {
+        return switch (priority) {
+            case ORDER -> 1.0;
+            case ACCOUNT -> props.getAccountShare();
+            case MARKET -> props.getMarketShare();
+        };
+    }
+
+    // =====================================================
+    // RESPONSE
+    // =====================================================
+
+    /**
+     * Заголовки ответа биржи (и успешного, и ошибки) — фактический расход лимитов.
+     */
+    public void onResponse(RateLimitScope scope, HttpHeaders headers) {
+        if (!props.isEnabled() || headers == null) return;
+        long now = System.currentTimeMillis();
+        String exchange = scope.exchange();
+        String keyId = scope.keyId();
+
+        if (BINANCE.equals(exchange)) {
+            int weight = intHeader(headers, "X-MBX-USED-WEIGHT-1M");
+            if (weight < 0) weight = intHeader(headers, "X-MBX-USED-WEIGHT");
+            if (weight >= 0) network(scope).sync(weight, now);
+
+            // счётчик ордеров — аккаунта, от имени которого был запрос
+            int orders = intHeader(headers, "X-MBX-ORDER-COUNT-10S");
+            if (orders >= 0 && scope.account() != null) orders(scope).sync(orders, now);
+            return;
+        }
+
+        if (BYBIT.equals(exchange) && keyId != null) {
+            int remaining = intHeader(headers, "X-Bapi-Limit-Status");
+            long reset = longHeader(headers, "X-Bapi-Limit-Reset-Timestamp");
+            if (remaining == 0 && reset > now) {
+                bybitKeyBlocked.merge(keyId, reset, Math::max);
+            }
+        }
+    }
+
+    /**
+     * 429 / 418: окно сети биржи закрыто до Retry-After (другая сеть — testnet / mainnet — работает дальше).
+     *
+     * @param retryAfterSec значение Retry-After, ≤ 0 — заголовка нет
+     * @return на сколько мс закрыто окно
+     */
+    public long backoff(RateLimitScope scope, int status, long retryAfterSec) {
+        String exchange = scope.exchange();
+        long sec = retryAfterSec > 0 ? retryAfterSec
+                : status == 418 ? props.getDefaultBanSeconds() : props.getDefaultRetryAfterSeconds();
+        long pauseMs = sec * 1000;
+        long until = System.currentTimeMillis() + pauseMs;
+
+        backoffs.increment();
+        log.warn("⛔ {} ({}) HTTP {} — запросы к бирже на паузе {} с", exchange, scope.network(), status, sec);
+
+        if (!props.isEnabled()) return pauseMs;
+
+        if (BINANCE.equals(exchange) || BYBIT.equals(exchange)) {
+            network(scope).block(until);
+        }
+        return pauseMs;
+    }
+
+    // =====================================================
+    // WINDOWS
+    // =====================================================
+
+    private WeightWindow network(RateLimitScope scope) {
+        return networkWindows.computeIfAbsent(scope.networkKey(), k -> {
+            WeightWindow w = BINANCE.equals(scope.exchange())
+                    ? new WeightWindow(60_000, props.getBinanceWeightPerMinute())
+                    : new WeightWindow(5_000, props.getBybitRequestsPer5s());
+
+            Gauge.builder("exchange.ratelimit.used", w, x -> x.used(System.currentTimeMillis()))
+                    .tag("exchange", scope.exchange())
+                    .tag("network", scope.network())
+                    .description("Request weight used in the current exchange window")
+                    .register(registry);
+            return w;
+        });
+    }
+
+    private WeightWindow orders(RateLimitScope scope) {
+        return orderWindows.computeIfAbsent(scope.accountKey(),
+                k -> new WeightWindow(10_000, props.getBinanceOrdersPer10s()));
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    private static int intHeader(HttpHeaders h, String name) {
+        long v = longHeader(h, name);
+        return v >= 0 && v <= Integer.MAX_VALUE ? (int) v : -1;
+    }
+
+    private static long longHeader(HttpHeaders h, String name) {
+        String v = h.getFirst(name);
+        if (v == null || v.isBlank()) return -1;
+        try {
+            return Long.parseLong(v.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
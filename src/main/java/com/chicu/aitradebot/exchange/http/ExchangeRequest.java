@@ -0,0 +1,10 @@
+package com.chicu.aitradebot.exchange.http;
+
+import org.springframework.http.HttpEntity;
+
+/**
+ * ✍️ Готовый к отправке запрос: URL (с подписью в query у Binance) и тело / заголовки.
+ * Подписанные запросы строятся заново на каждую попытку — см. ExchangeRestClient.exchange(..., Supplier, ...).
+ */
+public record ExchangeRequest(String url, HttpEntity<?> entity) {
+}
@@ -0,0 +1,150 @@
+package com.chicu.aitradebot.exchange.http;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Supplier;
+
+/**
+ * 🌐 Общий REST-слой бирж поверх marketRestTemplate: каждый запрос проходит через ExchangeRateLimiter.
+ *
+ *  - до запроса — место в окне биржи по весу и классу запроса
+ *  - после — заголовки расхода лимитов
+ *  - 429 — пауза Retry-After и повтор (запрос биржей не исполнен), 418 — пауза без повтора
+ *  - подписанный запрос (timestamp + подпись) собирается ПОСЛЕ места в окне и заново на каждом повторе:
+ *    ожидание лимитера и пауза 429 не съедают recvWindow (-1021 у Binance)
+ */
+@Slf4j
+@Component
+public class ExchangeRestClient {
+
+    private final RestTemplate rest;
+    private final ExchangeRateLimiter limiter;
+    private final ExchangeRateLimitProperties props;
+
+    public ExchangeRestClient(@Qualifier("marketRestTemplate") RestTemplate rest,
+                              ExchangeRateLimiter limiter,
+                              ExchangeRateLimitProperties props) {
+        this.rest = rest;
+        this.limiter = limiter;
+        this.props = props;
+    }
+
+    /**
+     * Публичный GET.
+     */
+    public String get(String exchange, String url, RequestPriority priority, int weight) {
+        return exchange(exchange, url, HttpMethod.GET, null, priority, weight).getBody();
+    }
+
+    /**
+     * @param weight вес запроса по документации биржи (Bybit — 1)
+     */
+    public ResponseEntity<String> exchange(String exchange,
+                                           String url,
+                                           HttpMethod method,
+                                           HttpEntity<?> entity,
+                                           RequestPriority priority,
+                                           int weight) {
+        ExchangeRequest request = new ExchangeRequest(url, entity);
+        return exchange(exchange, url, apiKey(exchange, entity), method, () -> request, priority, weight);
+    }
+
+    /**
+     * Подписанный запрос: request вызывается после acquire на каждой попытке.
+     *
+     * @param scopeUrl URL эндпоинта без query — по нему выбирается окно лимита (хост, путь у Bybit)
+     * @param apiKey   ключ аккаунта (окно ордеров), null — публичный запрос
+     */
+    public ResponseEntity<String> exchange(String exchange,
+                                           String scopeUrl,
+                                           String apiKey,
+                                           HttpMethod method,
+                                           Supplier<ExchangeRequest> request,
+                                           RequestPriority priority,
+                                           int weight) {
+
+        boolean order = priority == RequestPriority.ORDER && method == HttpMethod.POST;
+        RateLimitScope scope = RateLimitScope.of(exchange, scopeUrl, apiKey, keyId(exchange, scopeUrl, apiKey));
+
+        for (int attempt = 0; ; attempt++) {
+            limiter.acquire(scope, priority, weight, order);
+            ExchangeRequest req = request.get();
+
+            try {
+                ResponseEntity<String> r = rest.exchange(req.url(), method, req.entity(), String.class);
+                limiter.onResponse(scope, r.getHeaders());
+                return r;
+
+            } catch (HttpStatusCodeException e) {
+                limiter.onResponse(scope, e.getResponseHeaders());
+
+                int status = e.getStatusCode().value();
+                if (status != 429 && status != 418) throw e;
+
+                long pauseMs = limiter.backoff(scope, status, retryAfterSeconds(e.getResponseHeaders()));
+                if (status == 418 || attempt >= props.getMaxRetries() || pauseMs > props.getMaxWaitMs()) throw e;
+
+                log.info("🔁 {} {} {} повтор {} после 429", exchange, priority, method, attempt + 1);
+            }
+        }
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    /**
+     * apiKey подписанного запроса (аккаунт), null — публичный.
+     */
+    private static String apiKey(String exchange, HttpEntity<?> entity) {
+        if (entity == null) return null;
+        return entity.getHeaders().getFirst(
+                ExchangeRateLimiter.BYBIT.equals(exchange) ? "X-BAPI-API-KEY" : "X-MBX-APIKEY");
+    }
+
+    /**
+     * Bybit лимитирует ключ на каждом эндпоинте отдельно.
+     */
+    private static String keyId(String exchange, String url, String apiKey) {
+        if (!ExchangeRateLimiter.BYBIT.equals(exchange) || apiKey == null) return null;
+
+        try {
+            return apiKey + " " + URI.create(url).getPath();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Retry-After: секунды или HTTP-дата. ≤ 0 — заголовка нет.
+     */
+    static long retryAfterSeconds(HttpHeaders headers) {
+        if (headers == null) return -1;
+        String v = headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (v == null || v.isBlank()) return -1;
+
+        try {
+            return Long.parseLong(v.trim());
+        } catch (NumberFormatException ignored) {
+        }
+
+        try {
+            ZonedDateTime at = ZonedDateTime.parse(v.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(1, Duration.between(ZonedDateTime.now(at.getZone()), at).toSeconds());
+        } catch (Exception ignored) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.chicu.aitradebot.exchange.http;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+
+/**
+ * 🔏 HMAC-SHA256 подпись запросов бирж.
+ *
+ * Mac.getInstance — поиск провайдера на каждый запрос; здесь Mac один на поток и
+ * переинициализируется только при смене секрета (поток warmup / стратегии обычно подписывает одним ключом).
+ */
+public final class HmacSha256 {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final ThreadLocal<Signer> SIGNER = ThreadLocal.withInitial(Signer::new);
+
+    private HmacSha256() {
+    }
+
+    /**
+     * @return подпись data ключом secret в hex (нижний регистр)
+     */
+    public static String hex(String secret, String data) {
+        if (secret == null) throw new IllegalStateException("HMAC: секрет API не задан");
+        return SIGNER.get().sign(secret, data);
+    }
+
+    private static final class Signer {
+
+        private final Mac mac;
+        private String secret;
+
+        Signer() {
+            try {
+                mac = Mac.getInstance("HmacSHA256");
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 недоступен", e);
+            }
+        }
+
+        String sign(String secret, String data) {
+            try {
+                if (!secret.equals(this.secret)) {
+                    mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+                    this.secret = secret;
+                }
+                return toHex(mac.doFinal(data.getBytes(StandardCharsets.UTF_8)));
+            } catch (GeneralSecurityException e) {
+                this.secret = null;
+                throw new IllegalStateException("Ошибка HMAC-подписи", e);
+            }
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] out = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            out[2 * i] = HEX[(bytes[i] >> 4) & 0xF];
+            out[2 * i + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(out);
+    }
+}
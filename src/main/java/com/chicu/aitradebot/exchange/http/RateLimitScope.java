@@ -0,0 +1,41 @@
+package com.chicu.aitradebot.exchange.http;
+
+import java.net.URI;
+import java.util.Locale;
+
+/**
+ * 🏷 К какому окну лимита относится запрос.
+ *
+ *  - network — хост биржи: у mainnet и testnet свои лимиты на IP, бан одного не трогает другой
+ *  - account — apiKey (счётчик ордеров Binance ведётся на аккаунт), null — публичный запрос
+ *  - keyId — Bybit: apiKey + путь эндпоинта (лимит ключа), иначе null
+ */
+public record RateLimitScope(String exchange, String network, String account, String keyId) {
+
+    public static RateLimitScope of(String exchange, String url, String account, String keyId) {
+        return new RateLimitScope(exchange, host(url), account, keyId);
+    }
+
+    /**
+     * Окно веса / запросов на IP.
+     */
+    String networkKey() {
+        return exchange + " " + network;
+    }
+
+    /**
+     * Окно ордеров аккаунта.
+     */
+    String accountKey() {
+        return exchange + " " + network + " " + (account != null ? account : "");
+    }
+
+    private static String host(String url) {
+        try {
+            String h = URI.create(url).getHost();
+            if (h != null) return h.toLowerCase(Locale.ROOT);
+        } catch (IllegalArgumentException ignored) {
+        }
+        return "";
+    }
+}
@@ -0,0 +1,19 @@
+package com.chicu.aitradebot.exchange.http;
+
+/**
+ * 🚦 Класс запроса к бирже: чем ниже класс, тем раньше он упирается в лимит.
+ *
+ * Часть лимита окна держится в запасе под старшие классы — поток свечей и тикеров
+ * не может выбрать вес, нужный для ордеров.
+ */
+public enum RequestPriority {
+
+    /** выставление / отмена ордеров */
+    ORDER,
+
+    /** балансы, комиссии, аккаунт */
+    ACCOUNT,
+
+    /** свечи, тикеры, exchangeInfo, стакан */
+    MARKET
+}
@@ -0,0 +1,80 @@
+package com.chicu.aitradebot.exchange.http;
+
+/**
+ * 🪣 Лимит биржи как корзина веса, которая пополняется целиком на границе окна
+ * (окна бирж выровнены по времени: Binance считает вес за календарную минуту).
+ *
+ * Локальный счёт ведётся до запроса, заголовки ответа (сколько биржа насчитала на самом деле)
+ * поднимают его — запросы других процессов с того же IP тоже учитываются.
+ */
+final class WeightWindow {
+
+    private final long windowMs;
+    private final int capacity;
+
+    private long windowStart;
+    private int used;
+    private long blockedUntil;
+
+    WeightWindow(long windowMs, int capacity) {
+        this.windowMs = windowMs;
+        this.capacity = capacity;
+    }
+
+    /**
+     * @param share доля окна, доступная классу запроса
+     * @return 0 — вес списан, иначе сколько мс ждать до следующей попытки
+     */
+    synchronized long tryAcquire(int weight, double share, long now) {
+        if (now < blockedUntil) return blockedUntil - now;
+        roll(now);
+
+        // запрос тяжелее доли класса всё равно проходит в пустом окне, иначе он не пройдёт никогда
+        int limit = (int) (capacity * share);
+        if (used + weight <= limit || used == 0) {
+            used += weight;
+            return 0;
+        }
+        return windowStart + windowMs - now;
+    }
+
+    /**
+     * Вернуть вес, если запрос так и не ушёл (не прошла вторая корзина).
+     */
+    synchronized void release(int weight, long now) {
+        roll(now);
+        used = Math.max(0, used - weight);
+    }
+
+    /**
+     * Вес окна по версии биржи (заголовок ответа).
+     */
+    synchronized void sync(int serverUsed, long now) {
+        roll(now);
+        if (serverUsed > used) used = serverUsed;
+    }
+
+    /**
+     * Retry-After / бан: до этого момента окно закрыто для всех классов.
+     */
+    synchronized void block(long until) {
+        if (until > blockedUntil) blockedUntil = until;
+    }
+
+    synchronized int used(long now) {
+        roll(now);
+        return used;
+    }
+
+    synchronized boolean blocked(long now) {
+        return now < blockedUntil;
+    }
+
+    private void roll(long now) {
+        long start = now - Math.floorMod(now, windowMs);
+        if (start > windowStart) {
+            windowStart = start;
+            used = 0;
+        }
+    }
+}
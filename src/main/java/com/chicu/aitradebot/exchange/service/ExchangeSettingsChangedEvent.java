@@ -0,0 +1,26 @@
+package com.chicu.aitradebot.exchange.service;
+
+import com.chicu.aitradebot.common.enums.NetworkType;
+
+/**
+ * 🔔 Изменились настройки биржи чата (публикует ExchangeSettingsService).
+ *
+ * ❗ Слушатели кэшей должны сбрасывать ВСЁ по chatId, а не только (exchange, network):
+ *    активная связка чата выбирается из списка строк, и новая/удалённая строка может её сменить.
+ */
+public record ExchangeSettingsChangedEvent(
+        long chatId,
+        String exchange,
+        NetworkType network,
+        Change change
+) {
+
+    public enum Change {
+        /** создана новая строка (chatId, exchange, network) */
+        CREATED,
+        /** обновлены ключи / passphrase / subAccount */
+        KEYS,
+        /** строка удалена */
+        DELETED
+    }
+}
@@ -2,21 +2,22 @@ package com.chicu.aitradebot.exchange.service.impl;
 
 import com.chicu.aitradebot.common.enums.NetworkType;
 import com.chicu.aitradebot.domain.ExchangeSettings;
+import com.chicu.aitradebot.exchange.http.HmacSha256;
 import com.chicu.aitradebot.exchange.model.ApiKeyDiagnostics;
 import com.chicu.aitradebot.exchange.repository.ExchangeSettingsRepository;
+import com.chicu.aitradebot.exchange.service.ExchangeSettingsChangedEvent;
+import com.chicu.aitradebot.exchange.service.ExchangeSettingsChangedEvent.Change;
 import com.chicu.aitradebot.exchange.service.ExchangeSettingsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.json.JSONObject;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
@@ -27,6 +28,9 @@ public class ExchangeSettingsServiceImpl implements ExchangeSettingsService {
 
     private final ExchangeSettingsRepository repository;
 
+    // 🔔 кэши контекстов исполнения / приватные потоки сбрасываются по этим событиям
+    private final ApplicationEventPublisher events;
+
     // Лучше бы инжектить как @Bean, но оставляю как у тебя (минимум изменений)
     private final RestTemplate restTemplate = new RestTemplate();
 
@@ -50,6 +54,7 @@ public class ExchangeSettingsServiceImpl implements ExchangeSettingsService {
 
                     ExchangeSettings saved = repository.save(s);
                     log.info("🆕 Созданы ExchangeSettings {}@{} (chatId={})", ex, network, chatId);
+                    events.publishEvent(new ExchangeSettingsChangedEvent(chatId, ex, network, Change.CREATED));
                     return saved;
                 });
     }
@@ -81,6 +86,7 @@ public class ExchangeSettingsServiceImpl implements ExchangeSettingsService {
         log.info("🔐 Keys saved {}@{} (chatId={}, hasBaseKeys={}, hasAnySecret={})",
                 ex, network, chatId, saved.hasBaseKeys(), saved.hasAnySecret());
 
+        events.publishEvent(new ExchangeSettingsChangedEvent(chatId, ex, network, Change.KEYS));
         return saved;
     }
 
@@ -94,6 +100,7 @@ public class ExchangeSettingsServiceImpl implements ExchangeSettingsService {
     public void delete(Long chatId, String exchange, NetworkType network) {
         repository.deleteByChatIdAndExchangeAndNetwork(chatId, normalizeExchange(exchange), network);
         log.warn("🗑 Deleted ExchangeSettings {}@{} (chatId={})", exchange, network, chatId);
+        events.publishEvent(new ExchangeSettingsChangedEvent(chatId, normalizeExchange(exchange), network, Change.DELETED));
     }
 
     @Override
@@ -371,16 +378,6 @@ public class ExchangeSettingsServiceImpl implements ExchangeSettingsService {
     }
 
     private String hmacSha256(String data, String secret) {
-        try {
-            Mac mac = Mac.getInstance("HmacSHA256");
-            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
-            byte[] h = mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
-
-            StringBuilder sb = new StringBuilder();
-            for (byte b : h) sb.append(String.format("%02x", b));
-            return sb.toString();
-        } catch (Exception e) {
-            throw new RuntimeException("HMAC-SHA256 error", e);
-        }
+        return HmacSha256.hex(secret, data);
     }
 }
@@ -0,0 +1,89 @@
+package com.chicu.aitradebot.exchange.sim;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "exchange.sim")
+public class ExchangeSimProperties {
+
+    /**
+     * Включить локальный симулятор бирж: /sim/binance/** и /sim/bybit/** в этом же приложении,
+     * а все запросы клиентов к api/stream хостам Binance/Bybit перенаправляются на него.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Где доступен симулятор (обычно это же приложение).
+     */
+    private String baseUrl = "http://localhost:8080";
+
+    /**
+     * Символы симулятора (exchangeInfo / instruments-info).
+     */
+    private List<String> symbols = List.of("BTCUSDT", "ETHUSDT", "SOLUSDT", "BNBUSDT");
+
+    /**
+     * Источник цен: synthetic (случайное блуждание с seed) | ticks (записанный день MmapTickRecorder, по кругу).
+     */
+    private String source = "synthetic";
+
+    /**
+     * День архива тиков (yyyy-MM-dd) для source=ticks.
+     */
+    private String recordedDay;
+
+    private long seed = 42L;
+
+    /**
+     * Стартовая цена синтетических символов.
+     */
+    private double startPrice = 100.0;
+
+    /**
+     * Волатильность синтетического шага (б.п. на тик, сигма).
+     */
+    private double volatilityBps = 5.0;
+
+    /**
+     * Период генерации тиков (мс).
+     */
+    private long tickIntervalMs = 100L;
+
+    /**
+     * Сколько минутных свечей истории сгенерировать на старте (для /klines).
+     */
+    private int historyMinutes = 3_000;
+
+    /**
+     * Полуспред вершины стакана (б.п.) и число уровней стакана на сторону.
+     */
+    private double halfSpreadBps = 1.0;
+    private int depthLevels = 20;
+
+    /**
+     * Стартовый баланс в USDT и комиссия taker/maker (доля, 0.001 = 0.1%).
+     */
+    private double startBalanceUsdt = 10_000.0;
+    private double takerFee = 0.001;
+    private double makerFee = 0.001;
+
+    /**
+     * Задержка ответа REST и кадров WS: latencyMs + равномерный шум [0, latencyJitterMs).
+     */
+    private long latencyMs = 0L;
+    private long latencyJitterMs = 0L;
+
+    /**
+     * Разрывать все WS каждые N секунд (0 — не разрывать).
+     */
+    private long disconnectEverySec = 0L;
+
+    /**
+     * Лимит REST-веса в минуту (0 — без лимита). Превышение → 429 + Retry-After,
+     * как у Binance (X-MBX-USED-WEIGHT-1M) и Bybit (retCode 10006).
+     */
+    private int restWeightPerMinute = 0;
+}
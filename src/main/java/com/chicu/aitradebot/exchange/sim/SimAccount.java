@@ -0,0 +1,208 @@
+package com.chicu.aitradebot.exchange.sim;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 💼 Единый счёт симулятора (один на все чаты и обе биржи — ключи API не проверяются).
+ *
+ * ❗ Правила:
+ *  - MARKET исполняется сразу по вершине стакана SimMarket (BUY — ask, SELL — bid), taker fee
+ *  - LIMIT блокирует средства и исполняется по своей цене, когда тик её пересёк, maker fee
+ *  - комиссия списывается с получаемого актива (как на Binance без BNB)
+ *  - нехватка средств → SimRejected (контроллеры отдают биржевой код ошибки)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "exchange.sim", name = "enabled", havingValue = "true")
+public class SimAccount {
+
+    private static final String[] QUOTES = {"USDT", "USDC", "FDUSD", "BTC", "ETH"};
+
+    public record SimOrder(long orderId,
+                           String symbol,
+                           String side,
+                           String type,
+                           double qty,
+                           double price,
+                           String status,
+                           double executedQty,
+                           double avgPrice,
+                           long time) {
+    }
+
+    public static class SimRejected extends RuntimeException {
+        public SimRejected(String message) {
+            super(message);
+        }
+    }
+
+    private final ExchangeSimProperties props;
+    private final SimMarket market;
+
+    /** asset → [free, locked] */
+    private final Map<String, double[]> balances = new TreeMap<>();
+    private final Map<Long, SimOrder> openOrders = new LinkedHashMap<>();
+    private long nextOrderId = 1;
+
+    public SimAccount(ExchangeSimProperties props, SimMarket market) {
+        this.props = props;
+        this.market = market;
+        balances.put("USDT", new double[]{props.getStartBalanceUsdt(), 0});
+        market.addListener(this::onTick);
+    }
+
+    // =====================================================
+    // ORDERS
+    // =====================================================
+
+    public synchronized SimOrder place(String symbol, String side, String type, double qty, Double limitPrice) {
+        String sym = SimMarket.norm(symbol);
+        if (!market.has(sym)) throw new SimRejected("Invalid symbol.");
+        if (!(qty > 0)) throw new SimRejected("Invalid quantity.");
+
+        boolean buy = "BUY".equalsIgnoreCase(side);
+        String base = baseOf(sym);
+        String quote = quoteOf(sym);
+        long now = System.currentTimeMillis();
+
+        if ("LIMIT".equalsIgnoreCase(type)) {
+            if (limitPrice == null || !(limitPrice > 0)) throw new SimRejected("Invalid price.");
+
+            lock(buy ? quote : base, buy ? qty * limitPrice : qty);
+            SimOrder o = new SimOrder(nextOrderId++, sym, buy ? "BUY" : "SELL", "LIMIT", qty, limitPrice,
+                    "NEW", 0, 0, now);
+            openOrders.put(o.orderId(), o);
+            return o;
+        }
+
+        double[] top = market.top(sym);
+        double px = buy ? top[2] : top[0];
+
+        if (buy) {
+            debit(quote, qty * px);
+            credit(base, qty * (1 - props.getTakerFee()));
+        } else {
+            debit(base, qty);
+            credit(quote, qty * px * (1 - props.getTakerFee()));
+        }
+
+        return new SimOrder(nextOrderId++, sym, buy ? "BUY" : "SELL", "MARKET", qty, 0, "FILLED", qty, px, now);
+    }
+
+    public synchronized SimOrder cancel(String symbol, long orderId) {
+        SimOrder o = openOrders.get(orderId);
+        if (o == null || !o.symbol().equals(SimMarket.norm(symbol))) {
+            throw new SimRejected("Unknown order sent.");
+        }
+        openOrders.remove(orderId);
+
+        boolean buy = "BUY".equals(o.side());
+        unlock(buy ? quoteOf(o.symbol()) : baseOf(o.symbol()), buy ? o.qty() * o.price() : o.qty());
+
+        return new SimOrder(o.orderId(), o.symbol(), o.side(), o.type(), o.qty(), o.price(),
+                "CANCELED", 0, 0, o.time());
+    }
+
+    public synchronized Map<String, double[]> balances() {
+        Map<String, double[]> out = new LinkedHashMap<>();
+        balances.forEach((k, v) -> out.put(k, v.clone()));
+        return out;
+    }
+
+    public synchronized List<SimOrder> openOrders() {
+        return new ArrayList<>(openOrders.values());
+    }
+
+    /**
+     * Taker-комиссия в б.п. (Binance /account отдаёт takerCommission в этих единицах).
+     */
+    public double takerBps() {
+        return props.getTakerFee() * 10_000.0;
+    }
+
+    public double makerBps() {
+        return props.getMakerFee() * 10_000.0;
+    }
+
+    // =====================================================
+    // LIMIT MATCHING
+    // =====================================================
+
+    private synchronized void onTick(SimMarket.SimTick t) {
+        if (openOrders.isEmpty()) return;
+
+        Iterator<SimOrder> it = openOrders.values().iterator();
+        while (it.hasNext()) {
+            SimOrder o = it.next();
+            if (!o.symbol().equals(t.symbol())) continue;
+
+            boolean buy = "BUY".equals(o.side());
+            boolean crossed = buy ? t.price() <= o.price() : t.price() >= o.price();
+            if (!crossed) continue;
+
+            it.remove();
+            String base = baseOf(o.symbol());
+            String quote = quoteOf(o.symbol());
+
+            if (buy) {
+                balance(quote)[1] -= o.qty() * o.price();
+                credit(base, o.qty() * (1 - props.getMakerFee()));
+            } else {
+                balance(base)[1] -= o.qty();
+                credit(quote, o.qty() * o.price() * (1 - props.getMakerFee()));
+            }
+            log.debug("🧪 SIM LIMIT filled #{} {} {} {} @ {}", o.orderId(), o.symbol(), o.side(), o.qty(), o.price());
+        }
+    }
+
+    // =====================================================
+    // BALANCES
+    // =====================================================
+
+    private double[] balance(String asset) {
+        return balances.computeIfAbsent(asset, k -> new double[2]);
+    }
+
+    private void debit(String asset, double amount) {
+        double[] b = balance(asset);
+        if (b[0] + 1e-12 < amount) throw new SimRejected("Account has insufficient balance for requested action.");
+        b[0] -= amount;
+    }
+
+    private void credit(String asset, double amount) {
+        balance(asset)[0] += amount;
+    }
+
+    private void lock(String asset, double amount) {
+        debit(asset, amount);
+        balance(asset)[1] += amount;
+    }
+
+    private void unlock(String asset, double amount) {
+        double[] b = balance(asset);
+        b[1] -= amount;
+        b[0] += amount;
+    }
+
+    static String baseOf(String symbol) {
+        for (String q : QUOTES) {
+            if (symbol.endsWith(q) && symbol.length() > q.length()) {
+                return symbol.substring(0, symbol.length() - q.length());
+            }
+        }
+        return symbol;
+    }
+
+    static String quoteOf(String symbol) {
+        return symbol.substring(baseOf(symbol).length());
+    }
+}
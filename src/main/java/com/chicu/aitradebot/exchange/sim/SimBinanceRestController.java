@@ -0,0 +1,262 @@
+package com.chicu.aitradebot.exchange.sim;
+
+import com.chicu.aitradebot.common.util.TimeframeUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 🧪 Binance SPOT REST (подмножество, которое использует бот) поверх SimMarket / SimAccount.
+ *
+ * Подписи и ключи не проверяются. Ошибки — в формате Binance {"code":..,"msg":..}.
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/sim/binance")
+@ConditionalOnProperty(prefix = "exchange.sim", name = "enabled", havingValue = "true")
+public class SimBinanceRestController {
+
+    private final SimMarket market;
+    private final SimAccount account;
+    private final SimFaults faults;
+
+    // =====================================================
+    // MARKET DATA
+    // =====================================================
+
+    @GetMapping("/api/v3/ping")
+    public ResponseEntity<Object> ping() {
+        return respond(1, Map::of);
+    }
+
+    @GetMapping("/api/v3/time")
+    public ResponseEntity<Object> time() {
+        return respond(1, () -> Map.of("serverTime", System.currentTimeMillis()));
+    }
+
+    @GetMapping("/api/v3/klines")
+    public ResponseEntity<Object> klines(@RequestParam String symbol,
+                                         @RequestParam String interval,
+                                         @RequestParam(defaultValue = "500") int limit,
+                                         @RequestParam(required = false) Long startTime,
+                                         @RequestParam(required = false) Long endTime) {
+        return respond(2, () -> {
+            requireSymbol(symbol);
+            long tf = TimeframeUtils.toMillis(interval);
+
+            List<List<Object>> out = new ArrayList<>();
+            for (double[] k : market.klines(symbol, tf, startTime != null ? startTime : 0,
+                    endTime != null ? endTime : 0, Math.min(Math.max(1, limit), 1000))) {
+                long open = (long) k[0];
+                out.add(List.of(open, market.px(symbol, k[1]), market.px(symbol, k[2]), market.px(symbol, k[3]),
+                        market.px(symbol, k[4]), SimMarket.qty(k[5]), open + tf - 1,
+                        SimMarket.qty(k[5] * k[4]), 0, "0", "0", "0"));
+            }
+            return out;
+        });
+    }
+
+    @GetMapping("/api/v3/ticker/price")
+    public ResponseEntity<Object> tickerPrice(@RequestParam String symbol) {
+        return respond(2, () -> {
+            requireSymbol(symbol);
+            return Map.of("symbol", SimMarket.norm(symbol), "price", market.px(symbol, market.price(symbol)));
+        });
+    }
+
+    @GetMapping("/api/v3/ticker/24hr")
+    public ResponseEntity<Object> ticker24h(@RequestParam(required = false) String symbol) {
+        if (symbol != null) {
+            return respond(2, () -> {
+                requireSymbol(symbol);
+                return ticker(SimMarket.norm(symbol));
+            });
+        }
+        return respond(80, () -> market.symbols().stream().map(this::ticker).toList());
+    }
+
+    @GetMapping("/api/v3/depth")
+    public ResponseEntity<Object> depth(@RequestParam String symbol,
+                                        @RequestParam(defaultValue = "100") int limit) {
+        return respond(limit <= 100 ? 5 : 25, () -> {
+            requireSymbol(symbol);
+            SimMarket.Depth d = market.depth(symbol, limit);
+
+            Map<String, Object> out = new LinkedHashMap<>();
+            out.put("lastUpdateId", d.lastUpdateId());
+            out.put("bids", levels(symbol, d.bids()));
+            out.put("asks", levels(symbol, d.asks()));
+            return out;
+        });
+    }
+
+    @GetMapping("/api/v3/exchangeInfo")
+    public ResponseEntity<Object> exchangeInfo() {
+        return respond(20, () -> {
+            List<Map<String, Object>> symbols = new ArrayList<>();
+            for (String s : market.symbols()) {
+                String tick = market.px(s, market.tickSize(s));
+
+                Map<String, Object> o = new LinkedHashMap<>();
+                o.put("symbol", s);
+                o.put("status", "TRADING");
+                o.put("baseAsset", SimAccount.baseOf(s));
+                o.put("quoteAsset", SimAccount.quoteOf(s));
+                o.put("isSpotTradingAllowed", true);
+                o.put("permissions", List.of("SPOT"));
+                o.put("filters", List.of(
+                        Map.of("filterType", "PRICE_FILTER", "tickSize", tick, "minPrice", tick, "maxPrice", "1000000"),
+                        Map.of("filterType", "LOT_SIZE", "stepSize", "0.00001", "minQty", "0.00001", "maxQty", "9000"),
+                        Map.of("filterType", "NOTIONAL", "minNotional", "5"),
+                        Map.of("filterType", "MIN_NOTIONAL", "minNotional", "5"),
+                        Map.of("filterType", "MAX_NUM_ORDERS", "maxNumOrders", 200)
+                ));
+                symbols.add(o);
+            }
+
+            Map<String, Object> out = new LinkedHashMap<>();
+            out.put("timezone", "UTC");
+            out.put("serverTime", System.currentTimeMillis());
+            out.put("symbols", symbols);
+            return out;
+        });
+    }
+
+    // =====================================================
+    // ACCOUNT / ORDERS
+    // =====================================================
+
+    @GetMapping("/api/v3/account")
+    public ResponseEntity<Object> account() {
+        return respond(20, () -> {
+            int bps = (int) Math.round(account.takerBps());
+
+            List<Map<String, Object>> balances = new ArrayList<>();
+            account.balances().forEach((asset, b) -> balances.add(Map.of(
+                    "asset", asset, "free", SimMarket.qty(b[0]), "locked", SimMarket.qty(b[1]))));
+
+            Map<String, Object> out = new LinkedHashMap<>();
+            out.put("makerCommission", bps);
+            out.put("takerCommission", bps);
+            out.put("canTrade", true);
+            out.put("accountType", "SPOT");
+            out.put("balances", balances);
+            return out;
+        });
+    }
+
+    @PostMapping("/api/v3/order")
+    public ResponseEntity<Object> placeOrder(@RequestParam String symbol,
+                                             @RequestParam String side,
+                                             @RequestParam String type,
+                                             @RequestParam double quantity,
+                                             @RequestParam(required = false) Double price) {
+        return respond(1, () -> order(account.place(symbol, side, type, quantity, price)));
+    }
+
+    @DeleteMapping("/api/v3/order")
+    public ResponseEntity<Object> cancelOrder(@RequestParam String symbol,
+                                              @RequestParam long orderId) {
+        return respond(1, () -> order(account.cancel(symbol, orderId)));
+    }
+
+    // =====================================================
+    // helpers
+    // =====================================================
+
+    private Map<String, Object> ticker(String s) {
+        double last = market.price(s);
+        double[] st = market.stats24h(s);
+        double[] top = market.top(s);
+
+        Map<String, Object> t = new LinkedHashMap<>();
+        t.put("symbol", s);
+        t.put("lastPrice", market.px(s, last));
+        t.put("openPrice", market.px(s, st[0]));
+        t.put("highPrice", market.px(s, st[1]));
+        t.put("lowPrice", market.px(s, st[2]));
+        t.put("bidPrice", market.px(s, top[0]));
+        t.put("askPrice", market.px(s, top[2]));
+        t.put("priceChange", market.px(s, last - st[0]));
+        t.put("priceChangePercent", String.format(java.util.Locale.ROOT, "%.3f", (last - st[0]) / st[0] * 100.0));
+        t.put("volume", SimMarket.qty(st[3]));
+        t.put("quoteVolume", SimMarket.qty(st[4]));
+        return t;
+    }
+
+    private Map<String, Object> order(SimAccount.SimOrder o) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("symbol", o.symbol());
+        out.put("orderId", o.orderId());
+        out.put("clientOrderId", "sim-" + o.orderId());
+        out.put("transactTime", o.time());
+        out.put("price", market.px(o.symbol(), o.price()));
+        out.put("origQty", SimMarket.qty(o.qty()));
+        out.put("executedQty", SimMarket.qty(o.executedQty()));
+        out.put("cummulativeQuoteQty", SimMarket.qty(o.executedQty() * o.avgPrice()));
+        out.put("status", o.status());
+        out.put("timeInForce", "GTC");
+        out.put("type", o.type());
+        out.put("side", o.side());
+
+        if (o.executedQty() > 0) {
+            out.put("fills", List.of(Map.of(
+                    "price", market.px(o.symbol(), o.avgPrice()),
+                    "qty", SimMarket.qty(o.executedQty()),
+                    "commission", SimMarket.qty(o.executedQty() * account.takerBps() / 10_000.0),
+                    "commissionAsset", "BUY".equals(o.side()) ? SimAccount.baseOf(o.symbol()) : SimAccount.quoteOf(o.symbol())
+            )));
+        } else {
+            out.put("fills", List.of());
+        }
+        return out;
+    }
+
+    private List<List<String>> levels(String symbol, double[] lv) {
+        List<List<String>> out = new ArrayList<>(lv.length / 2);
+        for (int i = 0; i + 1 < lv.length; i += 2) {
+            out.add(List.of(market.px(symbol, lv[i]), SimMarket.qty(lv[i + 1])));
+        }
+        return out;
+    }
+
+    private void requireSymbol(String symbol) {
+        if (!market.has(symbol)) throw new SimAccount.SimRejected("Invalid symbol.");
+    }
+
+    /**
+     * Задержка → лимит веса → ответ; заголовок X-MBX-USED-WEIGHT-1M всегда.
+     */
+    private ResponseEntity<Object> respond(int weight, Supplier<Object> body) {
+        faults.delay();
+
+        long retryAfter = faults.acquire(weight);
+        String used = String.valueOf(faults.usedWeight());
+
+        if (retryAfter > 0) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header("Retry-After", String.valueOf(retryAfter))
+                    .header("X-MBX-USED-WEIGHT-1M", used)
+                    .body(Map.of("code", -1003, "msg", "Too many requests; current limit is exceeded."));
+        }
+
+        try {
+            return ResponseEntity.ok().header("X-MBX-USED-WEIGHT-1M", used).body(body.get());
+        } catch (SimAccount.SimRejected e) {
+            int code = e.getMessage().startsWith("Invalid symbol") ? -1121
+                    : e.getMessage().startsWith("Unknown order") ? -2011
+                    : -2010;
+            return ResponseEntity.badRequest()
+                    .header("X-MBX-USED-WEIGHT-1M", used)
+                    .body(Map.of("code", code, "msg", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.chicu.aitradebot.exchange.sim;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 🧪 Bybit REST (v5 market/account + старые spot/v3 ордера, которыми пользуется BybitExchangeClient).
+ *
+ * Ответы v5 — {"retCode","retMsg","result"}, spot/v3 — {"ret_code","ret_msg","result"}.
+ * Счёт общий с Binance-симулятором (SimAccount).
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/sim/bybit")
+@ConditionalOnProperty(prefix = "exchange.sim", name = "enabled", havingValue = "true")
+public class SimBybitRestController {
+
+    private static final int RATE_LIMITED = 10006;
+
+    private final SimMarket market;
+    private final SimAccount account;
+    private final SimFaults faults;
+
+    // =====================================================
+    // MARKET (v5)
+    // =====================================================
+
+    @GetMapping("/v5/market/time")
+    public ResponseEntity<Object> time() {
+        return v5(1, () -> Map.of("timeSecond", String.valueOf(System.currentTimeMillis() / 1000),
+                "timeNano", String.valueOf(System.currentTimeMillis() * 1_000_000L)));
+    }
+
+    @GetMapping("/v5/market/kline")
+    public ResponseEntity<Object> kline(@RequestParam String symbol,
+                                        @RequestParam String interval,
+                                        @RequestParam(defaultValue = "200") int limit,
+                                        @RequestParam(required = false) Long start,
+                                        @RequestParam(required = false) Long end) {
+        return v5(1, () -> {
+            requireSymbol(symbol);
+            long tf = intervalMs(interval);
+
+            List<double[]> bars = market.klines(symbol, tf, start != null ? start : 0,
+                    end != null ? end : 0, Math.min(Math.max(1, limit), 1000));
+
+            // Bybit отдаёт от новых к старым
+            List<List<String>> list = new ArrayList<>(bars.size());
+            for (int i = bars.size() - 1; i >= 0; i--) {
+                double[] k = bars.get(i);
+                list.add(List.of(String.valueOf((long) k[0]),
+                        market.px(symbol, k[1]), market.px(symbol, k[2]), market.px(symbol, k[3]),
+                        market.px(symbol, k[4]), SimMarket.qty(k[5]), SimMarket.qty(k[5] * k[4])));
+            }
+            return Map.of("category", "spot", "symbol", SimMarket.norm(symbol), "list", list);
+        });
+    }
+
+    @GetMapping("/v5/market/tickers")
+    public ResponseEntity<Object> tickers(@RequestParam(required = false) String symbol) {
+        return v5(symbol == null ? 5 : 1, () -> {
+            List<String> symbols = symbol == null ? market.symbols() : List.of(SimMarket.norm(symbol));
+            List<Map<String, Object>> list = new ArrayList<>();
+
+            for (String s : symbols) {
+                if (!market.has(s)) throw new SimAccount.SimRejected("Not supported symbols");
+
+                double last = market.price(s);
+                double[] st = market.stats24h(s);
+                double[] top = market.top(s);
+
+                Map<String, Object> t = new LinkedHashMap<>();
+                t.put("symbol", s);
+                t.put("bid1Price", market.px(s, top[0]));
+                t.put("bid1Size", SimMarket.qty(top[1]));
+                t.put("ask1Price", market.px(s, top[2]));
+                t.put("ask1Size", SimMarket.qty(top[3]));
+                t.put("lastPrice", market.px(s, last));
+                t.put("prevPrice24h", market.px(s, st[0]));
+                t.put("price24hPcnt", String.format(Locale.ROOT, "%.4f", (last - st[0]) / st[0]));
+                t.put("highPrice24h", market.px(s, st[1]));
+                t.put("lowPrice24h", market.px(s, st[2]));
+                t.put("volume24h", SimMarket.qty(st[3]));
+                t.put("turnover24h", SimMarket.qty(st[4]));
+                list.add(t);
+            }
+            return Map.of("category", "spot", "list", list);
+        });
+    }
+
+    @GetMapping("/v5/market/orderbook")
+    public ResponseEntity<Object> orderbook(@RequestParam String symbol,
+                                            @RequestParam(defaultValue = "1") int limit) {
+        return v5(1, () -> {
+            requireSymbol(symbol);
+            SimMarket.Depth d = market.depth(symbol, limit);
+
+            Map<String, Object> out = new LinkedHashMap<>();
+            out.put("s", SimMarket.norm(symbol));
+            out.put("b", levels(symbol, d.bids()));
+            out.put("a", levels(symbol, d.asks()));
+            out.put("ts", System.currentTimeMillis());
+            out.put("u", d.lastUpdateId());
+            return out;
+        });
+    }
+
+    @GetMapping("/v5/market/instruments-info")
+    public ResponseEntity<Object> instruments() {
+        return v5(5, () -> {
+            List<Map<String, Object>> list = new ArrayList<>();
+            for (String s : market.symbols()) {
+                Map<String, Object> o = new LinkedHashMap<>();
+                o.put("symbol", s);
+                o.put("baseCoin", SimAccount.baseOf(s));
+                o.put("quoteCoin", SimAccount.quoteOf(s));
+                o.put("status", "Trading");
+                o.put("lotSizeFilter", Map.of(
+                        "basePrecision", "0.00001",
+                        "qtyStep", "0.00001",
+                        "minOrderQty", "0.00001",
+                        "maxOrderQty", "9000",
+                        "minOrderAmt", "5",
+                        "maxOrderAmt", "2000000"));
+                o.put("priceFilter", Map.of("tickSize", market.px(s, market.tickSize(s))));
+                list.add(o);
+            }
+            return Map.of("category", "spot", "list", list);
+        });
+    }
+
+    // =====================================================
+    // ACCOUNT (v5)
+    // =====================================================
+
+    @GetMapping("/v5/account/wallet-balance")
+    public ResponseEntity<Object> walletBalance() {
+        return v5(1, () -> {
+            List<Map<String, Object>> coins = new ArrayList<>();
+            account.balances().forEach((asset, b) -> coins.add(Map.of(
+                    "coin", asset,
+                    "walletBalance", SimMarket.qty(b[0] + b[1]),
+                    "availableToWithdraw", SimMarket.qty(b[0]),
+                    "locked", SimMarket.qty(b[1]))));
+
+            return Map.of("list", List.of(Map.of("accountType", "UNIFIED", "coin", coins)));
+        });
+    }
+
+    @GetMapping("/v5/account/fee-rate")
+    public ResponseEntity<Object> feeRate(@RequestParam(required = false) String symbol) {
+        return v5(1, () -> {
+            String s = symbol != null ? SimMarket.norm(symbol) : market.symbols().get(0);
+            return Map.of("list", List.of(Map.of(
+                    "symbol", s,
+                    "makerFeeRate", SimMarket.qty(account.makerBps() / 10_000.0),
+                    "takerFeeRate", SimMarket.qty(account.takerBps() / 10_000.0))));
+        });
+    }
+
+    // =====================================================
+    // ORDERS
+    // =====================================================
+
+    @PostMapping("/v5/order/create")
+    public ResponseEntity<Object> createOrder(@RequestBody Map<String, Object> body) {
+        return v5(1, () -> {
+            Object price = body.get("price");
+            SimAccount.SimOrder o = account.place(
+                    String.valueOf(body.get("symbol")),
+                    String.valueOf(body.get("side")),
+                    String.valueOf(body.get("orderType")),
+                    Double.parseDouble(String.valueOf(body.get("qty"))),
+                    price != null ? Double.valueOf(String.valueOf(price)) : null);
+            return Map.of("orderId", String.valueOf(o.orderId()), "orderLinkId", "sim-" + o.orderId());
+        });
+    }
+
+    @PostMapping("/spot/v3/private/order")
+    public ResponseEntity<Object> placeOrderV3(@RequestParam String symbol,
+                                               @RequestParam String side,
+                                               @RequestParam String orderType,
+                                               @RequestParam double qty,
+                                               @RequestParam(required = false) Double price) {
+        return v3(1, () -> {
+            SimAccount.SimOrder o = account.place(symbol, side, orderType, qty, price);
+
+            Map<String, Object> r = new LinkedHashMap<>();
+            r.put("orderId", String.valueOf(o.orderId()));
+            r.put("symbol", o.symbol());
+            r.put("orderQty", SimMarket.qty(o.qty()));
+            r.put("orderPrice", market.px(o.symbol(), o.price()));
+            r.put("execQty", SimMarket.qty(o.executedQty()));
+            r.put("avgPrice", market.px(o.symbol(), o.avgPrice()));
+            r.put("orderStatus", o.status());
+            r.put("createTime", String.valueOf(o.time()));
+            return r;
+        });
+    }
+
+    @PostMapping("/spot/v3/private/cancel-order")
+    public ResponseEntity<Object> cancelOrderV3(@RequestParam String symbol,
+                                                @RequestParam long orderId) {
+        return v3(1, () -> {
+            SimAccount.SimOrder o = account.cancel(symbol, orderId);
+            return Map.of("orderId", String.valueOf(o.orderId()), "orderStatus", o.status());
+        });
+    }
+
+    // =====================================================
+    // PUBLIC (spot v3)
+    // =====================================================
+
+    @GetMapping("/spot/v3/public/quote/ticker/price")
+    public ResponseEntity<Object> tickerPriceV3(@RequestParam String symbol) {
+        return v3(1, () -> {
+            requireSymbol(symbol);
+            return Map.of("symbol", SimMarket.norm(symbol), "price", market.px(symbol, market.price(symbol)));
+        });
+    }
+
+    @GetMapping("/spot/v3/public/symbols")
+    public ResponseEntity<Object> symbolsV3() {
+        return v3(5, () -> {
+            List<Map<String, Object>> list = new ArrayList<>();
+            for (String s : market.symbols()) {
+                list.add(Map.of("name", s, "alias", s, "baseCoin", SimAccount.baseOf(s),
+                        "quoteCoin", SimAccount.quoteOf(s), "status", "Trading"));
+            }
+            return Map.of("list", list);
+        });
+    }
+
+    // =====================================================
+    // helpers
+    // =====================================================
+
+    private List<List<String>> levels(String symbol, double[] lv) {
+        List<List<String>> out = new ArrayList<>(lv.length / 2);
+        for (int i = 0; i + 1 < lv.length; i += 2) {
+            out.add(List.of(market.px(symbol, lv[i]), SimMarket.qty(lv[i + 1])));
+        }
+        return out;
+    }
+
+    private void requireSymbol(String symbol) {
+        if (!market.has(symbol)) throw new SimAccount.SimRejected("Not supported symbols");
+    }
+
+    /**
+     * Bybit interval: 1,3,5,15,30,60,120,240,360,720 (минуты), D, W.
+     */
+    static long intervalMs(String interval) {
+        return switch (interval.toUpperCase(Locale.ROOT)) {
+            case "D" -> 86_400_000L;
+            case "W" -> 7 * 86_400_000L;
+            default -> Long.parseLong(interval) * 60_000L;
+        };
+    }
+
+    private ResponseEntity<Object> v5(int weight, Supplier<Object> result) {
+        return respond(weight, result, "retCode", "retMsg");
+    }
+
+    private ResponseEntity<Object> v3(int weight, Supplier<Object> result) {
+        return respond(weight, result, "ret_code", "ret_msg");
+    }
+
+    /**
+     * Bybit отвечает 200 даже на бизнес-ошибки; лимит — HTTP 429 + retCode 10006.
+     */
+    private ResponseEntity<Object> respond(int weight, Supplier<Object> result, String codeKey, String msgKey) {
+        faults.delay();
+
+        long retryAfter = faults.acquire(weight);
+        Map<String, Object> out = new LinkedHashMap<>();
+
+        if (retryAfter > 0) {
+            out.put(codeKey, RATE_LIMITED);
+            out.put(msgKey, "Too many visits!");
+            out.put("result", Map.of());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header("Retry-After", String.valueOf(retryAfter))
+                    .header("X-Bapi-Limit-Status", "0")
+                    .body(out);
+        }
+
+        try {
+            Object r = result.get();
+            out.put(codeKey, 0);
+            out.put(msgKey, "OK");
+            out.put("result", r);
+        } catch (SimAccount.SimRejected | NumberFormatException e) {
+            out.put(codeKey, 10001);
+            out.put(msgKey, e.getMessage());
+            out.put("result", Map.of());
+        }
+        out.put("time", System.currentTimeMillis());
+
+        return ResponseEntity.ok()
+                .header("X-Bapi-Limit-Status", String.valueOf(Math.max(0, remaining())))
+                .body(out);
+    }
+
+    private int remaining() {
+        return 600 - faults.usedWeight();
+    }
+}
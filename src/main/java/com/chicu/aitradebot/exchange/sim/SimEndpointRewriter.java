@@ -0,0 +1,93 @@
+package com.chicu.aitradebot.exchange.sim;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.support.HttpRequestWrapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * 🔀 Перенаправление клиентов бирж на симулятор без правки захардкоженных URL.
+ *
+ * api/stream хосты Binance и Bybit → {baseUrl}/sim/binance | /sim/bybit + исходный путь и query.
+ * Подключается в общий OkHttpClient (REST + WS handshake: OkHttp видит wss как https)
+ * и в marketRestTemplate, только при exchange.sim.enabled=true.
+ *
+ * ❗ Клиенты со своим new RestTemplate() (провайдеры market info, проверка ключей
+ *    в ExchangeSettingsServiceImpl) продолжают ходить на настоящие биржи.
+ */
+public final class SimEndpointRewriter implements Interceptor, ClientHttpRequestInterceptor {
+
+    private static final Map<String, String> HOSTS = Map.of(
+            "api.binance.com", "/sim/binance",
+            "testnet.binance.vision", "/sim/binance",
+            "stream.binance.com", "/sim/binance",
+            "api.bybit.com", "/sim/bybit",
+            "api-demo.bybit.com", "/sim/bybit",
+            "api-testnet.bybit.com", "/sim/bybit",
+            "stream.bybit.com", "/sim/bybit"
+    );
+
+    private final HttpUrl base;
+
+    public SimEndpointRewriter(String baseUrl) {
+        this.base = HttpUrl.get(baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl);
+    }
+
+    /**
+     * @return адрес на симуляторе или null, если хост не биржевой
+     */
+    HttpUrl rewrite(HttpUrl url) {
+        String prefix = HOSTS.get(url.host());
+        if (prefix == null) return null;
+
+        return base.newBuilder()
+                .encodedPath(base.encodedPath().replaceAll("/$", "") + prefix + url.encodedPath())
+                .encodedQuery(url.encodedQuery())
+                .build();
+    }
+
+    // =====================================================
+    // OkHttp
+    // =====================================================
+
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) throws IOException {
+        Request req = chain.request();
+        HttpUrl target = rewrite(req.url());
+        if (target == null) return chain.proceed(req);
+
+        return chain.proceed(req.newBuilder().url(target).build());
+    }
+
+    // =====================================================
+    // RestTemplate
+    // =====================================================
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request,
+                                        byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        HttpUrl url = HttpUrl.parse(request.getURI().toString());
+        HttpUrl target = url != null ? rewrite(url) : null;
+        if (target == null) return execution.execute(request, body);
+
+        URI uri = target.uri();
+        return execution.execute(new HttpRequestWrapper(request) {
+            @Override
+            public URI getURI() {
+                return uri;
+            }
+        }, body);
+    }
+}
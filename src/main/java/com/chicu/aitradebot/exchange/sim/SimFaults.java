@@ -0,0 +1,87 @@
+package com.chicu.aitradebot.exchange.sim;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 💥 Неидеальность симулятора: задержка, лимит веса REST.
+ * (Разрывы WS — в SimStreamHandler.)
+ *
+ * Лимит — окно в одну минуту, как X-MBX-USED-WEIGHT-1M у Binance.
+ */
+@Component
+@ConditionalOnProperty(prefix = "exchange.sim", name = "enabled", havingValue = "true")
+public class SimFaults {
+
+    private static final long WINDOW_MS = 60_000L;
+
+    private final ExchangeSimProperties props;
+
+    private final LongAdder throttled = new LongAdder();
+
+    private long windowStart;
+    private int usedWeight;
+
+    public SimFaults(ExchangeSimProperties props, MeterRegistry registry) {
+        this.props = props;
+
+        FunctionCounter.builder("exchange.sim.throttled", throttled, LongAdder::sum)
+                .description("Simulator REST requests rejected with 429")
+                .register(registry);
+    }
+
+    /**
+     * Случайная задержка: latencyMs + [0, latencyJitterMs).
+     */
+    public long sampleDelayMs() {
+        long ms = props.getLatencyMs();
+        if (props.getLatencyJitterMs() > 0) {
+            ms += ThreadLocalRandom.current().nextLong(props.getLatencyJitterMs());
+        }
+        return ms;
+    }
+
+    /**
+     * Пауза перед REST-ответом (кадры WS откладываются планировщиком, см. SimStreamHandler).
+     */
+    public void delay() {
+        long ms = sampleDelayMs();
+        if (ms <= 0) return;
+
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Учесть вес запроса.
+     *
+     * @return 0 — можно отвечать, иначе через сколько секунд окно освободится (Retry-After)
+     */
+    public synchronized long acquire(int weight) {
+        long now = System.currentTimeMillis();
+        if (now - windowStart >= WINDOW_MS) {
+            windowStart = now - now % WINDOW_MS;
+            usedWeight = 0;
+        }
+
+        usedWeight += weight;
+
+        int limit = props.getRestWeightPerMinute();
+        if (limit <= 0 || usedWeight <= limit) return 0;
+
+        throttled.increment();
+        return Math.max(1, (windowStart + WINDOW_MS - now + 999) / 1000);
+    }
+
+    public synchronized int usedWeight() {
+        return usedWeight;
+    }
+}
@@ -0,0 +1,473 @@
+package com.chicu.aitradebot.exchange.sim;
+
+import com.chicu.aitradebot.market.recorder.MmapTickRecorder;
+import com.chicu.aitradebot.market.recorder.TickDictionary;
+import com.chicu.aitradebot.market.recorder.TickVisitor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 📈 Ценовой путь симулятора: по одному "рынку" на символ.
+ *
+ * ❗ Устройство:
+ *  - генератор тиков раз в tickIntervalMs: synthetic (случайное блуждание с seed)
+ *    или ticks (записанные aggTrade выбранного дня, по кругу; время — текущее)
+ *  - минутные свечи строятся из тиков; старшие ТФ агрегируются из минутных на запрос
+ *  - стакан — детерминированная сетка уровней вокруг цены, каждый тик = одно diff-событие (U = u = bookId)
+ *  - слушатели (WS-хендлер, счёт) получают SimTick в потоке генератора
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "exchange.sim", name = "enabled", havingValue = "true")
+public class SimMarket {
+
+    static final long MINUTE_MS = 60_000L;
+    private static final int MAX_BARS = 20_000;
+
+    public interface Listener {
+        void onTick(SimTick tick);
+    }
+
+    /**
+     * Один тик символа: сделка + изменение стакана + текущая минутная свеча.
+     *
+     * @param bidDiff / askDiff изменившиеся уровни [price0, qty0, ...], qty=0 — уровень удалён
+     */
+    public record SimTick(String symbol,
+                          long aggId,
+                          long time,
+                          double price,
+                          double qty,
+                          boolean buyerMaker,
+                          long bookId,
+                          double[] bidDiff,
+                          double[] askDiff,
+                          double bestBid,
+                          double bestBidQty,
+                          double bestAsk,
+                          double bestAskQty) {
+    }
+
+    public record Depth(long lastUpdateId, double[] bids, double[] asks) {
+    }
+
+    private final ExchangeSimProperties props;
+    private final ObjectProvider<MmapTickRecorder> recorder;
+
+    private final Map<String, SimSymbol> symbols = new LinkedHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private ScheduledExecutorService generator;
+
+    public SimMarket(ExchangeSimProperties props, ObjectProvider<MmapTickRecorder> recorder) {
+        this.props = props;
+        this.recorder = recorder;
+    }
+
+    @PostConstruct
+    void start() {
+        Map<String, double[][]> recorded = "ticks".equalsIgnoreCase(props.getSource()) ? loadRecorded() : Map.of();
+
+        Random seeds = new Random(props.getSeed());
+        long now = System.currentTimeMillis();
+
+        for (String raw : props.getSymbols()) {
+            String sym = raw.trim().toUpperCase(Locale.ROOT);
+            double[][] path = recorded.get(sym);
+            double start = path != null ? path[0][0] : props.getStartPrice();
+            symbols.put(sym, new SimSymbol(sym, start, path, new Random(seeds.nextLong()), now));
+        }
+
+        long interval = Math.max(1L, props.getTickIntervalMs());
+        generator = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "exchange-sim-market");
+            t.setDaemon(true);
+            return t;
+        });
+        generator.scheduleAtFixedRate(this::step, interval, interval, TimeUnit.MILLISECONDS);
+
+        log.info("🧪 Exchange simulator market: {} symbols, source={}, tick={}ms",
+                symbols.size(), props.getSource(), interval);
+    }
+
+    public void addListener(Listener l) {
+        listeners.add(l);
+    }
+
+    // =====================================================
+    // READ
+    // =====================================================
+
+    public List<String> symbols() {
+        return List.copyOf(symbols.keySet());
+    }
+
+    public boolean has(String symbol) {
+        return symbols.containsKey(norm(symbol));
+    }
+
+    /**
+     * @return последняя цена или NaN для неизвестного символа
+     */
+    public double price(String symbol) {
+        SimSymbol s = symbols.get(norm(symbol));
+        if (s == null) return Double.NaN;
+        synchronized (s) {
+            return s.price;
+        }
+    }
+
+    public double[] top(String symbol) {
+        SimSymbol s = symbols.get(norm(symbol));
+        if (s == null) return null;
+        synchronized (s) {
+            return new double[]{s.bids[0], s.bids[1], s.asks[0], s.asks[1]};
+        }
+    }
+
+    public double tickSize(String symbol) {
+        SimSymbol s = symbols.get(norm(symbol));
+        return s != null ? s.tick : 0.01;
+    }
+
+    public Depth depth(String symbol, int limit) {
+        SimSymbol s = symbols.get(norm(symbol));
+        if (s == null) return null;
+        synchronized (s) {
+            int n = Math.min(limit, s.bids.length / 2) * 2;
+            return new Depth(s.bookId, Arrays.copyOf(s.bids, n), Arrays.copyOf(s.asks, n));
+        }
+    }
+
+    /**
+     * Свечи [openTime, open, high, low, close, volume] по возрастанию времени.
+     *
+     * @param startMs > 0 — от startMs вперёд (как Binance startTime), иначе последние limit до endMs
+     */
+    public List<double[]> klines(String symbol, long tfMs, long startMs, long endMs, int limit) {
+        SimSymbol s = symbols.get(norm(symbol));
+        if (s == null) return List.of();
+
+        long tf = Math.max(MINUTE_MS, tfMs - tfMs % MINUTE_MS);
+        long end = endMs > 0 ? endMs : Long.MAX_VALUE;
+
+        List<double[]> out = new ArrayList<>();
+        synchronized (s) {
+            double[] cur = null;
+            for (double[] b : s.bars) {
+                long open = (long) b[0];
+                if (open > end) break;
+
+                long bucket = Math.floorDiv(open, tf) * tf;
+                if (startMs > 0 && bucket < Math.floorDiv(startMs, tf) * tf) continue;
+
+                if (cur == null || (long) cur[0] != bucket) {
+                    if (cur != null) out.add(cur);
+                    if (startMs > 0 && out.size() >= limit) return out;
+                    cur = new double[]{bucket, b[1], b[2], b[3], b[4], b[5]};
+                } else {
+                    cur[2] = Math.max(cur[2], b[2]);
+                    cur[3] = Math.min(cur[3], b[3]);
+                    cur[4] = b[4];
+                    cur[5] += b[5];
+                }
+            }
+            if (cur != null) out.add(cur);
+        }
+
+        if (out.size() <= limit) return out;
+        return startMs > 0
+                ? new ArrayList<>(out.subList(0, limit))
+                : new ArrayList<>(out.subList(out.size() - limit, out.size()));
+    }
+
+    /**
+     * Последние n свечей ТФ (текущая незакрытая — последней), с конца истории — для WS kline.
+     */
+    public List<double[]> lastKlines(String symbol, long tfMs, int n) {
+        SimSymbol s = symbols.get(norm(symbol));
+        if (s == null) return List.of();
+
+        long tf = Math.max(MINUTE_MS, tfMs - tfMs % MINUTE_MS);
+        double[][] out = new double[n][];
+        int filled = 0;
+
+        synchronized (s) {
+            double[] cur = null;
+            for (int i = s.bars.size() - 1; i >= 0; i--) {
+                double[] b = s.bars.get(i);
+                long bucket = Math.floorDiv((long) b[0], tf) * tf;
+
+                if (cur == null || (long) cur[0] != bucket) {
+                    if (cur != null && ++filled == n) break;
+                    cur = new double[]{bucket, b[1], b[2], b[3], b[4], b[5]};
+                    out[n - 1 - filled] = cur;
+                } else {
+                    cur[1] = b[1];
+                    cur[2] = Math.max(cur[2], b[2]);
+                    cur[3] = Math.min(cur[3], b[3]);
+                    cur[5] += b[5];
+                }
+            }
+        }
+
+        List<double[]> list = new ArrayList<>(n);
+        for (double[] k : out) {
+            if (k != null) list.add(k);
+        }
+        return list;
+    }
+
+    /**
+     * [open24h, high24h, low24h, volume24h, quoteVolume24h]
+     */
+    public double[] stats24h(String symbol) {
+        SimSymbol s = symbols.get(norm(symbol));
+        if (s == null) return null;
+
+        long from = System.currentTimeMillis() - 24 * 60 * MINUTE_MS;
+        synchronized (s) {
+            double open = Double.NaN, high = 0, low = Double.MAX_VALUE, vol = 0, quote = 0;
+            for (double[] b : s.bars) {
+                if (b[0] < from) continue;
+                if (Double.isNaN(open)) open = b[1];
+                high = Math.max(high, b[2]);
+                low = Math.min(low, b[3]);
+                vol += b[5];
+                quote += b[5] * b[4];
+            }
+            if (Double.isNaN(open)) open = s.price;
+            return new double[]{open, high, low == Double.MAX_VALUE ? s.price : low, vol, quote};
+        }
+    }
+
+    // =====================================================
+    // GENERATOR
+    // =====================================================
+
+    private void step() {
+        long now = System.currentTimeMillis();
+        for (SimSymbol s : symbols.values()) {
+            try {
+                SimTick t = s.next(now);
+                for (Listener l : listeners) {
+                    l.onTick(t);
+                }
+            } catch (Exception e) {
+                log.warn("⚠️ Exchange simulator tick failed {}: {}", s.symbol, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Записанный день → символ → [[price, qty], ...] (только символы симулятора).
+     */
+    private Map<String, double[][]> loadRecorded() {
+        MmapTickRecorder r = recorder.getIfAvailable();
+        if (r == null || r.dictionary() == null || props.getRecordedDay() == null) {
+            log.warn("⚠️ Exchange simulator: source=ticks, but tick archive/day is not available → synthetic");
+            return Map.of();
+        }
+
+        Map<Integer, List<double[]>> byId = new LinkedHashMap<>();
+        TickDictionary dict = r.dictionary();
+
+        try {
+            r.readDay(LocalDate.parse(props.getRecordedDay()), new TickVisitor() {
+                @Override
+                public void onAggTrade(int symbolId, long exchangeTs, long receiptTs, double price, double qty, int flags) {
+                    byId.computeIfAbsent(symbolId, k -> new ArrayList<>()).add(new double[]{price, qty});
+                }
+            });
+        } catch (Exception e) {
+            log.warn("⚠️ Exchange simulator: cannot read ticks {}: {}", props.getRecordedDay(), e.getMessage());
+            return Map.of();
+        }
+
+        Map<String, double[][]> out = new LinkedHashMap<>();
+        byId.forEach((id, list) -> out.put(dict.nameOf(id), list.toArray(new double[0][])));
+        log.info("🧪 Exchange simulator: recorded day {} → {} symbols", props.getRecordedDay(), out.size());
+        return out;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (generator != null) generator.shutdownNow();
+    }
+
+    /**
+     * Цена строкой с точностью tickSize символа (биржи отдают числа строками).
+     */
+    public String px(String symbol, double v) {
+        int scale = Math.max(0, (int) Math.round(-Math.log10(tickSize(symbol))));
+        return BigDecimal.valueOf(v).setScale(scale, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    public static String qty(double v) {
+        return BigDecimal.valueOf(v).setScale(8, RoundingMode.DOWN).stripTrailingZeros().toPlainString();
+    }
+
+    static String norm(String symbol) {
+        return symbol == null ? "" : symbol.replace("/", "").trim().toUpperCase(Locale.ROOT);
+    }
+
+    // =====================================================
+    // SYMBOL STATE
+    // =====================================================
+
+    private final class SimSymbol {
+
+        final String symbol;
+        final double tick;
+        final double[][] recorded;
+        final Random rnd;
+
+        final List<double[]> bars = new ArrayList<>();
+
+        double price;
+        long aggId;
+        long bookId = 1;
+        int cursor;
+
+        double[] bids;
+        double[] asks;
+
+        SimSymbol(String symbol, double start, double[][] recorded, Random rnd, long now) {
+            this.symbol = symbol;
+            this.recorded = recorded;
+            this.rnd = rnd;
+            this.tick = Math.pow(10, Math.floor(Math.log10(start)) - 4);
+
+            seedHistory(start, now);
+            this.price = start;
+            this.bids = levels(start, true);
+            this.asks = levels(start, false);
+        }
+
+        /**
+         * История заканчивается ровно на стартовой цене: блуждание строится назад.
+         */
+        private void seedHistory(double start, long now) {
+            int n = Math.max(0, props.getHistoryMinutes());
+            long lastOpen = Math.floorDiv(now, MINUTE_MS) * MINUTE_MS - MINUTE_MS;
+            double sigma = props.getVolatilityBps() / 10_000.0 * 8; // ~ 60 тиков в минуте → шире бар
+
+            double[][] tmp = new double[n][];
+            double close = start;
+            for (int i = n - 1; i >= 0; i--) {
+                double open = close * (1 + rnd.nextGaussian() * sigma);
+                double hi = Math.max(open, close) * (1 + Math.abs(rnd.nextGaussian()) * sigma / 2);
+                double lo = Math.min(open, close) * (1 - Math.abs(rnd.nextGaussian()) * sigma / 2);
+                double vol = 50_000.0 / start * (0.5 + rnd.nextDouble());
+                tmp[i] = new double[]{lastOpen - (long) (n - 1 - i) * MINUTE_MS, round(open), round(hi), round(lo), round(close), vol};
+                close = open;
+            }
+            bars.addAll(Arrays.asList(tmp));
+        }
+
+        synchronized SimTick next(long now) {
+            double qty;
+            if (recorded != null) {
+                double[] t = recorded[cursor];
+                cursor = (cursor + 1) % recorded.length;
+                price = t[0];
+                qty = t[1];
+            } else {
+                price = round(Math.max(tick, price * (1 + rnd.nextGaussian() * props.getVolatilityBps() / 10_000.0)));
+                qty = 1_000.0 / price * (0.1 + rnd.nextDouble());
+            }
+            boolean buyerMaker = rnd.nextBoolean();
+
+            aggId++;
+            updateBar(now, price, qty);
+
+            double[] newBids = levels(price, true);
+            double[] newAsks = levels(price, false);
+            double[] bidDiff = diff(bids, newBids);
+            double[] askDiff = diff(asks, newAsks);
+            bids = newBids;
+            asks = newAsks;
+            bookId++;
+
+            return new SimTick(symbol, aggId, now, price, qty, buyerMaker, bookId,
+                    bidDiff, askDiff, bids[0], bids[1], asks[0], asks[1]);
+        }
+
+        private void updateBar(long now, double p, double q) {
+            long open = Math.floorDiv(now, MINUTE_MS) * MINUTE_MS;
+            double[] last = bars.isEmpty() ? null : bars.get(bars.size() - 1);
+
+            if (last == null || (long) last[0] != open) {
+                bars.add(new double[]{open, p, p, p, p, q});
+                if (bars.size() > MAX_BARS) bars.remove(0);
+                return;
+            }
+            last[2] = Math.max(last[2], p);
+            last[3] = Math.min(last[3], p);
+            last[4] = p;
+            last[5] += q;
+        }
+
+        private double[] levels(double mid, boolean bid) {
+            int n = Math.max(1, props.getDepthLevels());
+            double half = mid * props.getHalfSpreadBps() / 10_000.0;
+            double best = bid
+                    ? Math.floor((mid - half) / tick) * tick
+                    : Math.ceil((mid + half) / tick) * tick;
+            if (!bid && best <= Math.floor((mid - half) / tick) * tick) best += tick;
+
+            double[] out = new double[n * 2];
+            for (int k = 0; k < n; k++) {
+                out[k * 2] = round(bid ? best - k * tick : best + k * tick);
+                out[k * 2 + 1] = 1_000.0 / mid * (1 + k * 0.5);
+            }
+            return out;
+        }
+
+        /**
+         * Новые значения всех уровней + нули для уровней, которых больше нет.
+         */
+        private double[] diff(double[] prev, double[] next) {
+            double[] out = Arrays.copyOf(next, next.length + prev.length);
+            int n = next.length;
+
+            for (int i = 0; i < prev.length; i += 2) {
+                boolean kept = false;
+                for (int j = 0; j < next.length; j += 2) {
+                    if (prev[i] == next[j]) {
+                        kept = true;
+                        break;
+                    }
+                }
+                if (!kept) {
+                    out[n++] = prev[i];
+                    out[n++] = 0.0;
+                }
+            }
+            return Arrays.copyOf(out, n);
+        }
+
+        private double round(double v) {
+            return Math.round(v / tick) * tick;
+        }
+    }
+}
@@ -0,0 +1,456 @@
+package com.chicu.aitradebot.exchange.sim;
+
+import com.chicu.aitradebot.common.util.TimeframeUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 📡 Публичные WS-стримы симулятора.
+ *
+ * Маршруты (см. SimWebSocketConfig):
+ *  - /sim/binance/ws[/stream1/stream2]  — сырые кадры, SUBSCRIBE / UNSUBSCRIBE
+ *  - /sim/binance/stream?streams=a/b    — кадры в обёртке {"stream","data"}
+ *  - /sim/bybit/v5/public/spot          — {"op":"subscribe","args":[...]}, ping/pong
+ *
+ * Binance: aggTrade, kline_<tf>, bookTicker, depth / depth@100ms, ticker.
+ * Bybit:   tickers, orderbook.1, publicTrade, kline.<interval>.
+ *
+ * ❗ Кадр тика кодируется один раз на стрим и рассылается всем подписчикам;
+ *    задержка (exchange.sim.latency-*) — отложенной отправкой, порядок кадров сохраняется.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "exchange.sim", name = "enabled", havingValue = "true")
+public class SimStreamHandler extends TextWebSocketHandler {
+
+    private static final long TICKER_EVERY_MS = 1_000L;
+
+    private final SimMarket market;
+    private final SimFaults faults;
+    private final ExchangeSimProperties props;
+    private final ObjectMapper mapper;
+
+    private final Map<String, SimSession> sessions = new ConcurrentHashMap<>();
+
+    /** symbol|tf → open time последней отправленной свечи (для x=true на смене бара) */
+    private final Map<String, Long> lastKlineOpen = new HashMap<>();
+    private final Map<String, Long> lastTickerAt = new HashMap<>();
+
+    private ScheduledExecutorService outbound;
+    private long lastDueNanos;
+
+    public SimStreamHandler(SimMarket market, SimFaults faults, ExchangeSimProperties props, ObjectMapper mapper) {
+        this.market = market;
+        this.faults = faults;
+        this.props = props;
+        this.mapper = mapper;
+    }
+
+    @PostConstruct
+    void start() {
+        outbound = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "exchange-sim-ws");
+            t.setDaemon(true);
+            return t;
+        });
+
+        market.addListener(this::onTick);
+
+        long every = props.getDisconnectEverySec();
+        if (every > 0) {
+            outbound.scheduleAtFixedRate(this::dropAll, every, every, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (outbound != null) outbound.shutdownNow();
+    }
+
+    // =====================================================
+    // SESSIONS
+    // =====================================================
+
+    private static final class SimSession {
+        final WebSocketSession ws;
+        final boolean bybit;
+        final boolean combined;
+        /** lower-case имя → имя как подписались (для поля "stream") */
+        final Map<String, String> streams = new ConcurrentHashMap<>();
+
+        SimSession(WebSocketSession ws, boolean bybit, boolean combined) {
+            this.ws = ws;
+            this.bybit = bybit;
+            this.combined = combined;
+        }
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        URI uri = session.getUri();
+        String path = uri != null ? uri.getPath() : "";
+        boolean bybit = path.startsWith("/sim/bybit");
+        boolean combined = path.startsWith("/sim/binance/stream");
+
+        SimSession s = new SimSession(new ConcurrentWebSocketSessionDecorator(session, 5_000, 1 << 20), bybit, combined);
+
+        if (combined && uri != null && uri.getQuery() != null) {
+            for (String kv : uri.getQuery().split("&")) {
+                if (kv.startsWith("streams=")) {
+                    for (String st : kv.substring(8).split("/")) add(s, st);
+                }
+            }
+        } else if (path.startsWith("/sim/binance/ws/")) {
+            for (String st : path.substring("/sim/binance/ws/".length()).split("/")) add(s, st);
+        }
+
+        sessions.put(session.getId(), s);
+        log.debug("🧪 SIM WS connect {} {}", path, s.streams.keySet());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        sessions.remove(session.getId());
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        SimSession s = sessions.get(session.getId());
+        if (s == null) return;
+
+        JsonNode req = mapper.readTree(message.getPayload());
+
+        if (s.bybit) {
+            String op = req.path("op").asText();
+            if ("ping".equals(op)) {
+                send(s, "{\"success\":true,\"ret_msg\":\"pong\",\"conn_id\":\"" + session.getId() + "\",\"op\":\"ping\"}");
+                return;
+            }
+            for (JsonNode a : req.path("args")) {
+                if ("subscribe".equals(op)) add(s, a.asText());
+                else if ("unsubscribe".equals(op)) s.streams.remove(a.asText().toLowerCase(Locale.ROOT));
+            }
+            send(s, "{\"success\":true,\"ret_msg\":\"\",\"conn_id\":\"" + session.getId() + "\",\"op\":\"" + op + "\"}");
+            return;
+        }
+
+        String method = req.path("method").asText();
+        for (JsonNode p : req.path("params")) {
+            if ("SUBSCRIBE".equalsIgnoreCase(method)) add(s, p.asText());
+            else if ("UNSUBSCRIBE".equalsIgnoreCase(method)) s.streams.remove(p.asText().toLowerCase(Locale.ROOT));
+        }
+        send(s, "{\"result\":null,\"id\":" + req.path("id").asLong() + "}");
+    }
+
+    private static void add(SimSession s, String stream) {
+        if (stream == null || stream.isBlank()) return;
+        s.streams.put(stream.toLowerCase(Locale.ROOT), stream);
+    }
+
+    // =====================================================
+    // FAN-OUT
+    // =====================================================
+
+    /**
+     * Поток генератора: только планирует отправку, сериализация — в exchange-sim-ws.
+     */
+    private void onTick(SimMarket.SimTick t) {
+        if (sessions.isEmpty()) return;
+
+        long due = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(faults.sampleDelayMs());
+        synchronized (this) {
+            due = Math.max(due, lastDueNanos);
+            lastDueNanos = due;
+        }
+
+        try {
+            outbound.schedule(() -> publish(t), Math.max(0, due - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (Exception ignored) {
+            // остановлен
+        }
+    }
+
+    private void publish(SimMarket.SimTick t) {
+        String sym = t.symbol().toLowerCase(Locale.ROOT);
+
+        boolean tickerDue = t.time() - lastTickerAt.getOrDefault(t.symbol(), 0L) >= TICKER_EVERY_MS;
+        if (tickerDue) lastTickerAt.put(t.symbol(), t.time());
+
+        // стрим → уже закодированные кадры (encode once)
+        Map<String, List<String>> frames = new HashMap<>();
+
+        for (SimSession s : sessions.values()) {
+            for (Map.Entry<String, String> e : s.streams.entrySet()) {
+                String key = e.getKey();
+                if (s.bybit ? !key.endsWith("." + sym) : !key.startsWith(sym + "@")) continue;
+
+                List<String> payloads = frames.computeIfAbsent((s.bybit ? "bybit:" : "binance:") + key,
+                        k -> encode(t, s.bybit, key, tickerDue));
+
+                for (String p : payloads) {
+                    send(s, s.combined ? "{\"stream\":\"" + e.getValue() + "\",\"data\":" + p + "}" : p);
+                }
+            }
+        }
+    }
+
+    private List<String> encode(SimMarket.SimTick t, boolean bybit, String stream, boolean tickerDue) {
+        try {
+            return bybit ? encodeBybit(t, stream, tickerDue) : encodeBinance(t, stream, tickerDue);
+        } catch (Exception e) {
+            log.warn("⚠️ SIM WS encode {} failed: {}", stream, e.getMessage());
+            return List.of();
+        }
+    }
+
+    private List<String> encodeBinance(SimMarket.SimTick t, String stream, boolean tickerDue) throws Exception {
+        String sym = t.symbol();
+        String kind = stream.substring(stream.indexOf('@') + 1);
+
+        if (kind.equals("aggtrade") || kind.equals("trade")) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("e", kind.equals("trade") ? "trade" : "aggTrade");
+            m.put("E", t.time());
+            m.put("s", sym);
+            m.put("a", t.aggId());
+            m.put("p", market.px(sym, t.price()));
+            m.put("q", SimMarket.qty(t.qty()));
+            m.put("f", t.aggId());
+            m.put("l", t.aggId());
+            m.put("T", t.time());
+            m.put("m", t.buyerMaker());
+            m.put("M", true);
+            return List.of(mapper.writeValueAsString(m));
+        }
+
+        if (kind.startsWith("kline_")) {
+            String tf = kind.substring("kline_".length());
+            List<String> out = new ArrayList<>(2);
+            for (double[] k : klineUpdates(sym, tf, TimeframeUtils.toMillis(tf))) {
+                out.add(mapper.writeValueAsString(binanceKline(sym, tf, k, t.time())));
+            }
+            return out;
+        }
+
+        if (kind.equals("bookticker")) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("u", t.bookId());
+            m.put("s", sym);
+            m.put("b", market.px(sym, t.bestBid()));
+            m.put("B", SimMarket.qty(t.bestBidQty()));
+            m.put("a", market.px(sym, t.bestAsk()));
+            m.put("A", SimMarket.qty(t.bestAskQty()));
+            return List.of(mapper.writeValueAsString(m));
+        }
+
+        if (kind.startsWith("depth")) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("e", "depthUpdate");
+            m.put("E", t.time());
+            m.put("s", sym);
+            m.put("U", t.bookId());
+            m.put("u", t.bookId());
+            m.put("b", levels(sym, t.bidDiff()));
+            m.put("a", levels(sym, t.askDiff()));
+            return List.of(mapper.writeValueAsString(m));
+        }
+
+        if (kind.equals("ticker") && tickerDue) {
+            double[] st = market.stats24h(sym);
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("e", "24hrTicker");
+            m.put("E", t.time());
+            m.put("s", sym);
+            m.put("p", market.px(sym, t.price() - st[0]));
+            m.put("P", String.format(Locale.ROOT, "%.3f", (t.price() - st[0]) / st[0] * 100.0));
+            m.put("o", market.px(sym, st[0]));
+            m.put("h", market.px(sym, st[1]));
+            m.put("l", market.px(sym, st[2]));
+            m.put("c", market.px(sym, t.price()));
+            m.put("b", market.px(sym, t.bestBid()));
+            m.put("a", market.px(sym, t.bestAsk()));
+            m.put("v", SimMarket.qty(st[3]));
+            m.put("q", SimMarket.qty(st[4]));
+            return List.of(mapper.writeValueAsString(m));
+        }
+
+        return List.of();
+    }
+
+    private Map<String, Object> binanceKline(String sym, String tf, double[] k, long now) {
+        long open = (long) k[0];
+        long tfMs = TimeframeUtils.toMillis(tf);
+
+        Map<String, Object> kk = new LinkedHashMap<>();
+        kk.put("t", open);
+        kk.put("T", open + tfMs - 1);
+        kk.put("s", sym);
+        kk.put("i", tf);
+        kk.put("o", market.px(sym, k[1]));
+        kk.put("c", market.px(sym, k[4]));
+        kk.put("h", market.px(sym, k[2]));
+        kk.put("l", market.px(sym, k[3]));
+        kk.put("v", SimMarket.qty(k[5]));
+        kk.put("q", SimMarket.qty(k[5] * k[4]));
+        kk.put("x", k.length > 6 && k[6] > 0);
+
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("e", "kline");
+        m.put("E", now);
+        m.put("s", sym);
+        m.put("k", kk);
+        return m;
+    }
+
+    private List<String> encodeBybit(SimMarket.SimTick t, String topic, boolean tickerDue) throws Exception {
+        String sym = t.symbol();
+        int dot = topic.indexOf('.');
+        String kind = dot > 0 ? topic.substring(0, dot) : topic;
+
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("ts", t.time());
+        m.put("type", "snapshot");
+
+        switch (kind) {
+            case "orderbook" -> {
+                m.put("topic", "orderbook." + topic.substring(dot + 1, topic.lastIndexOf('.')) + "." + sym);
+                Map<String, Object> d = new LinkedHashMap<>();
+                d.put("s", sym);
+                d.put("b", List.of(List.of(market.px(sym, t.bestBid()), SimMarket.qty(t.bestBidQty()))));
+                d.put("a", List.of(List.of(market.px(sym, t.bestAsk()), SimMarket.qty(t.bestAskQty()))));
+                d.put("u", t.bookId());
+                d.put("seq", t.bookId());
+                m.put("data", d);
+                m.put("cts", t.time());
+            }
+            case "publictrade" -> {
+                m.put("topic", "publicTrade." + sym);
+                m.put("data", List.of(Map.of(
+                        "T", t.time(), "s", sym, "S", t.buyerMaker() ? "Sell" : "Buy",
+                        "v", SimMarket.qty(t.qty()), "p", market.px(sym, t.price()),
+                        "i", String.valueOf(t.aggId()), "BT", false)));
+            }
+            case "tickers" -> {
+                if (!tickerDue) return List.of();
+                double[] st = market.stats24h(sym);
+                m.put("topic", "tickers." + sym);
+                Map<String, Object> d = new LinkedHashMap<>();
+                d.put("symbol", sym);
+                d.put("lastPrice", market.px(sym, t.price()));
+                d.put("highPrice24h", market.px(sym, st[1]));
+                d.put("lowPrice24h", market.px(sym, st[2]));
+                d.put("prevPrice24h", market.px(sym, st[0]));
+                d.put("volume24h", SimMarket.qty(st[3]));
+                d.put("turnover24h", SimMarket.qty(st[4]));
+                d.put("price24hPcnt", String.format(Locale.ROOT, "%.4f", (t.price() - st[0]) / st[0]));
+                m.put("data", d);
+                m.put("cs", t.bookId());
+            }
+            case "kline" -> {
+                String interval = topic.substring(dot + 1, topic.lastIndexOf('.')).toUpperCase(Locale.ROOT);
+                long tfMs = SimBybitRestController.intervalMs(interval);
+                m.put("topic", "kline." + interval + "." + sym);
+
+                List<Map<String, Object>> data = new ArrayList<>(2);
+                for (double[] k : klineUpdates(sym, "bybit:" + interval, tfMs)) {
+                    long open = (long) k[0];
+                    Map<String, Object> d = new LinkedHashMap<>();
+                    d.put("start", open);
+                    d.put("end", open + tfMs - 1);
+                    d.put("interval", interval);
+                    d.put("open", market.px(sym, k[1]));
+                    d.put("close", market.px(sym, k[4]));
+                    d.put("high", market.px(sym, k[2]));
+                    d.put("low", market.px(sym, k[3]));
+                    d.put("volume", SimMarket.qty(k[5]));
+                    d.put("turnover", SimMarket.qty(k[5] * k[4]));
+                    d.put("confirm", k.length > 6 && k[6] > 0);
+                    d.put("timestamp", t.time());
+                    data.add(d);
+                }
+                m.put("data", data);
+            }
+            default -> {
+                return List.of();
+            }
+        }
+        return List.of(mapper.writeValueAsString(m));
+    }
+
+    /**
+     * Текущая свеча; на смене бара сначала закрытая предыдущая (7-й элемент = 1 → x / confirm).
+     */
+    private List<double[]> klineUpdates(String sym, String tfKey, long tfMs) {
+        List<double[]> bars = market.lastKlines(sym, tfMs, 2);
+        if (bars.isEmpty()) return List.of();
+
+        double[] cur = bars.get(bars.size() - 1);
+        String key = sym + "|" + tfKey;
+        Long prevOpen = lastKlineOpen.put(key, (long) cur[0]);
+
+        if (prevOpen != null && prevOpen != (long) cur[0] && bars.size() == 2) {
+            double[] closed = Arrays.copyOf(bars.get(0), 7);
+            closed[6] = 1;
+            return List.of(closed, cur);
+        }
+        return List.of(cur);
+    }
+
+    private List<List<String>> levels(String sym, double[] lv) {
+        List<List<String>> out = new ArrayList<>(lv.length / 2);
+        for (int i = 0; i + 1 < lv.length; i += 2) {
+            out.add(List.of(market.px(sym, lv[i]), SimMarket.qty(lv[i + 1])));
+        }
+        return out;
+    }
+
+    private void send(SimSession s, String payload) {
+        try {
+            if (s.ws.isOpen()) s.ws.sendMessage(new TextMessage(payload));
+        } catch (Exception e) {
+            log.debug("SIM WS send failed {}: {}", s.ws.getId(), e.getMessage());
+        }
+    }
+
+    // =====================================================
+    // FAULTS
+    // =====================================================
+
+    private void dropAll() {
+        if (sessions.isEmpty()) return;
+
+        log.info("💥 SIM WS: closing {} sessions (disconnect-every-sec={})",
+                sessions.size(), props.getDisconnectEverySec());
+
+        for (SimSession s : sessions.values()) {
+            try {
+                s.ws.close(CloseStatus.SERVICE_RESTARTED);
+            } catch (Exception ignored) {
+                // уже закрыта
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.chicu.aitradebot.exchange.sim;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * 🧪 Сырые WS-эндпоинты симулятора (STOMP-конфиг приложения не трогаем).
+ */
+@Configuration
+@EnableWebSocket
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "exchange.sim", name = "enabled", havingValue = "true")
+public class SimWebSocketConfig implements WebSocketConfigurer {
+
+    private final SimStreamHandler handler;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(handler,
+                        "/sim/binance/ws", "/sim/binance/ws/**",
+                        "/sim/binance/stream",
+                        "/sim/bybit/v5/public/spot")
+                .setAllowedOriginPatterns("*");
+    }
+}
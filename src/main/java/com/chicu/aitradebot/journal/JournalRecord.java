@@ -0,0 +1,119 @@
+package com.chicu.aitradebot.journal;
+
+import com.chicu.aitradebot.common.enums.NetworkType;
+import com.chicu.aitradebot.common.enums.StrategyType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * 🧾 Неизменяемая запись журнала для JournalWriter.
+ *
+ * ❗ JDBC-вставка обходит @PrePersist сущностей — нормализация (trim/upper)
+ *    делается здесь, в фабриках, тем же правилом, что в TradeIntentEvent / TradeOrderLink / TradeExecutionEvent.
+ */
+public sealed interface JournalRecord {
+
+    /**
+     * Intent до выставления ордера (trade_intent_event), natural key — correlation_id.
+     */
+    record Intent(
+            long chatId,
+            StrategyType strategyType,
+            String exchangeName,
+            NetworkType networkType,
+            String symbol,
+            String timeframe,
+            String correlationId,
+            TradeIntentEvent.Signal signal,
+            TradeIntentEvent.Decision decision,
+            String reasonCode,
+            BigDecimal confidence,
+            BigDecimal expectedReturn,
+            BigDecimal uncertainty,
+            String modelVersion,
+            String effectiveSettingsJson,
+            String featuresJson,
+            Instant createdAt
+    ) implements JournalRecord {
+
+        public Intent {
+            exchangeName = upper(exchangeName);
+            symbol = upper(symbol);
+            timeframe = trim(timeframe);
+            correlationId = trim(correlationId);
+            reasonCode = upper(reasonCode);
+            modelVersion = trim(modelVersion);
+            if (createdAt == null) createdAt = Instant.now();
+        }
+
+        /**
+         * JSON-снимки лежат в @Lob-колонках — их пишем через JPA, а не batch-вставкой.
+         */
+        boolean hasLobs() {
+            return effectiveSettingsJson != null || featuresJson != null;
+        }
+    }
+
+    /**
+     * clientOrderId для уже записанного (или ещё стоящего в очереди) intent-а.
+     */
+    record ClientOrder(String correlationId, String clientOrderId) implements JournalRecord {
+
+        public ClientOrder {
+            correlationId = trim(correlationId);
+            clientOrderId = trim(clientOrderId);
+        }
+    }
+
+    /**
+     * Связка correlationId ↔ clientOrderId (trade_order_link), natural key — client_order_id.
+     */
+    record Link(
+            long chatId,
+            StrategyType strategyType,
+            String exchangeName,
+            NetworkType networkType,
+            String symbol,
+            String timeframe,
+            String correlationId,
+            String clientOrderId,
+            String role,
+            Instant createdAt
+    ) implements JournalRecord {
+
+        public Link {
+            exchangeName = upper(exchangeName);
+            symbol = upper(symbol);
+            timeframe = trim(timeframe);
+            correlationId = trim(correlationId);
+            clientOrderId = trim(clientOrderId);
+            role = (role == null || role.isBlank()) ? "UNKNOWN" : upper(role);
+            if (createdAt == null) createdAt = Instant.now();
+        }
+    }
+
+    /**
+     * Факт с биржи (trade_execution_event), natural key — event_uid.
+     */
+    record Execution(TradeExecutionIngest in, String correlationId, Instant createdAt) implements JournalRecord {
+
+        public static Execution of(TradeExecutionIngest in) {
+            return new Execution(in, OrderCorrelation.extractCorrelationId(in.clientOrderId()), Instant.now());
+        }
+
+        public Execution {
+            correlationId = trim(correlationId);
+            if (createdAt == null) createdAt = Instant.now();
+        }
+    }
+
+    private static String trim(String s) {
+        return s == null ? null : s.trim();
+    }
+
+    private static String upper(String s) {
+        return s == null ? null : s.trim().toUpperCase(Locale.ROOT);
+    }
+}
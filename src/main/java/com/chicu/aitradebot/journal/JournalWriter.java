@@ -0,0 +1,484 @@
+package com.chicu.aitradebot.journal;
+
+import com.chicu.aitradebot.journal.JournalRecord.ClientOrder;
+import com.chicu.aitradebot.journal.JournalRecord.Execution;
+import com.chicu.aitradebot.journal.JournalRecord.Intent;
+import com.chicu.aitradebot.journal.JournalRecord.Link;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 🧾 Write-behind журнал сделок: ордерный путь кладёт JournalRecord в очередь и идёт дальше,
+ * поток "journal-writer" сбрасывает очередь JDBC batch-ами.
+ *
+ * ❗ Правила:
+ *  - вставки идемпотентны по natural key (INSERT ... ON CONFLICT DO NOTHING) — без find+save,
+ *    повтор пачки после сбоя безопасен
+ *  - clientOrderId, пришедший в ту же пачку, что и intent, пишется сразу в строку intent-а;
+ *    остальные — batch UPDATE по correlation_id
+ *  - порядок в пачке: intent → clientOrderId → link → execution
+ *  - БД недоступна → пачка остаётся в голове и повторяется на следующем тике;
+ *    битая строка (constraint) → пишем построчно, битую считаем failed и пропускаем
+ *  - очередь переполнена → запись сразу в БД в потоке вызывающего (без потерь, пока БД жива)
+ *  - остановка: приём в очередь закрыт, очередь дописывается до shutdownTimeoutMs
+ *  - journal.writer.lag.ms — возраст самой старой незаписанной записи
+ *
+ * ❗ Жёсткое падение JVM теряет то, что в очереди (не больше queueCapacity записей,
+ *    на практике — последние flushIntervalMs). Сам ордер пишется синхронно.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "journal.writer", name = "enabled", havingValue = "true")
+public class JournalWriter {
+
+    private static final String INTENT_SQL = """
+            insert into trade_intent_event
+                (chat_id, strategy_type, exchange_name, network_type, symbol, timeframe,
+                 correlation_id, client_order_id, signal, decision, reason_code,
+                 confidence, expected_return, uncertainty, model_version, created_at)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            on conflict (correlation_id) do nothing
+            """;
+
+    private static final String CLIENT_ORDER_SQL = """
+            update trade_intent_event
+               set client_order_id = ?
+             where correlation_id = ?
+            """;
+
+    private static final String LINK_SQL = """
+            insert into trade_order_link
+                (chat_id, strategy_type, exchange_name, network_type, symbol, timeframe,
+                 correlation_id, client_order_id, role, created_at)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            on conflict (client_order_id) do nothing
+            """;
+
+    private static final String EXECUTION_SQL = """
+            insert into trade_execution_event
+                (chat_id, strategy_type, exchange_name, network_type, symbol, timeframe,
+                 event_uid, correlation_id, client_order_id, exchange_order_id, exchange_trade_id,
+                 event_type, side, status, price, qty, quote_qty,
+                 fee_asset, fee_amount, maker, event_time, raw_json, created_at)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            on conflict (event_uid) do nothing
+            """;
+
+    private record Pending(JournalRecord record, long enqueuedAtMs) {
+    }
+
+    private final JdbcTemplate jdbc;
+    private final TradeIntentEventRepository intentRepo;
+    private final JournalWriterProperties props;
+
+    private final BlockingQueue<Pending> queue;
+
+    /** пачка, не записанная из-за недоступной БД — пишется первой */
+    private final Deque<Pending> retry = new ArrayDeque<>();
+
+    /** flush и синхронная запись при переполнении не должны пересекаться */
+    private final Object writeLock = new Object();
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder overflow = new LongAdder();
+    private final Timer flushTimer;
+
+    private volatile boolean stopping;
+    private volatile long retryHeadEnqueuedAt;
+
+    private ScheduledExecutorService flusher;
+
+    public JournalWriter(JdbcTemplate jdbc,
+                         TradeIntentEventRepository intentRepo,
+                         JournalWriterProperties props,
+                         MeterRegistry registry) {
+        this.jdbc = jdbc;
+        this.intentRepo = intentRepo;
+        this.props = props;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, props.getQueueCapacity()));
+
+        Gauge.builder("journal.writer.queue", queue, BlockingQueue::size)
+                .description("Journal records waiting to be written")
+                .register(registry);
+        Gauge.builder("journal.writer.lag.ms", this, JournalWriter::lagMs)
+                .description("Age of the oldest journal record not yet written")
+                .register(registry);
+        FunctionCounter.builder("journal.writer.written", written, LongAdder::sum)
+                .description("Journal records written to the database")
+                .register(registry);
+        FunctionCounter.builder("journal.writer.failed", failed, LongAdder::sum)
+                .description("Journal records dropped because the database rejected them")
+                .register(registry);
+        FunctionCounter.builder("journal.writer.overflow", overflow, LongAdder::sum)
+                .description("Journal records written synchronously because the queue was full")
+                .register(registry);
+        this.flushTimer = Timer.builder("journal.writer.flush")
+                .description("Journal flush duration")
+                .register(registry);
+    }
+
+    @PostConstruct
+    void start() {
+        long interval = Math.max(20L, props.getFlushIntervalMs());
+
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "journal-writer");
+            t.setDaemon(true);
+            return t;
+        });
+
+        flusher.scheduleWithFixedDelay(this::flushSafe, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    // =====================================================
+    // SUBMIT
+    // =====================================================
+
+    public void submit(JournalRecord record) {
+        if (record == null) return;
+
+        Pending p = new Pending(record, System.currentTimeMillis());
+        if (!stopping && queue.offer(p)) return;
+
+        // переполнение / остановка — пишем сами, журнал не теряем
+        overflow.increment();
+        synchronized (writeLock) {
+            try {
+                writeChunk(List.of(p));
+            } catch (RuntimeException e) {
+                // очередь полна И БД недоступна — ордер важнее журнала, не роняем вызывающего
+                failed.increment();
+                log.error("❌ journal record dropped (queue full, db unavailable) {}: {}", record, e.getMessage());
+            }
+        }
+    }
+
+    public void submitExecution(TradeExecutionIngest in) {
+        if (in == null) throw new IllegalArgumentException("TradeExecutionIngest is null");
+        if (in.eventUid() == null || in.eventUid().isBlank())
+            throw new IllegalArgumentException("eventUid is required for execution journal");
+
+        submit(Execution.of(in));
+    }
+
+    public int pending() {
+        synchronized (writeLock) {
+            return queue.size() + retry.size();
+        }
+    }
+
+    long lagMs() {
+        long oldest = retryHeadEnqueuedAt;
+        if (oldest == 0) {
+            Pending head = queue.peek();
+            if (head == null) return 0;
+            oldest = head.enqueuedAtMs();
+        }
+        return Math.max(0, System.currentTimeMillis() - oldest);
+    }
+
+    // =====================================================
+    // FLUSH
+    // =====================================================
+
+    /**
+     * @return сколько записей сброшено в БД
+     */
+    public int flush() {
+        synchronized (writeLock) {
+            int batchSize = Math.max(1, props.getBatchSize());
+            int total = 0;
+            long start = System.nanoTime();
+
+            try {
+                while (true) {
+                    List<Pending> chunk = new ArrayList<>(batchSize);
+                    while (chunk.size() < batchSize && !retry.isEmpty()) chunk.add(retry.pollFirst());
+                    if (chunk.size() < batchSize) queue.drainTo(chunk, batchSize - chunk.size());
+                    if (chunk.isEmpty()) break;
+
+                    try {
+                        writeChunk(chunk);
+                    } catch (RuntimeException e) {
+                        // БД недоступна — возвращаем пачку в голову, повторим на следующем тике
+                        for (int i = chunk.size() - 1; i >= 0; i--) retry.addFirst(chunk.get(i));
+                        retryHeadEnqueuedAt = retry.peekFirst().enqueuedAtMs();
+                        throw e;
+                    }
+
+                    retryHeadEnqueuedAt = retry.isEmpty() ? 0 : retry.peekFirst().enqueuedAtMs();
+                    total += chunk.size();
+                }
+            } finally {
+                if (total > 0) flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+
+            if (total > 0) log.debug("💾 journal flushed: {}", total);
+            return total;
+        }
+    }
+
+    private void flushSafe() {
+        try {
+            flush();
+        } catch (Throwable t) {
+            // ❗ НИКОГДА не даём потоку сброса умереть
+            log.warn("⚠️ journal flush failed (will retry): {}", t.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        stopping = true;
+        if (flusher != null) flusher.shutdownNow();
+
+        long deadline = System.currentTimeMillis() + Math.max(0L, props.getShutdownTimeoutMs());
+        int flushed = 0;
+
+        while (true) {
+            try {
+                flushed += flush();
+                break;
+            } catch (RuntimeException e) {
+                if (System.currentTimeMillis() >= deadline) break;
+                try {
+                    Thread.sleep(200L);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+
+        int lost = pending();
+        if (lost > 0) {
+            log.error("❌ JournalWriter shutdown: {} records NOT written (flushed {})", lost, flushed);
+        } else {
+            log.info("💤 JournalWriter shutdown, flushed {} records", flushed);
+        }
+    }
+
+    // =====================================================
+    // WRITE
+    // =====================================================
+
+    /**
+     * Одна пачка в БД. Бросает исключение, только если БД недоступна (пачку надо повторить).
+     */
+    private void writeChunk(List<Pending> chunk) {
+        List<Intent> intents = new ArrayList<>();
+        List<Intent> lobIntents = new ArrayList<>();
+        List<ClientOrder> clientOrders = new ArrayList<>();
+        List<Link> links = new ArrayList<>();
+        List<Execution> executions = new ArrayList<>();
+
+        // correlationId → индекс intent-а в этой пачке
+        Map<String, Integer> intentIdx = new HashMap<>();
+        // clientOrderId, который успел прийти к intent-у той же пачки
+        Map<String, String> inlineClientOrder = new HashMap<>();
+
+        for (Pending p : chunk) {
+            switch (p.record()) {
+                case Intent i -> {
+                    if (i.hasLobs()) {
+                        lobIntents.add(i);
+                    } else {
+                        intentIdx.put(i.correlationId(), intents.size());
+                        intents.add(i);
+                    }
+                }
+                case ClientOrder c -> {
+                    if (intentIdx.containsKey(c.correlationId())) {
+                        inlineClientOrder.put(c.correlationId(), c.clientOrderId());
+                    } else {
+                        clientOrders.add(c);
+                    }
+                }
+                case Link l -> links.add(l);
+                case Execution e -> executions.add(e);
+            }
+        }
+
+        write(INTENT_SQL, intents, i -> intentRow(i, inlineClientOrder.get(i.correlationId())));
+        writeLobIntents(lobIntents);
+        write(CLIENT_ORDER_SQL, clientOrders, c -> new Object[]{c.clientOrderId(), c.correlationId()});
+        write(LINK_SQL, links, JournalWriter::linkRow);
+        write(EXECUTION_SQL, executions, JournalWriter::executionRow);
+
+        // clientOrderId, вписанные прямо в intent, — тоже записи журнала
+        written.add(inlineClientOrder.size());
+    }
+
+    private <T> void write(String sql, List<T> items, Function<T, Object[]> toRow) {
+        if (items.isEmpty()) return;
+
+        List<Object[]> rows = new ArrayList<>(items.size());
+        for (T it : items) rows.add(toRow.apply(it));
+
+        try {
+            jdbc.batchUpdate(sql, rows);
+            written.add(rows.size());
+        } catch (TransientDataAccessException | DataAccessResourceFailureException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            // в пачке битая строка — дописываем построчно, битые пропускаем
+            log.warn("⚠️ journal batch rejected, retrying row by row: {}", e.getMessage());
+            for (int i = 0; i < rows.size(); i++) {
+                try {
+                    jdbc.update(sql, rows.get(i));
+                    written.increment();
+                } catch (TransientDataAccessException | DataAccessResourceFailureException te) {
+                    throw te;
+                } catch (RuntimeException re) {
+                    failed.increment();
+                    log.error("❌ journal record dropped {}: {}", items.get(i), re.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * JSON-снимки лежат в @Lob-колонках (на PostgreSQL это oid) — через JPA, а не сырой JDBC.
+     * Всё равно в потоке журнала, а не в ордерном пути.
+     */
+    private void writeLobIntents(List<Intent> lobIntents) {
+        for (Intent i : lobIntents) {
+            try {
+                if (intentRepo.findByCorrelationId(i.correlationId()).isPresent()) continue;
+                intentRepo.save(TradeIntentEvent.builder()
+                        .chatId(i.chatId())
+                        .strategyType(i.strategyType())
+                        .exchangeName(i.exchangeName())
+                        .networkType(i.networkType())
+                        .symbol(i.symbol())
+                        .timeframe(i.timeframe())
+                        .correlationId(i.correlationId())
+                        .signal(i.signal())
+                        .decision(i.decision())
+                        .reasonCode(i.reasonCode())
+                        .confidence(i.confidence())
+                        .expectedReturn(i.expectedReturn())
+                        .uncertainty(i.uncertainty())
+                        .modelVersion(i.modelVersion())
+                        .effectiveSettingsJson(i.effectiveSettingsJson())
+                        .featuresJson(i.featuresJson())
+                        .createdAt(i.createdAt())
+                        .build());
+                written.increment();
+            } catch (TransientDataAccessException | DataAccessResourceFailureException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                failed.increment();
+                log.error("❌ journal intent dropped cid={}: {}", i.correlationId(), e.getMessage());
+            }
+        }
+    }
+
+    // =====================================================
+    // ROWS
+    // =====================================================
+
+    private static Object[] intentRow(Intent i, String clientOrderId) {
+        return new Object[]{
+                i.chatId(),
+                name(i.strategyType()),
+                i.exchangeName(),
+                name(i.networkType()),
+                i.symbol(),
+                i.timeframe(),
+                i.correlationId(),
+                clientOrderId,
+                name(i.signal()),
+                name(i.decision()),
+                i.reasonCode(),
+                i.confidence(),
+                i.expectedReturn(),
+                i.uncertainty(),
+                i.modelVersion(),
+                ts(i.createdAt())
+        };
+    }
+
+    private static Object[] linkRow(Link l) {
+        return new Object[]{
+                l.chatId(),
+                name(l.strategyType()),
+                l.exchangeName(),
+                name(l.networkType()),
+                l.symbol(),
+                l.timeframe(),
+                l.correlationId(),
+                l.clientOrderId(),
+                l.role(),
+                ts(l.createdAt())
+        };
+    }
+
+    private static Object[] executionRow(Execution e) {
+        TradeExecutionIngest in = e.in();
+        return new Object[]{
+                in.chatId(),
+                name(in.strategyType()),
+                upper(in.exchangeName()),
+                name(in.networkType()),
+                upper(in.symbol()),
+                in.timeframe(),
+                in.eventUid().trim(),
+                e.correlationId(),
+                in.clientOrderId() != null ? in.clientOrderId().trim() : null,
+                in.exchangeOrderId(),
+                in.exchangeTradeId(),
+                in.eventType(),
+                in.side(),
+                in.status(),
+                in.price(),
+                in.qty(),
+                in.quoteQty(),
+                in.feeAsset(),
+                in.feeAmount(),
+                in.maker(),
+                ts(in.eventTime() != null ? in.eventTime() : e.createdAt()),
+                in.rawJson(),
+                ts(e.createdAt())
+        };
+    }
+
+    private static String name(Enum<?> e) {
+        return e == null ? null : e.name();
+    }
+
+    private static String upper(String s) {
+        return s == null ? null : s.trim().toUpperCase();
+    }
+
+    private static Timestamp ts(Instant i) {
+        return i == null ? null : Timestamp.from(i);
+    }
+}
@@ -0,0 +1,36 @@
+package com.chicu.aitradebot.journal;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "journal.writer")
+public class JournalWriterProperties {
+
+    /**
+     * true — журнал пишется в БД через JournalWriter (write-behind),
+     * false — NoopTradeJournalGateway, журнала нет (по умолчанию, как было до write-behind).
+     */
+    private boolean enabled = false;
+
+    /**
+     * Очередь записей. Переполнение → запись уходит в БД синхронно в потоке вызывающего
+     * (деградация до старого поведения, но без потерь).
+     */
+    private int queueCapacity = 10_000;
+
+    /**
+     * Размер JDBC batch.
+     */
+    private int batchSize = 200;
+
+    /**
+     * Как часто сбрасывать очередь в БД (мс).
+     */
+    private long flushIntervalMs = 200L;
+
+    /**
+     * Сколько пытаться дописать очередь при остановке приложения (мс).
+     */
+    private long shutdownTimeoutMs = 10_000L;
+}
@@ -5,9 +5,13 @@ import com.chicu.aitradebot.common.util.TimeframeUtils;
 import com.chicu.aitradebot.exchange.client.ExchangeClientFactory;
 import com.chicu.aitradebot.market.model.Candle;
 import com.chicu.aitradebot.market.model.UnifiedKline;
+import com.chicu.aitradebot.market.recorder.TickRecorder;
 import com.chicu.aitradebot.strategy.core.TradingStrategy;
 import com.chicu.aitradebot.strategy.live.StrategyLivePublisher;
 import com.chicu.aitradebot.strategy.registry.StrategyRegistry;
+import com.chicu.aitradebot.trade.paper.PaperMatchingEngine;
+import com.chicu.aitradebot.trade.position.PositionBook;
+import com.chicu.aitradebot.trade.trigger.ExitTriggerBook;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.Getter;
@@ -40,6 +44,18 @@ public class MarketStreamService {
 
     private final ObjectMapper objectMapper;
 
+    /** 🎙 запись всего, что пришло с биржи (для разбора инцидентов / replay) */
+    private final TickRecorder tickRecorder;
+
+    /** 🧮 бумажные лимитки / OCO матчатся по той же ленте (null — без бумажного стакана, напр. replay) */
+    private final PaperMatchingEngine paperEngine;
+
+    /** 🎯 TP / SL / трейлинг позиций символа — один проход по книге на сделку (null — без книги, напр. replay) */
+    private final ExitTriggerBook exitTriggers;
+
+    /** 📒 цена ленты для нереализованного PnL позиций (null — без книги позиций, напр. replay) */
+    private final PositionBook positions;
+
     /**
      * key = symbol|tf → last push millis
      * (оставлено на будущее, сейчас не используется)
@@ -81,6 +97,18 @@ public class MarketStreamService {
         // 1️⃣ всегда обновляем кеш
         streamManager.addCandle(symbol, timeframe, candle);
 
+        tickRecorder.recordKline(
+                symbol,
+                timeframe,
+                candle.getTime(),
+                candle.getOpen(),
+                candle.getHigh(),
+                candle.getLow(),
+                candle.getClose(),
+                candle.getVolume(),
+                candle.isClosed()
+        );
+
         // 2️⃣ публикуем candle в UI (каждое обновление текущей свечи)
         try {
             live.pushCandleOhlc(
@@ -175,6 +203,21 @@ public class MarketStreamService {
                     ? Instant.ofEpochMilli(data.get("T").asLong())
                     : Instant.now();
 
+            // 🎙 запись тика (один раз на сделку, даже если подписок несколько)
+            tickRecorder.recordAggTrade(
+                    sym,
+                    data.has("a") ? data.get("a").asLong(-1L) : -1L,
+                    tickTs.toEpochMilli(),
+                    priceBd.doubleValue(),
+                    qtyBd.doubleValue(),
+                    data.path("m").asBoolean(false)
+            );
+
+            long aggId = data.has("a") ? data.get("a").asLong(-1L) : -1L;
+            if (paperEngine != null) paperEngine.onTrade(sym, aggId, priceBd, qtyBd, tickTs);
+            if (exitTriggers != null) exitTriggers.onTrade(sym, aggId, priceBd, tickTs);
+            if (positions != null) positions.mark(sym, priceBd.doubleValue());
+
             // =========================================================
             // 1) UI: push tick
             // =========================================================
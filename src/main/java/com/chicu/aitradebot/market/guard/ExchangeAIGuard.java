@@ -1,7 +1,9 @@
 package com.chicu.aitradebot.market.guard;
 
 import com.chicu.aitradebot.market.model.ExchangeLimitScope;
+import com.chicu.aitradebot.market.model.IndexedSymbol;
 import com.chicu.aitradebot.market.model.SymbolDescriptor;
+import com.chicu.aitradebot.market.model.SymbolFilters;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
@@ -43,6 +45,46 @@ public class ExchangeAIGuard {
             boolean isMarketOrder,
             boolean allowIncreaseQtyToMinNotional
     ) {
+        return validate(exchange, d, SymbolFilters.of(d), qty, price, isMarketOrder, allowIncreaseQtyToMinNotional);
+    }
+
+    /**
+     * То же по символу из реестра: фильтры уже разобраны в целые единицы,
+     * округление — целочисленная арифметика (горячий путь ордеров).
+     */
+    public GuardResult validateAndAdjust(
+            String exchange,
+            IndexedSymbol s,
+            BigDecimal qty,
+            BigDecimal price,
+            boolean isMarketOrder
+    ) {
+        return validateAndAdjust(exchange, s, qty, price, isMarketOrder, false);
+    }
+
+    public GuardResult validateAndAdjust(
+            String exchange,
+            IndexedSymbol s,
+            BigDecimal qty,
+            BigDecimal price,
+            boolean isMarketOrder,
+            boolean allowIncreaseQtyToMinNotional
+    ) {
+        if (s == null) {
+            return validate(exchange, null, SymbolFilters.NONE, qty, price, isMarketOrder, allowIncreaseQtyToMinNotional);
+        }
+        return validate(exchange, s.descriptor(), s.filters(), qty, price, isMarketOrder, allowIncreaseQtyToMinNotional);
+    }
+
+    private GuardResult validate(
+            String exchange,
+            SymbolDescriptor d,
+            SymbolFilters f,
+            BigDecimal qty,
+            BigDecimal price,
+            boolean isMarketOrder,
+            boolean allowIncreaseQtyToMinNotional
+    ) {
 
         final String ex = exchange != null ? exchange.trim().toUpperCase() : "UNKNOWN";
 
@@ -116,8 +158,9 @@ public class ExchangeAIGuard {
         // 4) TICK SIZE (PRICE) — округляем ВНИЗ (только если не MARKET)
         // =====================================================
         if (!isMarketOrder) {
-            if (isPositive(d.tickSize())) {
-                BigDecimal snapped = snapDownToStep(finalPrice, d.tickSize());
+            if (f.hasTick()) {
+                BigDecimal snapped = f.snapPriceDown(finalPrice);
+                if (snapped == null) snapped = snapDownToStep(finalPrice, d.tickSize());
                 if (snapped != null && snapped.compareTo(finalPrice) != 0) {
                     warnings.add("Цена округлена под tickSize: " + strip(finalPrice) + " → " + strip(snapped));
                     finalPrice = snapped;
@@ -139,8 +182,9 @@ public class ExchangeAIGuard {
         // =====================================================
         // 5) STEP SIZE (QTY) — округляем ВНИЗ
         // =====================================================
-        if (isPositive(d.stepSize())) {
-            BigDecimal snapped = snapDownToStep(finalQty, d.stepSize());
+        if (f.hasStep()) {
+            BigDecimal snapped = f.snapQtyDown(finalQty);
+            if (snapped == null) snapped = snapDownToStep(finalQty, d.stepSize());
             if (snapped != null && snapped.compareTo(finalQty) != 0) {
                 warnings.add("Количество округлено под stepSize: " + strip(finalQty) + " → " + strip(snapped));
                 finalQty = snapped;
@@ -163,14 +207,15 @@ public class ExchangeAIGuard {
         // =====================================================
         BigDecimal notional = computeNotional(finalQty, finalPrice);
 
-        if (isPositive(d.minNotional())) {
+        if (f.hasMinNotional()) {
             if (notional == null) {
                 warnings.add("minNotional задан, но цена неизвестна — точная проверка невозможна.");
             } else if (notional.compareTo(d.minNotional()) < 0) {
 
                 // Попытка авто-поднятия qty (опционально)
-                if (allowIncreaseQtyToMinNotional && isPositive(d.stepSize())) {
-                    BigDecimal requiredQty = computeRequiredQty(finalPrice, d.minNotional(), d.stepSize());
+                if (allowIncreaseQtyToMinNotional && f.hasStep()) {
+                    BigDecimal requiredQty = f.minQtyForNotional(finalPrice);
+                    if (requiredQty == null) requiredQty = computeRequiredQty(finalPrice, d.minNotional(), d.stepSize());
                     if (requiredQty != null && requiredQty.compareTo(finalQty) > 0) {
                         warnings.add("qty повышен для прохождения minNotional: "
                                 + strip(finalQty) + " → " + strip(requiredQty)
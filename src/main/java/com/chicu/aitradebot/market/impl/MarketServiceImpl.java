@@ -3,12 +3,15 @@ package com.chicu.aitradebot.market.impl;
 import com.chicu.aitradebot.exchange.client.ExchangeClient;
 import com.chicu.aitradebot.exchange.client.ExchangeClientFactory;
 import com.chicu.aitradebot.market.MarketService;
+import com.chicu.aitradebot.market.orderbook.TopOfBookQuote;
+import com.chicu.aitradebot.market.orderbook.TopOfBookService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
 @Slf4j
 @Service
@@ -16,6 +19,7 @@ import java.util.List;
 public class MarketServiceImpl implements MarketService {
 
     private final ExchangeClientFactory exchangeClientFactory;
+    private final TopOfBookService topOfBook;
 
     // --------------------------------------------------------------
     // 🟢 Цена конкретного символа на нужной бирже
@@ -27,6 +31,12 @@ public class MarketServiceImpl implements MarketService {
         try {
             ExchangeClient client = exchangeClientFactory.getByChat(chatId);
 
+            // 🎯 mid вершины стакана из WS; нет / устарела → REST (и подписка на будущее)
+            Optional<TopOfBookQuote> quote = topOfBook.quoteOrTrack(client.getExchangeName(), symbol);
+            if (quote.isPresent()) {
+                return BigDecimal.valueOf(quote.get().mid());
+            }
+
             double price = client.getPrice(symbol);
 
             return BigDecimal.valueOf(price);
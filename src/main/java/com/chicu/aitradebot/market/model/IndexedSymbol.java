@@ -0,0 +1,15 @@
+package com.chicu.aitradebot.market.model;
+
+/**
+ * 📇 Символ из реестра: исходный descriptor + заранее разобранные фильтры.
+ */
+public record IndexedSymbol(SymbolDescriptor descriptor, SymbolFilters filters) {
+
+    public static IndexedSymbol of(SymbolDescriptor d) {
+        return new IndexedSymbol(d, SymbolFilters.of(d));
+    }
+
+    public String symbol() {
+        return descriptor.symbol();
+    }
+}
@@ -0,0 +1,117 @@
+package com.chicu.aitradebot.market.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 🧮 Биржевые фильтры символа, заранее разобранные в целые единицы.
+ *
+ * tickSize = tickUnits * 10^-priceScale, stepSize = stepUnits * 10^-qtyScale.
+ * Округление цены/количества = одно масштабирование + целочисленное деление,
+ * без BigDecimal.divide и stripTrailingZeros на каждый ордер.
+ *
+ * ❗ Units == 0 — фильтр неизвестен (биржа не отдала), округлять нечем.
+ * ❗ Переполнение long (экзотические значения) → null, вызывающий откатывается на BigDecimal.
+ */
+public record SymbolFilters(
+        int priceScale,
+        long tickUnits,
+        int qtyScale,
+        long stepUnits,
+        BigDecimal minNotional
+) {
+
+    public static final SymbolFilters NONE = new SymbolFilters(0, 0, 0, 0, null);
+
+    public static SymbolFilters of(SymbolDescriptor d) {
+        if (d == null) return NONE;
+
+        int priceScale = scaleOf(d.tickSize());
+        int qtyScale = scaleOf(d.stepSize());
+
+        return new SymbolFilters(
+                priceScale,
+                unitsOf(d.tickSize(), priceScale),
+                qtyScale,
+                unitsOf(d.stepSize(), qtyScale),
+                positive(d.minNotional()) ? d.minNotional() : null
+        );
+    }
+
+    public boolean hasTick() {
+        return tickUnits > 0;
+    }
+
+    public boolean hasStep() {
+        return stepUnits > 0;
+    }
+
+    public boolean hasMinNotional() {
+        return minNotional != null;
+    }
+
+    /**
+     * Цена вниз под tickSize; null — не влезло в long.
+     */
+    public BigDecimal snapPriceDown(BigDecimal price) {
+        return snapDown(price, priceScale, tickUnits);
+    }
+
+    /**
+     * Количество вниз под stepSize; null — не влезло в long.
+     */
+    public BigDecimal snapQtyDown(BigDecimal qty) {
+        return snapDown(qty, qtyScale, stepUnits);
+    }
+
+    /**
+     * Минимальное количество (вверх по stepSize), при котором price*qty >= minNotional.
+     */
+    public BigDecimal minQtyForNotional(BigDecimal price) {
+        if (!hasStep() || !hasMinNotional() || !positive(price)) return null;
+
+        // ceil(minNotional / (price * step)) шагов — одно деление до целого
+        BigDecimal stepValue = price.multiply(BigDecimal.valueOf(stepUnits));
+        try {
+            long steps = minNotional.movePointRight(qtyScale).divide(stepValue, 0, RoundingMode.UP).longValueExact();
+            if (steps <= 0) return null;
+            return BigDecimal.valueOf(Math.multiplyExact(steps, stepUnits), qtyScale);
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    private static BigDecimal snapDown(BigDecimal v, int scale, long unit) {
+        if (v == null || unit <= 0) return v;
+        if (v.signum() <= 0) return BigDecimal.ZERO.setScale(scale);
+
+        try {
+            long units = v.movePointRight(scale).setScale(0, RoundingMode.DOWN).longValueExact();
+            return BigDecimal.valueOf(units - units % unit, scale);
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    private static int scaleOf(BigDecimal step) {
+        if (!positive(step)) return 0;
+        return Math.max(0, step.stripTrailingZeros().scale());
+    }
+
+    private static long unitsOf(BigDecimal step, int scale) {
+        if (!positive(step)) return 0;
+        try {
+            return step.movePointRight(scale).setScale(0, RoundingMode.DOWN).longValueExact();
+        } catch (ArithmeticException e) {
+            return 0;
+        }
+    }
+
+    private static boolean positive(BigDecimal v) {
+        return v != null && v.signum() > 0;
+    }
+}
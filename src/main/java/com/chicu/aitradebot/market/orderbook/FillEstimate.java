@@ -0,0 +1,30 @@
+package com.chicu.aitradebot.market.orderbook;
+
+/**
+ * 💧 Оценка исполнения рыночного ордера по локальному стакану.
+ *
+ * @param buy          true — BUY (съедаем asks), false — SELL (съедаем bids)
+ * @param requestedQty сколько хотели
+ * @param filledQty    сколько покрывает видимая глубина (меньше requestedQty, если стакан тонкий)
+ * @param avgPrice     средневзвешенная цена исполнения filledQty
+ * @param bestPrice    лучшая цена стороны на момент оценки
+ * @param worstPrice   цена последнего задетого уровня
+ * @param slippageBps  (avgPrice - bestPrice) / bestPrice в б.п., всегда >= 0
+ * @param levels       сколько уровней задето
+ */
+public record FillEstimate(boolean buy,
+                           double requestedQty,
+                           double filledQty,
+                           double avgPrice,
+                           double bestPrice,
+                           double worstPrice,
+                           double slippageBps,
+                           int levels) {
+
+    /**
+     * Видимой ликвидности хватает на весь объём.
+     */
+    public boolean complete() {
+        return filledQty >= requestedQty;
+    }
+}
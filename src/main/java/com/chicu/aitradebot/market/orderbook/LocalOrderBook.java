@@ -0,0 +1,226 @@
+package com.chicu.aitradebot.market.orderbook;
+
+import java.util.ArrayDeque;
+
+/**
+ * 📖 Локальный L2-стакан одного символа (Binance diff-depth + REST snapshot).
+ *
+ * ❗ Последовательность (правила Binance "How to manage a local order book"):
+ *  - пока нет snapshot'а — diff-события буферизуются (SYNCING)
+ *  - snapshot(lastUpdateId): события с u <= lastUpdateId выбрасываются,
+ *    первое оставшееся обязано покрыть lastUpdateId + 1 (U <= lastUpdateId + 1 <= u),
+ *    иначе snapshot слишком старый — нужен новый
+ *  - дальше каждое событие продолжает предыдущее: U <= lastUpdateId + 1
+ *  - разрыв (U > lastUpdateId + 1) → GAP: стакан сбрасывается, событие уходит в буфер,
+ *    владелец запрашивает новый snapshot
+ *
+ * Уровни передаются плоскими массивами [price0, qty0, price1, qty1, ...].
+ * Один писатель (WS-поток) и редкие читатели — достаточно монитора объекта.
+ */
+public final class LocalOrderBook {
+
+    public enum Status {SYNCING, LIVE}
+
+    public enum ApplyResult {
+        /** стакан ждёт snapshot — событие в буфере */
+        BUFFERED,
+        /** событие целиком старее текущего состояния */
+        STALE,
+        APPLIED,
+        /** пропущены события — стакан сброшен, нужен snapshot */
+        GAP
+    }
+
+    private record Diff(long firstId, long lastId, double[] bids, double[] asks) {
+    }
+
+    private final String symbol;
+    private final int maxBuffered;
+
+    private final OrderBookSide bids;
+    private final OrderBookSide asks;
+    private final ArrayDeque<Diff> buffer = new ArrayDeque<>();
+
+    private Status status = Status.SYNCING;
+    private long lastUpdateId = -1;
+    private long updatedAt;
+
+    public LocalOrderBook(String symbol, int maxLevels, int maxBuffered) {
+        this.symbol = symbol;
+        this.maxBuffered = Math.max(1, maxBuffered);
+        this.bids = new OrderBookSide(true, maxLevels);
+        this.asks = new OrderBookSide(false, maxLevels);
+    }
+
+    public String symbol() {
+        return symbol;
+    }
+
+    // =====================================================
+    // WRITE
+    // =====================================================
+
+    public synchronized ApplyResult onDiff(long firstId, long lastId, double[] bidLevels, double[] askLevels) {
+
+        if (status == Status.SYNCING) {
+            if (buffer.size() >= maxBuffered) {
+                // snapshot запаздывает — старые события всё равно отбросит более свежий snapshot
+                buffer.pollFirst();
+            }
+            buffer.addLast(new Diff(firstId, lastId, bidLevels, askLevels));
+            return ApplyResult.BUFFERED;
+        }
+
+        if (lastId <= lastUpdateId) return ApplyResult.STALE;
+
+        if (firstId > lastUpdateId + 1) {
+            reset();
+            buffer.addLast(new Diff(firstId, lastId, bidLevels, askLevels));
+            return ApplyResult.GAP;
+        }
+
+        apply(lastId, bidLevels, askLevels);
+        return ApplyResult.APPLIED;
+    }
+
+    /**
+     * @return false — snapshot старше буфера (между ними дыра), нужен более свежий
+     */
+    public synchronized boolean applySnapshot(long snapshotId, double[] bidLevels, double[] askLevels) {
+
+        while (!buffer.isEmpty() && buffer.peekFirst().lastId() <= snapshotId) {
+            buffer.pollFirst();
+        }
+
+        Diff first = buffer.peekFirst();
+        if (first != null && first.firstId() > snapshotId + 1) {
+            return false;
+        }
+
+        bids.clear();
+        asks.clear();
+        apply(snapshotId, bidLevels, askLevels);
+        status = Status.LIVE;
+
+        while (!buffer.isEmpty()) {
+            Diff d = buffer.pollFirst();
+            if (d.firstId() > lastUpdateId + 1) {
+                // дыра внутри буфера (переполнение) — начинаем заново
+                reset();
+                buffer.addLast(d);
+                return false;
+            }
+            apply(d.lastId(), d.bids(), d.asks());
+        }
+        return true;
+    }
+
+    public synchronized void reset() {
+        status = Status.SYNCING;
+        lastUpdateId = -1;
+        bids.clear();
+        asks.clear();
+        buffer.clear();
+    }
+
+    private void apply(long id, double[] bidLevels, double[] askLevels) {
+        applySide(bids, bidLevels);
+        applySide(asks, askLevels);
+        lastUpdateId = id;
+        updatedAt = System.currentTimeMillis();
+    }
+
+    private static void applySide(OrderBookSide side, double[] levels) {
+        if (levels == null) return;
+        for (int i = 0; i + 1 < levels.length; i += 2) {
+            side.set(levels[i], levels[i + 1]);
+        }
+    }
+
+    // =====================================================
+    // READ
+    // =====================================================
+
+    public synchronized Status status() {
+        return status;
+    }
+
+    public synchronized long lastUpdateId() {
+        return lastUpdateId;
+    }
+
+    /**
+     * Время последнего применённого события (мс, локальные часы).
+     */
+    public synchronized long updatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * @return лучший bid или NaN, если стакан не готов / сторона пустая
+     */
+    public synchronized double bestBid() {
+        return status == Status.LIVE && bids.size() > 0 ? bids.price(0) : Double.NaN;
+    }
+
+    public synchronized double bestAsk() {
+        return status == Status.LIVE && asks.size() > 0 ? asks.price(0) : Double.NaN;
+    }
+
+    /**
+     * Количество на конкретном уровне цены (0 — уровня нет или стакан не готов).
+     */
+    public synchronized double depthAt(boolean bid, double price) {
+        if (status != Status.LIVE) return 0.0;
+        return (bid ? bids : asks).qtyAt(price);
+    }
+
+    /**
+     * Суммарное количество от лучшей цены до limitPrice включительно.
+     */
+    public synchronized double depthUpTo(boolean bid, double limitPrice) {
+        if (status != Status.LIVE) return 0.0;
+
+        OrderBookSide side = bid ? bids : asks;
+        double total = 0.0;
+
+        for (int i = 0; i < side.size(); i++) {
+            double p = side.price(i);
+            if (bid ? p < limitPrice : p > limitPrice) break;
+            total += side.qty(i);
+        }
+        return total;
+    }
+
+    /**
+     * Проход рыночного ордера qty по видимым уровням.
+     *
+     * @return null — стакан не готов или противоположная сторона пустая
+     */
+    public synchronized FillEstimate estimate(boolean buy, double qty) {
+        if (status != Status.LIVE || !(qty > 0)) return null;
+
+        OrderBookSide side = buy ? asks : bids;
+        if (side.size() == 0) return null;
+
+        double best = side.price(0);
+        double remaining = qty;
+        double notional = 0.0;
+        double worst = best;
+        int levels = 0;
+
+        for (int i = 0; i < side.size() && remaining > 0; i++) {
+            double take = Math.min(remaining, side.qty(i));
+            worst = side.price(i);
+            notional += take * worst;
+            remaining -= take;
+            levels++;
+        }
+
+        double filled = remaining > 0 ? qty - remaining : qty;
+        double avg = notional / filled;
+        double slippageBps = Math.abs(avg - best) / best * 10_000.0;
+
+        return new FillEstimate(buy, qty, filled, avg, best, worst, slippageBps, levels);
+    }
+}
@@ -0,0 +1,330 @@
+package com.chicu.aitradebot.market.orderbook;
+
+import com.chicu.aitradebot.exchange.http.ExchangeRestClient;
+import com.chicu.aitradebot.exchange.http.RequestPriority;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okio.ByteString;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 📖 Локальные стаканы Binance SPOT по символам, на которые подписаны стратегии.
+ *
+ * ❗ Устройство:
+ *  - один WS {symbol}@depth@100ms на символ (сколько бы чатов ни торговало символом — счётчик ссылок)
+ *  - REST /api/v3/depth — snapshot, запрашивается в отдельном потоке (WS-поток не блокируем)
+ *  - разрыв последовательности / обрыв WS → стакан сбрасывается и пересинхронизируется
+ *  - читатели получают данные только из LIVE и не устаревшего стакана, иначе — пусто
+ *    (вызывающий код остаётся на последней цене тика, как раньше)
+ */
+@Slf4j
+@Service
+public class LocalOrderBookService {
+
+    private static final String WS_URL_TEMPLATE = "wss://stream.binance.com:9443/ws/%s@depth@100ms";
+    private static final String DEPTH_URL_TEMPLATE = "https://api.binance.com/api/v3/depth?symbol=%s&limit=%d";
+
+    private final OkHttpClient client;
+    private final ExchangeRestClient http;
+    private final ObjectMapper objectMapper;
+    private final OrderBookProperties props;
+
+    private final Map<String, Tracked> books = new ConcurrentHashMap<>();
+
+    private final LongAdder gaps = new LongAdder();
+    private final LongAdder resyncs = new LongAdder();
+
+    private final ScheduledExecutorService resyncExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "orderbook-resync");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public LocalOrderBookService(OkHttpClient client,
+                                 ExchangeRestClient http,
+                                 ObjectMapper objectMapper,
+                                 OrderBookProperties props,
+                                 MeterRegistry registry) {
+        this.client = client;
+        this.http = http;
+        this.objectMapper = objectMapper;
+        this.props = props;
+
+        FunctionCounter.builder("market.orderbook.gaps", gaps, LongAdder::sum)
+                .description("Diff-depth sequence gaps detected")
+                .register(registry);
+        FunctionCounter.builder("market.orderbook.resyncs", resyncs, LongAdder::sum)
+                .description("Order book REST snapshots applied")
+                .register(registry);
+    }
+
+    private static final class Tracked {
+        final LocalOrderBook book;
+        int refs;
+        WebSocket ws;
+        boolean resyncScheduled;
+
+        Tracked(LocalOrderBook book) {
+            this.book = book;
+        }
+    }
+
+    // =====================================================
+    // TRACK / RELEASE
+    // =====================================================
+
+    /**
+     * Начать (или продолжить) вести стакан символа.
+     */
+    public synchronized void track(String symbol) {
+        if (!props.isEnabled()) return;
+
+        String sym = norm(symbol);
+        if (sym.isEmpty()) return;
+
+        Tracked t = books.get(sym);
+        if (t != null) {
+            t.refs++;
+            return;
+        }
+
+        t = new Tracked(new LocalOrderBook(sym, props.getMaxLevels(), props.getMaxBufferedEvents()));
+        t.refs = 1;
+        books.put(sym, t);
+
+        connect(sym, t);
+        scheduleResync(sym, t, 0);
+    }
+
+    /**
+     * Отпустить стакан: последний release закрывает WS.
+     */
+    public synchronized void release(String symbol) {
+        String sym = norm(symbol);
+        Tracked t = books.get(sym);
+        if (t == null) return;
+
+        if (--t.refs > 0) return;
+
+        books.remove(sym);
+        if (t.ws != null) {
+            t.ws.close(1000, "order book released");
+        }
+        log.info("📖 ORDERBOOK released {}", sym);
+    }
+
+    // =====================================================
+    // READ
+    // =====================================================
+
+    /**
+     * Готовый (LIVE и свежий) стакан символа.
+     */
+    public Optional<LocalOrderBook> book(String symbol) {
+        Tracked t = books.get(norm(symbol));
+        if (t == null) return Optional.empty();
+
+        LocalOrderBook b = t.book;
+        if (b.status() != LocalOrderBook.Status.LIVE) return Optional.empty();
+        if (System.currentTimeMillis() - b.updatedAt() > props.getStaleMs()) return Optional.empty();
+
+        return Optional.of(b);
+    }
+
+    public Optional<Double> bestBid(String symbol) {
+        return book(symbol).map(LocalOrderBook::bestBid).filter(p -> !p.isNaN());
+    }
+
+    public Optional<Double> bestAsk(String symbol) {
+        return book(symbol).map(LocalOrderBook::bestAsk).filter(p -> !p.isNaN());
+    }
+
+    public double depthAt(String symbol, boolean bid, double price) {
+        return book(symbol).map(b -> b.depthAt(bid, price)).orElse(0.0);
+    }
+
+    /**
+     * Оценка исполнения рыночного ордера.
+     *
+     * @param side BUY / SELL
+     */
+    public Optional<FillEstimate> estimate(String symbol, String side, double qty) {
+        boolean buy = "BUY".equalsIgnoreCase(side);
+        return book(symbol).map(b -> b.estimate(buy, qty));
+    }
+
+    // =====================================================
+    // SYNC
+    // =====================================================
+
+    private void connect(String sym, Tracked t) {
+        String url = String.format(WS_URL_TEMPLATE, sym.toLowerCase(Locale.ROOT));
+        log.info("📖 ORDERBOOK CONNECT {} {}", sym, url);
+        t.ws = client.newWebSocket(new Request.Builder().url(url).build(), new DepthListener(sym, t));
+    }
+
+    private void scheduleResync(String sym, Tracked t, long delayMs) {
+        synchronized (this) {
+            if (t.resyncScheduled || books.get(sym) != t) return;
+            t.resyncScheduled = true;
+        }
+        resyncExecutor.schedule(() -> resync(sym, t), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void resync(String sym, Tracked t) {
+        synchronized (this) {
+            t.resyncScheduled = false;
+            if (books.get(sym) != t) return;
+        }
+
+        try {
+            String url = String.format(DEPTH_URL_TEMPLATE, sym, props.getSnapshotLimit());
+            String body = http.get("BINANCE", url, RequestPriority.MARKET, depthWeight(props.getSnapshotLimit()));
+            JsonNode root = objectMapper.readTree(body);
+
+            long snapshotId = root.path("lastUpdateId").asLong(-1);
+            if (snapshotId < 0) throw new IllegalStateException("no lastUpdateId");
+
+            if (t.book.applySnapshot(snapshotId, levels(root.path("bids")), levels(root.path("asks")))) {
+                resyncs.increment();
+                log.info("📖 ORDERBOOK LIVE {} lastUpdateId={}", sym, t.book.lastUpdateId());
+                return;
+            }
+
+            log.debug("📖 ORDERBOOK snapshot {} behind stream, retry", sym);
+        } catch (Exception e) {
+            log.warn("⚠️ ORDERBOOK snapshot failed {}: {}", sym, e.getMessage());
+        }
+
+        scheduleResync(sym, t, props.getResyncDelayMs());
+    }
+
+    private static double[] levels(JsonNode arr) {
+        if (arr == null || !arr.isArray()) return new double[0];
+
+        double[] out = new double[arr.size() * 2];
+        int i = 0;
+        for (JsonNode lvl : arr) {
+            out[i++] = Double.parseDouble(lvl.get(0).asText());
+            out[i++] = Double.parseDouble(lvl.get(1).asText());
+        }
+        return out;
+    }
+
+    /**
+     * Вес /api/v3/depth по глубине снапшота (Binance Spot API).
+     */
+    static int depthWeight(int limit) {
+        if (limit <= 100) return 5;
+        if (limit <= 500) return 25;
+        if (limit <= 1000) return 50;
+        return 250;
+    }
+
+    private static String norm(String symbol) {
+        return symbol == null ? "" : symbol.trim().toUpperCase(Locale.ROOT);
+    }
+
+    // =====================================================
+    // WS LISTENER
+    // =====================================================
+
+    private class DepthListener extends WebSocketListener {
+
+        private final String sym;
+        private final Tracked t;
+
+        DepthListener(String sym, Tracked t) {
+            this.sym = sym;
+            this.t = t;
+        }
+
+        @Override
+        public void onMessage(@NotNull WebSocket webSocket, @NotNull String text) {
+            try {
+                JsonNode root = objectMapper.readTree(text);
+                JsonNode data = root.has("data") ? root.get("data") : root;
+
+                if (!data.has("U") || !data.has("u")) return;
+
+                LocalOrderBook.ApplyResult r = t.book.onDiff(
+                        data.get("U").asLong(),
+                        data.get("u").asLong(),
+                        levels(data.get("b")),
+                        levels(data.get("a"))
+                );
+
+                if (r == LocalOrderBook.ApplyResult.GAP) {
+                    gaps.increment();
+                    log.warn("⚠️ ORDERBOOK gap {} → resync", sym);
+                    scheduleResync(sym, t, 0);
+                }
+            } catch (Exception e) {
+                log.warn("⚠️ ORDERBOOK diff error {}: {}", sym, e.getMessage());
+            }
+        }
+
+        @Override
+        public void onMessage(@NotNull WebSocket webSocket, @NotNull ByteString bytes) {
+            onMessage(webSocket, bytes.utf8());
+        }
+
+        @Override
+        public void onFailure(@NotNull WebSocket webSocket, @NotNull Throwable t, Response response) {
+            log.warn("⚠️ ORDERBOOK WS failure {}: {}", sym, t.getMessage());
+            reconnect();
+        }
+
+        @Override
+        public void onClosed(@NotNull WebSocket webSocket, int code, @NotNull String reason) {
+            reconnect();
+        }
+
+        private void reconnect() {
+            t.book.reset();
+
+            synchronized (LocalOrderBookService.this) {
+                // release() уже убрал символ — это штатное закрытие
+                if (books.get(sym) != t) return;
+            }
+
+            resyncExecutor.schedule(() -> {
+                synchronized (LocalOrderBookService.this) {
+                    if (books.get(sym) != t) return;
+                    connect(sym, t);
+                }
+                scheduleResync(sym, t, 0);
+            }, props.getResyncDelayMs(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        resyncExecutor.shutdownNow();
+        synchronized (this) {
+            for (Tracked t : books.values()) {
+                if (t.ws != null) t.ws.close(1000, "shutdown");
+            }
+            books.clear();
+        }
+    }
+}
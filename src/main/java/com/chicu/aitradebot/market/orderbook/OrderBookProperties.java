@@ -0,0 +1,59 @@
+package com.chicu.aitradebot.market.orderbook;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "market.orderbook")
+public class OrderBookProperties {
+
+    /**
+     * Вести ли локальные стаканы по подписанным символам.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Глубина REST snapshot'а (/api/v3/depth limit: 5..5000).
+     */
+    private int snapshotLimit = 1000;
+
+    /**
+     * Максимум уровней на сторону — более глубокие уровни отбрасываются.
+     */
+    private int maxLevels = 5000;
+
+    /**
+     * Сколько diff-событий держать, пока ждём snapshot.
+     */
+    private int maxBufferedEvents = 1000;
+
+    /**
+     * Пауза перед повторным snapshot / переподключением (мс).
+     */
+    private long resyncDelayMs = 1_000L;
+
+    /**
+     * Стакан без обновлений дольше этого считается устаревшим и не используется для оценок (мс).
+     */
+    private long staleMs = 5_000L;
+
+    /**
+     * Вести ли вершины стаканов (Binance bookTicker / Bybit orderbook.1).
+     */
+    private boolean topOfBookEnabled = true;
+
+    /**
+     * Максимум пар EXCHANGE:SYMBOL в таблице вершин.
+     */
+    private int topOfBookMaxSymbols = 1024;
+
+    /**
+     * Вершина без обновлений дольше этого считается устаревшей → REST fallback (мс).
+     */
+    private long topOfBookStaleMs = 3_000L;
+
+    /**
+     * Символ без подписок стримов, который не читали дольше этого, отписывается и освобождает слот (мс).
+     */
+    private long topOfBookIdleMs = 600_000L;
+}
@@ -0,0 +1,117 @@
+package com.chicu.aitradebot.market.orderbook;
+
+import java.util.Arrays;
+
+/**
+ * 📚 Одна сторона стакана: уровни цены в отсортированных примитивных массивах.
+ *
+ * ❗ Индекс 0 — лучший уровень (bids — по убыванию цены, asks — по возрастанию).
+ * Обновления стакана почти всегда у вершины, поэтому вставка/удаление через arraycopy
+ * дешевле дерева с боксингом на каждый уровень.
+ *
+ * Не потокобезопасна — синхронизация в LocalOrderBook.
+ */
+final class OrderBookSide {
+
+    private final boolean bids;
+    private final int maxLevels;
+
+    private double[] prices;
+    private double[] qtys;
+    private int size;
+
+    OrderBookSide(boolean bids, int maxLevels) {
+        this.bids = bids;
+        this.maxLevels = Math.max(1, maxLevels);
+        this.prices = new double[Math.min(64, this.maxLevels)];
+        this.qtys = new double[prices.length];
+    }
+
+    /**
+     * Абсолютное количество на уровне (как в depthUpdate): qty <= 0 — удалить уровень.
+     */
+    void set(double price, double qty) {
+        int i = search(price);
+
+        if (i >= 0) {
+            if (qty > 0) {
+                qtys[i] = qty;
+            } else {
+                System.arraycopy(prices, i + 1, prices, i, size - i - 1);
+                System.arraycopy(qtys, i + 1, qtys, i, size - i - 1);
+                size--;
+            }
+            return;
+        }
+
+        if (qty <= 0) return;
+
+        int at = -i - 1;
+
+        // глубже лимита — уровень нам не нужен
+        if (at >= maxLevels) return;
+
+        if (size == maxLevels) {
+            size--; // отбрасываем самый дальний уровень
+        } else if (size == prices.length) {
+            int cap = Math.min(maxLevels, prices.length << 1);
+            prices = Arrays.copyOf(prices, cap);
+            qtys = Arrays.copyOf(qtys, cap);
+        }
+
+        System.arraycopy(prices, at, prices, at + 1, size - at);
+        System.arraycopy(qtys, at, qtys, at + 1, size - at);
+        prices[at] = price;
+        qtys[at] = qty;
+        size++;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    double price(int i) {
+        return prices[i];
+    }
+
+    double qty(int i) {
+        return qtys[i];
+    }
+
+    /**
+     * @return количество на уровне или 0
+     */
+    double qtyAt(double price) {
+        int i = search(price);
+        return i >= 0 ? qtys[i] : 0.0;
+    }
+
+    /**
+     * Бинарный поиск в порядке стороны.
+     *
+     * @return индекс или (-(точка вставки) - 1)
+     */
+    private int search(double price) {
+        int lo = 0;
+        int hi = size - 1;
+
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            double p = prices[mid];
+
+            if (p == price) return mid;
+
+            boolean before = bids ? p > price : p < price;
+            if (before) {
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return -(lo + 1);
+    }
+}
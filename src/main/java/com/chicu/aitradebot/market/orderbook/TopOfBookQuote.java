@@ -0,0 +1,34 @@
+package com.chicu.aitradebot.market.orderbook;
+
+/**
+ * 🎯 Вершина стакана (лучшие bid/ask) на момент чтения.
+ *
+ * @param exchangeTs время биржи (мс); для Binance bookTicker — время получения
+ * @param updatedAt  локальное время последнего обновления (мс)
+ */
+public record TopOfBookQuote(double bid,
+                             double bidQty,
+                             double ask,
+                             double askQty,
+                             long exchangeTs,
+                             long updatedAt) {
+
+    public double mid() {
+        return (bid + ask) / 2.0;
+    }
+
+    /**
+     * Спред в б.п. относительно mid.
+     */
+    public double spreadBps() {
+        double mid = mid();
+        return mid > 0 ? (ask - bid) / mid * 10_000.0 : Double.NaN;
+    }
+
+    /**
+     * Цена, по которой исполнится рыночный ордер на вершине: BUY — ask, SELL — bid.
+     */
+    public double touch(boolean buy) {
+        return buy ? ask : bid;
+    }
+}
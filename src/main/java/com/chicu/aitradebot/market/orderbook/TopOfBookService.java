@@ -0,0 +1,482 @@
+package com.chicu.aitradebot.market.orderbook;
+
+import com.chicu.aitradebot.common.enums.NetworkType;
+import com.chicu.aitradebot.market.service.MarketSymbolService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okio.ByteString;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 🎯 Вершины стаканов из WS: Binance {symbol}@bookTicker и Bybit orderbook.1.{SYMBOL}.
+ *
+ * ❗ Устройство:
+ *  - по одному WS на биржу, символы досписываются по мере запросов (track)
+ *  - track / release — счётчик ссылок подписок стримов; quoteOrTrack досписывает только символы
+ *    из реестра (MarketSymbolService) и без ссылки
+ *  - символ без ссылок, который не читали topOfBookIdleMs, отписывается и освобождает слот
+ *  - данные — в TopOfBookTable (seqlock, без блокировок на чтение)
+ *  - quote() отдаёт только свежие данные; устарело / ещё не пришло → пусто,
+ *    вызывающий код идёт в REST (как раньше)
+ *  - обрыв WS → переподключение с повторной подпиской всех символов
+ */
+@Slf4j
+@Service
+public class TopOfBookService {
+
+    public static final String BINANCE = "BINANCE";
+    public static final String BYBIT = "BYBIT";
+
+    private static final String BINANCE_WS_URL = "wss://stream.binance.com:9443/ws";
+    private static final String BYBIT_WS_URL = "wss://stream.bybit.com/v5/public/spot";
+
+    private static final int SUBSCRIBE_CHUNK = 10;
+    private static final long BYBIT_PING_MS = 20_000L;
+
+    /** котируемые активы, по которым символ ищется в реестре (реестр разбит по quote asset) */
+    private static final List<String> QUOTE_ASSETS = List.of("USDT", "USDC", "FDUSD", "BTC", "ETH", "BNB");
+
+    private final OkHttpClient client;
+    private final ObjectMapper objectMapper;
+    private final OrderBookProperties props;
+    private final MarketSymbolService symbols;
+
+    private final TopOfBookTable table;
+
+    /** EXCHANGE:SYMBOL → подписок стримов (track без release); под замком this */
+    private final Map<String, Integer> pins = new ConcurrentHashMap<>();
+    private final Feed binance;
+    private final Feed bybit;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "top-of-book-feed");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public TopOfBookService(OkHttpClient client,
+                            ObjectMapper objectMapper,
+                            OrderBookProperties props,
+                            MarketSymbolService symbols) {
+        this.client = client;
+        this.objectMapper = objectMapper;
+        this.props = props;
+        this.symbols = symbols;
+        this.table = new TopOfBookTable(props.getTopOfBookMaxSymbols());
+        this.binance = new BinanceFeed();
+        this.bybit = new BybitFeed();
+
+        scheduler.scheduleWithFixedDelay(bybit::ping, BYBIT_PING_MS, BYBIT_PING_MS, TimeUnit.MILLISECONDS);
+
+        long sweepMs = Math.max(1_000L, props.getTopOfBookIdleMs() / 2);
+        scheduler.scheduleWithFixedDelay(this::evictIdle, sweepMs, sweepMs, TimeUnit.MILLISECONDS);
+    }
+
+    // =====================================================
+    // API
+    // =====================================================
+
+    /**
+     * Подписаться на вершину символа (подписка стрима). Каждому track — свой release.
+     */
+    public synchronized void track(String exchange, String symbol) {
+        if (!props.isTopOfBookEnabled()) return;
+
+        Feed feed = feed(exchange);
+        String sym = norm(symbol);
+        if (feed == null || sym.isEmpty()) return;
+
+        String key = TopOfBookTable.key(feed.exchange, sym);
+        if (!add(feed, sym, key)) return;
+        pins.merge(key, 1, Integer::sum);
+    }
+
+    /**
+     * Отпустить подписку. Последний release не отписывает сразу: символ уйдёт,
+     * когда его перестанут читать (topOfBookIdleMs) — цену по нему могут спрашивать и без стрима.
+     */
+    public synchronized void release(String exchange, String symbol) {
+        Feed feed = feed(exchange);
+        String sym = norm(symbol);
+        if (feed == null || sym.isEmpty()) return;
+
+        pins.computeIfPresent(TopOfBookTable.key(feed.exchange, sym), (k, n) -> n > 1 ? n - 1 : null);
+    }
+
+    /**
+     * Свежая вершина (не старше topOfBookStaleMs).
+     */
+    public Optional<TopOfBookQuote> quote(String exchange, String symbol) {
+        String ex = exchange == null ? "" : exchange.trim().toUpperCase(Locale.ROOT);
+        String key = TopOfBookTable.key(ex, norm(symbol));
+        int slot = table.find(key);
+        if (slot < 0) return Optional.empty();
+
+        long now = System.currentTimeMillis();
+        table.touch(slot, now);
+
+        TopOfBookQuote q = table.read(slot);
+        // слот успели освободить и отдать другому символу
+        if (q == null || table.find(key) != slot) return Optional.empty();
+        if (now - q.updatedAt() > props.getTopOfBookStaleMs()) return Optional.empty();
+
+        return Optional.of(q);
+    }
+
+    /**
+     * Вершина + подписка без ссылки, если символ ещё не отслеживается и есть в реестре символов.
+     * Такая подписка живёт, пока символ читают.
+     */
+    public Optional<TopOfBookQuote> quoteOrTrack(String exchange, String symbol) {
+        Optional<TopOfBookQuote> q = quote(exchange, symbol);
+        if (q.isPresent() || !props.isTopOfBookEnabled()) return q;
+
+        Feed feed = feed(exchange);
+        String sym = norm(symbol);
+        if (feed == null || sym.isEmpty()) return q;
+
+        String key = TopOfBookTable.key(feed.exchange, sym);
+        if (table.find(key) >= 0 || !listed(feed.exchange, sym)) return q;
+
+        synchronized (this) {
+            add(feed, sym, key);
+        }
+        return q;
+    }
+
+    private boolean add(Feed feed, String sym, String key) {
+        if (table.slot(key) < 0) {
+            log.warn("⚠️ TOP-OF-BOOK table full, {} not tracked", key);
+            return false;
+        }
+        feed.add(sym);
+        return true;
+    }
+
+    /**
+     * Символ торгуется на бирже (mainnet — вершины идут только с боевых WS).
+     */
+    private boolean listed(String exchange, String sym) {
+        for (String quote : QUOTE_ASSETS) {
+            if (sym.length() <= quote.length() || !sym.endsWith(quote)) continue;
+            try {
+                if (symbols.getIndexed(exchange, NetworkType.MAINNET, quote, sym) != null) return true;
+            } catch (Exception e) {
+                log.debug("⚠️ TOP-OF-BOOK symbol lookup failed {}:{}: {}", exchange, sym, e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    // =====================================================
+    // IDLE EVICTION
+    // =====================================================
+
+    /**
+     * Символы без подписок стримов, которые не читали topOfBookIdleMs: отписка + освобождение слота.
+     */
+    synchronized void evictIdle() {
+        long now = System.currentTimeMillis();
+
+        for (String key : List.copyOf(table.keys())) {
+            if (pins.containsKey(key)) continue;
+
+            int slot = table.find(key);
+            if (slot < 0 || now - table.lastRead(slot) < props.getTopOfBookIdleMs()) continue;
+
+            int i = key.indexOf(':');
+            Feed feed = feed(key.substring(0, i));
+            if (feed != null) feed.remove(key.substring(i + 1));
+            table.release(key);
+
+            log.debug("🎯 TOP-OF-BOOK idle {} released", key);
+        }
+    }
+
+    void onQuote(String exchange, String symbol, double bid, double bidQty, double ask, double askQty, long exchangeTs) {
+        int slot = table.find(TopOfBookTable.key(exchange, symbol));
+        if (slot < 0) return;
+        table.update(slot, bid, bidQty, ask, askQty, exchangeTs, System.currentTimeMillis());
+    }
+
+    private Feed feed(String exchange) {
+        if (exchange == null) return null;
+        return switch (exchange.trim().toUpperCase(Locale.ROOT)) {
+            case BINANCE -> binance;
+            case BYBIT -> bybit;
+            default -> null;
+        };
+    }
+
+    private static String norm(String symbol) {
+        return symbol == null ? "" : symbol.replace("/", "").trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static double num(JsonNode n) {
+        if (n == null || n.isNull()) return Double.NaN;
+        try {
+            return Double.parseDouble(n.asText());
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    // =====================================================
+    // FEEDS
+    // =====================================================
+
+    /**
+     * Один WS на биржу с досписыванием символов.
+     */
+    private abstract class Feed extends WebSocketListener {
+
+        final String exchange;
+        private final String url;
+        private final Set<String> symbols = ConcurrentHashMap.newKeySet();
+
+        private WebSocket ws;
+        private boolean open;
+
+        Feed(String exchange, String url) {
+            this.exchange = exchange;
+            this.url = url;
+        }
+
+        abstract String subscribeMessage(List<String> symbols);
+
+        abstract String unsubscribeMessage(List<String> symbols);
+
+        abstract void handle(JsonNode root);
+
+        synchronized void add(String sym) {
+            if (!symbols.add(sym)) return;
+
+            if (ws == null) {
+                connect();
+                return; // подписка уйдёт в onOpen
+            }
+            if (open) {
+                ws.send(subscribeMessage(List.of(sym)));
+            }
+        }
+
+        synchronized void remove(String sym) {
+            if (!symbols.remove(sym)) return;
+
+            if (ws != null && open) {
+                ws.send(unsubscribeMessage(List.of(sym)));
+            }
+        }
+
+        synchronized void ping() {
+            if (ws != null && open) pingMessage();
+        }
+
+        void pingMessage() {
+        }
+
+        synchronized void send(String text) {
+            if (ws != null) ws.send(text);
+        }
+
+        private synchronized void connect() {
+            log.info("🎯 TOP-OF-BOOK CONNECT {} {}", exchange, url);
+            open = false;
+            ws = client.newWebSocket(new Request.Builder().url(url).build(), this);
+        }
+
+        @Override
+        public void onOpen(@NotNull WebSocket webSocket, @NotNull Response response) {
+            synchronized (this) {
+                if (webSocket != ws) return;
+                open = true;
+
+                List<String> all = new ArrayList<>(symbols);
+                for (int i = 0; i < all.size(); i += SUBSCRIBE_CHUNK) {
+                    webSocket.send(subscribeMessage(all.subList(i, Math.min(all.size(), i + SUBSCRIBE_CHUNK))));
+                }
+                log.info("🎯 TOP-OF-BOOK {} subscribed {} symbols", exchange, all.size());
+            }
+        }
+
+        @Override
+        public void onMessage(@NotNull WebSocket webSocket, @NotNull String text) {
+            try {
+                handle(objectMapper.readTree(text));
+            } catch (Exception e) {
+                log.debug("⚠️ TOP-OF-BOOK {} parse error: {}", exchange, e.getMessage());
+            }
+        }
+
+        @Override
+        public void onMessage(@NotNull WebSocket webSocket, @NotNull ByteString bytes) {
+            onMessage(webSocket, bytes.utf8());
+        }
+
+        @Override
+        public void onFailure(@NotNull WebSocket webSocket, @NotNull Throwable t, Response response) {
+            log.warn("⚠️ TOP-OF-BOOK {} WS failure: {}", exchange, t.getMessage());
+            dropped(webSocket);
+        }
+
+        @Override
+        public void onClosed(@NotNull WebSocket webSocket, int code, @NotNull String reason) {
+            dropped(webSocket);
+        }
+
+        private void dropped(WebSocket webSocket) {
+            synchronized (this) {
+                if (webSocket != ws) return;
+                ws = null;
+                open = false;
+            }
+            if (scheduler.isShutdown()) return;
+
+            scheduler.schedule(() -> {
+                synchronized (this) {
+                    if (ws == null && !symbols.isEmpty()) connect();
+                }
+            }, props.getResyncDelayMs(), TimeUnit.MILLISECONDS);
+        }
+
+        synchronized void close() {
+            if (ws != null) {
+                ws.close(1000, "shutdown");
+                ws = null;
+            }
+        }
+    }
+
+    /**
+     * {"u":400900217,"s":"BNBUSDT","b":"25.35","B":"31.21","a":"25.36","A":"40.66"}
+     */
+    private final class BinanceFeed extends Feed {
+
+        private final AtomicInteger msgId = new AtomicInteger(1);
+
+        BinanceFeed() {
+            super(BINANCE, BINANCE_WS_URL);
+        }
+
+        @Override
+        String subscribeMessage(List<String> symbols) {
+            return message("SUBSCRIBE", symbols);
+        }
+
+        @Override
+        String unsubscribeMessage(List<String> symbols) {
+            return message("UNSUBSCRIBE", symbols);
+        }
+
+        private String message(String method, List<String> symbols) {
+            StringBuilder params = new StringBuilder();
+            for (String s : symbols) {
+                if (!params.isEmpty()) params.append(',');
+                params.append('"').append(s.toLowerCase(Locale.ROOT)).append("@bookTicker\"");
+            }
+            return "{\"method\":\"" + method + "\",\"params\":[" + params + "],\"id\":" + msgId.getAndIncrement() + "}";
+        }
+
+        @Override
+        void handle(JsonNode root) {
+            JsonNode data = root.has("data") ? root.get("data") : root;
+            if (!data.has("s") || !data.has("b") || !data.has("a")) return;
+
+            onQuote(BINANCE, data.get("s").asText(),
+                    num(data.get("b")), num(data.get("B")),
+                    num(data.get("a")), num(data.get("A")),
+                    System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * {"topic":"orderbook.1.BTCUSDT","type":"snapshot","ts":..,"data":{"s":"BTCUSDT","b":[["p","q"]],"a":[["p","q"]]}}
+     */
+    private final class BybitFeed extends Feed {
+
+        BybitFeed() {
+            super(BYBIT, BYBIT_WS_URL);
+        }
+
+        @Override
+        String subscribeMessage(List<String> symbols) {
+            return message("subscribe", symbols);
+        }
+
+        @Override
+        String unsubscribeMessage(List<String> symbols) {
+            return message("unsubscribe", symbols);
+        }
+
+        private String message(String op, List<String> symbols) {
+            StringBuilder args = new StringBuilder();
+            for (String s : symbols) {
+                if (!args.isEmpty()) args.append(',');
+                args.append("\"orderbook.1.").append(s).append('"');
+            }
+            return "{\"op\":\"" + op + "\",\"args\":[" + args + "]}";
+        }
+
+        @Override
+        void pingMessage() {
+            send("{\"op\":\"ping\"}");
+        }
+
+        @Override
+        void handle(JsonNode root) {
+            if (!root.path("topic").asText("").startsWith("orderbook.1.")) return;
+
+            JsonNode data = root.path("data");
+            String symbol = data.path("s").asText("");
+            if (symbol.isEmpty()) return;
+
+            // в delta может прийти одна сторона или удаление уровня (size=0) — такую сторону не трогаем
+            double[] bid = level(data.path("b"));
+            double[] ask = level(data.path("a"));
+
+            onQuote(BYBIT, symbol, bid[0], bid[1], ask[0], ask[1], root.path("ts").asLong(System.currentTimeMillis()));
+        }
+
+        private double[] level(JsonNode side) {
+            double[] out = {Double.NaN, Double.NaN};
+            if (!side.isArray()) return out;
+
+            for (JsonNode lvl : side) {
+                double p = num(lvl.get(0));
+                double q = num(lvl.get(1));
+                if (p > 0 && q > 0) {
+                    out[0] = p;
+                    out[1] = q;
+                }
+            }
+            return out;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+        binance.close();
+        bybit.close();
+    }
+}
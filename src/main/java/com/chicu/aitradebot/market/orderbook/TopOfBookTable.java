@@ -0,0 +1,187 @@
+package com.chicu.aitradebot.market.orderbook;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 🎯 Таблица вершин стакана (EXCHANGE:SYMBOL → bid/ask/size) без блокировок и без аллокаций на запись.
+ *
+ * ❗ Устройство:
+ *  - слот символа — STRIDE long'ов одного AtomicLongArray, double хранятся как raw bits
+ *  - seqlock: писатель делает seq нечётным (CAS), пишет поля, возвращает чётный seq;
+ *    читатель повторяет чтение, пока seq не совпал до и после и не чётный
+ *  - освобождённый слот (release) обнуляется и уходит в список свободных; читатель,
+ *    взявший номер слота до release, перепроверяет find() после чтения
+ */
+final class TopOfBookTable {
+
+    private static final int STRIDE = 8;
+
+    private static final int SEQ = 0;
+    private static final int BID = 1;
+    private static final int BID_QTY = 2;
+    private static final int ASK = 3;
+    private static final int ASK_QTY = 4;
+    private static final int EXCHANGE_TS = 5;
+    private static final int UPDATED_AT = 6;
+    private static final int LAST_READ = 7;
+
+    private final int capacity;
+    private final AtomicLongArray data;
+    private final Map<String, Integer> slots = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+    /** свободные слоты, под замком slots */
+    private final ArrayDeque<Integer> free = new ArrayDeque<>();
+
+    TopOfBookTable(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.data = new AtomicLongArray(this.capacity * STRIDE);
+    }
+
+    static String key(String exchange, String symbol) {
+        return exchange + ":" + symbol;
+    }
+
+    /**
+     * @return слот ключа (регистрирует при первом обращении) или -1, если таблица заполнена
+     */
+    int slot(String key) {
+        Integer s = slots.get(key);
+        if (s != null) return s;
+
+        synchronized (slots) {
+            s = slots.get(key);
+            if (s != null) return s;
+
+            int slot;
+            if (!free.isEmpty()) {
+                slot = free.pop();
+            } else {
+                if (next.get() >= capacity) return -1;
+                slot = next.getAndIncrement();
+            }
+
+            // свежий слот не считается простаивающим до первого обращения
+            data.set(slot * STRIDE + LAST_READ, System.currentTimeMillis());
+            slots.put(key, slot);
+            return slot;
+        }
+    }
+
+    /**
+     * Освободить слот ключа: данные обнуляются, слот переиспользуется следующим ключом.
+     *
+     * @return false — ключа не было
+     */
+    boolean release(String key) {
+        synchronized (slots) {
+            Integer s = slots.remove(key);
+            if (s == null) return false;
+
+            clear(s);
+            free.push(s);
+            return true;
+        }
+    }
+
+    /**
+     * Ключи занятых слотов (живое представление).
+     */
+    Set<String> keys() {
+        return slots.keySet();
+    }
+
+    int size() {
+        return slots.size();
+    }
+
+    /**
+     * Отметить чтение слота (для выселения простаивающих символов).
+     */
+    void touch(int slot, long now) {
+        data.lazySet(slot * STRIDE + LAST_READ, now);
+    }
+
+    long lastRead(int slot) {
+        return data.get(slot * STRIDE + LAST_READ);
+    }
+
+    /**
+     * @return слот или -1 без регистрации
+     */
+    int find(String key) {
+        Integer s = slots.get(key);
+        return s != null ? s : -1;
+    }
+
+    /**
+     * Обновить вершину. NaN в цене стороны — сторона не пришла в сообщении, оставить прежнюю.
+     */
+    void update(int slot, double bid, double bidQty, double ask, double askQty, long exchangeTs, long now) {
+        int base = slot * STRIDE;
+
+        long seq;
+        do {
+            seq = data.get(base + SEQ);
+        } while ((seq & 1L) != 0 || !data.compareAndSet(base + SEQ, seq, seq + 1));
+
+        if (!Double.isNaN(bid)) {
+            data.set(base + BID, Double.doubleToRawLongBits(bid));
+            data.set(base + BID_QTY, Double.doubleToRawLongBits(bidQty));
+        }
+        if (!Double.isNaN(ask)) {
+            data.set(base + ASK, Double.doubleToRawLongBits(ask));
+            data.set(base + ASK_QTY, Double.doubleToRawLongBits(askQty));
+        }
+        data.set(base + EXCHANGE_TS, exchangeTs);
+        data.set(base + UPDATED_AT, now);
+
+        data.set(base + SEQ, seq + 2);
+    }
+
+    private void clear(int slot) {
+        int base = slot * STRIDE;
+
+        long seq;
+        do {
+            seq = data.get(base + SEQ);
+        } while ((seq & 1L) != 0 || !data.compareAndSet(base + SEQ, seq, seq + 1));
+
+        for (int i = BID; i <= UPDATED_AT; i++) {
+            data.set(base + i, 0L);
+        }
+
+        data.set(base + SEQ, seq + 2);
+    }
+
+    /**
+     * @return согласованный снимок слота или null, если по нему ещё не было обеих сторон
+     */
+    TopOfBookQuote read(int slot) {
+        int base = slot * STRIDE;
+
+        while (true) {
+            long s1 = data.get(base + SEQ);
+            if ((s1 & 1L) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            double bid = Double.longBitsToDouble(data.get(base + BID));
+            double bidQty = Double.longBitsToDouble(data.get(base + BID_QTY));
+            double ask = Double.longBitsToDouble(data.get(base + ASK));
+            double askQty = Double.longBitsToDouble(data.get(base + ASK_QTY));
+            long exchangeTs = data.get(base + EXCHANGE_TS);
+            long updatedAt = data.get(base + UPDATED_AT);
+
+            if (data.get(base + SEQ) != s1) continue;
+
+            if (s1 == 0 || !(bid > 0) || !(ask > 0)) return null;
+            return new TopOfBookQuote(bid, bidQty, ask, askQty, exchangeTs, updatedAt);
+        }
+    }
+}
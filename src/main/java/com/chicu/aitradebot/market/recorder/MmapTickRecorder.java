@@ -0,0 +1,357 @@
+package com.chicu.aitradebot.market.recorder;
+
+import com.chicu.aitradebot.common.util.TimeframeUtils;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import static com.chicu.aitradebot.market.recorder.TickSegmentFormat.*;
+
+/**
+ * 🎙 Always-on запись тиков в memory-mapped сегменты.
+ *
+ * ❗ Устройство:
+ *  - {dir}/{yyyy-MM-dd}/ticks-NNNN.seg, день — по UTC времени получения
+ *  - сегмент фиксированного размера отображается в память целиком: запись = несколько put в mmap
+ *  - заполнился / сменился день → следующий сегмент (старые не дописываются)
+ *  - один и тот же aggTrade приходит на каждую подписку (chat × strategy) — пишем один раз (по aggId)
+ *  - ошибки ввода-вывода не ломают торговлю: запись просто пропускается
+ */
+@Slf4j
+@Component
+public class MmapTickRecorder implements TickRecorder {
+
+    private static final long DAY_MS = 86_400_000L;
+    private static final long RETRY_AFTER_FAILURE_MS = 60_000L;
+
+    private final TickRecorderProperties props;
+    private final Path root;
+    private final long segmentBytes;
+
+    private final LongAdder records = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private final Object lock = new Object();
+
+    private TickDictionary dictionary;
+    private MappedByteBuffer segment;
+    private long segmentDay = Long.MIN_VALUE;
+    private long retryAt;
+
+    /** symbolId → последний записанный aggId (дедуп подписок) */
+    private long[] lastAggId = new long[256];
+
+    /** (symbolId, tf) → fingerprint последней записанной свечи */
+    private final Map<Long, Long> lastKline = new HashMap<>();
+
+    private ScheduledExecutorService flusher;
+
+    public MmapTickRecorder(TickRecorderProperties props, MeterRegistry registry) {
+        this.props = props;
+        this.root = Paths.get(props.getDir());
+        this.segmentBytes = Math.min(1024, Math.max(1, props.getSegmentMb())) * 1024L * 1024L;
+        Arrays.fill(lastAggId, -1L);
+
+        FunctionCounter.builder("market.recorder.records", records, LongAdder::sum)
+                .description("Ticks/klines written to segments")
+                .register(registry);
+        FunctionCounter.builder("market.recorder.bytes", bytes, LongAdder::sum)
+                .description("Bytes written to tick segments")
+                .register(registry);
+        FunctionCounter.builder("market.recorder.dropped", dropped, LongAdder::sum)
+                .description("Ticks/klines not recorded (I/O error, dictionary full)")
+                .register(registry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!props.isEnabled()) {
+            log.info("🎙 Tick recorder disabled");
+            return;
+        }
+
+        try {
+            Files.createDirectories(root);
+            dictionary = TickDictionary.load(root.resolve(DICTIONARY_FILE));
+        } catch (IOException e) {
+            log.warn("⚠️ Tick recorder disabled: cannot open {}: {}", root, e.getMessage());
+            return;
+        }
+
+        long interval = Math.max(500L, props.getForceIntervalMs());
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "tick-recorder-force");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::forceSafe, interval, interval, TimeUnit.MILLISECONDS);
+
+        log.info("🎙 Tick recorder → {} (segment {} MB, symbols {})", root.toAbsolutePath(), props.getSegmentMb(), dictionary.size());
+    }
+
+    // =====================================================
+    // WRITE
+    // =====================================================
+
+    @Override
+    public void recordAggTrade(String symbol, long aggId, long exchangeTs, double price, double qty, boolean buyerMaker) {
+        if (dictionary == null) return;
+
+        int id = dictionary.idOf(symbol);
+        if (id < 0) {
+            dropped.increment();
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        long lag = Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, now - exchangeTs));
+
+        synchronized (lock) {
+            if (aggId >= 0) {
+                if (id >= lastAggId.length) growAggIds(id);
+                if (aggId <= lastAggId[id]) return;
+                lastAggId[id] = aggId;
+            }
+
+            MappedByteBuffer b = ensure(now, AGG_TRADE_SIZE);
+            if (b == null) {
+                dropped.increment();
+                return;
+            }
+
+            int p = b.position();
+            b.put(p + 1, (byte) (buyerMaker ? FLAG_BUYER_MAKER : 0));
+            b.putShort(p + 2, (short) id);
+            b.putLong(p + 4, exchangeTs);
+            b.putInt(p + 12, (int) lag);
+            b.putDouble(p + 16, price);
+            b.putDouble(p + 24, qty);
+            b.put(p, TYPE_AGG_TRADE);
+            b.position(p + AGG_TRADE_SIZE);
+        }
+
+        records.increment();
+        bytes.add(AGG_TRADE_SIZE);
+    }
+
+    @Override
+    public void recordKline(String symbol,
+                            String timeframe,
+                            long openTime,
+                            double open,
+                            double high,
+                            double low,
+                            double close,
+                            double volume,
+                            boolean closed) {
+        if (dictionary == null) return;
+
+        int id = dictionary.idOf(symbol);
+        if (id < 0) {
+            dropped.increment();
+            return;
+        }
+
+        int tf = tfSeconds(TimeframeUtils.toMillis(timeframe));
+        long now = System.currentTimeMillis();
+
+        long key = ((long) id << 32) | tf;
+        long fp = openTime;
+        fp = fp * 31 + Double.doubleToLongBits(high);
+        fp = fp * 31 + Double.doubleToLongBits(low);
+        fp = fp * 31 + Double.doubleToLongBits(close);
+        fp = fp * 31 + Double.doubleToLongBits(volume);
+        fp = fp * 31 + (closed ? 1 : 0);
+
+        synchronized (lock) {
+            Long prev = lastKline.put(key, fp);
+            if (prev != null && prev == fp) return;
+
+            MappedByteBuffer b = ensure(now, KLINE_SIZE);
+            if (b == null) {
+                dropped.increment();
+                return;
+            }
+
+            int p = b.position();
+            b.put(p + 1, (byte) (closed ? FLAG_CLOSED : 0));
+            b.putShort(p + 2, (short) id);
+            b.putInt(p + 4, tf);
+            b.putLong(p + 8, openTime);
+            b.putLong(p + 16, now);
+            b.putDouble(p + 24, open);
+            b.putDouble(p + 32, high);
+            b.putDouble(p + 40, low);
+            b.putDouble(p + 48, close);
+            b.putDouble(p + 56, volume);
+            b.put(p, TYPE_KLINE);
+            b.position(p + KLINE_SIZE);
+        }
+
+        records.increment();
+        bytes.add(KLINE_SIZE);
+    }
+
+    // =====================================================
+    // READ
+    // =====================================================
+
+    public TickDictionary dictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Сегменты дня по порядку записи.
+     */
+    public List<Path> segments(LocalDate day) {
+        Path dayDir = root.resolve(day.toString());
+        if (!Files.isDirectory(dayDir)) return List.of();
+
+        try (Stream<Path> files = Files.list(dayDir)) {
+            return files
+                    .filter(f -> f.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .filter(f -> f.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            log.warn("⚠️ Cannot list tick segments {}: {}", dayDir, e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * Прочитать все сегменты дня.
+     *
+     * @return сколько записей прочитано
+     */
+    public long readDay(LocalDate day, TickVisitor visitor) throws IOException {
+        long n = 0;
+        for (Path seg : segments(day)) {
+            n += TickSegmentReader.read(seg, visitor);
+        }
+        return n;
+    }
+
+    // =====================================================
+    // SEGMENTS
+    // =====================================================
+
+    /**
+     * Буфер текущего сегмента с местом под запись (вызывается под lock).
+     */
+    private MappedByteBuffer ensure(long nowMs, int size) {
+        long day = Math.floorDiv(nowMs, DAY_MS);
+
+        if (segment != null && day == segmentDay && segment.remaining() >= size) {
+            return segment;
+        }
+        if (nowMs < retryAt) return null;
+
+        closeSegment();
+
+        try {
+            segment = openSegment(day);
+            segmentDay = day;
+            return segment;
+        } catch (IOException e) {
+            retryAt = nowMs + RETRY_AFTER_FAILURE_MS;
+            log.warn("⚠️ Tick segment open failed (retry in {}s): {}", RETRY_AFTER_FAILURE_MS / 1000, e.getMessage());
+            return null;
+        }
+    }
+
+    private MappedByteBuffer openSegment(long epochDay) throws IOException {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        Path dayDir = root.resolve(date.toString());
+        Files.createDirectories(dayDir);
+
+        int seq = segments(date).size();
+        Path file = dayDir.resolve(segmentName(seq));
+        while (Files.exists(file)) {
+            file = dayDir.resolve(segmentName(++seq));
+        }
+
+        MappedByteBuffer b;
+        try (FileChannel ch = FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // отображение остаётся валидным и после закрытия канала
+            b = ch.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+        b.order(ORDER);
+
+        b.putLong(0, MAGIC);
+        b.putInt(8, VERSION);
+        b.putInt(12, HEADER_SIZE);
+        b.putLong(16, System.currentTimeMillis());
+        b.putLong(24, epochDay);
+        b.position(HEADER_SIZE);
+
+        log.info("🎙 Tick segment opened {}", file);
+        return b;
+    }
+
+    private void closeSegment() {
+        if (segment == null) return;
+        try {
+            segment.force();
+        } catch (Exception e) {
+            log.warn("⚠️ Tick segment force failed: {}", e.getMessage());
+        }
+        segment = null;
+    }
+
+    private void growAggIds(int id) {
+        int n = lastAggId.length;
+        while (n <= id) n <<= 1;
+        long[] grown = Arrays.copyOf(lastAggId, Math.min(n, MAX_SYMBOLS + 1));
+        Arrays.fill(grown, lastAggId.length, grown.length, -1L);
+        lastAggId = grown;
+    }
+
+    private void forceSafe() {
+        MappedByteBuffer b;
+        synchronized (lock) {
+            b = segment;
+        }
+        if (b == null) return;
+        try {
+            // force вне lock: писатели не ждут fsync
+            b.force();
+        } catch (Throwable t) {
+            log.warn("⚠️ Tick segment force failed: {}", t.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        synchronized (lock) {
+            closeSegment();
+        }
+        log.info("💤 Tick recorder stopped, records={}", records.sum());
+    }
+}
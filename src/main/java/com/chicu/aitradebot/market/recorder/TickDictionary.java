@@ -0,0 +1,107 @@
+package com.chicu.aitradebot.market.recorder;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 📖 Словарь символов: SYMBOL ↔ short id (в записях хранится только id).
+ *
+ * Файл symbols.dict — append-only строки "id<TAB>SYMBOL".
+ * id никогда не переиспользуются, поэтому старые сегменты читаются текущим словарём.
+ */
+@Slf4j
+public final class TickDictionary {
+
+    private final Path file;
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final List<String> names = new ArrayList<>();
+
+    private TickDictionary(Path file) {
+        this.file = file;
+    }
+
+    public static TickDictionary load(Path file) throws IOException {
+        TickDictionary d = new TickDictionary(file);
+
+        if (file != null && Files.exists(file)) {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                int tab = line.indexOf('\t');
+                if (tab <= 0) continue;
+                try {
+                    int id = Integer.parseInt(line.substring(0, tab).trim());
+                    d.put(id, line.substring(tab + 1).trim());
+                } catch (NumberFormatException ignore) {
+                    // битая строка (обрыв записи) — пропускаем
+                }
+            }
+        }
+        return d;
+    }
+
+    /**
+     * @return id символа или -1 (пустой символ / словарь переполнен / ошибка записи)
+     */
+    public int idOf(String symbol) {
+        if (symbol == null || symbol.isBlank()) return -1;
+
+        String s = symbol.trim().toUpperCase(Locale.ROOT);
+        Integer id = ids.get(s);
+        if (id != null) return id;
+
+        synchronized (this) {
+            id = ids.get(s);
+            if (id != null) return id;
+
+            int next = names.size();
+            if (next >= TickSegmentFormat.MAX_SYMBOLS) return -1;
+
+            if (file != null) {
+                try {
+                    Files.writeString(file, next + "\t" + s + "\n", StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+                } catch (IOException e) {
+                    log.warn("⚠️ tick dictionary write failed {}: {}", s, e.getMessage());
+                    return -1;
+                }
+            }
+
+            put(next, s);
+            return next;
+        }
+    }
+
+    /**
+     * Поиск без регистрации (для чтения).
+     *
+     * @return id или -1, если символ ещё не встречался
+     */
+    public int find(String symbol) {
+        if (symbol == null || symbol.isBlank()) return -1;
+        Integer id = ids.get(symbol.trim().toUpperCase(Locale.ROOT));
+        return id != null ? id : -1;
+    }
+
+    public synchronized String nameOf(int id) {
+        return id >= 0 && id < names.size() ? names.get(id) : null;
+    }
+
+    public synchronized int size() {
+        return names.size();
+    }
+
+    private synchronized void put(int id, String symbol) {
+        while (names.size() <= id) names.add(null);
+        names.set(id, symbol);
+        ids.put(symbol, id);
+    }
+}
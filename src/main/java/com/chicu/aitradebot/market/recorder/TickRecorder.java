@@ -0,0 +1,39 @@
+package com.chicu.aitradebot.market.recorder;
+
+/**
+ * 🎙 Запись входящих рыночных данных (то, что реально видел бот).
+ *
+ * Вызывается из горячего пути MarketStreamService — реализация обязана быть дешёвой
+ * и никогда не бросать исключения наружу.
+ */
+public interface TickRecorder {
+
+    /**
+     * Заглушка (replay-песочница, тесты): ничего не пишет.
+     */
+    TickRecorder NOOP = new TickRecorder() {
+        @Override
+        public void recordAggTrade(String symbol, long aggId, long exchangeTs, double price, double qty, boolean buyerMaker) {
+        }
+
+        @Override
+        public void recordKline(String symbol, String timeframe, long openTime,
+                                double open, double high, double low, double close, double volume, boolean closed) {
+        }
+    };
+
+    /**
+     * @param aggId id агрегированной сделки (Binance "a"); &lt; 0 — неизвестен (без дедупа)
+     */
+    void recordAggTrade(String symbol, long aggId, long exchangeTs, double price, double qty, boolean buyerMaker);
+
+    void recordKline(String symbol,
+                     String timeframe,
+                     long openTime,
+                     double open,
+                     double high,
+                     double low,
+                     double close,
+                     double volume,
+                     boolean closed);
+}
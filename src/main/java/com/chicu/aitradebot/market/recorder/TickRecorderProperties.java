@@ -0,0 +1,31 @@
+package com.chicu.aitradebot.market.recorder;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "market.recorder")
+public class TickRecorderProperties {
+
+    /**
+     * Писать ли входящие тики/свечи на диск.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Корневой каталог: {dir}/{yyyy-MM-dd}/ticks-NNNN.seg + {dir}/symbols.dict
+     */
+    private String dir = "data/ticks";
+
+    /**
+     * Размер одного сегмента (MB). Файл отображается в память целиком,
+     * при заполнении открывается следующий сегмент того же дня.
+     */
+    private int segmentMb = 64;
+
+    /**
+     * Как часто сбрасывать страницы сегмента на диск (мс).
+     * Между сбросами данные живут в page cache ОС (переживают падение JVM, но не ОС).
+     */
+    private long forceIntervalMs = 5_000L;
+}
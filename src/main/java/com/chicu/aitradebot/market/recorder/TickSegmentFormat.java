@@ -0,0 +1,79 @@
+package com.chicu.aitradebot.market.recorder;
+
+import java.nio.ByteOrder;
+
+/**
+ * 📐 Формат бинарного сегмента тиков (little-endian, фиксированные записи).
+ *
+ * HEADER (64 байта):
+ *   0  long  MAGIC "ATBTICK1"
+ *   8  int   VERSION
+ *   12 int   HEADER_SIZE
+ *   16 long  createdAt (epoch ms)
+ *   24 long  epochDay (UTC)
+ *   32..63   reserved
+ *
+ * AGG_TRADE (32 байта):
+ *   0  byte  type = 1
+ *   1  byte  flags (bit0 = buyer is maker)
+ *   2  short symbolId
+ *   4  long  exchangeTs
+ *   12 int   receiptTs - exchangeTs (ms)
+ *   16 double price
+ *   24 double qty
+ *
+ * KLINE (64 байта):
+ *   0  byte  type = 2
+ *   1  byte  flags (bit0 = closed)
+ *   2  short symbolId
+ *   4  int   timeframe (seconds)
+ *   8  long  openTime
+ *   16 long  receiptTs
+ *   24 double open, 32 high, 40 low, 48 close, 56 volume
+ *
+ * ❗ Байт type пишется ПОСЛЕДНИМ: type == 0 — конец данных (остаток файла — нули).
+ */
+public final class TickSegmentFormat {
+
+    private TickSegmentFormat() {}
+
+    public static final long MAGIC = 0x314B434954425441L; // "ATBTICK1" (LE)
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 64;
+
+    public static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    public static final byte TYPE_END = 0;
+    public static final byte TYPE_AGG_TRADE = 1;
+    public static final byte TYPE_KLINE = 2;
+
+    public static final int AGG_TRADE_SIZE = 32;
+    public static final int KLINE_SIZE = 64;
+
+    public static final int FLAG_BUYER_MAKER = 1;
+    public static final int FLAG_CLOSED = 1;
+
+    public static final int MAX_SYMBOLS = 0xFFFF;
+
+    public static final String SEGMENT_PREFIX = "ticks-";
+    public static final String SEGMENT_SUFFIX = ".seg";
+    public static final String DICTIONARY_FILE = "symbols.dict";
+
+    public static int tfSeconds(long tfMs) {
+        return (int) Math.max(1L, tfMs / 1000L);
+    }
+
+    /**
+     * Обратное преобразование секунд в метку таймфрейма ("1m", "4h", "1d").
+     */
+    public static String tfLabel(int seconds) {
+        if (seconds % 86_400 == 0) return (seconds / 86_400) + "d";
+        if (seconds % 3_600 == 0) return (seconds / 3_600) + "h";
+        if (seconds % 60 == 0) return (seconds / 60) + "m";
+        return seconds + "s";
+    }
+
+    public static String segmentName(int seq) {
+        return SEGMENT_PREFIX + String.format("%04d", seq) + SEGMENT_SUFFIX;
+    }
+}
@@ -0,0 +1,89 @@
+package com.chicu.aitradebot.market.recorder;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static com.chicu.aitradebot.market.recorder.TickSegmentFormat.*;
+
+/**
+ * 📼 Последовательное чтение сегмента тиков.
+ *
+ * Файл отображается в память read-only, записи разбираются абсолютными get-ами
+ * и отдаются в TickVisitor примитивами. Читать можно и активный сегмент:
+ * чтение останавливается на первой ещё не записанной записи (type == 0).
+ */
+public final class TickSegmentReader {
+
+    private TickSegmentReader() {}
+
+    /**
+     * @return сколько записей прочитано
+     */
+    public static long read(Path segment, TickVisitor visitor) throws IOException {
+
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < HEADER_SIZE) return 0;
+
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buf.order(ORDER);
+
+            if (buf.getLong(0) != MAGIC) {
+                throw new IOException("Not a tick segment: " + segment);
+            }
+            if (buf.getInt(8) != VERSION) {
+                throw new IOException("Unsupported tick segment version " + buf.getInt(8) + ": " + segment);
+            }
+
+            int limit = (int) Math.min(size, Integer.MAX_VALUE);
+            int pos = buf.getInt(12);
+            long n = 0;
+
+            while (pos < limit) {
+                byte type = buf.get(pos);
+
+                if (type == TYPE_AGG_TRADE) {
+                    if (pos + AGG_TRADE_SIZE > limit) break;
+
+                    long exchangeTs = buf.getLong(pos + 4);
+                    visitor.onAggTrade(
+                            buf.getShort(pos + 2) & 0xFFFF,
+                            exchangeTs,
+                            exchangeTs + buf.getInt(pos + 12),
+                            buf.getDouble(pos + 16),
+                            buf.getDouble(pos + 24),
+                            buf.get(pos + 1)
+                    );
+                    pos += AGG_TRADE_SIZE;
+
+                } else if (type == TYPE_KLINE) {
+                    if (pos + KLINE_SIZE > limit) break;
+
+                    visitor.onKline(
+                            buf.getShort(pos + 2) & 0xFFFF,
+                            buf.getInt(pos + 4),
+                            buf.getLong(pos + 8),
+                            buf.getLong(pos + 16),
+                            buf.getDouble(pos + 24),
+                            buf.getDouble(pos + 32),
+                            buf.getDouble(pos + 40),
+                            buf.getDouble(pos + 48),
+                            buf.getDouble(pos + 56),
+                            buf.get(pos + 1)
+                    );
+                    pos += KLINE_SIZE;
+
+                } else {
+                    // TYPE_END или неизвестный тип — дальше данных нет
+                    break;
+                }
+                n++;
+            }
+
+            return n;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.chicu.aitradebot.market.recorder;
+
+/**
+ * 👁 Приёмник записей при чтении сегмента.
+ * Только примитивы — чтение без аллокаций на запись.
+ */
+public interface TickVisitor {
+
+    default void onAggTrade(int symbolId,
+                            long exchangeTs,
+                            long receiptTs,
+                            double price,
+                            double qty,
+                            int flags) {
+    }
+
+    default void onKline(int symbolId,
+                         int tfSeconds,
+                         long openTime,
+                         long receiptTs,
+                         double open,
+                         double high,
+                         double low,
+                         double close,
+                         double volume,
+                         int flags) {
+    }
+}
@@ -1,10 +1,12 @@
 package com.chicu.aitradebot.market.service;
 
 import com.chicu.aitradebot.common.enums.NetworkType;
+import com.chicu.aitradebot.market.model.IndexedSymbol;
 import com.chicu.aitradebot.market.model.SymbolDescriptor;
 import com.chicu.aitradebot.market.model.SymbolListMode;
 
 import java.util.List;
+import java.util.Map;
 
 public interface MarketSymbolService {
 
@@ -21,4 +23,24 @@ public interface MarketSymbolService {
             String accountAsset,
             String symbol
     );
+
+    /**
+     * Символ с заранее разобранными фильтрами (O(1), без сортировок и BigDecimal-разбора).
+     */
+    IndexedSymbol getIndexed(
+            String exchange,
+            NetworkType network,
+            String accountAsset,
+            String symbol
+    );
+
+    /**
+     * Неизменяемый индекс SYMBOL → IndexedSymbol текущего снимка.
+     * Ссылку можно держать: новый снимок приходит новой map, старая не меняется.
+     */
+    Map<String, IndexedSymbol> index(
+            String exchange,
+            NetworkType network,
+            String accountAsset
+    );
 }
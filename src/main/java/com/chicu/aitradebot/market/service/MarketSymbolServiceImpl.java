@@ -3,17 +3,33 @@ package com.chicu.aitradebot.market.service;
 import com.chicu.aitradebot.common.enums.NetworkType;
 import com.chicu.aitradebot.exchange.client.ExchangeClient;
 import com.chicu.aitradebot.exchange.client.ExchangeClientFactory;
+import com.chicu.aitradebot.market.model.IndexedSymbol;
 import com.chicu.aitradebot.market.model.SymbolDescriptor;
 import com.chicu.aitradebot.market.model.SymbolListMode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 📇 Реестр символов: снимок SymbolIndex на (exchange, network, asset).
+ *
+ * ❗ Правила:
+ *  - поиск символа O(1), фильтры (tick/step/minNotional) разобраны при сборке снимка
+ *  - отсортированные списки на каждый SymbolListMode собираются один раз
+ *  - протухший снимок отдаётся как есть, обновление — в фоне, подмена атомарная
+ *  - синхронно с биржи грузим только когда снимка ещё нет вовсе
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -24,14 +40,66 @@ public class MarketSymbolServiceImpl implements MarketSymbolService {
     // ⏱ cache на 10 минут
     private static final long CACHE_TTL_MS = 10L * 60L * 1000L;
 
+    // 🔄 фоновое обновление: проверка раз в минуту, обновляем за минуту до TTL
+    private static final long REFRESH_CHECK_MS = 60_000L;
+    private static final long REFRESH_AHEAD_MS = 60_000L;
+
+    // 💤 связки, которые никто не читал дольше 2×TTL, фоном не обновляем
+    private static final long IDLE_MS = 2 * CACHE_TTL_MS;
+
     // 🧯 чтобы не спамить WARN (на один key раз в 30 сек)
     private static final long WARN_COOLDOWN_MS = 30_000L;
 
-    // 📦 key -> symbols (храним сырые данные, сортируем по mode)
-    private final Map<String, CacheEntry> cache = new ConcurrentHashMap<>();
+    // 📦 key -> снимок
+    private final Map<Key, SymbolIndex> cache = new ConcurrentHashMap<>();
+
+    // 👀 key -> lastReadAt
+    private final Map<Key, Long> lastRead = new ConcurrentHashMap<>();
+
+    // 🔄 ключи, обновление которых уже в очереди
+    private final Set<Key> refreshing = ConcurrentHashMap.newKeySet();
 
     // 🧯 key -> lastWarnAt
-    private final Map<String, Long> warnCooldown = new ConcurrentHashMap<>();
+    private final Map<Key, Long> warnCooldown = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService refresher;
+
+    private record Key(String exchange, NetworkType network, String asset) {
+
+        static Key of(String exchange, NetworkType network, String accountAsset) {
+            // ===== safe defaults =====
+            String safeExchange = (exchange == null || exchange.isBlank())
+                    ? "BINANCE"
+                    : exchange.trim().toUpperCase();
+
+            NetworkType safeNetwork = (network != null ? network : NetworkType.MAINNET);
+
+            String safeAsset = (accountAsset == null || accountAsset.isBlank())
+                    ? "USDT"
+                    : accountAsset.trim().toUpperCase();
+
+            return new Key(safeExchange, safeNetwork, safeAsset);
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "symbol-registry");
+            t.setDaemon(true);
+            return t;
+        });
+        refresher.scheduleWithFixedDelay(this::refreshDue, REFRESH_CHECK_MS, REFRESH_CHECK_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (refresher != null) refresher.shutdownNow();
+    }
+
+    // =====================================================================
+    // API
+    // =====================================================================
 
     @Override
     public List<SymbolDescriptor> getSymbols(
@@ -40,33 +108,97 @@ public class MarketSymbolServiceImpl implements MarketSymbolService {
             String accountAsset,
             SymbolListMode mode
     ) {
+        SymbolListMode safeMode = (mode != null ? mode : SymbolListMode.POPULAR);
+        return snapshot(Key.of(exchange, network, accountAsset)).view(safeMode);
+    }
 
-        // ===== safe defaults =====
-        String safeExchange = (exchange == null || exchange.isBlank())
-                ? "BINANCE"
-                : exchange.trim().toUpperCase();
+    @Override
+    public SymbolDescriptor getSymbolInfo(
+            String exchange,
+            NetworkType network,
+            String accountAsset,
+            String symbol
+    ) {
+        IndexedSymbol s = getIndexed(exchange, network, accountAsset, symbol);
+        return s != null ? s.descriptor() : null;
+    }
 
-        NetworkType safeNetwork = (network != null ? network : NetworkType.MAINNET);
+    @Override
+    public IndexedSymbol getIndexed(
+            String exchange,
+            NetworkType network,
+            String accountAsset,
+            String symbol
+    ) {
+        if (symbol == null || symbol.isBlank()) return null;
+        return snapshot(Key.of(exchange, network, accountAsset)).get(symbol);
+    }
 
-        SymbolListMode safeMode = (mode != null ? mode : SymbolListMode.POPULAR);
+    @Override
+    public Map<String, IndexedSymbol> index(
+            String exchange,
+            NetworkType network,
+            String accountAsset
+    ) {
+        return snapshot(Key.of(exchange, network, accountAsset)).bySymbol();
+    }
 
-        String safeAsset = (accountAsset == null || accountAsset.isBlank())
-                ? "USDT"
-                : accountAsset.trim().toUpperCase();
+    // =====================================================================
+    // SNAPSHOT
+    // =====================================================================
 
-        String key = safeExchange + "|" + safeNetwork + "|" + safeAsset;
+    private SymbolIndex snapshot(Key key) {
+        long now = System.currentTimeMillis();
+        lastRead.put(key, now);
 
-        // 1) свежий кэш
-        CacheEntry cached = cache.get(key);
-        if (cached != null && !cached.isExpired()) {
-            return applyMode(cached.data(), safeMode);
+        // 1) есть снимок — отдаём сразу, протух → обновление в фоне
+        SymbolIndex cached = cache.get(key);
+        if (cached != null) {
+            if (cached.age(now) > CACHE_TTL_MS) scheduleRefresh(key);
+            return cached;
         }
 
-        // 2) пробуем обновить с биржи
+        // 2) снимка нет — единственный синхронный поход на биржу
+        SymbolIndex loaded = load(key, null);
+        return loaded != null ? loaded : SymbolIndex.EMPTY;
+    }
+
+    private void refreshDue() {
+        long now = System.currentTimeMillis();
+
+        cache.forEach((key, idx) -> {
+            Long read = lastRead.get(key);
+            if (read == null || now - read > IDLE_MS) return;
+            if (idx.age(now) > CACHE_TTL_MS - REFRESH_AHEAD_MS) scheduleRefresh(key);
+        });
+    }
+
+    private void scheduleRefresh(Key key) {
+        if (refresher == null || !refreshing.add(key)) return;
+
+        try {
+            refresher.execute(() -> {
+                try {
+                    load(key, cache.get(key));
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+        }
+    }
+
+    /**
+     * Загрузка с биржи и атомарная подмена снимка.
+     *
+     * @return новый снимок или null — биржа не ответила (старый снимок остаётся)
+     */
+    private SymbolIndex load(Key key, SymbolIndex cached) {
         try {
-            ExchangeClient client = exchangeClientFactory.get(safeExchange, safeNetwork);
+            ExchangeClient client = exchangeClientFactory.get(key.exchange(), key.network());
 
-            List<SymbolDescriptor> list = client.getTradableSymbols(safeAsset);
+            List<SymbolDescriptor> list = client.getTradableSymbols(key.asset());
 
             // ✅ не кешируем null
             if (list != null) {
@@ -74,91 +206,43 @@ public class MarketSymbolServiceImpl implements MarketSymbolService {
                 // ✅ если биржа вернула пусто — НЕ затираем старый кэш (если он был)
                 // чтобы UI не схлопывался из-за временного сбоя.
                 if (!list.isEmpty()) {
-                    cache.put(key, new CacheEntry(list));
-                    return applyMode(list, safeMode);
+                    SymbolIndex idx = new SymbolIndex(list, System.currentTimeMillis());
+                    cache.put(key, idx);
+                    return idx;
                 }
 
-                if (cached != null && cached.data() != null && !cached.data().isEmpty()) {
+                if (cached != null && !cached.isEmpty()) {
                     warnOnce(key, "⚠️ symbols пустые (fallback на старый кеш): exchange={} network={} asset={}",
-                            safeExchange, safeNetwork, safeAsset);
-                    return applyMode(cached.data(), safeMode);
+                            key.exchange(), key.network(), key.asset());
+                    return cached;
                 }
 
                 // пусто и кэша нет — отдаём пусто
                 warnOnce(key, "⚠️ symbols пустые (кэша нет): exchange={} network={} asset={}",
-                        safeExchange, safeNetwork, safeAsset);
-                cache.put(key, new CacheEntry(List.of())); // можно кешировать пусто, но это не критично
-                return List.of();
+                        key.exchange(), key.network(), key.asset());
+                SymbolIndex empty = new SymbolIndex(List.of(), System.currentTimeMillis());
+                cache.put(key, empty); // можно кешировать пусто, но это не критично
+                return empty;
             }
 
             // null — странно, fallback
             warnOnce(key, "⚠️ getTradableSymbols вернул null: exchange={} network={} asset={}",
-                    safeExchange, safeNetwork, safeAsset);
+                    key.exchange(), key.network(), key.asset());
 
         } catch (Exception e) {
             // ✅ не ломаем UI
-            warnOnce(key, "⚠️ Не удалось получить symbols: exchange={} network={} asset={} mode={} err={}",
-                    safeExchange, safeNetwork, safeAsset, safeMode, e.toString());
-        }
-
-        // 3) fallback: старый кэш даже если TTL истёк
-        if (cached != null && cached.data() != null && !cached.data().isEmpty()) {
-            return applyMode(cached.data(), safeMode);
-        }
-
-        return List.of();
-    }
-
-    // =====================================================================
-    // 🔀 MODE SORTING
-    // =====================================================================
-    private List<SymbolDescriptor> applyMode(List<SymbolDescriptor> list, SymbolListMode mode) {
-        if (list == null || list.isEmpty()) return List.of();
-
-        return switch (mode) {
-
-            case GAINERS -> list.stream()
-                    .sorted(Comparator.comparing(
-                            SymbolDescriptor::priceChangePct24h,
-                            Comparator.nullsLast(Comparator.naturalOrder())
-                    ).reversed())
-                    .toList();
-
-            case LOSERS -> list.stream()
-                    .sorted(Comparator.comparing(
-                            SymbolDescriptor::priceChangePct24h,
-                            Comparator.nullsLast(Comparator.naturalOrder())
-                    ))
-                    .toList();
-
-            case VOLUME, POPULAR -> list.stream()
-                    .sorted(Comparator.comparing(
-                            SymbolDescriptor::volume24h,
-                            Comparator.nullsLast(Comparator.naturalOrder())
-                    ).reversed())
-                    .toList();
-
-            case ALL -> list;
-        };
-    }
-
-    // =====================================================================
-    // 📦 CACHE ENTRY
-    // =====================================================================
-    private record CacheEntry(List<SymbolDescriptor> data, long createdAt) {
-        CacheEntry(List<SymbolDescriptor> data) {
-            this(data, System.currentTimeMillis());
+            warnOnce(key, "⚠️ Не удалось получить symbols: exchange={} network={} asset={} err={}",
+                    key.exchange(), key.network(), key.asset(), e.toString());
         }
 
-        boolean isExpired() {
-            return System.currentTimeMillis() - createdAt > CACHE_TTL_MS;
-        }
+        // 3) fallback: старый снимок даже если TTL истёк
+        return cached;
     }
 
     // =====================================================================
     // 🧯 WARN COOLDOWN
     // =====================================================================
-    private void warnOnce(String key, String pattern, Object... args) {
+    private void warnOnce(Key key, String pattern, Object... args) {
         long now = System.currentTimeMillis();
         Long last = warnCooldown.get(key);
         if (last != null && now - last < WARN_COOLDOWN_MS) {
@@ -167,22 +251,4 @@ public class MarketSymbolServiceImpl implements MarketSymbolService {
         warnCooldown.put(key, now);
         log.warn(pattern, args);
     }
-
-    @Override
-    public SymbolDescriptor getSymbolInfo(
-            String exchange,
-            NetworkType network,
-            String accountAsset,
-            String symbol
-    ) {
-        if (symbol == null || symbol.isBlank()) return null;
-
-        List<SymbolDescriptor> list = getSymbols(exchange, network, accountAsset, SymbolListMode.ALL);
-
-        String s = symbol.trim();
-        return list.stream()
-                .filter(it -> it != null && it.symbol() != null && it.symbol().equalsIgnoreCase(s))
-                .findFirst()
-                .orElse(null);
-    }
 }
@@ -0,0 +1,87 @@
+package com.chicu.aitradebot.market.service;
+
+import com.chicu.aitradebot.market.model.IndexedSymbol;
+import com.chicu.aitradebot.market.model.SymbolDescriptor;
+import com.chicu.aitradebot.market.model.SymbolListMode;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 📇 Неизменяемый снимок символов одной связки (exchange, network, asset).
+ *
+ * Собирается целиком при загрузке и подменяется одной записью в map —
+ * читатели видят либо старый, либо новый снимок, никогда не половину.
+ *  - bySymbol: O(1) поиск + готовые SymbolFilters
+ *  - views: отсортированные списки на каждый SymbolListMode (сортировка один раз, не на запрос)
+ */
+final class SymbolIndex {
+
+    static final SymbolIndex EMPTY = new SymbolIndex(List.of(), 0L);
+
+    private final Map<String, IndexedSymbol> bySymbol;
+    private final Map<SymbolListMode, List<SymbolDescriptor>> views;
+    private final long createdAt;
+
+    SymbolIndex(List<SymbolDescriptor> raw, long createdAt) {
+        this.createdAt = createdAt;
+
+        List<SymbolDescriptor> all = raw.stream()
+                .filter(d -> d != null && d.symbol() != null)
+                .toList();
+
+        Map<String, IndexedSymbol> index = new HashMap<>(all.size() * 2);
+        for (SymbolDescriptor d : all) {
+            index.putIfAbsent(d.symbol().toUpperCase(Locale.ROOT), IndexedSymbol.of(d));
+        }
+        this.bySymbol = Collections.unmodifiableMap(index);
+
+        List<SymbolDescriptor> byVolume = sorted(all, SymbolDescriptor::volume24h, true);
+
+        Map<SymbolListMode, List<SymbolDescriptor>> v = new EnumMap<>(SymbolListMode.class);
+        v.put(SymbolListMode.ALL, all);
+        v.put(SymbolListMode.GAINERS, sorted(all, SymbolDescriptor::priceChangePct24h, true));
+        v.put(SymbolListMode.LOSERS, sorted(all, SymbolDescriptor::priceChangePct24h, false));
+        v.put(SymbolListMode.VOLUME, byVolume);
+        v.put(SymbolListMode.POPULAR, byVolume);
+        this.views = Collections.unmodifiableMap(v);
+    }
+
+    List<SymbolDescriptor> view(SymbolListMode mode) {
+        return views.getOrDefault(mode, List.of());
+    }
+
+    IndexedSymbol get(String symbol) {
+        if (symbol == null) return null;
+        return bySymbol.get(symbol.trim().toUpperCase(Locale.ROOT));
+    }
+
+    Map<String, IndexedSymbol> bySymbol() {
+        return bySymbol;
+    }
+
+    boolean isEmpty() {
+        return bySymbol.isEmpty();
+    }
+
+    long age(long now) {
+        return now - createdAt;
+    }
+
+    // =====================================================================
+    // 🔀 MODE SORTING (тот же порядок, что давал applyMode)
+    // =====================================================================
+    private static List<SymbolDescriptor> sorted(List<SymbolDescriptor> all,
+                                                 Function<SymbolDescriptor, BigDecimal> field,
+                                                 boolean desc) {
+        Comparator<SymbolDescriptor> cmp = Comparator.comparing(field, Comparator.nullsLast(Comparator.naturalOrder()));
+        return all.stream().sorted(desc ? cmp.reversed() : cmp).toList();
+    }
+}
@@ -3,6 +3,8 @@ package com.chicu.aitradebot.market.stream;
 import com.chicu.aitradebot.common.enums.StrategyType;
 import com.chicu.aitradebot.exchange.binance.ws.BinanceSpotWebSocketClient;
 import com.chicu.aitradebot.market.model.Candle;
+import com.chicu.aitradebot.market.orderbook.LocalOrderBookService;
+import com.chicu.aitradebot.market.orderbook.TopOfBookService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -19,6 +21,8 @@ public class MarketDataStreamService {
     private static final int MAX_CANDLES = 2_000;
 
     private final BinanceSpotWebSocketClient binanceSpotWebSocketClient;
+    private final LocalOrderBookService orderBooks;
+    private final TopOfBookService topOfBook;
 
     /**
      * 🧠 ХРАНИЛИЩЕ СВЕЧЕЙ
@@ -105,10 +109,16 @@ public class MarketDataStreamService {
                 strategyType
         );
 
+        // =====================================================
+        // 📖 3️⃣ DEPTH + BOOKTICKER — локальный стакан и вершина (один на символ)
+        // =====================================================
+        orderBooks.track(sym);
+        topOfBook.track(TopOfBookService.BINANCE, sym);
+
         subs.add(key);
 
         log.info(
-                "📡 SUBSCRIBE Binance STREAMS (KLINE + AGGTRADE): {} {} (chatId={}, strategy={})",
+                "📡 SUBSCRIBE Binance STREAMS (KLINE + AGGTRADE + DEPTH + BOOKTICKER): {} {} (chatId={}, strategy={})",
                 sym, tf, chatId, strategyType
         );
     }
@@ -200,6 +210,8 @@ public class MarketDataStreamService {
                     chatId,
                     key.strategyType()
             );
+            orderBooks.release(key.symbol());
+            topOfBook.release(TopOfBookService.BINANCE, key.symbol());
         }
 
         candleStorage.remove(chatId);
@@ -1,39 +1,47 @@
 package com.chicu.aitradebot.market.ws;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
-import java.io.IOException;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-
 /**
  * 🌐 WebSocket-канал для общего рыночного стрима (типы тикеров, агрегированные цены и т.п.).
  *
  * Маршрут (обычно): /ws/market
+ * ❗ Пока не зарегистрирован (см. WsOutbound).
  *
  * Использование:
  *  - фронт подключается к /ws/market — получает все события, которые backend шлёт через broadcast().
- *  - backend (любой сервис) вызывает MarketStreamWebSocketHandler.broadcast(jsonStringOrObject).
+ *  - backend (любой сервис) вызывает marketStreamWebSocketHandler.broadcast(jsonStringOrObject).
+ *
+ * Отправка — через WsOutbound: broadcast не ждёт браузеры, медленная сессия теряет старые кадры.
  *
  * НИКАКОЙ бизнес-логики стратегий внутри.
  */
 @Slf4j
+@Component
 public class MarketStreamWebSocketHandler extends TextWebSocketHandler {
 
+    private final WsOutbound outbound;
+
     /**
-     * Активные WebSocket-сессии фронта.
+     * Активные WebSocket-сессии фронта (очередь отправки у каждой своя).
      */
-    private static final Set<WebSocketSession> SESSIONS = ConcurrentHashMap.newKeySet();
+    private final WsOutbound.Channel sessions;
+
+    public MarketStreamWebSocketHandler(WsOutbound outbound, WsOutboundProperties props) {
+        this.outbound = outbound;
+        this.sessions = outbound.channel("market", props.getMarketBufferMessages());
+    }
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) {
-        SESSIONS.add(session);
+        sessions.attach(session);
         log.info("🔌 [WS-MARKET] CONNECT from {} (total={})",
-                session.getRemoteAddress(), SESSIONS.size());
+                session.getRemoteAddress(), sessions.size());
     }
 
     @Override
@@ -45,9 +53,10 @@ public class MarketStreamWebSocketHandler extends TextWebSocketHandler {
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
-        SESSIONS.remove(session);
-        log.info("❌ [WS-MARKET] DISCONNECT {} (status={}, total={})",
-                session.getRemoteAddress(), status, SESSIONS.size());
+        OutboundSession s = sessions.get(session);
+        sessions.detach(session);
+        log.info("❌ [WS-MARKET] DISCONNECT {} (status={}, total={}, lastLagMs={})",
+                session.getRemoteAddress(), status, sessions.size(), s != null ? s.lastLagMs() : 0);
     }
 
     @Override
@@ -58,36 +67,15 @@ public class MarketStreamWebSocketHandler extends TextWebSocketHandler {
 
     /**
      * Глобальная рассылка рыночных данных всем подключённым клиентам.
+     * Кадр кодируется один раз и только ставится в очереди сессий — поток вызова не блокируется.
      *
-     * @param payload String или любой объект (будет сериализован через toString()).
+     * @param payload String или любой объект (JSON через Jackson).
      */
-    public static void broadcast(Object payload) {
-        if (SESSIONS.isEmpty()) {
+    public void broadcast(Object payload) {
+        if (sessions.size() == 0) {
             return;
         }
 
-        String text;
-        if (payload == null) {
-            text = "";
-        } else if (payload instanceof String s) {
-            text = s;
-        } else {
-            // Минимальная сериализация без лишних зависимостей.
-            text = payload.toString();
-        }
-
-        TextMessage msg = new TextMessage(text);
-
-        SESSIONS.forEach(session -> {
-            if (!session.isOpen()) {
-                return;
-            }
-            try {
-                session.sendMessage(msg);
-            } catch (IOException e) {
-                log.warn("⚠️ [WS-MARKET] Ошибка при отправке сообщения клиенту {}: {}",
-                        session.getRemoteAddress(), e.getMessage());
-            }
-        });
+        sessions.broadcast(outbound.encode(payload));
     }
 }
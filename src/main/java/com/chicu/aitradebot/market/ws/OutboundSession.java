@@ -0,0 +1,155 @@
+package com.chicu.aitradebot.market.ws;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 📤 Браузерная WS-сессия с ограниченной очередью отправки.
+ *
+ *  - offer() — только очередь, без I/O; переполнение → выбрасывается самый старый кадр
+ *  - drain() — в пуле ws-outbound, не больше одного потока на сессию (sendMessage не потокобезопасен)
+ *  - ошибка отправки → сессия закрывается, очередь очищается
+ */
+@Slf4j
+public final class OutboundSession {
+
+    private record Pending(TextMessage msg, long enqueuedNanos) {
+    }
+
+    private final WebSocketSession session;
+    private final WsOutbound.Channel channel;
+    private final int maxMessages;
+    private final int maxBytes;
+    private final int drainBatch;
+
+    private final ArrayDeque<Pending> queue = new ArrayDeque<>();
+    private long queuedBytes;
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    /** время в очереди последнего отправленного кадра */
+    private volatile long lastLagNanos;
+
+    OutboundSession(WebSocketSession session, WsOutbound.Channel channel, int maxMessages, int maxBytes, int drainBatch) {
+        this.session = session;
+        this.channel = channel;
+        this.maxMessages = maxMessages;
+        this.maxBytes = maxBytes;
+        this.drainBatch = drainBatch;
+    }
+
+    public WebSocketSession session() {
+        return session;
+    }
+
+    public long lastLagMs() {
+        return TimeUnit.NANOSECONDS.toMillis(lastLagNanos);
+    }
+
+    public int queued() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    // =====================================================
+    // PRODUCER
+    // =====================================================
+
+    void offer(TextMessage msg, long nowNanos) {
+        if (!session.isOpen()) return;
+
+        synchronized (queue) {
+            queue.addLast(new Pending(msg, nowNanos));
+            queuedBytes += msg.getPayloadLength();
+
+            // ❗ последний кадр остаётся всегда, даже если один больше лимита байт
+            while (queue.size() > maxMessages || (queuedBytes > maxBytes && queue.size() > 1)) {
+                Pending old = queue.pollFirst();
+                queuedBytes -= old.msg().getPayloadLength();
+                channel.dropped.increment();
+            }
+        }
+
+        if (draining.compareAndSet(false, true)) {
+            schedule();
+        }
+    }
+
+    // =====================================================
+    // CONSUMER
+    // =====================================================
+
+    private void schedule() {
+        try {
+            channel.execute(this::drain);
+        } catch (Exception e) {
+            // пул остановлен (shutdown) — кадры больше некому отправлять
+            draining.set(false);
+        }
+    }
+
+    private void drain() {
+        for (int i = 0; i < drainBatch; i++) {
+            Pending p;
+            synchronized (queue) {
+                p = queue.pollFirst();
+                if (p == null) {
+                    // под тем же замком, что и offer(): новый кадр либо уже виден здесь, либо запустит drain сам
+                    draining.set(false);
+                    return;
+                }
+                queuedBytes -= p.msg().getPayloadLength();
+            }
+
+            long lag = System.nanoTime() - p.enqueuedNanos();
+            lastLagNanos = lag;
+            channel.lag.record(lag, TimeUnit.NANOSECONDS);
+
+            try {
+                session.sendMessage(p.msg());
+                channel.sent.increment();
+            } catch (Exception e) {
+                fail(e);
+                return;
+            }
+        }
+
+        // пачка отправлена — уступаем поток другим сессиям, остаток дошлёт следующий drain
+        schedule();
+    }
+
+    private void fail(Exception e) {
+        channel.failed.increment();
+        clear();
+
+        log.warn("⚠️ [WS-{}] send failed to {}: {}", channel.name(), session.getRemoteAddress(), e.getMessage());
+
+        try {
+            session.close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (Exception ignored) {
+            // уже закрыта
+        }
+    }
+
+    void clear() {
+        synchronized (queue) {
+            queue.clear();
+            queuedBytes = 0;
+        }
+        // draining не сбрасываем: текущий drain сам увидит пустую очередь (иначе — два отправителя)
+    }
+
+    long oldestAgeNanos(long nowNanos) {
+        synchronized (queue) {
+            Pending p = queue.peekFirst();
+            return p == null ? 0L : nowNanos - p.enqueuedNanos();
+        }
+    }
+}
@@ -4,7 +4,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.*;
 
-import java.io.IOException;
 import java.net.URI;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
@@ -15,11 +14,13 @@ import java.util.concurrent.ConcurrentHashMap;
  * 💸 WebSocket для стрима сделок по символам.
  *
  * Маршрут: /ws/trades?symbol=BTCUSDC
+ * ❗ Пока не зарегистрирован (см. WsOutbound).
  *
  * Логика:
  *  - при подключении клиент указывает symbol;
  *  - храним сессии по symbol;
- *  - метод broadcastTrade(symbol, payload) шлёт событие только тем, кто слушает этот symbol.
+ *  - метод broadcastTrade(symbol, payload) шлёт событие только тем, кто слушает этот symbol;
+ *  - отправка — через WsOutbound: кадр кодируется один раз, поток вызова не ждёт браузеры.
  *
  * ВАЖНО:
  *  - здесь нет логики стратегий / ордеров;
@@ -33,7 +34,15 @@ public class TradeWebSocketHandler implements WebSocketHandler {
      * Каналы: symbol → множество сессий, подписанных на этот символ.
      * symbol в верхнем регистре (BTCUSDC, ETHUSDT и т.п.).
      */
-    private static final Map<String, Set<WebSocketSession>> CHANNELS = new ConcurrentHashMap<>();
+    private final Map<String, Set<OutboundSession>> channels = new ConcurrentHashMap<>();
+
+    private final WsOutbound outbound;
+    private final WsOutbound.Channel sessions;
+
+    public TradeWebSocketHandler(WsOutbound outbound, WsOutboundProperties props) {
+        this.outbound = outbound;
+        this.sessions = outbound.channel("trades", props.getTradeBufferMessages());
+    }
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) {
@@ -45,11 +54,12 @@ public class TradeWebSocketHandler implements WebSocketHandler {
                 .map(s -> s.toUpperCase(Locale.ROOT))
                 .orElse("BTCUSDT");
 
-        CHANNELS.computeIfAbsent(symbol, k -> Collections.newSetFromMap(new ConcurrentHashMap<>()))
-                .add(session);
+        Set<OutboundSession> subscribers =
+                channels.computeIfAbsent(symbol, k -> Collections.newSetFromMap(new ConcurrentHashMap<>()));
+        subscribers.add(sessions.attach(session));
 
         log.info("🔌 [WS-TRADES] CONNECT symbol={} from {} (subscribers={})",
-                symbol, session.getRemoteAddress(), CHANNELS.get(symbol).size());
+                symbol, session.getRemoteAddress(), subscribers.size());
     }
 
     @Override
@@ -69,11 +79,15 @@ public class TradeWebSocketHandler implements WebSocketHandler {
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        OutboundSession s = sessions.get(session);
+        sessions.detach(session);
+        if (s == null) return;
+
         // Удаляем сессию из всех каналов (обычно ровно из одного).
-        CHANNELS.forEach((symbol, sessions) -> {
-            if (sessions.remove(session)) {
-                log.info("❌ [WS-TRADES] DISCONNECT {} from symbol={} (subscribers={})",
-                        session.getRemoteAddress(), symbol, sessions.size());
+        channels.forEach((symbol, subscribers) -> {
+            if (subscribers.remove(s)) {
+                log.info("❌ [WS-TRADES] DISCONNECT {} from symbol={} (subscribers={}, lastLagMs={})",
+                        session.getRemoteAddress(), symbol, subscribers.size(), s.lastLagMs());
             }
         });
     }
@@ -84,44 +98,23 @@ public class TradeWebSocketHandler implements WebSocketHandler {
     }
 
     /**
-     * Глобальный метод для отправки сделки по конкретному символу.
+     * Отправка сделки по конкретному символу.
+     * Кадр кодируется один раз и только ставится в очереди сессий — поток вызова не блокируется.
      *
      * @param symbol  символ (BTCUSDC и т.п., регистр не важен)
-     * @param payload строка JSON или любой объект (toString()).
+     * @param payload строка JSON или любой объект (JSON через Jackson).
      */
-    public static void broadcastTrade(String symbol, Object payload) {
+    public void broadcastTrade(String symbol, Object payload) {
         if (symbol == null || symbol.isBlank()) {
             return;
         }
 
-        String key = symbol.toUpperCase(Locale.ROOT);
-        Set<WebSocketSession> sessions = CHANNELS.get(key);
-        if (sessions == null || sessions.isEmpty()) {
+        Set<OutboundSession> subscribers = channels.get(symbol.toUpperCase(Locale.ROOT));
+        if (subscribers == null || subscribers.isEmpty()) {
             return;
         }
 
-        String text;
-        if (payload == null) {
-            text = "";
-        } else if (payload instanceof String s) {
-            text = s;
-        } else {
-            text = payload.toString();
-        }
-
-        TextMessage msg = new TextMessage(text);
-
-        sessions.forEach(session -> {
-            if (!session.isOpen()) {
-                return;
-            }
-            try {
-                session.sendMessage(msg);
-            } catch (IOException e) {
-                log.warn("⚠️ [WS-TRADES] Ошибка при отправке сделки [{}] клиенту {}: {}",
-                        key, session.getRemoteAddress(), e.getMessage());
-            }
-        });
+        sessions.send(subscribers, outbound.encode(payload));
     }
 
     // ====================== ВСПОМОГАТЕЛЬНЫЕ МЕТОДЫ ======================
@@ -0,0 +1,225 @@
+package com.chicu.aitradebot.market.ws;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 📤 Неблокирующая рассылка в браузерные WS (/ws/market, /ws/trades).
+ *
+ * ❗ Правила:
+ *  - broadcast на потоке ленты: кадр кодируется ОДИН раз и кладётся в очереди сессий, без I/O
+ *  - у каждой сессии своя ограниченная очередь (drop-oldest) — медленный браузер теряет
+ *    старые кадры, а не тормозит ленту и соседей
+ *  - отправляет пул ws-outbound; в одну сессию в каждый момент пишет не больше одного потока
+ *  - пул поднимается лениво, с первой отправкой: /ws/market и /ws/trades пока не зарегистрированы
+ *    и broadcast никто не зовёт (фронт получает рынок по STOMP /ws/strategy) — потоков нет
+ *  - lag = время кадра в очереди сессии (таймер по каналу + максимум по сессиям)
+ */
+@Slf4j
+@Component
+public class WsOutbound {
+
+    private final WsOutboundProperties props;
+    private final MeterRegistry registry;
+    private final ObjectMapper objectMapper;
+
+    private ExecutorService pool;
+    private volatile Executor executor;
+
+    public WsOutbound(WsOutboundProperties props, MeterRegistry registry, ObjectMapper objectMapper) {
+        this.props = props;
+        this.registry = registry;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Без собственного пула (тесты: задачи выполняются вручную).
+     */
+    void start(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Пул ws-outbound (или внешний из start), создаётся при первом вызове.
+     */
+    private Executor executor() {
+        Executor e = executor;
+        if (e != null) return e;
+
+        synchronized (this) {
+            if (executor == null) {
+                AtomicInteger n = new AtomicInteger();
+                pool = Executors.newFixedThreadPool(Math.max(1, props.getThreads()), r -> {
+                    Thread t = new Thread(r, "ws-outbound-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+                executor = pool;
+                log.info("📤 WS outbound pool started: threads={}", Math.max(1, props.getThreads()));
+            }
+            return executor;
+        }
+    }
+
+    @PreDestroy
+    synchronized void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    // =====================================================
+    // PUBLIC API
+    // =====================================================
+
+    /**
+     * Канал рассылки (одна группа сессий с общим лимитом очереди и метриками).
+     */
+    public Channel channel(String name, int bufferMessages) {
+        return new Channel(name, Math.max(1, bufferMessages));
+    }
+
+    /**
+     * Кадр для рассылки: String — как есть, остальное — JSON (Jackson), один раз на broadcast.
+     *
+     * @return null — не удалось сериализовать
+     */
+    public TextMessage encode(Object payload) {
+        if (payload == null) return new TextMessage("");
+        if (payload instanceof TextMessage m) return m;
+        // byte[] внутри TextMessage: длина для лимита очереди и отправка без повторного кодирования
+        if (payload instanceof String s) return new TextMessage(s.getBytes(StandardCharsets.UTF_8));
+
+        try {
+            return new TextMessage(objectMapper.writeValueAsBytes(payload));
+        } catch (JsonProcessingException e) {
+            log.warn("📤 WS encode failed type={}: {}", payload.getClass().getSimpleName(), e.getMessage());
+            return null;
+        }
+    }
+
+    // =====================================================
+    // CHANNEL
+    // =====================================================
+
+    public final class Channel {
+
+        private final String name;
+        private final int bufferMessages;
+
+        private final Map<String, OutboundSession> sessions = new ConcurrentHashMap<>();
+
+        final LongAdder sent = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final Timer lag;
+
+        private Channel(String name, int bufferMessages) {
+            this.name = name;
+            this.bufferMessages = bufferMessages;
+
+            FunctionCounter.builder("ws.outbound.sent", sent, LongAdder::sum)
+                    .description("Messages written to browser WebSocket sessions")
+                    .tag("channel", name)
+                    .register(registry);
+            FunctionCounter.builder("ws.outbound.dropped", dropped, LongAdder::sum)
+                    .description("Oldest messages dropped from a full session buffer")
+                    .tag("channel", name)
+                    .register(registry);
+            FunctionCounter.builder("ws.outbound.failed", failed, LongAdder::sum)
+                    .description("Sessions closed after a failed send")
+                    .tag("channel", name)
+                    .register(registry);
+            Gauge.builder("ws.outbound.sessions", sessions, Map::size)
+                    .description("Open browser WebSocket sessions")
+                    .tag("channel", name)
+                    .register(registry);
+            Gauge.builder("ws.outbound.lag.max", this, Channel::maxLagMs)
+                    .description("Age of the oldest queued message across sessions, ms")
+                    .tag("channel", name)
+                    .register(registry);
+
+            this.lag = Timer.builder("ws.outbound.lag")
+                    .description("Time a message waits in a session buffer before the send")
+                    .tag("channel", name)
+                    .register(registry);
+        }
+
+        public OutboundSession attach(WebSocketSession session) {
+            OutboundSession s = new OutboundSession(session, this, bufferMessages,
+                    Math.max(1, props.getBufferBytes()), Math.max(1, props.getDrainBatch()));
+            sessions.put(session.getId(), s);
+            return s;
+        }
+
+        public void detach(WebSocketSession session) {
+            OutboundSession s = sessions.remove(session.getId());
+            if (s != null) s.clear();
+        }
+
+        public OutboundSession get(WebSocketSession session) {
+            return sessions.get(session.getId());
+        }
+
+        public int size() {
+            return sessions.size();
+        }
+
+        /**
+         * Всем сессиям канала.
+         */
+        public void broadcast(TextMessage msg) {
+            if (msg == null) return;
+            long now = System.nanoTime();
+            for (OutboundSession s : sessions.values()) {
+                s.offer(msg, now);
+            }
+        }
+
+        /**
+         * Выбранным сессиям канала.
+         */
+        public void send(Iterable<OutboundSession> targets, TextMessage msg) {
+            if (msg == null || targets == null) return;
+            long now = System.nanoTime();
+            for (OutboundSession s : targets) {
+                s.offer(msg, now);
+            }
+        }
+
+        String name() {
+            return name;
+        }
+
+        void execute(Runnable task) {
+            executor().execute(task);
+        }
+
+        double maxLagMs() {
+            long now = System.nanoTime();
+            long max = 0;
+            for (OutboundSession s : sessions.values()) {
+                max = Math.max(max, s.oldestAgeNanos(now));
+            }
+            return max / 1_000_000.0;
+        }
+    }
+}
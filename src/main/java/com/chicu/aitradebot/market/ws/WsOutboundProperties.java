@@ -0,0 +1,37 @@
+package com.chicu.aitradebot.market.ws;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "ws.outbound")
+public class WsOutboundProperties {
+
+    /**
+     * Потоки отправки в браузерные WS (/ws/market, /ws/trades).
+     * Поток ленты биржи только ставит кадр в очередь сессии.
+     * Когда создаётся пул — см. WsOutbound.
+     */
+    private int threads = 2;
+
+    /**
+     * Лимит очереди одной сессии /ws/market, сообщений.
+     * При переполнении отбрасываются самые старые.
+     */
+    private int marketBufferMessages = 256;
+
+    /**
+     * Лимит очереди одной сессии /ws/trades, сообщений.
+     */
+    private int tradeBufferMessages = 1024;
+
+    /**
+     * Лимит очереди одной сессии в байтах (сумма payload), поверх лимита сообщений.
+     */
+    private int bufferBytes = 1 << 20;
+
+    /**
+     * Сколько сообщений одна сессия отправляет подряд, прежде чем уступить поток другим.
+     */
+    private int drainBatch = 64;
+}
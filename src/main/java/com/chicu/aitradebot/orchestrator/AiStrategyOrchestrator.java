@@ -5,9 +5,14 @@ import com.chicu.aitradebot.common.enums.StrategyType;
 import com.chicu.aitradebot.domain.StrategySettings;
 import com.chicu.aitradebot.exchange.model.Order;
 import com.chicu.aitradebot.market.stream.StreamConnectionManager;
+import com.chicu.aitradebot.orchestrator.dashboard.DashboardStateService;
 import com.chicu.aitradebot.orchestrator.dto.StrategyRunInfo;
 import com.chicu.aitradebot.service.OrderService;
 import com.chicu.aitradebot.service.StrategySettingsService;
+import com.chicu.aitradebot.service.order.OrderFilter;
+import com.chicu.aitradebot.service.order.OrderPage;
+import com.chicu.aitradebot.service.order.OrderQueryService;
+import com.chicu.aitradebot.service.order.OrderRow;
 import com.chicu.aitradebot.strategy.core.TradingStrategy;
 import com.chicu.aitradebot.strategy.registry.StrategyRegistry;
 import jakarta.annotation.PostConstruct;
@@ -15,11 +20,12 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @Slf4j
@@ -31,6 +37,8 @@ public class AiStrategyOrchestrator {
     private final StrategySettingsService settingsService;
     private final StreamConnectionManager streamManager;
     private final StrategyRegistry strategyRegistry;
+    private final DashboardStateService dashboardState;
+    private final OrderQueryService orderQueryService;
 
     @PostConstruct
     public void init() {
@@ -73,6 +81,7 @@ public class AiStrategyOrchestrator {
         s.setStartedAt(LocalDateTime.now());
         s.setStoppedAt(null);
         settingsService.save(s);
+        dashboardState.invalidate(chatId);
 
         log.info("▶️ START {} chatId={} ex={} net={} symbol={}",
                 type, chatId, s.getExchangeName(), s.getNetworkType(), s.getSymbol());
@@ -105,6 +114,7 @@ public class AiStrategyOrchestrator {
         s.setActive(false);
         s.setStoppedAt(LocalDateTime.now());
         settingsService.save(s);
+        dashboardState.invalidate(chatId);
 
         log.info("⏹ STOP {} chatId={} ex={} net={} symbol={}",
                 type, chatId, s.getExchangeName(), s.getNetworkType(), s.getSymbol());
@@ -135,6 +145,7 @@ public class AiStrategyOrchestrator {
                 s.setStoppedAt(LocalDateTime.now());
             }
             settingsService.save(s);
+            dashboardState.invalidate(chatId);
         }
 
         return buildRunInfo(
@@ -154,30 +165,7 @@ public class AiStrategyOrchestrator {
     ) {}
 
     public GlobalState getGlobalState(Long chatId) {
-        int active = 0;
-
-        for (StrategyType t : StrategyType.values()) {
-
-            if (isActiveSafe(chatId, t, "BINANCE", NetworkType.MAINNET)) active++;
-            if (isActiveSafe(chatId, t, "BINANCE", NetworkType.TESTNET)) active++;
-
-            if (isActiveSafe(chatId, t, "BYBIT", NetworkType.MAINNET)) active++;
-            if (isActiveSafe(chatId, t, "BYBIT", NetworkType.TESTNET)) active++;
-
-            if (isActiveSafe(chatId, t, "OKX", NetworkType.MAINNET)) active++;
-            if (isActiveSafe(chatId, t, "OKX", NetworkType.TESTNET)) active++;
-        }
-
-        return new GlobalState(BigDecimal.ZERO, BigDecimal.ZERO, active);
-    }
-
-    private boolean isActiveSafe(Long chatId, StrategyType type, String exchange, NetworkType network) {
-        try {
-            StrategySettings s = settingsService.getSettings(chatId, type, exchange, network);
-            return s != null && s.isActive();
-        } catch (Exception ignored) {
-            return false;
-        }
+        return dashboardState.get(chatId);
     }
 
     // =====================================================================
@@ -274,85 +262,56 @@ public class AiStrategyOrchestrator {
         }
     }
 
+    public record OrderViewPage(List<OrderView> items, String nextCursor) {}
+
+    /**
+     * Ордера символа по времени (старые → новые), как было до keyset-страниц.
+     * ❗ Не вся история: последние OrderQueryService.DEFAULT_LIMIT (500) ордеров;
+     *    глубже — listOrders(chatId, symbol, filter, cursor, limit).
+     */
     public List<OrderView> listOrders(Long chatId, String symbol) {
+        List<OrderView> items = new ArrayList<>(
+                listOrders(chatId, symbol, OrderFilter.NONE, null, OrderQueryService.DEFAULT_LIMIT).items());
+        // страница идёт новые → старые, прежний контракт — по возрастанию времени
+        Collections.reverse(items);
+        return items;
+    }
+
+    /**
+     * Keyset-страница ордеров: проекции из БД, без загрузки всей истории.
+     */
+    public OrderViewPage listOrders(Long chatId, String symbol, OrderFilter filter, String cursor, int limit) {
+        if (chatId == null) return new OrderViewPage(List.of(), null);
+
         try {
-            return orderService.getOrdersByChatIdAndSymbol(chatId, symbol)
-                    .stream()
+            OrderPage<OrderRow> page = orderQueryService.page(chatId, symbol, filter, cursor, limit);
+
+            List<OrderView> views = page.items().stream()
                     .map(o -> new OrderView(
-                            o.getId(),
-                            o.getSymbol(),
-                            o.getSide(),
-                            o.getStatus(),
-                            o.getPrice(),
-                            o.getQuantity(),
-                            o.isFilled(),
-                            extractOrderTimestamp(o)
+                            o.id(),
+                            o.symbol(),
+                            o.side(),
+                            o.status(),
+                            o.price(),
+                            o.quantity(),
+                            o.filled(),
+                            orderTimestamp(o)
                     ))
                     .toList();
+
+            return new OrderViewPage(views, page.nextCursor());
+        } catch (IllegalArgumentException e) {
+            // повреждённый курсор — ошибка клиента, не сервера
+            throw e;
         } catch (Exception e) {
             log.error("❌ listOrders error", e);
-            return List.of();
+            return new OrderViewPage(List.of(), null);
         }
     }
 
-    private Long extractOrderTimestamp(Order o) {
-        if (o == null) return null;
-
-        Long ms = tryLong(o, "getTimestampMs")
-                .or(() -> tryLong(o, "getTimeMs"))
-                .or(() -> tryLong(o, "getTs"))
-                .or(() -> tryLong(o, "getTime"))
-                .orElse(null);
-        if (ms != null && ms > 0) return ms;
-
-        Instant inst = tryInstant(o, "getCreatedAt")
-                .or(() -> tryInstant(o, "getUpdatedAt"))
-                .or(() -> tryInstant(o, "getExecutedAt"))
-                .orElse(null);
-        if (inst != null) return inst.toEpochMilli();
-
-        LocalDateTime ldt = tryLocalDateTime(o, "getCreatedAt")
-                .or(() -> tryLocalDateTime(o, "getUpdatedAt"))
-                .orElse(null);
-        if (ldt != null) return ldt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
-
+    private static Long orderTimestamp(OrderRow o) {
+        if (o.timestamp() != null && o.timestamp() > 0) return o.timestamp();
+        if (o.createdAt() != null) return o.createdAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
         return null;
     }
-
-    private java.util.Optional<Long> tryLong(Object target, String method) {
-        try {
-            Method m = target.getClass().getMethod(method);
-            Object v = m.invoke(target);
-            if (v == null) return java.util.Optional.empty();
-            if (v instanceof Long l) return java.util.Optional.of(l);
-            if (v instanceof Integer i) return java.util.Optional.of(i.longValue());
-            if (v instanceof BigDecimal bd) return java.util.Optional.of(bd.longValue());
-            if (v instanceof String s) return java.util.Optional.of(Long.parseLong(s.trim()));
-            return java.util.Optional.empty();
-        } catch (Exception ignored) {
-            return java.util.Optional.empty();
-        }
-    }
-
-    private java.util.Optional<Instant> tryInstant(Object target, String method) {
-        try {
-            Method m = target.getClass().getMethod(method);
-            Object v = m.invoke(target);
-            if (v instanceof Instant inst) return java.util.Optional.of(inst);
-            return java.util.Optional.empty();
-        } catch (Exception ignored) {
-            return java.util.Optional.empty();
-        }
-    }
-
-    private java.util.Optional<LocalDateTime> tryLocalDateTime(Object target, String method) {
-        try {
-            Method m = target.getClass().getMethod(method);
-            Object v = m.invoke(target);
-            if (v instanceof LocalDateTime ldt) return java.util.Optional.of(ldt);
-            return java.util.Optional.empty();
-        } catch (Exception ignored) {
-            return java.util.Optional.empty();
-        }
-    }
 }
@@ -0,0 +1,28 @@
+package com.chicu.aitradebot.orchestrator.dashboard;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "dashboard.state")
+public class DashboardStateProperties {
+
+    /**
+     * Сколько живёт посчитанная сводка чата, мс.
+     * Старт / стоп стратегии сбрасывает её сразу.
+     */
+    private long cacheTtlMs = 1000;
+
+    /**
+     * Период проверки сводок для подписчиков /topic/dashboard/{chatId}, мс.
+     * Отправляется только изменившаяся сводка.
+     */
+    private long pushIntervalMs = 1000;
+
+    /**
+     * Пушить сводку по STOMP (false — только REST).
+     * По умолчанию выключено: страница дашборда пока рендерится на сервере
+     * и на /topic/dashboard/{chatId} не подписывается.
+     */
+    private boolean pushEnabled = false;
+}
@@ -0,0 +1,260 @@
+package com.chicu.aitradebot.orchestrator.dashboard;
+
+import com.chicu.aitradebot.account.stream.AccountBalanceBook;
+import com.chicu.aitradebot.account.stream.AccountKey;
+import com.chicu.aitradebot.orchestrator.AiStrategyOrchestrator.GlobalState;
+import com.chicu.aitradebot.service.StrategySettingsService;
+import com.chicu.aitradebot.trade.position.PositionBook;
+import com.chicu.aitradebot.trade.position.PositionTotals;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 🌍 Сводка дашборда чата: активные стратегии, баланс, PnL.
+ *
+ * ❗ Правила:
+ *  - активные стратегии — ОДИН count-запрос по chat_id (раньше — getSettings на каждую
+ *    пару StrategyType × биржа × сеть)
+ *  - баланс и PnL — из памяти (AccountBalanceBook, PositionBook), без БД
+ *  - сводка живёт cacheTtlMs; старт / стоп стратегии сбрасывает её сразу (invalidate)
+ *  - подписчикам /topic/dashboard/{chatId} сводка приходит сама, только при изменении
+ *    (pushEnabled; выключено — ни потока рассылки, ни учёта подписок)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DashboardStateService {
+
+    public static final String TOPIC = "/topic/dashboard/";
+
+    /** активы, которые считаем равными валюте счёта при оценке баланса */
+    private static final Set<String> STABLE = Set.of("USDT", "USDC", "FDUSD", "BUSD", "TUSD", "DAI");
+
+    private final StrategySettingsService settingsService;
+    private final PositionBook positions;
+    private final AccountBalanceBook balanceBook;
+    private final SimpMessagingTemplate ws;
+    private final DashboardStateProperties props;
+
+    private record Cached(GlobalState state, long atMs) {
+    }
+
+    private final Map<Long, Cached> cache = new ConcurrentHashMap<>();
+
+    /** chatId → число подписок на /topic/dashboard/{chatId} */
+    private final Map<Long, AtomicInteger> watchers = new ConcurrentHashMap<>();
+
+    /** chatId → последняя отправленная сводка */
+    private final Map<Long, GlobalState> pushed = new ConcurrentHashMap<>();
+
+    /**
+     * sessionId → (subscriptionId → chatId)
+     * (UNSUBSCRIBE / DISCONNECT не несут destination)
+     */
+    private final Map<String, Map<String, Long>> sessions = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService clock;
+
+    @PostConstruct
+    void start() {
+        if (!props.isPushEnabled()) return;
+
+        long period = Math.max(100, props.getPushIntervalMs());
+
+        clock = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "dashboard-push");
+            t.setDaemon(true);
+            return t;
+        });
+
+        clock.scheduleWithFixedDelay(this::pushSafe, period, period, TimeUnit.MILLISECONDS);
+
+        log.info("🌍 Dashboard push started: every {} ms", period);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (clock != null) {
+            clock.shutdownNow();
+        }
+    }
+
+    // =====================================================
+    // PUBLIC API
+    // =====================================================
+
+    public GlobalState get(Long chatId) {
+        if (chatId == null) return new GlobalState(BigDecimal.ZERO, BigDecimal.ZERO, 0);
+
+        long now = System.currentTimeMillis();
+        Cached c = cache.get(chatId);
+        if (c != null && now - c.atMs() < props.getCacheTtlMs()) {
+            return c.state();
+        }
+
+        GlobalState state = compute(chatId);
+        cache.put(chatId, new Cached(state, now));
+        return state;
+    }
+
+    /**
+     * Сводка чата устарела (старт / стоп стратегии): следующий get() посчитает заново.
+     */
+    public void invalidate(Long chatId) {
+        if (chatId != null) cache.remove(chatId);
+    }
+
+    // =====================================================
+    // STOMP EVENTS
+    // =====================================================
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        if (!props.isPushEnabled()) return;
+
+        StompHeaderAccessor h = StompHeaderAccessor.wrap(event.getMessage());
+
+        String sessionId = h.getSessionId();
+        String subscriptionId = h.getSubscriptionId();
+        Long chatId = parse(h.getDestination());
+
+        if (sessionId == null || subscriptionId == null || chatId == null) return;
+
+        sessions.computeIfAbsent(sessionId, s -> new ConcurrentHashMap<>())
+                .put(subscriptionId, chatId);
+        watchers.computeIfAbsent(chatId, k -> new AtomicInteger()).incrementAndGet();
+
+        // 📦 новый зритель — сводку отправит ближайший тик, даже если она не менялась
+        pushed.remove(chatId);
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor h = StompHeaderAccessor.wrap(event.getMessage());
+
+        Map<String, Long> subs = h.getSessionId() != null ? sessions.get(h.getSessionId()) : null;
+        if (subs == null || h.getSubscriptionId() == null) return;
+
+        release(subs.remove(h.getSubscriptionId()));
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, Long> subs = sessions.remove(event.getSessionId());
+        if (subs == null) return;
+
+        subs.values().forEach(this::release);
+    }
+
+    // =====================================================
+    // INTERNAL
+    // =====================================================
+
+    private GlobalState compute(Long chatId) {
+        int active = 0;
+        try {
+            active = (int) settingsService.countActive(chatId);
+        } catch (Exception e) {
+            log.warn("🌍 Dashboard active count failed chatId={}: {}", chatId, e.getMessage());
+        }
+
+        PositionTotals totals = positions.totals(chatId);
+
+        return new GlobalState(
+                accountValue(chatId),
+                BigDecimal.valueOf(totals.pnlPct()).setScale(2, RoundingMode.HALF_UP),
+                active
+        );
+    }
+
+    /**
+     * Балансы аккаунтов чата из памяти (приватные потоки / REST-снимок) в USDT:
+     * стейблкоины — 1:1, остальное — по цене ленты; актив без цены не учитывается.
+     */
+    private BigDecimal accountValue(long chatId) {
+        double total = 0.0;
+        for (AccountKey key : balanceBook.accounts()) {
+            if (key.chatId() != chatId) continue;
+
+            AccountBalanceBook.Entry entry = balanceBook.get(key);
+            if (entry == null) continue;
+
+            for (var b : entry.balances().values()) {
+                double amount = b.free() + b.locked();
+                if (amount <= 0) continue;
+
+                String asset = b.asset().toUpperCase(Locale.ROOT);
+                if (STABLE.contains(asset)) {
+                    total += amount;
+                } else {
+                    double price = positions.markPrice(asset + "USDT");
+                    if (!Double.isNaN(price)) total += amount * price;
+                }
+            }
+        }
+        return BigDecimal.valueOf(total).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private void pushSafe() {
+        try {
+            push();
+        } catch (Throwable t) {
+            // ❗ НИКОГДА не даём потоку рассылки умереть
+            log.warn("🌍 Dashboard push failed: {}", t.getMessage(), t);
+        }
+    }
+
+    void push() {
+        for (Map.Entry<Long, AtomicInteger> e : watchers.entrySet()) {
+            Long chatId = e.getKey();
+            if (e.getValue().get() <= 0) continue;
+
+            GlobalState state = get(chatId);
+            if (state.equals(pushed.get(chatId))) continue;
+
+            ws.convertAndSend(TOPIC + chatId, state);
+            pushed.put(chatId, state);
+        }
+    }
+
+    private void release(Long chatId) {
+        if (chatId == null) return;
+
+        AtomicInteger n = watchers.get(chatId);
+        if (n != null && n.decrementAndGet() < 0) {
+            n.set(0);
+        }
+    }
+
+    /**
+     * @return chatId из /topic/dashboard/{chatId} или null для чужих destination
+     */
+    static Long parse(String dest) {
+        if (dest == null || !dest.startsWith(TOPIC)) return null;
+        try {
+            return Long.parseLong(dest.substring(TOPIC.length()).trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package com.chicu.aitradebot.repository;
 
 import com.chicu.aitradebot.domain.OrderEntity;
+import com.chicu.aitradebot.service.order.OrderRow;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 
@@ -15,4 +20,32 @@ public interface OrderRepository extends JpaRepository<OrderEntity, Long> {
     List<OrderEntity> findByChatIdAndSymbolAndStatusIn(Long chatId,
                                                        String symbol,
                                                        Collection<String> statuses);
+
+    // Открытые ордера всех чатов — бумажный стакан после рестарта
+    List<OrderEntity> findByStatusIn(Collection<String> statuses);
+
+    // Keyset-страница (новые → старые) по idx_orders_chat_symbol_created: строго «раньше» курсора
+    // (beforeAt, beforeId). Первая страница — курсор = верхняя граница диапазона, id = Long.MAX_VALUE.
+    @Query("""
+           select new com.chicu.aitradebot.service.order.OrderRow(
+               o.id, o.symbol, o.side, o.status, o.filled, o.strategyType,
+               o.price, o.quantity, o.executedQty, o.avgPrice, o.commission,
+               o.realizedPnlUsd, o.timestamp, o.createdAt)
+           from OrderEntity o
+           where o.chatId = :chatId
+             and o.symbol = :symbol
+             and o.createdAt >= :from
+             and (o.createdAt < :beforeAt or (o.createdAt = :beforeAt and o.id < :beforeId))
+             and (:strategyType is null or o.strategyType = :strategyType)
+             and (:status is null or o.status = :status)
+           order by o.createdAt desc, o.id desc
+           """)
+    List<OrderRow> findPage(@Param("chatId") long chatId,
+                            @Param("symbol") String symbol,
+                            @Param("from") LocalDateTime from,
+                            @Param("beforeAt") LocalDateTime beforeAt,
+                            @Param("beforeId") long beforeId,
+                            @Param("strategyType") String strategyType,
+                            @Param("status") String status,
+                            Limit limit);
 }
@@ -30,6 +30,15 @@ public interface StrategySettingsRepository extends JpaRepository<StrategySettin
     List<StrategySettings> findAllByChatIdAndExchangeNameAndNetworkType(
             long chatId, String exchangeName, NetworkType networkType
     );
+
+    // сводка дашборда: один запрос по ix_strategy_settings_chat вместо перебора контекстов
+    @Query("""
+           select count(s)
+           from StrategySettings s
+           where s.chatId = :chatId
+             and s.active = true
+           """)
+    long countActiveByChatId(@Param("chatId") long chatId);
     // =========================================================
     // ✅ STRICT KEY (основной метод)
     // =========================================================
@@ -3,6 +3,7 @@ package com.chicu.aitradebot.service;
 import com.chicu.aitradebot.common.enums.NetworkType;
 import com.chicu.aitradebot.common.enums.StrategyType;
 import com.chicu.aitradebot.journal.TradeIntentEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
 
@@ -13,11 +14,12 @@ import java.util.UUID;
  * Заглушка для журнала.
  * Нужна чтобы проект компилился/стартовал, даже если journaling ещё не внедрён полностью.
  *
- * ⚠️ Если у тебя уже есть реальный TradeJournalGatewayImpl — удали этот класс
- * или убери @Primary, иначе он будет перехватывать бин.
+ * ⚠️ Активна по умолчанию (journal.writer.enabled=false или не задано).
+ * journal.writer.enabled=true — TradeJournalGatewayImpl (write-behind через JournalWriter).
  */
 @Service
 @Primary
+@ConditionalOnProperty(prefix = "journal.writer", name = "enabled", havingValue = "false", matchIfMissing = true)
 public class NoopTradeJournalGateway implements TradeJournalGateway {
 
     @Override
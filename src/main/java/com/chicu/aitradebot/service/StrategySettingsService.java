@@ -38,6 +38,9 @@ public interface StrategySettingsService {
             String exchange
     );
 
+    // активные стратегии чата по всем биржам / сетям (один запрос)
+    long countActive(long chatId);
+
     void updateRiskFromUi(
             long chatId,
             StrategyType type,
@@ -2,22 +2,26 @@ package com.chicu.aitradebot.service.impl;
 
 import com.chicu.aitradebot.common.enums.NetworkType;
 import com.chicu.aitradebot.common.enums.StrategyType;
-import com.chicu.aitradebot.domain.ExchangeSettings;
 import com.chicu.aitradebot.domain.OrderEntity;
-import com.chicu.aitradebot.exchange.client.ExchangeClient;
-import com.chicu.aitradebot.exchange.client.ExchangeClientFactory;
 import com.chicu.aitradebot.exchange.model.Order;
-import com.chicu.aitradebot.exchange.service.ExchangeSettingsService;
 import com.chicu.aitradebot.journal.OrderCorrelation;
 import com.chicu.aitradebot.journal.TradeIntentEvent;
 import com.chicu.aitradebot.market.guard.ExchangeAIGuard;
 import com.chicu.aitradebot.market.guard.GuardResult;
-import com.chicu.aitradebot.market.model.SymbolDescriptor;
-import com.chicu.aitradebot.market.service.MarketSymbolService;
+import com.chicu.aitradebot.market.model.IndexedSymbol;
+import com.chicu.aitradebot.market.orderbook.FillEstimate;
+import com.chicu.aitradebot.market.orderbook.LocalOrderBookService;
+import com.chicu.aitradebot.market.orderbook.TopOfBookService;
 import com.chicu.aitradebot.repository.OrderRepository;
 import com.chicu.aitradebot.service.OrderService;
 import com.chicu.aitradebot.service.TradeJournalGateway;
+import com.chicu.aitradebot.service.order.ChatExecutionContext;
+import com.chicu.aitradebot.service.order.ChatExecutionContextCache;
 import com.chicu.aitradebot.strategy.live.StrategyLivePublisher;
+import com.chicu.aitradebot.trade.paper.PaperFillEvent;
+import com.chicu.aitradebot.trade.paper.PaperFillRecorder;
+import com.chicu.aitradebot.trade.paper.PaperMatchingEngine;
+import com.chicu.aitradebot.trade.position.PositionFillListener;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -38,16 +42,26 @@ public class OrderServiceImpl implements OrderService {
 
     private final OrderRepository orderRepository;
     private final StrategyLivePublisher livePublisher;
-    private final ExchangeClientFactory exchangeClientFactory;
-    private final ExchangeSettingsService exchangeSettingsService;
+
+    // ⚡ клиент / сеть / фильтры символов чата — из кэша, без БД на каждый ордер
+    private final ChatExecutionContextCache executionContexts;
 
     // 🔥 AI-GUARD
     private final ExchangeAIGuard aiGuard;
-    private final MarketSymbolService marketSymbolService;
 
     // ✅ journal gateway (NOOP или DB-реализация)
     private final TradeJournalGateway tradeJournalGateway;
 
+    // 📖 локальный стакан: цена MARKET-исполнения с учётом глубины
+    private final LocalOrderBookService orderBooks;
+    private final TopOfBookService topOfBook;
+
+    // 🧮 бумажный стакан: LIMIT / OCO исполняются лентой aggTrade, а не стоят NEW вечно
+    private final PaperMatchingEngine paperEngine;
+
+    // 📬 книга позиций: каждый MARKET-ордер бота учитывается здесь, один раз
+    private final PositionFillListener positionFills;
+
     // =====================================================
     // ✅ НОВОЕ API (с OrderContext)
     // =====================================================
@@ -69,19 +83,21 @@ public class OrderServiceImpl implements OrderService {
         String sideNorm = normalizeSide(side);
         StrategyType st = (ctx.strategyType() != null) ? ctx.strategyType() : StrategyType.values()[0];
 
-        ExchangeClient client = exchangeClientFactory.getByChat(chatId);
-        String exchangeName = safeUpper(client.getExchangeName());
-        NetworkType networkType = resolveNetworkType(chatId, exchangeName);
+        ChatExecutionContext exec = executionContexts.forChat(chatId);
+        String exchangeName = exec.exchange();
+        NetworkType networkType = exec.network();
 
         String timeframe = (ctx.timeframe() == null || ctx.timeframe().isBlank()) ? "1m" : ctx.timeframe().trim();
         String role = (ctx.role() == null || ctx.role().isBlank()) ? "ENTRY" : ctx.role().trim().toUpperCase(Locale.ROOT);
 
-        SymbolDescriptor descriptor = resolveSymbolDescriptor(chatId, symbol);
+        IndexedSymbol indexed = exec.symbol(symbol);
+
+        executionPrice = bookFillPrice(exchangeName, symbol, sideNorm, quantity, executionPrice);
 
         // ✅ ВАЖНО: первым параметром AI-GUARD должен быть EXCHANGE, не SYMBOL
         GuardResult guard = aiGuard.validateAndAdjust(
                 exchangeName,
-                descriptor,
+                indexed,
                 quantity,
                 executionPrice, // для MARKET можно передавать оценку/последний тик
                 true
@@ -122,6 +138,9 @@ public class OrderServiceImpl implements OrderService {
 
         orderRepository.save(entity);
 
+        // qty / цена — после guard'а, как сохранены в ордере (не qty намерения и не цена тика)
+        positionFills.onMarketFill(chatId, entity.getSymbol(), sideNorm, entity.getQuantity(), entity.getPrice(), Instant.now());
+
         publishTradeSafe(chatId, st, symbol, sideNorm, finalPrice, finalQty);
         return mapToDto(entity);
     }
@@ -144,18 +163,18 @@ public class OrderServiceImpl implements OrderService {
         String sideNorm = normalizeSide(side);
         StrategyType st = (ctx.strategyType() != null) ? ctx.strategyType() : StrategyType.values()[0];
 
-        ExchangeClient client = exchangeClientFactory.getByChat(chatId);
-        String exchangeName = safeUpper(client.getExchangeName());
-        NetworkType networkType = resolveNetworkType(chatId, exchangeName);
+        ChatExecutionContext exec = executionContexts.forChat(chatId);
+        String exchangeName = exec.exchange();
+        NetworkType networkType = exec.network();
 
         String timeframe = (ctx.timeframe() == null || ctx.timeframe().isBlank()) ? "1m" : ctx.timeframe().trim();
         String role = (ctx.role() == null || ctx.role().isBlank()) ? "ENTRY" : ctx.role().trim().toUpperCase(Locale.ROOT);
 
-        SymbolDescriptor descriptor = resolveSymbolDescriptor(chatId, symbol);
+        IndexedSymbol indexed = exec.symbol(symbol);
 
         GuardResult guard = aiGuard.validateAndAdjust(
                 exchangeName,
-                descriptor,
+                indexed,
                 quantity,
                 limitPrice,
                 false
@@ -192,6 +211,11 @@ public class OrderServiceImpl implements OrderService {
         }
 
         orderRepository.save(entity);
+
+        if (entity.getId() != null) {
+            applyPaperFills(entity, paperEngine.submitLimit(
+                    entity.getId(), chatId, st, entity.getSymbol(), sideNorm, finalQty, finalPrice, exec.fees()));
+        }
         return mapToDto(entity);
     }
 
@@ -210,11 +234,15 @@ public class OrderServiceImpl implements OrderService {
         if (chatId == null) throw new IllegalArgumentException("chatId is null");
         if (symbol == null || symbol.isBlank()) throw new IllegalArgumentException("symbol is blank");
 
+        BigDecimal stopTrigger = stopPrice != null ? stopPrice : stopLimitPrice;
+        if (quantity == null || quantity.signum() <= 0) throw new IllegalArgumentException("OCO quantity must be > 0");
+        if (takeProfitPrice == null || stopTrigger == null) throw new IllegalArgumentException("OCO requires takeProfit and stop prices");
+
         StrategyType st = (ctx.strategyType() != null) ? ctx.strategyType() : StrategyType.values()[0];
 
-        ExchangeClient client = exchangeClientFactory.getByChat(chatId);
-        String exchangeName = safeUpper(client.getExchangeName());
-        NetworkType networkType = resolveNetworkType(chatId, exchangeName);
+        ChatExecutionContext exec = executionContexts.forChat(chatId);
+        String exchangeName = exec.exchange();
+        NetworkType networkType = exec.network();
 
         String timeframe = (ctx.timeframe() == null || ctx.timeframe().isBlank()) ? "1m" : ctx.timeframe().trim();
         String role = (ctx.role() == null || ctx.role().isBlank()) ? "OCO" : ctx.role().trim().toUpperCase(Locale.ROOT);
@@ -257,6 +285,12 @@ public class OrderServiceImpl implements OrderService {
         }
 
         orderRepository.save(entity);
+
+        if (entity.getId() != null) {
+            applyPaperFills(entity, paperEngine.submitOco(
+                    entity.getId(), chatId, st, entity.getSymbol(), quantity,
+                    takeProfitPrice, stopTrigger, stopPrice != null ? stopLimitPrice : null, exec.fees()));
+        }
         return mapToDto(entity);
     }
 
@@ -345,6 +379,7 @@ public class OrderServiceImpl implements OrderService {
         return orderRepository.findById(orderId)
                 .filter(o -> chatId.equals(o.getChatId()))
                 .map(o -> {
+                    paperEngine.cancel(o.getSymbol(), o.getId());
                     o.setStatus("CANCELED");
                     o.setFilled(false);
                     o.setUpdatedAt(LocalDateTime.now());
@@ -363,6 +398,7 @@ public class OrderServiceImpl implements OrderService {
                 orderRepository.findByChatIdAndSymbolAndStatusIn(chatId, symbol, openStatuses);
 
         list.forEach(o -> {
+            paperEngine.cancel(o.getSymbol(), o.getId());
             o.setStatus("CANCELED");
             o.setFilled(false);
             o.setUpdatedAt(LocalDateTime.now());
@@ -464,40 +500,43 @@ public class OrderServiceImpl implements OrderService {
         );
     }
 
-    private SymbolDescriptor resolveSymbolDescriptor(Long chatId, String symbol) {
-        if (chatId == null || symbol == null) return null;
+    /**
+     * 📖 MARKET-ордер исполняется не по последней цене, а проходом qty по локальному стакану.
+     * Стакан не готов / тонкий / другая биржа → цена вершины с нужной стороны (ask для BUY, bid для SELL),
+     * нет и её → переданная цена, как раньше.
+     */
+    private BigDecimal bookFillPrice(String exchangeName, String symbol, String side, BigDecimal quantity, BigDecimal fallback) {
+        if (quantity == null || quantity.signum() <= 0) return fallback;
 
         try {
-            ExchangeClient client = exchangeClientFactory.getByChat(chatId);
-            String exchange = client.getExchangeName();
-            NetworkType network = resolveNetworkType(chatId, exchange);
-
-            return marketSymbolService.getSymbolInfo(
-                    exchange,
-                    network,
-                    "USDT",
-                    symbol
-            );
-        } catch (Exception e) {
-            log.warn("⚠️ Cannot resolve SymbolDescriptor chatId={} symbol={}", chatId, symbol, e);
-            return null;
-        }
-    }
+            FillEstimate est = "BINANCE".equals(exchangeName)
+                    ? orderBooks.estimate(symbol, side, quantity.doubleValue()).orElse(null)
+                    : null;
 
-    private NetworkType resolveNetworkType(Long chatId, String exchangeName) {
-        try {
+            if (est == null || !est.complete()) {
+                return topOfBook.quote(exchangeName, symbol)
+                        .map(q -> BigDecimal.valueOf(q.touch("BUY".equals(side))))
+                        .orElse(fallback);
+            }
 
-            return exchangeSettingsService
-                    .findAllByChatId(chatId)
-                    .stream()
+            log.debug("📖 [MARKET] {} {} qty={} avg={} best={} slippage={}bps levels={}",
+                    safeUpper(symbol), side, strip(quantity), est.avgPrice(), est.bestPrice(),
+                    String.format(Locale.ROOT, "%.2f", est.slippageBps()), est.levels());
 
-                    .filter(s -> exchangeName != null && exchangeName.equalsIgnoreCase(s.getExchange()))
-
-                    .map(ExchangeSettings::getNetwork)
-                    .findFirst()
-                    .orElse(NetworkType.MAINNET);
+            return BigDecimal.valueOf(est.avgPrice());
         } catch (Exception e) {
-            return NetworkType.MAINNET;
+            log.warn("⚠️ order book estimate failed {}: {}", symbol, e.getMessage());
+            return fallback;
+        }
+    }
+
+    /**
+     * Исполнения, случившиеся прямо при выставлении (лимит уже за рынком / стоп уже задет), —
+     * сразу в возвращаемый ордер; PaperFillRecorder повторит их после коммита идемпотентно.
+     */
+    private static void applyPaperFills(OrderEntity entity, List<PaperFillEvent> fills) {
+        for (PaperFillEvent e : fills) {
+            PaperFillRecorder.apply(entity, e);
         }
     }
 
@@ -524,6 +563,8 @@ public class OrderServiceImpl implements OrderService {
         o.setQuantity(e.getQuantity());
         o.setStatus(e.getStatus());
         o.setFilled(e.getFilled());
+        o.setExecutedQty(e.getExecutedQty());
+        o.setAvgPrice(e.getAvgPrice());
         o.setTime(e.getTimestamp());
 
         try {
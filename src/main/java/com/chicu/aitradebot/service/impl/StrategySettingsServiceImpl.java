@@ -104,6 +104,12 @@ public class StrategySettingsServiceImpl implements StrategySettingsService {
         return repo.findAllByChatIdAndExchangeName(chatId, ex);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public long countActive(long chatId) {
+        return chatId > 0 ? repo.countActiveByChatId(chatId) : 0L;
+    }
+
     @Override
     @Transactional
     public void updateRiskFromUi(long chatId, StrategyType type, String exchange, NetworkType network,
@@ -2,21 +2,31 @@ package com.chicu.aitradebot.service.impl;
 
 import com.chicu.aitradebot.common.enums.NetworkType;
 import com.chicu.aitradebot.common.enums.StrategyType;
+import com.chicu.aitradebot.journal.JournalRecord;
+import com.chicu.aitradebot.journal.JournalWriter;
 import com.chicu.aitradebot.journal.TradeIntentEvent;
-import com.chicu.aitradebot.journal.TradeIntentJournalService;
-import com.chicu.aitradebot.journal.TradeOrderLinkService;
 import com.chicu.aitradebot.service.TradeJournalGateway;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.UUID;
 
+/**
+ * 🧾 Журнал из ордерного пути: correlationId выдаём сразу, запись в БД — JournalWriter (write-behind).
+ * Ордер больше не ждёт find+save intent-а и link-а.
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "journal.writer", name = "enabled", havingValue = "true")
 public class TradeJournalGatewayImpl implements TradeJournalGateway {
 
-    private final TradeIntentJournalService intentService;
-    private final TradeOrderLinkService linkService;
+    private final JournalWriter writer;
 
     @Override
     public String recordIntent(Long chatId,
@@ -35,13 +45,25 @@ public class TradeJournalGatewayImpl implements TradeJournalGateway {
                                String effectiveSettingsJson,
                                String featuresJson) {
 
-        return intentService.recordIntent(
+        Objects.requireNonNull(chatId, "chatId");
+        Objects.requireNonNull(strategyType, "strategyType");
+        Objects.requireNonNull(exchangeName, "exchangeName");
+        Objects.requireNonNull(networkType, "networkType");
+        Objects.requireNonNull(symbol, "symbol");
+        Objects.requireNonNull(timeframe, "timeframe");
+        Objects.requireNonNull(signal, "signal");
+        Objects.requireNonNull(decision, "decision");
+
+        String correlationId = UUID.randomUUID().toString();
+
+        writer.submit(new JournalRecord.Intent(
                 chatId,
                 strategyType,
                 exchangeName,
                 networkType,
                 symbol,
                 timeframe,
+                correlationId,
                 signal,
                 decision,
                 reasonCode,
@@ -50,13 +72,24 @@ public class TradeJournalGatewayImpl implements TradeJournalGateway {
                 uncertainty,
                 modelVersion,
                 effectiveSettingsJson,
-                featuresJson
-        );
+                featuresJson,
+                Instant.now()
+        ));
+
+        // лог минимальный, без спама
+        if (decision != TradeIntentEvent.Decision.ALLOW) {
+            log.info("🧾 Intent: {} {} {} {} tf={} decision={} reason={} cid={}",
+                    strategyType, symbol, exchangeName, networkType, timeframe, decision,
+                    (reasonCode == null || reasonCode.isBlank()) ? "—" : reasonCode, correlationId);
+        }
+
+        return correlationId;
     }
 
     @Override
     public void attachClientOrderId(String correlationId, String clientOrderId) {
-        intentService.attachClientOrderId(correlationId, clientOrderId);
+        if (correlationId == null || correlationId.isBlank()) return;
+        writer.submit(new JournalRecord.ClientOrder(correlationId, clientOrderId));
     }
 
     @Override
@@ -70,7 +103,17 @@ public class TradeJournalGatewayImpl implements TradeJournalGateway {
                                 String clientOrderId,
                                 String role) {
 
-        linkService.link(
+        Objects.requireNonNull(chatId, "chatId");
+        Objects.requireNonNull(strategyType, "strategyType");
+        Objects.requireNonNull(exchangeName, "exchangeName");
+        Objects.requireNonNull(networkType, "networkType");
+        Objects.requireNonNull(symbol, "symbol");
+        Objects.requireNonNull(timeframe, "timeframe");
+        Objects.requireNonNull(correlationId, "correlationId");
+        Objects.requireNonNull(clientOrderId, "clientOrderId");
+
+        // idempotent по clientOrderId — on conflict do nothing в JournalWriter
+        writer.submit(new JournalRecord.Link(
                 chatId,
                 strategyType,
                 exchangeName,
@@ -79,7 +122,8 @@ public class TradeJournalGatewayImpl implements TradeJournalGateway {
                 timeframe,
                 correlationId,
                 clientOrderId,
-                role
-        );
+                role,
+                Instant.now()
+        ));
     }
 }
@@ -0,0 +1,64 @@
+package com.chicu.aitradebot.service.order;
+
+import com.chicu.aitradebot.common.enums.NetworkType;
+import com.chicu.aitradebot.exchange.client.ExchangeClient;
+import com.chicu.aitradebot.market.model.IndexedSymbol;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * ⚡ Неизменяемый контекст исполнения чата на связке (exchange, network).
+ *
+ * Всё, что OrderServiceImpl раньше собирал заново на каждый ордер
+ * (клиент, сеть, фильтры символов), собрано один раз в ChatExecutionContextCache.
+ * Предобработка ордера по контексту — только память, без БД и сети.
+ *
+ * ❗ Секреты сюда не попадают: apiKeyHandle — маска ключа для логов/диагностики.
+ */
+public record ChatExecutionContext(
+        long chatId,
+        String exchange,
+        NetworkType network,
+        ExchangeClient client,
+        String apiKeyHandle,
+        FeeTier fees,
+        Map<String, IndexedSymbol> symbols,
+        long builtAtMs
+) {
+
+    /**
+     * Комиссии аккаунта в процентах (0.1 = 0.1%), null — биржа не отдала.
+     */
+    public record FeeTier(BigDecimal makerPct, BigDecimal takerPct) {
+
+        public static final FeeTier UNKNOWN = new FeeTier(null, null);
+
+        public boolean known() {
+            return makerPct != null && takerPct != null;
+        }
+    }
+
+    public ChatExecutionContext {
+        // индекс реестра символов неизменяемый и общий для всех чатов связки — не копируем
+        symbols = symbols == null ? Map.of() : symbols;
+        fees = fees == null ? FeeTier.UNKNOWN : fees;
+    }
+
+    /**
+     * Символ с разобранными фильтрами (stepSize / tickSize / minNotional) или null — символа нет в снимке.
+     */
+    public IndexedSymbol symbol(String symbol) {
+        if (symbol == null) return null;
+        return symbols.get(symbol.trim().toUpperCase(Locale.ROOT));
+    }
+
+    public boolean hasKeys() {
+        return apiKeyHandle != null;
+    }
+
+    public boolean isExpired(long nowMs, long maxAgeMs) {
+        return nowMs - builtAtMs > maxAgeMs;
+    }
+}
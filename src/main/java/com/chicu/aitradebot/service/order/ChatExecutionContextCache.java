@@ -0,0 +1,183 @@
+package com.chicu.aitradebot.service.order;
+
+import com.chicu.aitradebot.common.enums.NetworkType;
+import com.chicu.aitradebot.domain.ExchangeSettings;
+import com.chicu.aitradebot.exchange.client.ExchangeClient;
+import com.chicu.aitradebot.exchange.client.ExchangeClientFactory;
+import com.chicu.aitradebot.exchange.model.AccountFees;
+import com.chicu.aitradebot.exchange.service.ExchangeSettingsChangedEvent;
+import com.chicu.aitradebot.exchange.service.ExchangeSettingsService;
+import com.chicu.aitradebot.market.model.IndexedSymbol;
+import com.chicu.aitradebot.market.service.MarketSymbolService;
+import com.chicu.aitradebot.service.order.ChatExecutionContext.FeeTier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 🗂 Кэш ChatExecutionContext по (chatId, exchange, network).
+ *
+ * ❗ Правила:
+ *  - активная связка чата = первая строка exchange_settings (как ExchangeClientFactory.getByChat)
+ *  - сброс по ExchangeSettingsChangedEvent (после коммита) — весь chatId целиком
+ *  - TTL: комиссии и фильтры символов тоже меняются, контекст пересобирается раз в MAX_AGE
+ *  - снимок без фильтров (биржа не ответила) живёт DEGRADED_MAX_AGE: пока биржа лежит, ордера не
+ *    пересобирают контекст (БД, комиссии, exchangeInfo) каждый раз, но фильтры скоро пробуются снова
+ *  - гонка двух сборок безвредна: побеждает последняя, обе корректны
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChatExecutionContextCache {
+
+    static final long MAX_AGE_MS = TimeUnit.MINUTES.toMillis(10);
+    static final long DEGRADED_MAX_AGE_MS = TimeUnit.SECONDS.toMillis(15);
+
+    private static final String FILTER_ASSET = "USDT";
+
+    private final ExchangeClientFactory clientFactory;
+    private final ExchangeSettingsService settingsService;
+    private final MarketSymbolService marketSymbolService;
+
+    /** chatId → активная связка */
+    private final Map<Long, Key> active = new ConcurrentHashMap<>();
+    private final Map<Key, ChatExecutionContext> contexts = new ConcurrentHashMap<>();
+
+    record Key(long chatId, String exchange, NetworkType network) {
+        static Key of(long chatId, String exchange, NetworkType network) {
+            return new Key(chatId, exchange.trim().toUpperCase(Locale.ROOT),
+                    network != null ? network : NetworkType.MAINNET);
+        }
+    }
+
+    // =====================================================
+    // API
+    // =====================================================
+
+    /**
+     * Контекст активной биржи чата.
+     *
+     * @throws IllegalStateException у чата нет exchange_settings
+     */
+    public ChatExecutionContext forChat(Long chatId) {
+        if (chatId == null) throw new IllegalArgumentException("chatId не может быть null");
+
+        Key key = active.get(chatId);
+        if (key != null) {
+            ChatExecutionContext ctx = contexts.get(key);
+            if (fresh(ctx)) return ctx;
+        }
+
+        List<ExchangeSettings> rows = settingsService.findAllByChatId(chatId);
+        if (rows.isEmpty()) {
+            throw new IllegalStateException("❌ Нет exchange_settings для chatId=" + chatId);
+        }
+
+        ExchangeSettings s = rows.getFirst();
+        key = Key.of(chatId, s.getExchange(), s.getNetwork());
+        active.put(chatId, key);
+        return load(key, s);
+    }
+
+    public ChatExecutionContext get(long chatId, String exchange, NetworkType network) {
+        Key key = Key.of(chatId, exchange, network);
+
+        ChatExecutionContext ctx = contexts.get(key);
+        if (fresh(ctx)) return ctx;
+
+        ExchangeSettings s = settingsService.findAllByChatId(chatId).stream()
+                .filter(it -> key.exchange().equalsIgnoreCase(it.getExchange()) && key.network() == it.getNetwork())
+                .findFirst()
+                .orElse(null);
+
+        return load(key, s);
+    }
+
+    public void invalidate(long chatId) {
+        active.remove(chatId);
+        contexts.keySet().removeIf(k -> k.chatId() == chatId);
+    }
+
+    public int size() {
+        return contexts.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSettingsChanged(ExchangeSettingsChangedEvent e) {
+        invalidate(e.chatId());
+        log.debug("🗂 execution context сброшен chatId={} ({} {}@{})",
+                e.chatId(), e.change(), e.exchange(), e.network());
+    }
+
+    // =====================================================
+    // BUILD
+    // =====================================================
+
+    private ChatExecutionContext load(Key key, ExchangeSettings settings) {
+        ChatExecutionContext ctx = build(key, settings);
+        contexts.put(key, ctx);
+        return ctx;
+    }
+
+    private static boolean fresh(ChatExecutionContext ctx) {
+        if (ctx == null) return false;
+        long maxAge = ctx.symbols().isEmpty() ? DEGRADED_MAX_AGE_MS : MAX_AGE_MS;
+        return !ctx.isExpired(System.currentTimeMillis(), maxAge);
+    }
+
+    private ChatExecutionContext build(Key key, ExchangeSettings settings) {
+        ExchangeClient client = clientFactory.get(key.exchange(), key.network());
+        String handle = settings != null ? maskKey(settings.getApiKey()) : null;
+
+        FeeTier fees = handle != null ? loadFees(client, key) : FeeTier.UNKNOWN;
+        Map<String, IndexedSymbol> symbols = loadSymbols(key);
+
+        log.debug("🗂 execution context собран chatId={} {}@{} key={} symbols={} fees={}",
+                key.chatId(), key.exchange(), key.network(), handle, symbols.size(), fees);
+
+        return new ChatExecutionContext(
+                key.chatId(),
+                key.exchange(),
+                key.network(),
+                client,
+                handle,
+                fees,
+                symbols,
+                System.currentTimeMillis()
+        );
+    }
+
+    private FeeTier loadFees(ExchangeClient client, Key key) {
+        try {
+            AccountFees f = client.getAccountFees(key.chatId(), key.network());
+            return f == null ? FeeTier.UNKNOWN : new FeeTier(f.getMakerPct(), f.getTakerPct());
+        } catch (Exception e) {
+            log.debug("⚠️ fee tier недоступен chatId={} {}@{}: {}",
+                    key.chatId(), key.exchange(), key.network(), e.getMessage());
+            return FeeTier.UNKNOWN;
+        }
+    }
+
+    private Map<String, IndexedSymbol> loadSymbols(Key key) {
+        try {
+            Map<String, IndexedSymbol> index = marketSymbolService.index(key.exchange(), key.network(), FILTER_ASSET);
+            return index != null ? index : Map.of();
+        } catch (Exception e) {
+            log.warn("⚠️ Cannot load symbol filters {}@{}: {}", key.exchange(), key.network(), e.getMessage());
+            return Map.of();
+        }
+    }
+
+    static String maskKey(String apiKey) {
+        if (apiKey == null || apiKey.isBlank()) return null;
+        String k = apiKey.trim();
+        return k.length() <= 4 ? "****" : "****" + k.substring(k.length() - 4);
+    }
+}
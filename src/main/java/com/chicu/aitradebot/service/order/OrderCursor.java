@@ -0,0 +1,35 @@
+package com.chicu.aitradebot.service.order;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 🔖 Позиция keyset-пагинации: (createdAt, id) последней отданной строки.
+ * Следующая страница — строго «раньше» неё в порядке createdAt DESC, id DESC.
+ *
+ * Для клиента — непрозрачная строка (base64url), createdAt — с полной точностью
+ * (обрезка до миллисекунд пропускала бы строки с тем же createdAt).
+ */
+public record OrderCursor(LocalDateTime createdAt, long id) {
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return null — курсора нет (первая страница)
+     * @throws IllegalArgumentException курсор повреждён
+     */
+    public static OrderCursor parse(String token) {
+        if (token == null || token.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            return new OrderCursor(LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.chicu.aitradebot.service.order;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Locale;
+
+/**
+ * 🔎 Необязательные фильтры списка ордеров (null — без фильтра).
+ *
+ * from / to — по createdAt, включительно.
+ */
+public record OrderFilter(
+        String strategyType,
+        String status,
+        LocalDateTime from,
+        LocalDateTime to
+) {
+
+    public static final OrderFilter NONE = new OrderFilter(null, null, null, null);
+
+    /**
+     * Из параметров API: пустые строки — без фильтра, время — epoch ms.
+     */
+    public static OrderFilter of(String strategyType, String status, Long fromMs, Long toMs) {
+        return new OrderFilter(
+                upperOrNull(strategyType),
+                upperOrNull(status),
+                fromMs != null ? LocalDateTime.ofInstant(Instant.ofEpochMilli(fromMs), ZoneId.systemDefault()) : null,
+                toMs != null ? LocalDateTime.ofInstant(Instant.ofEpochMilli(toMs), ZoneId.systemDefault()) : null
+        );
+    }
+
+    private static String upperOrNull(String s) {
+        return s == null || s.isBlank() ? null : s.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,11 @@
+package com.chicu.aitradebot.service.order;
+
+import java.util.List;
+
+/**
+ * 📄 Страница ордеров (новые → старые).
+ *
+ * @param nextCursor курсор следующей страницы, null — это последняя
+ */
+public record OrderPage<T>(List<T> items, String nextCursor) {
+}
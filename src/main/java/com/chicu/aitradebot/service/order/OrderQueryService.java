@@ -0,0 +1,80 @@
+package com.chicu.aitradebot.service.order;
+
+import com.chicu.aitradebot.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * 📚 Чтение истории ордеров чата по символу: keyset-страницы проекций (без сущностей).
+ *
+ * ❗ Правила:
+ *  - порядок — createdAt DESC, id DESC; страница продолжается курсором последней строки,
+ *    цена запроса не зависит от глубины (никаких OFFSET)
+ *  - в память попадает не больше одной страницы, в т.ч. при экспорте (forEach)
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderQueryService {
+
+    public static final int DEFAULT_LIMIT = 500;
+    public static final int MAX_LIMIT = 5000;
+
+    /** размер страницы при обходе всей истории (экспорт) */
+    static final int SCAN_PAGE = 1000;
+
+    // границы диапазона по умолчанию: вместо "is null or" — индекс работает и без фильтра по времени
+    private static final LocalDateTime MIN_TIME = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_TIME = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private final OrderRepository orderRepository;
+
+    @Transactional(readOnly = true)
+    public OrderPage<OrderRow> page(long chatId, String symbol, OrderFilter filter, String cursor, int limit) {
+        return fetch(chatId, symbol, filter, OrderCursor.parse(cursor), limit);
+    }
+
+    private OrderPage<OrderRow> fetch(long chatId, String symbol, OrderFilter filter, OrderCursor cursor, int limit) {
+        if (symbol == null || symbol.isBlank()) return new OrderPage<>(List.of(), null);
+
+        OrderFilter f = filter != null ? filter : OrderFilter.NONE;
+        int n = limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+
+        LocalDateTime beforeAt = cursor != null ? cursor.createdAt() : (f.to() != null ? f.to() : MAX_TIME);
+        long beforeId = cursor != null ? cursor.id() : Long.MAX_VALUE;
+
+        List<OrderRow> rows = orderRepository.findPage(
+                chatId,
+                symbol.trim().toUpperCase(Locale.ROOT),
+                f.from() != null ? f.from() : MIN_TIME,
+                beforeAt,
+                beforeId,
+                f.strategyType(),
+                f.status(),
+                Limit.of(n)
+        );
+
+        String next = rows.size() == n ? rows.get(rows.size() - 1).cursor().encode() : null;
+        return new OrderPage<>(rows, next);
+    }
+
+    /**
+     * Обход всей выборки страницами по SCAN_PAGE (новые → старые).
+     * Каждая страница — отдельный короткий запрос, без долгой транзакции и курсора БД.
+     */
+    public void forEach(long chatId, String symbol, OrderFilter filter, Consumer<OrderRow> sink) {
+        OrderCursor cursor = null;
+        do {
+            OrderPage<OrderRow> page = fetch(chatId, symbol, filter, cursor, SCAN_PAGE);
+            page.items().forEach(sink);
+
+            cursor = page.nextCursor() != null ? page.items().get(page.items().size() - 1).cursor() : null;
+        } while (cursor != null);
+    }
+}
@@ -0,0 +1,30 @@
+package com.chicu.aitradebot.service.order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 📄 Строка ордера для списков / графика / экспорта — JPQL-проекция без сущности
+ * (без ULTRA-полей, без контекста персистентности).
+ */
+public record OrderRow(
+        Long id,
+        String symbol,
+        String side,
+        String status,
+        Boolean filled,
+        String strategyType,
+        BigDecimal price,
+        BigDecimal quantity,
+        BigDecimal executedQty,
+        BigDecimal avgPrice,
+        BigDecimal commission,
+        BigDecimal realizedPnlUsd,
+        Long timestamp,
+        LocalDateTime createdAt
+) {
+
+    public OrderCursor cursor() {
+        return new OrderCursor(createdAt, id);
+    }
+}
@@ -15,6 +15,7 @@ import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -40,6 +41,7 @@ public class BreakoutStrategyV4 implements TradingStrategy {
     private final BreakoutStrategySettingsService breakoutSettingsService;
     private final StrategySettingsService strategySettingsService;
     private final TradeExecutionService tradeExecutionService;
+    private final Clock clock;
 
     private final Map<Long, LocalState> states = new ConcurrentHashMap<>();
 
@@ -97,7 +99,7 @@ public class BreakoutStrategyV4 implements TradingStrategy {
 
         LocalState st = new LocalState();
         st.active = true;
-        st.startedAt = Instant.now();
+        st.startedAt = Instant.now(clock);
 
         st.strategySettings = strategy;
         st.breakoutSettings = cfg;
@@ -106,7 +108,7 @@ public class BreakoutStrategyV4 implements TradingStrategy {
         st.exchange = strategy.getExchangeName();
         st.network = strategy.getNetworkType();
 
-        st.lastSettingsLoadAt = Instant.now();
+        st.lastSettingsLoadAt = Instant.now(clock);
         st.lastStrategyUpdatedAt = toInstant(strategy.getUpdatedAt());
         st.lastBreakoutUpdatedAt = cfg != null ? cfg.getUpdatedAt() : null;
         st.lastSettingsFingerprint = buildSettingsFingerprint(strategy, cfg);
@@ -175,7 +177,7 @@ public class BreakoutStrategyV4 implements TradingStrategy {
             return;
         }
 
-        Instant time = (ts != null) ? ts : Instant.now();
+        Instant time = (ts != null) ? ts : Instant.now(clock);
 
         // не мешаем тики разных символов
         String tickSymbol = safeUpper(symbolFromTick);
@@ -14,6 +14,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Comparator;
@@ -44,6 +45,7 @@ public class DcaStrategyV4 implements TradingStrategy {
     private final DcaStrategySettingsService dcaSettingsService;
     private final StrategySettingsService strategySettingsService;
     private final TradeExecutionService tradeExecutionService;
+    private final Clock clock;
 
     private final Map<Long, LocalState> states = new ConcurrentHashMap<>();
 
@@ -92,7 +94,7 @@ public class DcaStrategyV4 implements TradingStrategy {
 
         LocalState st = new LocalState();
         st.active = true;
-        st.startedAt = Instant.now();
+        st.startedAt = Instant.now(clock);
         st.ss = ss;
         st.cfg = cfg;
 
@@ -100,7 +102,7 @@ public class DcaStrategyV4 implements TradingStrategy {
         st.exchange = ss.getExchangeName();
         st.network = ss.getNetworkType();
 
-        st.lastSettingsLoadAt = Instant.now();
+        st.lastSettingsLoadAt = Instant.now(clock);
         st.lastFingerprint = buildFingerprint(ss, cfg);
 
         states.put(chatId, st);
@@ -157,7 +159,7 @@ public class DcaStrategyV4 implements TradingStrategy {
 
         if (price == null || price.signum() <= 0) return;
 
-        Instant time = (ts != null ? ts : Instant.now());
+        Instant time = (ts != null ? ts : Instant.now(clock));
 
         String tickSym = safeUpper(symbolFromTick);
         String cfgSym = safeUpper(st.symbol);
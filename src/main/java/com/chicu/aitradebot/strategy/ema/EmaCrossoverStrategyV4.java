@@ -14,6 +14,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.time.Clock;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -33,6 +34,7 @@ public class EmaCrossoverStrategyV4 implements TradingStrategy {
     private final StrategySettingsService strategySettingsService;
     private final EmaCrossoverStrategySettingsService emaSettingsService;
     private final TradeExecutionService tradeExecutionService;
+    private final Clock clock;
 
     private final Map<Long, LocalState> states = new ConcurrentHashMap<>();
 
@@ -62,7 +64,7 @@ public class EmaCrossoverStrategyV4 implements TradingStrategy {
 
         LocalState st = new LocalState();
         st.active = true;
-        st.startedAt = Instant.now();
+        st.startedAt = Instant.now(clock);
         st.strategySettings = ss;
         st.cfg = cfg;
 
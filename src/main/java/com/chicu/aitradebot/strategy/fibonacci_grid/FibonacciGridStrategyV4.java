@@ -16,6 +16,7 @@ import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Comparator;
@@ -45,6 +46,7 @@ public class FibonacciGridStrategyV4 implements TradingStrategy {
     private final FibonacciGridStrategySettingsService fiboSettingsService;
     private final StrategySettingsService strategySettingsService;
     private final TradeExecutionService tradeExecutionService;
+    private final Clock clock;
 
     private final Map<Long, LocalState> states = new ConcurrentHashMap<>();
 
@@ -96,7 +98,7 @@ public class FibonacciGridStrategyV4 implements TradingStrategy {
 
         LocalState st = new LocalState();
         st.active = true;
-        st.startedAt = Instant.now();
+        st.startedAt = Instant.now(clock);
         st.ss = ss;
         st.cfg = cfg;
 
@@ -104,7 +106,7 @@ public class FibonacciGridStrategyV4 implements TradingStrategy {
         st.exchange = ss.getExchangeName();
         st.network = ss.getNetworkType();
 
-        st.lastSettingsLoadAt = Instant.now();
+        st.lastSettingsLoadAt = Instant.now(clock);
         st.lastFingerprint = buildFingerprint(ss, cfg);
 
         int levels = nz(cfg.getGridLevels(), 6);
@@ -163,7 +165,7 @@ public class FibonacciGridStrategyV4 implements TradingStrategy {
 
         if (price == null || price.signum() <= 0) return;
 
-        Instant time = (ts != null ? ts : Instant.now());
+        Instant time = (ts != null ? ts : Instant.now(clock));
 
         String tickSym = safeUpper(symbolFromTick);
         String cfgSym = safeUpper(st.symbol);
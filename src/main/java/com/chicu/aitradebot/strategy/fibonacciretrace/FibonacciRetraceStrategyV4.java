@@ -15,6 +15,7 @@ import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayDeque;
@@ -37,6 +38,7 @@ public class FibonacciRetraceStrategyV4 implements TradingStrategy {
     private final FibonacciRetraceStrategySettingsService fiboSettingsService;
     private final StrategySettingsService strategySettingsService;
     private final TradeExecutionService tradeExecutionService;
+    private final Clock clock;
 
     private final Map<Long, LocalState> states = new ConcurrentHashMap<>();
 
@@ -88,7 +90,7 @@ public class FibonacciRetraceStrategyV4 implements TradingStrategy {
 
         LocalState st = new LocalState();
         st.active = true;
-        st.startedAt = Instant.now();
+        st.startedAt = Instant.now(clock);
 
         st.ss = ss;
         st.cfg = cfg;
@@ -97,7 +99,7 @@ public class FibonacciRetraceStrategyV4 implements TradingStrategy {
         st.exchange = ss.getExchangeName();
         st.network = ss.getNetworkType();
 
-        st.lastSettingsLoadAt = Instant.now();
+        st.lastSettingsLoadAt = Instant.now(clock);
         st.lastFingerprint = buildFingerprint(ss, cfg);
 
         states.put(chatId, st);
@@ -165,7 +167,7 @@ public class FibonacciRetraceStrategyV4 implements TradingStrategy {
             return;
         }
 
-        Instant time = ts != null ? ts : Instant.now();
+        Instant time = ts != null ? ts : Instant.now(clock);
 
         String tickSymbol = safeUpper(symbolFromTick);
         String cfgSymbol = safeUpper(st.symbol);
@@ -26,6 +26,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Comparator;
@@ -65,6 +66,7 @@ public class HybridStrategyV4 implements TradingStrategy {
     private final HybridStrategySettingsService hybridSettingsService;
     private final StrategySettingsService strategySettingsService;
     private final TradeExecutionService tradeExecutionService;
+    private final Clock clock;
 
     private final CandleProvider candleProvider;
     private final MlSignalService mlSignalService;
@@ -110,7 +112,7 @@ public class HybridStrategyV4 implements TradingStrategy {
 
         LocalState st = new LocalState();
         st.active = true;
-        st.startedAt = Instant.now();
+        st.startedAt = Instant.now(clock);
         st.ss = ss;
         st.cfg = cfg;
 
@@ -118,7 +120,7 @@ public class HybridStrategyV4 implements TradingStrategy {
         st.exchange = ss.getExchangeName();
         st.network = ss.getNetworkType();
 
-        st.lastSettingsLoadAt = Instant.now();
+        st.lastSettingsLoadAt = Instant.now(clock);
         st.lastFingerprint = buildFingerprint(ss, cfg);
 
         states.put(chatId, st);
@@ -182,7 +184,7 @@ public class HybridStrategyV4 implements TradingStrategy {
         st.ticks++;
 
         if (price == null || price.signum() <= 0) return;
-        Instant time = (ts != null ? ts : Instant.now());
+        Instant time = (ts != null ? ts : Instant.now(clock));
 
         String tickSym = safeUpper(symbolFromTick);
         String cfgSym = safeUpper(st.symbol);
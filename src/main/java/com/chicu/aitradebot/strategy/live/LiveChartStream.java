@@ -0,0 +1,152 @@
+package com.chicu.aitradebot.strategy.live;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 📈 Версионированный поток свечей графика (snapshot + delta).
+ *
+ * ❗ Протокол:
+ *  - у каждого (symbol, timeframe) свой монотонный seq
+ *  - каждое изменение бара = delta: "append" (новый бар) или "update" (последний бар)
+ *  - delta несёт ПОЛНОЕ состояние бара → повторное применение безопасно
+ *  - кольцо последних изменений: на один бар — одна запись (последнее состояние)
+ *  - клиент после реконнекта докачивает только пропущенное: since(seq)
+ */
+@Component
+public class LiveChartStream {
+
+    public static final String OP_APPEND = "append";
+    public static final String OP_UPDATE = "update";
+
+    private final int ringSize;
+
+    public LiveChartStream(StrategyLiveProperties props) {
+        this.ringSize = Math.max(16, props.getChartRingSize());
+    }
+
+    private record StreamKey(String symbol, String timeframe) {
+    }
+
+    public record Bar(long seq, long time, double open, double high, double low, double close, double volume) {
+    }
+
+    public record Delta(long seq, String op) {
+    }
+
+    /**
+     * @param seq   текущий seq потока
+     * @param reset true — пропущенное уже вытеснено из кольца, нужен новый snapshot
+     * @param bars  изменённые бары по возрастанию seq
+     */
+    public record Replay(long seq, boolean reset, List<Bar> bars) {
+    }
+
+    private static final class Stream {
+        private long seq;
+        /** seq последнего вытесненного из кольца бара */
+        private long floorSeq;
+        private final ArrayDeque<Bar> ring = new ArrayDeque<>();
+    }
+
+    private final Map<StreamKey, Stream> streams = new ConcurrentHashMap<>();
+
+    // =====================================================
+    // WRITE
+    // =====================================================
+
+    /**
+     * Зафиксировать состояние бара.
+     *
+     * @return delta с seq или null (бар старее последнего — график его не принимает)
+     */
+    public Delta record(String symbol,
+                        String timeframe,
+                        long time,
+                        double open,
+                        double high,
+                        double low,
+                        double close,
+                        double volume) {
+
+        if (symbol == null || timeframe == null || time <= 0) return null;
+
+        Stream s = streams.computeIfAbsent(new StreamKey(symbol, timeframe), k -> new Stream());
+
+        synchronized (s) {
+            Bar last = s.ring.peekLast();
+
+            if (last != null && time < last.time()) {
+                return null;
+            }
+
+            if (last != null && time == last.time()) {
+                // тот же бар от другого чата/источника — версию не поднимаем
+                if (last.open() == open && last.high() == high && last.low() == low
+                    && last.close() == close && last.volume() == volume) {
+                    return new Delta(last.seq(), OP_UPDATE);
+                }
+
+                s.ring.pollLast();
+                s.ring.addLast(new Bar(++s.seq, time, open, high, low, close, volume));
+                return new Delta(s.seq, OP_UPDATE);
+            }
+
+            s.ring.addLast(new Bar(++s.seq, time, open, high, low, close, volume));
+
+            while (s.ring.size() > ringSize) {
+                s.floorSeq = s.ring.pollFirst().seq();
+            }
+
+            return new Delta(s.seq, OP_APPEND);
+        }
+    }
+
+    // =====================================================
+    // READ
+    // =====================================================
+
+    /**
+     * Всё, что изменилось после sinceSeq.
+     */
+    public Replay since(String symbol, String timeframe, long sinceSeq) {
+
+        Stream s = streams.get(new StreamKey(symbol, timeframe));
+        if (s == null) {
+            return new Replay(0L, sinceSeq > 0, List.of());
+        }
+
+        synchronized (s) {
+            // рестарт сервера (seq откатился) или пропуск длиннее кольца
+            if (sinceSeq > s.seq || sinceSeq < s.floorSeq) {
+                return new Replay(s.seq, true, List.of());
+            }
+
+            List<Bar> out = new ArrayList<>();
+            for (Bar b : s.ring) {
+                if (b.seq() > sinceSeq) out.add(b);
+            }
+            return new Replay(s.seq, false, out);
+        }
+    }
+
+    /**
+     * Текущий seq и все бары кольца — для наложения на snapshot.
+     */
+    public Replay snapshot(String symbol, String timeframe) {
+
+        Stream s = streams.get(new StreamKey(symbol, timeframe));
+        if (s == null) {
+            return new Replay(0L, false, List.of());
+        }
+
+        synchronized (s) {
+            return new Replay(s.seq, false, new ArrayList<>(s.ring));
+        }
+    }
+}
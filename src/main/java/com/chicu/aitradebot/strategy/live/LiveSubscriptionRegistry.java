@@ -0,0 +1,166 @@
+package com.chicu.aitradebot.strategy.live;
+
+import com.chicu.aitradebot.common.enums.StrategyType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 👀 Реестр STOMP-подписок на LIVE-топики.
+ *
+ * ❗ Назначение:
+ *  - знать, смотрит ли кто-то стратегию (/topic/strategy/{chatId}/{TYPE})
+ *    или символ (/topic/market/{SYMBOL})
+ *  - StrategyLivePublisher не строит события, которые некому отправить
+ *  - при новой подписке на стратегию — досылаем снапшот слоёв
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LiveSubscriptionRegistry {
+
+    private final StrategyLiveWsBridge bridge;
+
+    private record StrategyTopic(long chatId, StrategyType type) {
+    }
+
+    /**
+     * topic → число подписок
+     */
+    private final Map<StrategyTopic, AtomicInteger> strategyTopics = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> marketTopics = new ConcurrentHashMap<>();
+
+    /**
+     * sessionId → (subscriptionId → destination)
+     * (UNSUBSCRIBE / DISCONNECT не несут destination)
+     */
+    private final Map<String, Map<String, String>> sessions = new ConcurrentHashMap<>();
+
+    // =====================================================
+    // QUERIES
+    // =====================================================
+
+    public boolean hasStrategySubscribers(Long chatId, StrategyType type) {
+        if (chatId == null || type == null) return false;
+        AtomicInteger n = strategyTopics.get(new StrategyTopic(chatId, type));
+        return n != null && n.get() > 0;
+    }
+
+    public boolean hasMarketSubscribers(String symbol) {
+        if (symbol == null) return false;
+        AtomicInteger n = marketTopics.get(symbol);
+        return n != null && n.get() > 0;
+    }
+
+    // =====================================================
+    // STOMP EVENTS
+    // =====================================================
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor h = StompHeaderAccessor.wrap(event.getMessage());
+
+        String sessionId = h.getSessionId();
+        String subscriptionId = h.getSubscriptionId();
+        String dest = h.getDestination();
+
+        if (sessionId == null || subscriptionId == null || dest == null) return;
+
+        Object topic = parse(dest);
+        if (topic == null) return;
+
+        sessions.computeIfAbsent(sessionId, s -> new ConcurrentHashMap<>())
+                .put(subscriptionId, dest);
+
+        counter(topic).incrementAndGet();
+
+        log.debug("👀 LIVE subscribe session={} dest={}", sessionId, dest);
+
+        // 📦 новый зритель стратегии — сразу отдаём актуальные слои
+        if (topic instanceof StrategyTopic st) {
+            try {
+                bridge.replayLayers(st.chatId(), st.type());
+            } catch (Exception e) {
+                log.warn("⚠️ LIVE snapshot on subscribe failed dest={}: {}", dest, e.getMessage());
+            }
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor h = StompHeaderAccessor.wrap(event.getMessage());
+
+        Map<String, String> subs = h.getSessionId() != null ? sessions.get(h.getSessionId()) : null;
+        if (subs == null || h.getSubscriptionId() == null) return;
+
+        release(subs.remove(h.getSubscriptionId()));
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, String> subs = sessions.remove(event.getSessionId());
+        if (subs == null) return;
+
+        subs.values().forEach(this::release);
+
+        log.debug("👀 LIVE disconnect session={} subscriptions={}", event.getSessionId(), subs.size());
+    }
+
+    // =====================================================
+    // INTERNAL
+    // =====================================================
+
+    private void release(String dest) {
+        if (dest == null) return;
+
+        Object topic = parse(dest);
+        if (topic == null) return;
+
+        AtomicInteger n = topic instanceof StrategyTopic st
+                ? strategyTopics.get(st)
+                : marketTopics.get((String) topic);
+
+        if (n != null && n.decrementAndGet() < 0) {
+            n.set(0);
+        }
+    }
+
+    private AtomicInteger counter(Object topic) {
+        return topic instanceof StrategyTopic st
+                ? strategyTopics.computeIfAbsent(st, k -> new AtomicInteger())
+                : marketTopics.computeIfAbsent((String) topic, k -> new AtomicInteger());
+    }
+
+    /**
+     * @return StrategyTopic, символ (String) или null для чужих destination
+     */
+    private static Object parse(String dest) {
+
+        if (dest.startsWith(StrategyLiveWsBridge.MARKET_TOPIC)) {
+            String symbol = dest.substring(StrategyLiveWsBridge.MARKET_TOPIC.length()).trim().toUpperCase();
+            return symbol.isEmpty() || symbol.contains("/") ? null : symbol;
+        }
+
+        if (dest.startsWith(StrategyLiveWsBridge.STRATEGY_TOPIC)) {
+            // bridge шлёт только в /topic/strategy/{chatId}/{TYPE} — остальные варианты не считаем
+            String[] parts = dest.substring(StrategyLiveWsBridge.STRATEGY_TOPIC.length()).split("/");
+            if (parts.length != 2) return null;
+            try {
+                return new StrategyTopic(Long.parseLong(parts[0]), StrategyType.valueOf(parts[1]));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        return null;
+    }
+}
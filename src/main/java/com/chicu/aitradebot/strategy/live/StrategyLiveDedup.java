@@ -0,0 +1,251 @@
+package com.chicu.aitradebot.strategy.live;
+
+import com.chicu.aitradebot.common.enums.StrategyType;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 🔕 Дедупликация LIVE-событий фиксированного размера.
+ *
+ * ❗ Устройство:
+ *  - таблица с прямой адресацией: слот = fingerprint(chatId, strategy, type, symbol)
+ *  - в слоте — fingerprint содержимого последнего события (long, без строк)
+ *  - коллизия слота = вытеснение: в худшем случае событие уйдёт повторно, но не потеряется
+ *  - при остановке стратегии её слоты очищаются
+ */
+@Component
+public class StrategyLiveDedup {
+
+    private static final long EMPTY = 0L;
+    private static final int LOCK_STRIPES = 64;
+
+    private final int mask;
+    private final long[] slotKeys;
+    private final long[] slotOwners;
+    private final long[] slotValues;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public StrategyLiveDedup(StrategyLiveProperties props, MeterRegistry registry) {
+        int size = Integer.highestOneBit(Math.max(LOCK_STRIPES, props.getDedupSlots()));
+
+        this.mask = size - 1;
+        this.slotKeys = new long[size];
+        this.slotOwners = new long[size];
+        this.slotValues = new long[size];
+
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+
+        FunctionCounter.builder("live.dedup.hits", hits, LongAdder::sum)
+                .description("LIVE events skipped as duplicates")
+                .register(registry);
+        FunctionCounter.builder("live.dedup.misses", misses, LongAdder::sum)
+                .description("LIVE events passed dedup")
+                .register(registry);
+        Gauge.builder("live.dedup.hit.ratio", this, StrategyLiveDedup::hitRatio)
+                .description("Share of LIVE events skipped as duplicates")
+                .register(registry);
+    }
+
+    // =====================================================
+    // PUBLIC API
+    // =====================================================
+
+    /**
+     * @return true — событие повторяет предыдущее для своего слота (можно не слать)
+     */
+    public boolean isDuplicate(StrategyLiveEvent ev) {
+
+        long key = slotKey(ev);
+        long owner = owner(ev.getChatId(), ev.getStrategyType());
+        long value = nonEmpty(contentFingerprint(ev));
+        int idx = (int) key & mask;
+
+        synchronized (locks[idx & (LOCK_STRIPES - 1)]) {
+            if (slotKeys[idx] == key && slotValues[idx] == value) {
+                hits.increment();
+                return true;
+            }
+            slotKeys[idx] = key;
+            slotOwners[idx] = owner;
+            slotValues[idx] = value;
+        }
+
+        misses.increment();
+        return false;
+    }
+
+    /**
+     * Очистить все слоты остановленной стратегии.
+     */
+    public void evict(Long chatId, StrategyType strategyType) {
+        if (chatId == null || strategyType == null) return;
+
+        long owner = owner(chatId, strategyType);
+
+        for (int i = 0; i <= mask; i++) {
+            if (slotOwners[i] != owner) continue;
+            synchronized (locks[i & (LOCK_STRIPES - 1)]) {
+                if (slotOwners[i] == owner) {
+                    slotKeys[i] = EMPTY;
+                    slotOwners[i] = EMPTY;
+                    slotValues[i] = EMPTY;
+                }
+            }
+        }
+    }
+
+    public double hitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    // =====================================================
+    // FINGERPRINTS
+    // =====================================================
+
+    private static long owner(Long chatId, StrategyType strategyType) {
+        long h = mix(chatId != null ? chatId : 0L);
+        h = step(h, strategyType != null ? strategyType.ordinal() + 1 : 0);
+        return nonEmpty(mix(h));
+    }
+
+    private static long slotKey(StrategyLiveEvent ev) {
+        long h = owner(ev.getChatId(), ev.getStrategyType());
+        h = step(h, hash(ev.getType()));
+        h = step(h, hash(ev.getSymbol()));
+        return nonEmpty(mix(h));
+    }
+
+    /**
+     * Fingerprint полезной нагрузки (без time — иначе дедуп не сработает никогда).
+     */
+    static long contentFingerprint(StrategyLiveEvent ev) {
+        long h = 17L;
+
+        h = step(h, hash(ev.getTimeframe()));
+        h = step(h, hash(ev.getPrice()));
+        h = step(h, hash(ev.getState()));
+        h = step(h, ev.getMetric() != null ? Double.doubleToLongBits(ev.getMetric()) : 0L);
+
+        if (ev.getKline() != null) {
+            var k = ev.getKline();
+            h = step(h, hash(k.getOpen()));
+            h = step(h, hash(k.getHigh()));
+            h = step(h, hash(k.getLow()));
+            h = step(h, hash(k.getClose()));
+            h = step(h, hash(k.getVolume()));
+        }
+        if (ev.getTrade() != null) {
+            var t = ev.getTrade();
+            h = step(h, hash(t.getSide()));
+            h = step(h, hash(t.getPrice()));
+            h = step(h, hash(t.getQty()));
+        }
+        if (ev.getOrder() != null) {
+            var o = ev.getOrder();
+            h = step(h, hash(o.getOrderId()));
+            h = step(h, hash(o.getSide()));
+            h = step(h, hash(o.getPrice()));
+            h = step(h, hash(o.getQty()));
+            h = step(h, hash(o.getStatus()));
+        }
+        List<StrategyLiveEvent.LevelPayload> levels = ev.getLevels();
+        if (levels != null) {
+            h = step(h, levels.size());
+            for (StrategyLiveEvent.LevelPayload l : levels) {
+                h = step(h, l != null ? hash(l.getPrice()) : 0L);
+            }
+        }
+        if (ev.getZone() != null) {
+            var z = ev.getZone();
+            h = step(h, hash(z.getTop()));
+            h = step(h, hash(z.getBottom()));
+            h = step(h, hash(z.getColor()));
+        }
+        if (ev.getActiveLevel() != null) {
+            var a = ev.getActiveLevel();
+            h = step(h, hash(a.getPrice()));
+            h = step(h, hash(a.getRole()));
+            h = step(h, Double.doubleToLongBits(a.getDistancePct()));
+        }
+        if (ev.getTradeZone() != null) {
+            var z = ev.getTradeZone();
+            h = step(h, hash(z.getSide()));
+            h = step(h, hash(z.getTop()));
+            h = step(h, hash(z.getBottom()));
+        }
+        if (ev.getTpSl() != null) {
+            h = step(h, hash(ev.getTpSl().getTp()));
+            h = step(h, hash(ev.getTpSl().getSl()));
+        }
+        if (ev.getMagnet() != null) {
+            h = step(h, hash(ev.getMagnet().getTarget()));
+            h = step(h, Double.doubleToLongBits(ev.getMagnet().getStrength()));
+        }
+        if (ev.getSignal() != null) {
+            var s = ev.getSignal();
+            h = step(h, hash(s.getName()));
+            h = step(h, hash(s.getReason()));
+            h = step(h, hash(s.getTimeframe()));
+            h = step(h, Double.doubleToLongBits(s.getConfidence()));
+        }
+        if (ev.getPriceLine() != null) {
+            var p = ev.getPriceLine();
+            h = step(h, hash(p.getName()));
+            h = step(h, hash(p.getPrice()));
+            h = step(h, hash(p.getColor()));
+        }
+        if (ev.getWindowZone() != null) {
+            h = step(h, hash(ev.getWindowZone().getHigh()));
+            h = step(h, hash(ev.getWindowZone().getLow()));
+        }
+        if (ev.getAtr() != null) {
+            h = step(h, Double.doubleToLongBits(ev.getAtr().getAtr()));
+            h = step(h, Double.doubleToLongBits(ev.getAtr().getVolatilityPct()));
+        }
+
+        return mix(h);
+    }
+
+    // =====================================================
+    // HASH HELPERS (без аллокаций)
+    // =====================================================
+
+    private static long hash(Object o) {
+        return o == null ? 0L : o.hashCode();
+    }
+
+    private static long hash(BigDecimal v) {
+        // hashCode чувствителен к scale (1.0 ≠ 1.00) — это лишь лишняя отправка, не потеря
+        return v == null ? 0L : v.hashCode();
+    }
+
+    private static long step(long h, long v) {
+        return h * 0x9E3779B97F4A7C15L + v;
+    }
+
+    /**
+     * SplitMix64 finalizer.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long nonEmpty(long v) {
+        return v == EMPTY ? 1L : v;
+    }
+}
@@ -45,6 +45,12 @@ public class StrategyLiveEvent {
     /** 🕒 Время события (epoch millis) */
     private long time;
 
+    /** 🔢 Версия потока графика (только candle, см. LiveChartStream) */
+    private Long seq;
+
+    /** ✏️ Тип delta свечи: append | update */
+    private String op;
+
     // ======================================================
     // PAYLOADS (РОВНО ОДИН ПО type)
     // ======================================================
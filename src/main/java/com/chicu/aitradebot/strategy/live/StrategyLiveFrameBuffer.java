@@ -0,0 +1,225 @@
+package com.chicu.aitradebot.strategy.live;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 🎞 Буфер кадров для LIVE WS.
+ *
+ * ❗ Назначение:
+ *  - собирает события по destination между тиками «кадрового» таймера
+ *  - state-события (price / candle / levels / zone ...) — остаётся только последнее
+ *  - append-only события (trade / signal / order / price_line) — сохраняются все
+ *  - раз в кадр отправляет ОДИН массив событий на destination
+ *  - массив сериализуется ОДИН раз в byte[] и уходит готовым сообщением
+ *    (брокер не гоняет Jackson повторно)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StrategyLiveFrameBuffer {
+
+    /**
+     * События, которые нельзя схлопывать: каждое важно для UI.
+     */
+    private static final Set<String> APPEND_ONLY = Set.of(
+            "trade",
+            "signal",
+            "order",
+            "price_line"
+    );
+
+    private final SimpMessagingTemplate ws;
+    private final StrategyLiveProperties props;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * destination → кадр
+     */
+    private final Map<String, Frame> frames = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService clock;
+
+    @PostConstruct
+    void start() {
+        int hz = Math.max(1, Math.min(props.getFrameHz(), 100));
+        long periodMicros = 1_000_000L / hz;
+
+        clock = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "live-frame-clock");
+            t.setDaemon(true);
+            return t;
+        });
+
+        clock.scheduleAtFixedRate(this::flushSafe, periodMicros, periodMicros, TimeUnit.MICROSECONDS);
+
+        log.info("🎞 LIVE frame clock started: {} Hz", hz);
+    }
+
+    // =====================================================
+    // PUBLIC API
+    // =====================================================
+
+    public void offer(String destination, StrategyLiveEvent ev) {
+        if (destination == null || ev == null) return;
+
+        frames.computeIfAbsent(destination, d -> new Frame())
+                .add(ev, Math.max(1, props.getMaxEventsPerFrame()));
+    }
+
+    /**
+     * Немедленно отправить всё накопленное (используется на shutdown).
+     */
+    public void flush() {
+        for (Map.Entry<String, Frame> e : frames.entrySet()) {
+
+            List<StrategyLiveEvent> batch = e.getValue().drain();
+            if (batch.isEmpty()) continue;
+
+            byte[] json;
+            try {
+                json = objectMapper.writeValueAsBytes(batch);
+            } catch (JsonProcessingException ex) {
+                log.warn("🎞 LIVE frame encode failed dest={}: {}", e.getKey(), ex.getMessage());
+                continue;
+            }
+
+            ws.send(e.getKey(), encoded(json));
+
+            if (log.isTraceEnabled()) {
+                log.trace("🎞 LIVE frame → dest={} events={}", e.getKey(), batch.size());
+            }
+        }
+    }
+
+    // =====================================================
+    // INTERNAL
+    // =====================================================
+
+    private void flushSafe() {
+        try {
+            flush();
+        } catch (Throwable t) {
+            // ❗ НИКОГДА не даём кадровому потоку умереть
+            log.warn("🎞 LIVE frame flush failed: {}", t.getMessage(), t);
+        }
+    }
+
+    /**
+     * Готовое STOMP-сообщение: payload уже JSON, конвертер не нужен.
+     */
+    private static Message<byte[]> encoded(byte[] json) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        headers.setLeaveMutable(true);
+        return MessageBuilder.createMessage(json, headers.getMessageHeaders());
+    }
+
+    static boolean isAppendOnly(String type) {
+        return type != null && APPEND_ONLY.contains(type);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (clock != null) {
+            clock.shutdownNow();
+        }
+        try {
+            flush();
+        } catch (Exception e) {
+            log.debug("🎞 LIVE final flush skipped: {}", e.getMessage());
+        }
+    }
+
+    // =====================================================
+    // FRAME
+    // =====================================================
+
+    /**
+     * Ключ схлопывания state-события.
+     * Для свечи учитывается время бара: закрытие старого бара и открытие
+     * нового в одном кадре не должны перетирать друг друга.
+     */
+    private record Slot(String type, String symbol, String timeframe, long time) {
+    }
+
+    private static final class Frame {
+
+        /**
+         * Порядок вставки = порядок отправки.
+         * key: Slot (state) или Long (append-only, уникальный номер)
+         */
+        private LinkedHashMap<Object, StrategyLiveEvent> pending = new LinkedHashMap<>();
+        private long seq;
+
+        synchronized void add(StrategyLiveEvent ev, int maxEvents) {
+
+            if (isAppendOnly(ev.getType())) {
+                pending.put(seq++, ev);
+            } else {
+                Slot slot = new Slot(
+                        ev.getType(),
+                        ev.getSymbol(),
+                        ev.getTimeframe(),
+                        "candle".equals(ev.getType()) ? ev.getTime() : 0L
+                );
+                // последнее значение — в конец кадра
+                pending.remove(slot);
+                pending.put(slot, ev);
+            }
+
+            if (pending.size() > maxEvents) {
+                evictOldest();
+            }
+        }
+
+        /**
+         * Переполнение: выбрасываем самое старое append-only событие.
+         * state-слот (последняя цена / свеча) не трогаем — иначе кадр потеряет текущее состояние;
+         * только если append-only не осталось вовсе — самый старый слот.
+         */
+        private void evictOldest() {
+            Iterator<Object> it = pending.keySet().iterator();
+            while (it.hasNext()) {
+                if (it.next() instanceof Long) {
+                    it.remove();
+                    return;
+                }
+            }
+
+            it = pending.keySet().iterator();
+            it.next();
+            it.remove();
+        }
+
+        synchronized List<StrategyLiveEvent> drain() {
+            if (pending.isEmpty()) return List.of();
+
+            List<StrategyLiveEvent> out = new ArrayList<>(pending.values());
+            pending = new LinkedHashMap<>();
+            return out;
+        }
+    }
+}
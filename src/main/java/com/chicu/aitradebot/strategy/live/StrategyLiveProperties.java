@@ -0,0 +1,34 @@
+package com.chicu.aitradebot.strategy.live;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "strategy.live")
+public class StrategyLiveProperties {
+
+    /**
+     * Частота кадров WS (flush буфера), Гц.
+     * 10–20 достаточно для графика, выше — только лишняя нагрузка.
+     */
+    private int frameHz = 15;
+
+    /**
+     * Максимум событий в одном кадре на destination.
+     * При переполнении самые старые append-only события отбрасываются;
+     * state-слоты (price / candle ...) остаются, пока есть что отбросить.
+     */
+    private int maxEventsPerFrame = 500;
+
+    /**
+     * Размер таблицы дедупа (округляется вниз до степени двойки).
+     * Память фиксирована: 3 long на слот.
+     */
+    private int dedupSlots = 16_384;
+
+    /**
+     * Сколько последних баров (изменений) хранит кольцо графика
+     * на (symbol, timeframe) для докачки после реконнекта.
+     */
+    private int chartRingSize = 256;
+}
@@ -17,6 +17,8 @@ import java.util.Objects;
 public class StrategyLivePublisher {
 
     private final StrategyLiveWsBridge bridge;
+    private final LiveSubscriptionRegistry subscriptions;
+    private final LiveChartStream chartStream;
 
     // =====================================================
     // 🧩 HELPERS
@@ -58,10 +60,29 @@ public class StrategyLivePublisher {
         return true;
     }
 
+    /**
+     * 👀 Есть ли зритель у стратегии.
+     * Без подписчиков событие не строим вообще (никаких BigDecimal/Jackson впустую).
+     *
+     * ❗ levels / zone / tp_sl / state публикуются всегда:
+     * они сохраняются в UI-слои и досылаются снапшотом при подписке.
+     */
+    public boolean isWatched(Long chatId, StrategyType strategyType) {
+        return subscriptions.hasStrategySubscribers(chatId, strategyType);
+    }
+
+    /**
+     * 👀 Есть ли зритель у рыночных данных символа (price / candle).
+     */
+    public boolean isMarketWatched(String symbol) {
+        return subscriptions.hasMarketSubscribers(sanitizeSymbol(symbol));
+    }
+
     /**
      * ✅ ЕДИНАЯ публикация с нормализацией (чтобы символ/таймфрейм/время всегда были валидны)
+     * (protected — replay-песочница перенаправляет события в свой topic)
      */
-    private void publish(StrategyLiveEvent ev) {
+    protected void publish(StrategyLiveEvent ev) {
         if (ev == null) return;
         ev.normalize();               // ✅ ВОТ ЭТОГО ТЕБЕ НЕ ХВАТАЛО
         bridge.publish(ev);
@@ -94,6 +115,21 @@ public class StrategyLivePublisher {
 
         long timeMs = nowMs(ts);
 
+        // 🔢 версия графика фиксируется ВСЕГДА (даже без зрителей) —
+        // иначе после реконнекта нечего будет докачать
+        LiveChartStream.Delta delta = chartStream.record(
+                symbol,
+                timeframe,
+                timeMs,
+                open.doubleValue(),
+                high.doubleValue(),
+                low.doubleValue(),
+                close.doubleValue(),
+                volume != null ? volume.doubleValue() : 0.0
+        );
+
+        if (!isMarketWatched(symbol)) return;
+
         StrategyLiveEvent ev =
                 StrategyLiveEvent.builder()
                         .type("candle")
@@ -102,6 +138,8 @@ public class StrategyLivePublisher {
                         .symbol(symbol)
                         .timeframe(timeframe)
                         .time(timeMs)
+                        .seq(delta != null ? delta.seq() : null)
+                        .op(delta != null ? delta.op() : null)
                         .kline(
                                 StrategyLiveEvent.CandlePayload.builder()
                                         .open(open)
@@ -132,6 +170,7 @@ public class StrategyLivePublisher {
         timeframe = sanitizeTf(timeframe);
         if (!guard(chatId, strategyType, symbol, "price")) return;
         if (price == null) return;
+        if (!isMarketWatched(symbol)) return;
 
         log.debug("📤 LIVE PUBLISH PRICE chatId={} {} {} tf={} price={}",
                 chatId, strategyType, symbol, timeframe, price);
@@ -244,6 +283,7 @@ public class StrategyLivePublisher {
 
         symbol = sanitizeSymbol(symbol);
         if (!guard(chatId, strategyType, symbol, "active_level")) return;
+        if (!isWatched(chatId, strategyType)) return;
 
         publish(
                 StrategyLiveEvent.builder()
@@ -280,6 +320,7 @@ public class StrategyLivePublisher {
 
         symbol = sanitizeSymbol(symbol);
         if (!guard(chatId, strategyType, symbol, "trade_zone")) return;
+        if (!isWatched(chatId, strategyType)) return;
 
         publish(
                 StrategyLiveEvent.builder()
@@ -319,6 +360,7 @@ public class StrategyLivePublisher {
 
         symbol = sanitizeSymbol(symbol);
         if (!guard(chatId, strategyType, symbol, "order")) return;
+        if (!isWatched(chatId, strategyType)) return;
 
         publish(
                 StrategyLiveEvent.builder()
@@ -386,6 +428,7 @@ public class StrategyLivePublisher {
 
         symbol = sanitizeSymbol(symbol);
         if (!guard(chatId, strategyType, symbol, "metric")) return;
+        if (!isWatched(chatId, strategyType)) return;
 
         publish(
                 StrategyLiveEvent.builder()
@@ -435,6 +478,7 @@ public class StrategyLivePublisher {
 
         symbol = sanitizeSymbol(symbol);
         if (!guard(chatId, strategyType, symbol, "magnet")) return;
+        if (!isWatched(chatId, strategyType)) return;
 
         publish(
                 StrategyLiveEvent.builder()
@@ -468,6 +512,7 @@ public class StrategyLivePublisher {
         timeframe = sanitizeTf(timeframe);
         if (!guard(chatId, strategyType, symbol, "signal")) return;
         if (signal == null) return;
+        if (!isWatched(chatId, strategyType)) return;
 
         publish(
                 StrategyLiveEvent.builder()
@@ -502,6 +547,7 @@ public class StrategyLivePublisher {
 
         symbol = sanitizeSymbol(symbol);
         if (!guard(chatId, strategyType, symbol, "trade")) return;
+        if (!isWatched(chatId, strategyType)) return;
 
         publish(
                 StrategyLiveEvent.builder()
@@ -533,6 +579,7 @@ public class StrategyLivePublisher {
 
         symbol = sanitizeSymbol(symbol);
         if (!guard(chatId, strategyType, symbol, "price_line")) return;
+        if (!isWatched(chatId, strategyType)) return;
 
         publish(
                 StrategyLiveEvent.builder()
@@ -568,6 +615,7 @@ public class StrategyLivePublisher {
 
         symbol = sanitizeSymbol(symbol);
         if (!guard(chatId, strategyType, symbol, "window_zone")) return;
+        if (!isWatched(chatId, strategyType)) return;
 
         publish(
                 StrategyLiveEvent.builder()
@@ -603,6 +651,7 @@ public class StrategyLivePublisher {
 
         symbol = sanitizeSymbol(symbol);
         if (!guard(chatId, strategyType, symbol, "atr")) return;
+        if (!isWatched(chatId, strategyType)) return;
 
         publish(
                 StrategyLiveEvent.builder()
@@ -632,6 +681,7 @@ public class StrategyLivePublisher {
 
         symbol = sanitizeSymbol(symbol);
         if (!guard(chatId, strategyType, symbol, "cooldown")) return;
+        if (!isWatched(chatId, strategyType)) return;
 
         publish(
                 StrategyLiveEvent.builder()
@@ -1,28 +1,29 @@
 package com.chicu.aitradebot.strategy.live;
 
+import com.chicu.aitradebot.common.enums.StrategyType;
 import com.chicu.aitradebot.web.ui.UiStrategyLayerService;
+import com.chicu.aitradebot.web.ui.UiStrategyLayerStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class StrategyLiveWsBridge {
 
-    private final SimpMessagingTemplate ws;
-    private final UiStrategyLayerService uiLayers;
+    public static final String STRATEGY_TOPIC = "/topic/strategy/";
+    public static final String MARKET_TOPIC = "/topic/market/";
 
-    /**
-     * key = chatId|strategy|type|symbol
-     */
-    private final Map<String, Integer> lastEventHash = new ConcurrentHashMap<>();
+    private final StrategyLiveFrameBuffer frames;
+    private final UiStrategyLayerService uiLayers;
+    private final UiStrategyLayerStore uiLayerStore;
+    private final StrategyLiveDedup dedup;
 
     // =====================================================
     // PUBLIC API
@@ -78,12 +79,13 @@ public class StrategyLiveWsBridge {
         // =================================================
         // 🔕 DEDUP (кроме price / candle)
         // =================================================
-        if (shouldDedup(ev.getType())) {
-            String key = buildKey(ev);
-            int hash = safeHash(ev);
+        if ("state".equals(ev.getType()) && "stopped".equals(ev.getState())) {
+            // стратегия остановлена — её слоты дедупа больше не нужны
+            dedup.evict(ev.getChatId(), ev.getStrategyType());
+        }
 
-            Integer prev = lastEventHash.put(key, hash);
-            if (prev != null && prev == hash) {
+        if (shouldDedup(ev.getType())) {
+            if (dedup.isDuplicate(ev)) {
                 log.trace(
                         "DEDUP SKIP type={} chatId={} strategy={} symbol={}",
                         ev.getType(), ev.getChatId(), ev.getStrategyType(), ev.getSymbol()
@@ -107,14 +109,20 @@ public class StrategyLiveWsBridge {
         }
 
         // =================================================
-        // WS PUSH
+        // WS PUSH (через кадровый буфер: один массив на кадр)
         // =================================================
-        String dest = "/topic/strategy/"
-                      + ev.getChatId()
-                      + "/"
-                      + ev.getStrategyType().name();
-
-        ws.convertAndSend(dest, ev);
+        if (isMarketData(ev.getType()) && symbol != null) {
+            // 📈 рыночные данные общие для всех чатов на символе:
+            // один topic на символ → одна сериализация на кадр, а не на чат
+            frames.offer(MARKET_TOPIC + symbol, marketCopy(ev));
+        } else {
+            String dest = STRATEGY_TOPIC
+                          + ev.getChatId()
+                          + "/"
+                          + ev.getStrategyType().name();
+
+            frames.offer(dest, ev);
+        }
 
         // =================================================
         // UI LAYER
@@ -130,7 +138,82 @@ public class StrategyLiveWsBridge {
     }
 
     // =====================================================
-    // UI PERSIST
+    // 🔁 REPLAY (последние слои из памяти → в WS)
+    // =====================================================
+    public int replayLayers(Long chatId, StrategyType strategyType) {
+        if (chatId == null || strategyType == null) return 0;
+
+        String dest = STRATEGY_TOPIC + chatId + "/" + strategyType.name();
+        int sent = 0;
+
+        for (Map.Entry<UiStrategyLayerStore.LayerKey, UiStrategyLayerStore.LayerSnapshot> e
+                : uiLayerStore.snapshotFor(chatId, strategyType).entrySet()) {
+
+            StrategyLiveEvent ev = toReplayEvent(e.getKey(), e.getValue());
+            if (ev == null) continue;
+
+            frames.offer(dest, ev);
+            sent++;
+        }
+
+        log.debug("🔁 LIVE replay chatId={} strategy={} layers={}", chatId, strategyType, sent);
+        return sent;
+    }
+
+    private StrategyLiveEvent toReplayEvent(UiStrategyLayerStore.LayerKey key,
+                                            UiStrategyLayerStore.LayerSnapshot snap) {
+
+        Map<String, Object> p = snap.payload();
+
+        StrategyLiveEvent.StrategyLiveEventBuilder b = StrategyLiveEvent.builder()
+                .chatId(key.chatId())
+                .strategyType(key.strategyType())
+                .symbol(key.symbol())
+                .time(snap.candleTime().toEpochMilli());
+
+        return switch (key.layerType()) {
+
+            case "LEVELS" -> {
+                if (!(p.get("levels") instanceof List<?> raw)) yield null;
+                List<StrategyLiveEvent.LevelPayload> levels = raw.stream()
+                        .filter(Number.class::isInstance)
+                        .map(n -> StrategyLiveEvent.LevelPayload.builder()
+                                .price(BigDecimal.valueOf(((Number) n).doubleValue()))
+                                .build())
+                        .toList();
+                yield b.type("levels").levels(levels).build();
+            }
+
+            case "ZONE" -> {
+                BigDecimal top = toDecimal(p.get("top"));
+                BigDecimal bottom = toDecimal(p.get("bottom"));
+                if (top == null || bottom == null) yield null;
+                yield b.type("zone")
+                        .zone(StrategyLiveEvent.ZonePayload.builder()
+                                .top(top)
+                                .bottom(bottom)
+                                .color(p.get("color") != null ? String.valueOf(p.get("color")) : null)
+                                .build())
+                        .build();
+            }
+
+            case "TPSL" -> b.type("tp_sl")
+                    .tpSl(StrategyLiveEvent.TpSlPayload.builder()
+                            .tp(toDecimal(p.get("tp")))
+                            .sl(toDecimal(p.get("sl")))
+                            .build())
+                    .build();
+
+            default -> null;
+        };
+    }
+
+    private static BigDecimal toDecimal(Object v) {
+        return v instanceof Number n ? BigDecimal.valueOf(n.doubleValue()) : null;
+    }
+
+    // =====================================================
+    // UI PERSIST (write-behind: в память, в БД — пачкой)
     // =====================================================
     private void persistUiLayer(StrategyLiveEvent ev) {
 
@@ -205,6 +288,27 @@ public class StrategyLiveWsBridge {
     // HELPERS
     // =====================================================
 
+    private boolean isMarketData(String type) {
+        return "price".equals(type) || "candle".equals(type);
+    }
+
+    /**
+     * Рыночное событие без привязки к чату/стратегии —
+     * одинаково для всех подписчиков символа.
+     */
+    private StrategyLiveEvent marketCopy(StrategyLiveEvent ev) {
+        return StrategyLiveEvent.builder()
+                .type(ev.getType())
+                .symbol(ev.getSymbol())
+                .timeframe("candle".equals(ev.getType()) ? ev.getTimeframe() : null)
+                .time(ev.getTime())
+                .price(ev.getPrice())
+                .kline(ev.getKline())
+                .seq(ev.getSeq())
+                .op(ev.getOp())
+                .build();
+    }
+
     private boolean shouldDedup(String type) {
         return !"price".equals(type) && !"candle".equals(type);
     }
@@ -214,19 +318,4 @@ public class StrategyLiveWsBridge {
         String s = symbol.trim().toUpperCase();
         return s.isEmpty() ? null : s;
     }
-
-    private String buildKey(StrategyLiveEvent ev) {
-        return ev.getChatId()
-               + "|" + ev.getStrategyType()
-               + "|" + ev.getType()
-               + "|" + ev.getSymbol();
-    }
-
-    private int safeHash(StrategyLiveEvent ev) {
-        try {
-            return ev.hashCode();
-        } catch (Exception e) {
-            return System.identityHashCode(ev);
-        }
-    }
 }
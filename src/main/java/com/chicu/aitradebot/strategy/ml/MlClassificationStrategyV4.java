@@ -16,6 +16,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Comparator;
@@ -46,6 +47,7 @@ public class MlClassificationStrategyV4 implements TradingStrategy {
     private final MlClassificationSettingsService mlSettingsService;
     private final StrategySettingsService strategySettingsService;
     private final TradeExecutionService tradeExecutionService;
+    private final Clock clock;
 
     private final CandleProvider candleProvider;
 
@@ -91,7 +93,7 @@ public class MlClassificationStrategyV4 implements TradingStrategy {
 
         LocalState st = new LocalState();
         st.active = true;
-        st.startedAt = Instant.now();
+        st.startedAt = Instant.now(clock);
         st.ss = ss;
         st.cfg = cfg;
 
@@ -99,7 +101,7 @@ public class MlClassificationStrategyV4 implements TradingStrategy {
         st.exchange = ss.getExchangeName();
         st.network = ss.getNetworkType();
 
-        st.lastSettingsLoadAt = Instant.now();
+        st.lastSettingsLoadAt = Instant.now(clock);
         st.lastFingerprint = buildFingerprint(ss, cfg);
 
         states.put(chatId, st);
@@ -152,7 +154,7 @@ public class MlClassificationStrategyV4 implements TradingStrategy {
         st.ticks++;
 
         if (price == null || price.signum() <= 0) return;
-        Instant time = (ts != null ? ts : Instant.now());
+        Instant time = (ts != null ? ts : Instant.now(clock));
 
         String tickSym = safeUpper(symbolFromTick);
         String cfgSym = safeUpper(st.symbol);
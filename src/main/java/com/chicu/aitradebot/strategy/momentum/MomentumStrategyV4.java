@@ -15,6 +15,7 @@ import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -40,6 +41,7 @@ public class MomentumStrategyV4 implements TradingStrategy {
     private final MomentumStrategySettingsService momentumSettingsService;
     private final StrategySettingsService strategySettingsService;
     private final TradeExecutionService tradeExecutionService;
+    private final Clock clock;
 
     private final Map<Long, LocalState> states = new ConcurrentHashMap<>();
 
@@ -94,7 +96,7 @@ public class MomentumStrategyV4 implements TradingStrategy {
 
         LocalState st = new LocalState();
         st.active = true;
-        st.startedAt = Instant.now();
+        st.startedAt = Instant.now(clock);
 
         st.strategySettings = strategy;
         st.momentumSettings = cfg;
@@ -103,7 +105,7 @@ public class MomentumStrategyV4 implements TradingStrategy {
         st.exchange = strategy.getExchangeName();
         st.network = strategy.getNetworkType();
 
-        st.lastSettingsLoadAt = Instant.now();
+        st.lastSettingsLoadAt = Instant.now(clock);
         st.lastStrategyUpdatedAt = toInstant(strategy.getUpdatedAt());
         st.lastMomentumUpdatedAt = cfg != null ? cfg.getUpdatedAt() : null;
         st.lastFingerprint = buildFingerprint(strategy, cfg);
@@ -169,7 +171,7 @@ public class MomentumStrategyV4 implements TradingStrategy {
             return;
         }
 
-        Instant time = (ts != null) ? ts : Instant.now();
+        Instant time = (ts != null) ? ts : Instant.now(clock);
 
         // не мешаем символы
         String tickSymbol = safeUpper(symbolFromTick);
@@ -0,0 +1,51 @@
+package com.chicu.aitradebot.strategy.replay;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * 🕒 Виртуальные часы replay-сессии.
+ *
+ * ❗ Время двигает только движок (по времени очередного события),
+ * поэтому два прогона одних данных видят одинаковое "сейчас".
+ */
+public final class ReplayClock extends Clock {
+
+    private volatile long nowMs;
+
+    public ReplayClock(long startMs) {
+        this.nowMs = startMs;
+    }
+
+    /**
+     * Время не идёт назад: события с меньшим time не откатывают часы.
+     */
+    void advanceTo(long timeMs) {
+        if (timeMs > nowMs) {
+            nowMs = timeMs;
+        }
+    }
+
+    @Override
+    public long millis() {
+        return nowMs;
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(nowMs);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        // зона не влияет на epoch-время, часы одни на сессию
+        return this;
+    }
+}
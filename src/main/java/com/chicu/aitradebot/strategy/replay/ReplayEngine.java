@@ -0,0 +1,395 @@
+package com.chicu.aitradebot.strategy.replay;
+
+import com.chicu.aitradebot.ai.tuning.eval.BacktestCandlePort;
+import com.chicu.aitradebot.ai.tuning.eval.CandleBar;
+import com.chicu.aitradebot.common.enums.StrategyType;
+import com.chicu.aitradebot.common.util.TimeframeUtils;
+import com.chicu.aitradebot.domain.StrategySettings;
+import com.chicu.aitradebot.exchange.client.ExchangeClientFactory;
+import com.chicu.aitradebot.market.model.UnifiedKline;
+import com.chicu.aitradebot.market.recorder.MmapTickRecorder;
+import com.chicu.aitradebot.market.recorder.TickVisitor;
+import com.chicu.aitradebot.service.StrategySettingsService;
+import com.chicu.aitradebot.strategy.core.TradingStrategy;
+import com.chicu.aitradebot.strategy.live.StrategyLiveFrameBuffer;
+import com.chicu.aitradebot.strategy.live.StrategyLiveProperties;
+import com.chicu.aitradebot.strategy.registry.StrategyRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ▶ Детерминированный replay стратегии на исторических данных.
+ *
+ * ❗ Устройство:
+ *  - события сессии загружаются целиком и сортируются по времени ДО старта
+ *  - одна сессия = один поток: порядок обработки всегда одинаковый
+ *  - часы виртуальные (ReplayClock), двигаются по времени событий
+ *  - ордера — бумажные (PaperTradeExecutionService), биржа не трогается
+ *  - скорость: 1.0 = реальное время, 10 = в 10 раз быстрее, 0 = без пауз
+ *  - LIVE-события идут в /topic/replay/{sessionId} через тот же кадровый буфер
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReplayEngine {
+
+    public static final String REPLAY_TOPIC = "/topic/replay/";
+
+    public static final String SOURCE_CANDLES = "candles";
+    public static final String SOURCE_TICKS = "ticks";
+
+    private static final Duration KEEP_FINISHED = Duration.ofHours(1);
+
+    private final ApplicationContext context;
+    private final StrategyRegistry strategyRegistry;
+    private final StrategySettingsService strategySettingsService;
+    private final BacktestCandlePort candlePort;
+    private final StrategyLiveFrameBuffer frames;
+    private final StrategyLiveProperties liveProps;
+    private final ReplayProperties props;
+    private final ExchangeClientFactory exchangeClientFactory;
+    private final ObjectMapper objectMapper;
+    private final MmapTickRecorder tickArchive;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger running = new AtomicInteger();
+
+    private ExecutorService executor;
+
+    private static final class Session {
+        final String id;
+        final long chatId;
+        final StrategyType type;
+        final String symbol;
+        final String timeframe;
+        final double speed;
+        final int total;
+        final ReplaySandbox sandbox;
+
+        volatile String state = ReplayStatus.STATE_RUNNING;
+        volatile boolean stopRequested;
+        volatile long processed;
+        volatile String error;
+        volatile Instant finishedAt;
+
+        Session(String id, long chatId, StrategyType type, String symbol, String timeframe,
+                double speed, int total, ReplaySandbox sandbox) {
+            this.id = id;
+            this.chatId = chatId;
+            this.type = type;
+            this.symbol = symbol;
+            this.timeframe = timeframe;
+            this.speed = speed;
+            this.total = total;
+            this.sandbox = sandbox;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        AtomicInteger n = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Math.max(1, props.getMaxSessions()), r -> {
+            Thread t = new Thread(r, "replay-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // =====================================================
+    // PUBLIC API
+    // =====================================================
+
+    /**
+     * Запустить replay [from, to) по настройкам стратегии пользователя.
+     * symbol / timeframe == null → берутся из StrategySettings.
+     *
+     * source: "candles" — закрытые свечи (BacktestCandlePort),
+     *         "ticks"   — записанные aggTrade из архива тиков (MmapTickRecorder)
+     */
+    public ReplayStatus start(long chatId,
+                              StrategyType type,
+                              String symbol,
+                              String timeframe,
+                              Instant from,
+                              Instant to,
+                              double speed,
+                              String source) {
+
+        if (type == null) throw new IllegalArgumentException("type must be provided");
+        if (from == null || to == null || !to.isAfter(from)) throw new IllegalArgumentException("invalid period");
+
+        evictFinished();
+
+        TradingStrategy prototype = strategyRegistry.require(type);
+        StrategySettings ss = resolveSettings(chatId, type);
+
+        String sym = symbol != null && !symbol.isBlank() ? symbol : ss.getSymbol();
+        String tf = timeframe != null && !timeframe.isBlank() ? timeframe : ss.getTimeframe();
+        if (sym == null || sym.isBlank()) throw new IllegalArgumentException("symbol must be provided");
+        if (tf == null || tf.isBlank()) throw new IllegalArgumentException("timeframe must be provided");
+
+        sym = sym.trim().toUpperCase(Locale.ROOT);
+        tf = tf.trim().toLowerCase(Locale.ROOT);
+
+        List<ReplayEvent> events = SOURCE_TICKS.equalsIgnoreCase(source)
+                ? loadTicks(sym, from, to)
+                : loadCandles(chatId, type, sym, tf, from, to);
+        if (events.isEmpty()) throw new IllegalArgumentException("no history for " + sym + " " + tf);
+
+        if (running.incrementAndGet() > Math.max(1, props.getMaxSessions())) {
+            running.decrementAndGet();
+            throw new IllegalStateException("too many replay sessions running");
+        }
+
+        String id = UUID.randomUUID().toString();
+        String dest = REPLAY_TOPIC + id;
+
+        ReplayClock clock = new ReplayClock(events.getFirst().time());
+        ReplayLivePublisher live = new ReplayLivePublisher(clock, ev -> frames.offer(dest, ev), liveProps);
+
+        ReplaySandbox sandbox;
+        try {
+            sandbox = new ReplaySandbox(context, prototype, chatId, type, sym, tf, clock, live,
+                    props.getPaperBudget(), exchangeClientFactory, objectMapper);
+        } catch (RuntimeException e) {
+            running.decrementAndGet();
+            throw e;
+        }
+
+        Session s = new Session(id, chatId, type, sym, tf, Math.max(0.0, speed), events.size(), sandbox);
+        sessions.put(id, s);
+
+        log.info("▶ REPLAY start id={} chatId={} type={} {} {} events={} speed={}",
+                id, chatId, type, sym, tf, events.size(), s.speed);
+
+        executor.execute(() -> run(s, ss, events));
+
+        return toStatus(s);
+    }
+
+    public ReplayStatus status(String sessionId) {
+        Session s = sessionId != null ? sessions.get(sessionId) : null;
+        return s != null ? toStatus(s) : null;
+    }
+
+    public boolean stop(String sessionId) {
+        Session s = sessionId != null ? sessions.get(sessionId) : null;
+        if (s == null) return false;
+        s.stopRequested = true;
+        return true;
+    }
+
+    // =====================================================
+    // RUN LOOP
+    // =====================================================
+
+    private void run(Session s, StrategySettings ss, List<ReplayEvent> events) {
+
+        ReplaySandbox sb = s.sandbox;
+
+        try {
+            sb.strategy.start(s.chatId, s.symbol, ss.getExchangeName(), ss.getNetworkType());
+
+            long prevTime = events.getFirst().time();
+            long deadline = System.nanoTime();
+
+            for (ReplayEvent ev : events) {
+                if (s.stopRequested || Thread.currentThread().isInterrupted()) break;
+
+                if (s.speed > 0) {
+                    long pauseMs = (long) ((ev.time() - prevTime) / s.speed);
+                    pauseMs = Math.min(Math.max(0L, pauseMs), props.getMaxPauseMs());
+                    deadline += TimeUnit.MILLISECONDS.toNanos(pauseMs);
+                    sleepUntil(deadline);
+                }
+                prevTime = ev.time();
+
+                sb.clock.advanceTo(ev.time());
+                sb.feed(ev);
+                s.processed++;
+            }
+
+            s.state = s.stopRequested ? ReplayStatus.STATE_STOPPED : ReplayStatus.STATE_DONE;
+
+        } catch (Throwable t) {
+            s.state = ReplayStatus.STATE_FAILED;
+            s.error = t.getMessage();
+            log.warn("❌ REPLAY failed id={}: {}", s.id, t.getMessage(), t);
+
+        } finally {
+            try {
+                sb.strategy.stop(s.chatId, s.symbol, ss.getExchangeName(), ss.getNetworkType());
+            } catch (Exception ignored) {
+            }
+
+            s.finishedAt = Instant.now();
+            running.decrementAndGet();
+
+            log.info("⏹ REPLAY {} id={} processed={}/{} signals={} trades={} digest={}",
+                    s.state, s.id, s.processed, s.total,
+                    sb.live.signals(), sb.live.trades(), Long.toHexString(sb.live.digest()));
+        }
+    }
+
+    private static void sleepUntil(long deadlineNanos) throws InterruptedException {
+        long left = deadlineNanos - System.nanoTime();
+        if (left > 0) {
+            TimeUnit.NANOSECONDS.sleep(left);
+        }
+    }
+
+    // =====================================================
+    // SOURCES
+    // =====================================================
+
+    /**
+     * Закрытые свечи → kline-события (отсортированы по времени).
+     */
+    private List<ReplayEvent> loadCandles(long chatId,
+                                          StrategyType type,
+                                          String symbol,
+                                          String timeframe,
+                                          Instant from,
+                                          Instant to) {
+
+        List<CandleBar> bars = candlePort.load(chatId, type, symbol, timeframe, from, to, props.getMaxEvents());
+        if (bars == null || bars.isEmpty()) return List.of();
+
+        long tfMs = TimeframeUtils.toMillis(timeframe);
+
+        List<ReplayEvent> out = new ArrayList<>(bars.size());
+        for (CandleBar b : bars) {
+            if (b == null || b.openTime() == null || b.close() == null) continue;
+
+            long open = b.openTime().toEpochMilli();
+            out.add(ReplayEvent.kline(UnifiedKline.builder()
+                    .symbol(symbol)
+                    .timeframe(timeframe)
+                    .openTime(open)
+                    .closeTime(open + tfMs - 1)
+                    .open(b.open())
+                    .high(b.high())
+                    .low(b.low())
+                    .close(b.close())
+                    .volume(b.volume() != null ? b.volume() : BigDecimal.ZERO)
+                    .closed(true)
+                    .build()));
+        }
+
+        // сортировка стабильная: одинаковые входы → одинаковый порядок
+        out.sort(Comparator.comparingLong(ReplayEvent::time));
+        return out;
+    }
+
+    /**
+     * Записанные aggTrade символа из архива тиков (по дням UTC).
+     */
+    private List<ReplayEvent> loadTicks(String symbol, Instant from, Instant to) {
+
+        if (tickArchive.dictionary() == null) {
+            throw new IllegalArgumentException("tick recorder is disabled");
+        }
+
+        int symbolId = tickArchive.dictionary().find(symbol);
+        if (symbolId < 0) return List.of();
+
+        long fromMs = from.toEpochMilli();
+        long toMs = to.toEpochMilli();
+        int max = Math.max(1, props.getMaxEvents());
+
+        List<ReplayEvent> out = new ArrayList<>();
+
+        TickVisitor visitor = new TickVisitor() {
+            @Override
+            public void onAggTrade(int id, long exchangeTs, long receiptTs, double price, double qty, int flags) {
+                if (id != symbolId || exchangeTs < fromMs || exchangeTs >= toMs || out.size() >= max) return;
+                out.add(ReplayEvent.aggTrade(exchangeTs, BigDecimal.valueOf(price), BigDecimal.valueOf(qty)));
+            }
+        };
+
+        LocalDate day = LocalDate.ofInstant(from, ZoneOffset.UTC);
+        LocalDate last = LocalDate.ofInstant(to, ZoneOffset.UTC);
+
+        // день сегмента — по времени получения: захватываем соседний день на стыке суток
+        for (LocalDate d = day.minusDays(1); !d.isAfter(last) && out.size() < max; d = d.plusDays(1)) {
+            try {
+                tickArchive.readDay(d, visitor);
+            } catch (IOException e) {
+                log.warn("⚠️ REPLAY cannot read tick segments {}: {}", d, e.getMessage());
+            }
+        }
+
+        out.sort(Comparator.comparingLong(ReplayEvent::time));
+        return out;
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    private StrategySettings resolveSettings(long chatId, StrategyType type) {
+        return strategySettingsService.findAllByChatId(chatId, null, null)
+                .stream()
+                .filter(s -> s.getType() == type)
+                .max(Comparator.comparing(StrategySettings::getUpdatedAt,
+                        Comparator.nullsFirst(Comparator.naturalOrder())))
+                .orElseThrow(() -> new IllegalArgumentException("StrategySettings not found for " + type));
+    }
+
+    private void evictFinished() {
+        Instant before = Instant.now().minus(KEEP_FINISHED);
+        sessions.values().removeIf(s -> s.finishedAt != null && s.finishedAt.isBefore(before));
+    }
+
+    private static ReplayStatus toStatus(Session s) {
+        ReplaySandbox sb = s.sandbox;
+        return new ReplayStatus(
+                s.id,
+                s.chatId,
+                s.type,
+                s.symbol,
+                s.timeframe,
+                s.state,
+                s.speed,
+                s.processed,
+                s.total,
+                sb.clock.millis(),
+                sb.live.signals(),
+                sb.live.trades(),
+                sb.paper.getFills().size(),
+                Long.toHexString(sb.live.digest()),
+                s.error
+        );
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sessions.values().forEach(s -> s.stopRequested = true);
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.chicu.aitradebot.strategy.replay;
+
+import com.chicu.aitradebot.market.model.UnifiedKline;
+
+import java.math.BigDecimal;
+
+/**
+ * ▶ Одно входное событие replay: закрытая свеча или агрегированная сделка.
+ * Ровно одно из kline / price заполнено.
+ *
+ * @param time epoch millis события (свеча — closeTime, сделка — T)
+ */
+public record ReplayEvent(long time,
+                          UnifiedKline kline,
+                          BigDecimal price,
+                          BigDecimal qty) {
+
+    public static ReplayEvent kline(UnifiedKline k) {
+        return new ReplayEvent(k.getCloseTime(), k, null, null);
+    }
+
+    public static ReplayEvent aggTrade(long time, BigDecimal price, BigDecimal qty) {
+        return new ReplayEvent(time, null, price, qty);
+    }
+
+    public boolean isKline() {
+        return kline != null;
+    }
+}
@@ -0,0 +1,113 @@
+package com.chicu.aitradebot.strategy.replay;
+
+import com.chicu.aitradebot.common.enums.StrategyType;
+import com.chicu.aitradebot.strategy.live.LiveChartStream;
+import com.chicu.aitradebot.strategy.live.StrategyLiveEvent;
+import com.chicu.aitradebot.strategy.live.StrategyLiveProperties;
+import com.chicu.aitradebot.strategy.live.StrategyLivePublisher;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * 📡 LIVE-публикатор replay-песочницы.
+ *
+ * ❗ Отличия от боевого:
+ *  - события не уходят в /topic/strategy и не пишутся в UI-слои — только в sink сессии
+ *  - время событий = виртуальные часы (кроме свечей — у них время бара)
+ *  - сигналы и сделки сворачиваются в digest: одинаковые входы → одинаковый digest
+ */
+public class ReplayLivePublisher extends StrategyLivePublisher {
+
+    private final ReplayClock clock;
+    private final Consumer<StrategyLiveEvent> sink;
+
+    private long digest = 17L;
+    private long signals;
+    private long trades;
+
+    public ReplayLivePublisher(ReplayClock clock,
+                               Consumer<StrategyLiveEvent> sink,
+                               StrategyLiveProperties liveProps) {
+        // bridge / subscriptions не нужны: publish и isWatched переопределены
+        super(null, null, new LiveChartStream(liveProps));
+        this.clock = clock;
+        this.sink = sink;
+    }
+
+    // =====================================================
+    // OVERRIDES
+    // =====================================================
+
+    /**
+     * Зритель replay — сам инициатор, события строим всегда.
+     */
+    @Override
+    public boolean isWatched(Long chatId, StrategyType strategyType) {
+        return true;
+    }
+
+    @Override
+    public boolean isMarketWatched(String symbol) {
+        return true;
+    }
+
+    @Override
+    protected void publish(StrategyLiveEvent ev) {
+        if (ev == null) return;
+
+        if (!"candle".equals(ev.getType())) {
+            ev.setTime(clock.millis());
+        }
+        ev.normalize();
+
+        if ("signal".equals(ev.getType()) || "trade".equals(ev.getType())) {
+            record(ev);
+        }
+
+        sink.accept(ev);
+    }
+
+    // =====================================================
+    // DIGEST
+    // =====================================================
+
+    public synchronized long digest() {
+        return digest;
+    }
+
+    public synchronized long signals() {
+        return signals;
+    }
+
+    public synchronized long trades() {
+        return trades;
+    }
+
+    private synchronized void record(StrategyLiveEvent ev) {
+        long h = step(digest, Objects.hashCode(ev.getType()));
+        h = step(h, ev.getTime());
+        h = step(h, Objects.hashCode(ev.getSymbol()));
+
+        if (ev.getSignal() != null) {
+            var s = ev.getSignal();
+            h = step(h, Objects.hashCode(s.getName()));
+            h = step(h, Objects.hashCode(s.getReason()));
+            h = step(h, Double.doubleToLongBits(s.getConfidence()));
+            signals++;
+        }
+        if (ev.getTrade() != null) {
+            var t = ev.getTrade();
+            h = step(h, Objects.hashCode(t.getSide()));
+            h = step(h, t.getPrice() != null ? t.getPrice().stripTrailingZeros().hashCode() : 0L);
+            h = step(h, t.getQty() != null ? t.getQty().stripTrailingZeros().hashCode() : 0L);
+            trades++;
+        }
+
+        digest = h;
+    }
+
+    private static long step(long h, long v) {
+        return h * 0x9E3779B97F4A7C15L + v;
+    }
+}
@@ -0,0 +1,32 @@
+package com.chicu.aitradebot.strategy.replay;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+
+@Data
+@ConfigurationProperties(prefix = "strategy.replay")
+public class ReplayProperties {
+
+    /**
+     * Сколько replay-сессий может идти одновременно (по потоку на сессию).
+     */
+    private int maxSessions = 2;
+
+    /**
+     * Максимум событий (свечей/тиков) на одну сессию.
+     */
+    private int maxEvents = 200_000;
+
+    /**
+     * Бумажный бюджет (QUOTE), если в StrategySettings не задан maxExposureUsd.
+     */
+    private BigDecimal paperBudget = new BigDecimal("1000");
+
+    /**
+     * Максимальная пауза между событиями при speed > 0 (мс):
+     * ночные «дыры» в истории не должны останавливать просмотр.
+     */
+    private long maxPauseMs = 5_000L;
+}
@@ -0,0 +1,220 @@
+package com.chicu.aitradebot.strategy.replay;
+
+import com.chicu.aitradebot.common.enums.StrategyType;
+import com.chicu.aitradebot.exchange.client.ExchangeClientFactory;
+import com.chicu.aitradebot.market.MarketStreamManager;
+import com.chicu.aitradebot.market.MarketStreamService;
+import com.chicu.aitradebot.market.recorder.TickRecorder;
+import com.chicu.aitradebot.service.StrategySettingsService;
+import com.chicu.aitradebot.strategy.breakout.BreakoutStrategySettingsService;
+import com.chicu.aitradebot.strategy.core.CandleProvider;
+import com.chicu.aitradebot.strategy.core.TradingStrategy;
+import com.chicu.aitradebot.strategy.core.impl.CandleProviderImpl;
+import com.chicu.aitradebot.strategy.dca.DcaStrategySettingsService;
+import com.chicu.aitradebot.strategy.ema.EmaCrossoverStrategySettingsService;
+import com.chicu.aitradebot.strategy.fibonacci_grid.FibonacciGridStrategySettingsService;
+import com.chicu.aitradebot.strategy.fibonacciretrace.FibonacciRetraceStrategySettingsService;
+import com.chicu.aitradebot.strategy.grid.GridStrategySettingsService;
+import com.chicu.aitradebot.strategy.hybrid.HybridStrategySettingsService;
+import com.chicu.aitradebot.strategy.live.StrategyLivePublisher;
+import com.chicu.aitradebot.strategy.meanreversion.MeanReversionStrategySettingsService;
+import com.chicu.aitradebot.strategy.ml.MlClassificationSettingsService;
+import com.chicu.aitradebot.strategy.ml.MlSignalService;
+import com.chicu.aitradebot.strategy.momentum.MomentumStrategySettingsService;
+import com.chicu.aitradebot.strategy.priceaction.PriceActionStrategySettingsService;
+import com.chicu.aitradebot.strategy.registry.StrategyRegistry;
+import com.chicu.aitradebot.strategy.rl.RlAgentService;
+import com.chicu.aitradebot.strategy.rl.RlAgentSettingsService;
+import com.chicu.aitradebot.strategy.rsiobos.RsiObosStrategySettingsService;
+import com.chicu.aitradebot.strategy.scalping.ScalpingStrategySettingsService;
+import com.chicu.aitradebot.strategy.smartfusion.SmartFusionMlService;
+import com.chicu.aitradebot.strategy.smartfusion.SmartFusionRlService;
+import com.chicu.aitradebot.strategy.smartfusion.SmartFusionStrategySettingsService;
+import com.chicu.aitradebot.strategy.supportresistance.SupportResistanceStrategySettingsService;
+import com.chicu.aitradebot.strategy.trend.TrendStrategySettingsService;
+import com.chicu.aitradebot.strategy.trend_following.TrendFollowingStrategySettingsService;
+import com.chicu.aitradebot.strategy.volatilitybreakout.VolatilityBreakoutStrategySettingsService;
+import com.chicu.aitradebot.strategy.volume.VolumeProfileStrategySettingsService;
+import com.chicu.aitradebot.strategy.vwap.VwapStrategySettingsService;
+import com.chicu.aitradebot.strategy.windowscalping.WindowScalpingStrategySettingsService;
+import com.chicu.aitradebot.trade.PaperTradeExecutionService;
+import com.chicu.aitradebot.trade.TradeExecutionService;
+import com.chicu.aitradebot.trade.pipeline.DirectOrderSubmitter;
+import com.chicu.aitradebot.trade.pipeline.OrderSubmitter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.ApplicationContext;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Constructor;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Set;
+
+/**
+ * 🧪 Изолированный конвейер одной replay-сессии.
+ *
+ * ❗ Тот же путь, что и в live:
+ *   ReplayEvent → MarketStreamService.onKline / onAggTrade → TradingStrategy.onPriceUpdate
+ * но все изменяемые части свои:
+ *  - MarketStreamManager / CandleProvider — собственный кэш свечей
+ *  - StrategyRegistry — только песочная стратегия
+ *  - StrategyLivePublisher — ReplayLivePublisher (topic сессии + виртуальное время)
+ *  - TradeExecutionService — PaperTradeExecutionService (OrderSubmitter — он же, синхронно)
+ *  - Clock — ReplayClock (startedAt и перечитывание настроек по времени ленты, а не по стенным часам)
+ *  - стратегия — НОВЫЙ экземпляр класса боевого бина (своё состояние)
+ * Из контекста берутся только бины из SHARED (настройки, ML) — любая другая зависимость
+ * стратегии (книги позиций, выходов и т.п.) — ошибка создания сессии, а не общее с live состояние.
+ */
+final class ReplaySandbox {
+
+    /**
+     * Боевые бины, которые песочнице можно делить с live: только чтение настроек и ML-инференс.
+     */
+    static final Set<Class<?>> SHARED = Set.of(
+            StrategySettingsService.class,
+            BreakoutStrategySettingsService.class,
+            DcaStrategySettingsService.class,
+            EmaCrossoverStrategySettingsService.class,
+            FibonacciGridStrategySettingsService.class,
+            FibonacciRetraceStrategySettingsService.class,
+            GridStrategySettingsService.class,
+            HybridStrategySettingsService.class,
+            MeanReversionStrategySettingsService.class,
+            MlClassificationSettingsService.class,
+            MomentumStrategySettingsService.class,
+            PriceActionStrategySettingsService.class,
+            RlAgentSettingsService.class,
+            RsiObosStrategySettingsService.class,
+            ScalpingStrategySettingsService.class,
+            SmartFusionStrategySettingsService.class,
+            SupportResistanceStrategySettingsService.class,
+            TrendFollowingStrategySettingsService.class,
+            TrendStrategySettingsService.class,
+            VolatilityBreakoutStrategySettingsService.class,
+            VolumeProfileStrategySettingsService.class,
+            VwapStrategySettingsService.class,
+            WindowScalpingStrategySettingsService.class,
+            MlSignalService.class,
+            RlAgentService.class,
+            SmartFusionMlService.class,
+            SmartFusionRlService.class
+    );
+
+    final ReplayClock clock;
+    final ReplayLivePublisher live;
+    final PaperTradeExecutionService paper;
+    final MarketStreamService market;
+    final TradingStrategy strategy;
+
+    private final long chatId;
+    private final StrategyType type;
+    private final String symbol;
+    private final String timeframe;
+
+    ReplaySandbox(ApplicationContext context,
+                  TradingStrategy prototype,
+                  long chatId,
+                  StrategyType type,
+                  String symbol,
+                  String timeframe,
+                  ReplayClock clock,
+                  ReplayLivePublisher live,
+                  BigDecimal paperBudget,
+                  ExchangeClientFactory exchangeClientFactory,
+                  ObjectMapper objectMapper) {
+
+        this.chatId = chatId;
+        this.type = type;
+        this.symbol = symbol;
+        this.timeframe = timeframe;
+        this.clock = clock;
+        this.live = live;
+        this.paper = new PaperTradeExecutionService(live, paperBudget);
+
+        MarketStreamManager candles = new MarketStreamManager();
+        this.strategy = instantiate(context, prototype, candles);
+
+        StrategyRegistry registry = new StrategyRegistry();
+        registry.register(type, strategy);
+
+        // песочница ничего не пишет в архив тиков — она сама из него читает;
+        // боевой бумажный стакан и книгу выходов исторической лентой не кормим
+        this.market = new MarketStreamService(candles, live, registry, exchangeClientFactory, objectMapper,
+                TickRecorder.NOOP, null, null, null);
+    }
+
+    // =====================================================
+    // FEED
+    // =====================================================
+
+    void feed(ReplayEvent ev) {
+        if (ev.isKline()) {
+            market.onKline(chatId, type, ev.kline());
+            return;
+        }
+
+        // тот же формат, что приходит из Binance aggTrade
+        String json = "{\"p\":\"" + ev.price().toPlainString()
+                      + "\",\"q\":\"" + (ev.qty() != null ? ev.qty().toPlainString() : "0")
+                      + "\",\"T\":" + ev.time() + "}";
+
+        market.onAggTrade(chatId, type, symbol, timeframe, json);
+    }
+
+    // =====================================================
+    // SANDBOX STRATEGY
+    // =====================================================
+
+    /**
+     * Новый экземпляр класса стратегии: конструктор (Lombok @RequiredArgsConstructor)
+     * получает песочные зависимости вместо боевых.
+     *
+     * @throws IllegalStateException у конструктора есть зависимость не из песочницы и не из SHARED
+     */
+    private TradingStrategy instantiate(ApplicationContext context,
+                                        TradingStrategy prototype,
+                                        MarketStreamManager candles) {
+
+        Class<?> cls = ClassUtils.getUserClass(prototype);
+
+        Constructor<?> ctor = Arrays.stream(cls.getDeclaredConstructors())
+                .max(Comparator.comparingInt(Constructor::getParameterCount))
+                .orElseThrow(() -> new IllegalStateException("No constructor: " + cls.getName()));
+
+        Class<?>[] params = ctor.getParameterTypes();
+        Object[] args = new Object[params.length];
+
+        for (int i = 0; i < params.length; i++) {
+            Class<?> p = params[i];
+
+            if (p == TradeExecutionService.class) {
+                args[i] = paper;
+            } else if (p == OrderSubmitter.class) {
+                args[i] = new DirectOrderSubmitter(paper);
+            } else if (p == StrategyLivePublisher.class) {
+                args[i] = live;
+            } else if (p == MarketStreamManager.class) {
+                args[i] = candles;
+            } else if (p == CandleProvider.class) {
+                args[i] = new CandleProviderImpl(candles);
+            } else if (p == Clock.class) {
+                args[i] = clock;
+            } else if (SHARED.contains(p)) {
+                args[i] = context.getBean(p);
+            } else {
+                // ❗ молча отдать боевой бин = делить с live его состояние
+                throw new IllegalStateException("Replay sandbox: " + cls.getSimpleName()
+                                                + " depends on " + p.getName() + ", which is neither sandboxed nor in ReplaySandbox.SHARED");
+            }
+        }
+
+        try {
+            ctor.setAccessible(true);
+            return (TradingStrategy) ctor.newInstance(args);
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot create sandbox strategy " + cls.getSimpleName() + ": " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.chicu.aitradebot.strategy.replay;
+
+import com.chicu.aitradebot.common.enums.StrategyType;
+
+/**
+ * 📋 Состояние replay-сессии (для REST и UI).
+ *
+ * digest — свёртка всех сигналов/сделок сессии:
+ * два прогона одних и тех же данных обязаны дать одинаковый digest.
+ */
+public record ReplayStatus(String sessionId,
+                           long chatId,
+                           StrategyType type,
+                           String symbol,
+                           String timeframe,
+                           String state,
+                           double speed,
+                           long processed,
+                           long total,
+                           long virtualTime,
+                           long signals,
+                           long trades,
+                           int fills,
+                           String digest,
+                           String error) {
+
+    public static final String STATE_RUNNING = "RUNNING";
+    public static final String STATE_DONE = "DONE";
+    public static final String STATE_STOPPED = "STOPPED";
+    public static final String STATE_FAILED = "FAILED";
+}
@@ -15,6 +15,7 @@ import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Comparator;
@@ -35,6 +36,7 @@ public class RsiObosStrategyV4 implements TradingStrategy {
     private final RsiObosStrategySettingsService rsiSettingsService;
     private final StrategySettingsService strategySettingsService;
     private final TradeExecutionService tradeExecutionService;
+    private final Clock clock;
 
     private final Map<Long, LocalState> states = new ConcurrentHashMap<>();
 
@@ -91,7 +93,7 @@ public class RsiObosStrategyV4 implements TradingStrategy {
 
         LocalState st = new LocalState();
         st.active = true;
-        st.startedAt = Instant.now();
+        st.startedAt = Instant.now(clock);
 
         st.ss = ss;
         st.cfg = cfg;
@@ -100,7 +102,7 @@ public class RsiObosStrategyV4 implements TradingStrategy {
         st.exchange = ss.getExchangeName();
         st.network = ss.getNetworkType();
 
-        st.lastSettingsLoadAt = Instant.now();
+        st.lastSettingsLoadAt = Instant.now(clock);
         st.lastCfgUpdatedAt = cfg != null ? cfg.getUpdatedAt() : null;
         st.lastFingerprint = buildFingerprint(ss, cfg);
 
@@ -173,7 +175,7 @@ public class RsiObosStrategyV4 implements TradingStrategy {
             return;
         }
 
-        Instant time = ts != null ? ts : Instant.now();
+        Instant time = ts != null ? ts : Instant.now(clock);
 
         // не мешаем символы
         String tickSymbol = safeUpper(symbolFromTick);
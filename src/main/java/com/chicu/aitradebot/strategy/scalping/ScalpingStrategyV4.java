@@ -15,6 +15,7 @@ import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -40,6 +41,7 @@ public class ScalpingStrategyV4 implements TradingStrategy {
     private final ScalpingStrategySettingsService scalpingSettingsService;
     private final StrategySettingsService strategySettingsService;
     private final TradeExecutionService tradeExecutionService;
+    private final Clock clock;
 
     private final Map<Long, LocalState> states = new ConcurrentHashMap<>();
 
@@ -112,7 +114,7 @@ public class ScalpingStrategyV4 implements TradingStrategy {
 
         LocalState st = new LocalState();
         st.active = true;
-        st.startedAt = Instant.now();
+        st.startedAt = Instant.now(clock);
 
         st.strategySettings = strategy;
         st.scalpingSettings = cfg;
@@ -121,7 +123,7 @@ public class ScalpingStrategyV4 implements TradingStrategy {
         st.exchange = strategy.getExchangeName();
         st.network = strategy.getNetworkType();
 
-        st.lastSettingsLoadAt = Instant.now();
+        st.lastSettingsLoadAt = Instant.now(clock);
 
         st.lastWindowHigh = null;
         st.lastWindowLow = null;
@@ -195,7 +197,7 @@ public class ScalpingStrategyV4 implements TradingStrategy {
             return;
         }
 
-        Instant time = (ts != null) ? ts : Instant.now();
+        Instant time = (ts != null) ? ts : Instant.now(clock);
 
         // 🔥 важный фикс: не мешаем цены разных символов
         String tickSymbol = safeUpper(symbolFromTick);
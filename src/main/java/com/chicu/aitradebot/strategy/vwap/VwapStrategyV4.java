@@ -16,6 +16,7 @@ import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Comparator;
@@ -37,6 +38,7 @@ public class VwapStrategyV4 implements TradingStrategy {
     private final VwapStrategySettingsService vwapSettingsService;
     private final StrategySettingsService strategySettingsService;
     private final TradeExecutionService tradeExecutionService;
+    private final Clock clock;
 
     // ✅ ЕДИНЫЙ источник свечей в проекте
     private final CandleProvider candleProvider;
@@ -84,7 +86,7 @@ public class VwapStrategyV4 implements TradingStrategy {
 
         LocalState st = new LocalState();
         st.active = true;
-        st.startedAt = Instant.now();
+        st.startedAt = Instant.now(clock);
         st.ss = ss;
         st.cfg = cfg;
 
@@ -92,7 +94,7 @@ public class VwapStrategyV4 implements TradingStrategy {
         st.exchange = ss.getExchangeName();
         st.network = ss.getNetworkType();
 
-        st.lastSettingsLoadAt = Instant.now();
+        st.lastSettingsLoadAt = Instant.now(clock);
         st.lastFingerprint = buildFingerprint(ss, cfg);
 
         states.put(chatId, st);
@@ -156,7 +158,7 @@ public class VwapStrategyV4 implements TradingStrategy {
 
         if (price == null || price.signum() <= 0) return;
 
-        Instant time = (ts != null ? ts : Instant.now());
+        Instant time = (ts != null ? ts : Instant.now(clock));
 
         String tickSymbol = safeUpper(symbolFromTick);
         String cfgSymbol = safeUpper(st.symbol);
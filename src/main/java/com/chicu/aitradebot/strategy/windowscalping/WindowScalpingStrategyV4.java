@@ -8,7 +8,11 @@ import com.chicu.aitradebot.strategy.core.TradingStrategy;
 import com.chicu.aitradebot.strategy.core.signal.Signal;
 import com.chicu.aitradebot.strategy.live.StrategyLivePublisher;
 import com.chicu.aitradebot.strategy.registry.StrategyBinding;
-import com.chicu.aitradebot.trade.TradeExecutionService;
+import com.chicu.aitradebot.trade.TradeExecutionServiceImpl;
+import com.chicu.aitradebot.trade.pipeline.OrderFillEvent;
+import com.chicu.aitradebot.trade.pipeline.OrderHandle;
+import com.chicu.aitradebot.trade.pipeline.OrderIntent;
+import com.chicu.aitradebot.trade.pipeline.OrderSubmitter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -16,6 +20,7 @@ import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayDeque;
@@ -43,7 +48,8 @@ public class WindowScalpingStrategyV4 implements TradingStrategy {
     private final StrategyLivePublisher live;
     private final WindowScalpingStrategySettingsService windowSettingsService;
     private final StrategySettingsService strategySettingsService;
-    private final TradeExecutionService tradeExecutionService;
+    private final OrderSubmitter orderSubmitter;
+    private final Clock clock;
 
     private final Map<Long, LocalState> states = new ConcurrentHashMap<>();
 
@@ -72,6 +78,10 @@ public class WindowScalpingStrategyV4 implements TradingStrategy {
         BigDecimal entryQty;
         Long entryOrderId;
 
+        // ордер отправлен в OrderPipeline, итог ещё не применён
+        OrderHandle pendingOrder;
+        double pendingScore;
+
         Instant lastTradeClosedAt;
 
         long ticks;
@@ -104,7 +114,7 @@ public class WindowScalpingStrategyV4 implements TradingStrategy {
 
         LocalState st = new LocalState();
         st.active = true;
-        st.startedAt = Instant.now();
+        st.startedAt = Instant.now(clock);
 
         st.ss = ss;
         st.cfg = cfg;
@@ -117,7 +127,7 @@ public class WindowScalpingStrategyV4 implements TradingStrategy {
         if (sym == null) sym = normalizeSymbolOrNull(symbolHint);
         st.symbol = sym;
 
-        st.lastSettingsLoadAt = Instant.now();
+        st.lastSettingsLoadAt = Instant.now(clock);
         st.lastFingerprint = buildFingerprint(ss, cfg);
 
         states.put(chatId, st);
@@ -203,7 +213,7 @@ public class WindowScalpingStrategyV4 implements TradingStrategy {
             return;
         }
 
-        Instant time = ts != null ? ts : Instant.now();
+        Instant time = ts != null ? ts : Instant.now(clock);
 
         String tickSymbol = normalizeSymbolOrNull(symbolFromTick);
         String cfgSymbol  = normalizeSymbolOrNull(st.symbol);
@@ -219,6 +229,7 @@ public class WindowScalpingStrategyV4 implements TradingStrategy {
         synchronized (st) {
 
             refreshSettingsIfNeeded(chatId, st, time);
+            drainPendingOrder(chatId, st, time);
 
             StrategySettings ss = st.ss;
             WindowScalpingStrategySettings cfg = st.cfg;
@@ -309,7 +320,7 @@ public class WindowScalpingStrategyV4 implements TradingStrategy {
             // =====================================================
             // ENTRY (SPOT LONG) - вход у низа
             // =====================================================
-            if (!st.inPosition && pos <= lowZone) {
+            if (!st.inPosition && st.pendingOrder == null && pos <= lowZone) {
 
                 Integer cooldown = ss.getCooldownSeconds();
                 if (cooldown != null && cooldown > 0 && st.lastTradeClosedAt != null) {
@@ -345,58 +356,29 @@ public class WindowScalpingStrategyV4 implements TradingStrategy {
                         slPct.stripTrailingZeros().toPlainString()
                 );
 
-                try {
-                    var res = tradeExecutionService.executeEntry(
-                            chatId,
-                            StrategyType.WINDOW_SCALPING,
-                            sym,
-                            price,
-                            diffPctForEntry,
-                            time,
-                            ss,
-                            tpPct,
-                            slPct
-                    );
-
-                    if (!res.executed()) {
-                        pushHoldThrottled(chatId, sym, st, res.reason(), time);
-                        return;
-                    }
-
-                    st.entries++;
-                    st.inPosition = true;
-                    st.isLong = true;
-
-                    st.entryPrice = res.entryPrice();
-                    st.tp = res.tp();
-                    st.sl = res.sl();
-                    st.entryQty = res.qty();
-                    st.entryOrderId = res.orderId();
-
-                    // ✅ рисуем линии TP/SL
-                    if (st.tp != null && st.sl != null) {
-                        safeLive(() -> live.pushTpSl(chatId, StrategyType.WINDOW_SCALPING, sym, st.tp, st.sl));
-                    }
-
-                    safeLive(() -> live.pushSignal(chatId, StrategyType.WINDOW_SCALPING, sym, null,
-                            Signal.buy(score, "window_low")));
-
-                    st.window.clear();
-                    st.lastHoldReason = null;
-
-                } catch (Exception e) {
-                    log.error("[WINDOW] ❌ ENTRY failed chatId={} sym={} err={}", chatId, sym, e.getMessage(), e);
-                    pushHoldThrottled(chatId, sym, st, "entry_failed", time);
-                }
+                // баланс/AI-guard/биржа/БД — в OrderSubmitter (live: пул OrderPipeline), итог применится на следующих тиках
+                st.pendingScore = score;
+                st.pendingOrder = orderSubmitter.submit(OrderIntent.entry(
+                        chatId,
+                        StrategyType.WINDOW_SCALPING,
+                        sym,
+                        price,
+                        diffPctForEntry,
+                        time,
+                        ss,
+                        tpPct,
+                        slPct
+                ));
+                drainPendingOrder(chatId, st, time);
             }
 
             // =====================================================
             // EXIT: TP/SL
             // =====================================================
-            if (st.inPosition && st.entryQty != null && st.tp != null && st.sl != null) {
+            if (st.inPosition && st.pendingOrder == null && st.entryQty != null && st.tp != null && st.sl != null) {
 
-                try {
-                    var ex = tradeExecutionService.executeExitIfHit(
+                if (TradeExecutionServiceImpl.isExitHit(price, st.tp, st.sl)) {
+                    st.pendingOrder = orderSubmitter.submit(OrderIntent.exit(
                             chatId,
                             StrategyType.WINDOW_SCALPING,
                             sym,
@@ -406,45 +388,112 @@ public class WindowScalpingStrategyV4 implements TradingStrategy {
                             st.entryQty,
                             st.tp,
                             st.sl
-                    );
-
-                    if (ex.executed()) {
-                        st.exits++;
-
-                        log.info("[WINDOW] ✅ EXIT OK chatId={} ex={} net={} sym={} price={} (tp={} sl={})",
-                                chatId, st.exchange, st.network, sym,
-                                price.stripTrailingZeros().toPlainString(),
-                                st.tp.stripTrailingZeros().toPlainString(),
-                                st.sl.stripTrailingZeros().toPlainString()
-                        );
-
-                        st.inPosition = false;
-                        st.entryQty = null;
-                        st.entryOrderId = null;
-                        st.entryPrice = null;
-                        st.tp = null;
-                        st.sl = null;
-
-                        st.lastTradeClosedAt = time;
-
-                        safeLive(() -> live.clearTpSl(chatId, StrategyType.WINDOW_SCALPING, sym));
-                        safeLive(() -> live.clearPriceLines(chatId, StrategyType.WINDOW_SCALPING, sym));
-
-                        safeLive(() -> live.pushSignal(chatId, StrategyType.WINDOW_SCALPING, sym, null,
-                                Signal.sell(1.0, "tp_sl_exit")));
-                    } else {
-                        if (pos >= highZone) {
-                            pushHoldThrottled(chatId, sym, st, "in_high_zone_wait_tp", time);
-                        }
-                    }
-
-                } catch (Exception e) {
-                    log.error("[WINDOW] ❌ EXIT failed chatId={} sym={} err={}", chatId, sym, e.getMessage(), e);
+                    ));
+                    drainPendingOrder(chatId, st, time);
+                } else if (pos >= highZone) {
+                    pushHoldThrottled(chatId, sym, st, "in_high_zone_wait_tp", time);
                 }
             }
         }
     }
 
+    // =====================================================
+    // ORDER FILLS (из OrderPipeline)
+    // =====================================================
+
+    /**
+     * Применяет итог отправленного ордера, если он уже готов.
+     * Вызывается только под synchronized(st) на потоке тиков — состояние не трогает исполнитель.
+     */
+    private void drainPendingOrder(Long chatId, LocalState st, Instant time) {
+        OrderHandle h = st.pendingOrder;
+        if (h == null) return;
+
+        OrderFillEvent fill = h.poll();
+        if (fill == null) return;
+
+        st.pendingOrder = null;
+
+        OrderIntent in = fill.intent();
+        String sym = in.symbol();
+
+        if (in.kind() == OrderIntent.Kind.ENTRY) {
+            onEntryFill(chatId, sym, st, fill, time);
+        } else {
+            onExitFill(chatId, sym, st, fill, time);
+        }
+    }
+
+    private void onEntryFill(Long chatId, String sym, LocalState st, OrderFillEvent fill, Instant time) {
+
+        if (!fill.executed()) {
+            pushHoldThrottled(chatId, sym, st, fill.reason(), time);
+            return;
+        }
+
+        st.entries++;
+        st.inPosition = true;
+        st.isLong = true;
+
+        st.entryPrice = fill.price();
+        st.tp = fill.tp();
+        st.sl = fill.sl();
+        st.entryQty = fill.qty();
+        st.entryOrderId = fill.orderId();
+
+        log.info("[WINDOW] ✅ ENTRY OK chatId={} sym={} qty={} entry={} tp={} sl={} queueMs={} execMs={}",
+                chatId, sym, st.entryQty, st.entryPrice, st.tp, st.sl,
+                fill.queueNanos() / 1_000_000, fill.execNanos() / 1_000_000);
+
+        // ✅ рисуем линии TP/SL
+        if (st.tp != null && st.sl != null) {
+            BigDecimal tp = st.tp;
+            BigDecimal sl = st.sl;
+            safeLive(() -> live.pushTpSl(chatId, StrategyType.WINDOW_SCALPING, sym, tp, sl));
+        }
+
+        double score = st.pendingScore;
+        safeLive(() -> live.pushSignal(chatId, StrategyType.WINDOW_SCALPING, sym, null,
+                Signal.buy(score, "window_low")));
+
+        st.window.clear();
+        st.lastHoldReason = null;
+    }
+
+    private void onExitFill(Long chatId, String sym, LocalState st, OrderFillEvent fill, Instant time) {
+
+        if (!fill.executed()) {
+            // позиция остаётся — на следующем тике выход будет отправлен снова, если TP/SL всё ещё пересечены
+            log.warn("[WINDOW] ❌ EXIT failed chatId={} sym={} reason={}", chatId, sym, fill.reason());
+            return;
+        }
+
+        st.exits++;
+
+        log.info("[WINDOW] ✅ EXIT OK chatId={} ex={} net={} sym={} price={} (tp={} sl={}) execMs={}",
+                chatId, st.exchange, st.network, sym,
+                fill.price() != null ? fill.price().stripTrailingZeros().toPlainString() : null,
+                st.tp != null ? st.tp.stripTrailingZeros().toPlainString() : null,
+                st.sl != null ? st.sl.stripTrailingZeros().toPlainString() : null,
+                fill.execNanos() / 1_000_000
+        );
+
+        st.inPosition = false;
+        st.entryQty = null;
+        st.entryOrderId = null;
+        st.entryPrice = null;
+        st.tp = null;
+        st.sl = null;
+
+        st.lastTradeClosedAt = fill.intent().time() != null ? fill.intent().time() : time;
+
+        safeLive(() -> live.clearTpSl(chatId, StrategyType.WINDOW_SCALPING, sym));
+        safeLive(() -> live.clearPriceLines(chatId, StrategyType.WINDOW_SCALPING, sym));
+
+        safeLive(() -> live.pushSignal(chatId, StrategyType.WINDOW_SCALPING, sym, null,
+                Signal.sell(1.0, "tp_sl_exit")));
+    }
+
     // =====================================================
     // SETTINGS REFRESH
     // =====================================================
@@ -0,0 +1,228 @@
+package com.chicu.aitradebot.trade;
+
+import com.chicu.aitradebot.common.enums.StrategyType;
+import com.chicu.aitradebot.domain.StrategySettings;
+import com.chicu.aitradebot.strategy.core.signal.Signal;
+import com.chicu.aitradebot.strategy.live.StrategyLivePublisher;
+import com.chicu.aitradebot.trade.pipeline.OrderIntent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 📝 Бумажное исполнение (replay / песочница).
+ *
+ * ❗ Те же правила входа/выхода, что у TradeExecutionServiceImpl (SPOT, long-only, TP/SL из стратегии),
+ * но:
+ *  - ордер не уходит на биржу — мгновенный fill по цене тика
+ *  - бюджет детерминирован: maxExposureUsd из StrategySettings или fallbackBudget (без запроса баланса)
+ *  - id ордеров — счётчик сессии (1, 2, 3...), а не id из БД
+ *
+ * Не Spring-бин: создаётся на каждую песочницу.
+ */
+@Slf4j
+public class PaperTradeExecutionService implements TradeExecutionService {
+
+    private static final int QTY_SCALE = 8;
+
+    public record PaperFill(long orderId,
+                            Instant time,
+                            String symbol,
+                            String side,
+                            BigDecimal qty,
+                            BigDecimal price,
+                            String reason) {
+    }
+
+    private final StrategyLivePublisher live;
+    private final BigDecimal fallbackBudget;
+
+    private final List<PaperFill> fills = new ArrayList<>();
+    private long nextOrderId = 1;
+
+    public PaperTradeExecutionService(StrategyLivePublisher live, BigDecimal fallbackBudget) {
+        this.live = live;
+        this.fallbackBudget = fallbackBudget;
+    }
+
+    @Override
+    public EntryResult executeEntry(Long chatId,
+                                    StrategyType strategyType,
+                                    String symbol,
+                                    BigDecimal price,
+                                    BigDecimal diffPct,
+                                    Instant time,
+                                    StrategySettings ss) {
+
+        BigDecimal tpPct = TradeExecutionServiceImpl.readBigDecimal(ss, "getTakeProfitPct");
+        BigDecimal slPct = TradeExecutionServiceImpl.readBigDecimal(ss, "getStopLossPct");
+        return executeEntry(chatId, strategyType, symbol, price, diffPct, time, ss, tpPct, slPct);
+    }
+
+    @Override
+    public EntryResult executeEntry(Long chatId,
+                                    StrategyType strategyType,
+                                    String symbol,
+                                    BigDecimal price,
+                                    BigDecimal diffPct,
+                                    Instant time,
+                                    StrategySettings ss,
+                                    BigDecimal tpPct,
+                                    BigDecimal slPct) {
+
+        if (ss == null) return EntryResult.fail("StrategySettings=null");
+        return entry(OrderIntent.entry(chatId, strategyType, symbol, price, diffPct, time, ss, tpPct, slPct));
+    }
+
+    @Override
+    public synchronized EntryResult entry(OrderIntent in) {
+
+        Long chatId = in.chatId();
+        StrategyType strategyType = in.strategyType();
+        String symbol = in.symbol();
+        BigDecimal price = in.price();
+        BigDecimal diffPct = in.diffPct();
+        BigDecimal tpPct = in.takeProfitPct();
+        BigDecimal slPct = in.stopLossPct();
+        Instant time = in.time();
+
+        if (chatId == null) return EntryResult.fail("chatId=null");
+        if (strategyType == null) return EntryResult.fail("strategyType=null");
+        if (symbol == null || symbol.isBlank()) return EntryResult.fail("symbol пустой");
+        if (price == null || price.signum() <= 0) return EntryResult.fail("price invalid");
+
+        if (diffPct == null || diffPct.signum() <= 0) {
+            return EntryResult.fail("SPOT: entry только BUY (diff<=0)");
+        }
+
+        if (!TradeExecutionServiceImpl.isValidPct(tpPct)) return EntryResult.fail("takeProfitPct invalid (нужно в настройках стратегии)");
+        if (!TradeExecutionServiceImpl.isValidPct(slPct)) return EntryResult.fail("stopLossPct invalid (нужно в настройках стратегии)");
+
+        BigDecimal quoteAmount = resolveQuoteAmount(in);
+        if (quoteAmount.signum() <= 0) {
+            return EntryResult.fail("недостаточно средств/лимит бюджета/риск=0");
+        }
+
+        BigDecimal qty = quoteAmount
+                .divide(price, QTY_SCALE, RoundingMode.DOWN)
+                .stripTrailingZeros();
+
+        if (qty.signum() <= 0) {
+            return EntryResult.fail("qty=0: мало средств или слишком высокая цена");
+        }
+
+        BigDecimal tp = TradeExecutionServiceImpl.calcTp(price, tpPct);
+        BigDecimal sl = TradeExecutionServiceImpl.calcSl(price, slPct);
+
+        if (tp.compareTo(price) <= 0) return EntryResult.fail("TP <= entryPrice (check takeProfitPct)");
+        if (sl.compareTo(price) >= 0) return EntryResult.fail("SL >= entryPrice (check stopLossPct)");
+        if (sl.signum() <= 0) return EntryResult.fail("SL <= 0 (check stopLossPct)");
+
+        long orderId = fill(chatId, strategyType, symbol, "BUY", qty, price, time, "entry");
+
+        safeLive(() -> live.pushSignal(chatId, strategyType, symbol, null, Signal.buy(price.doubleValue(), "entry")));
+
+        return EntryResult.ok(true, "BUY", qty, price, tp, sl, orderId);
+    }
+
+    @Override
+    public ExitResult executeExitIfHit(Long chatId,
+                                       StrategyType strategyType,
+                                       String symbol,
+                                       BigDecimal price,
+                                       Instant time,
+                                       boolean isLong,
+                                       BigDecimal entryQty,
+                                       BigDecimal tp,
+                                       BigDecimal sl) {
+        return exit(OrderIntent.exit(chatId, strategyType, symbol, price, time, isLong, entryQty, tp, sl));
+    }
+
+    @Override
+    public synchronized ExitResult exit(OrderIntent in) {
+
+        Long chatId = in.chatId();
+        StrategyType strategyType = in.strategyType();
+        String symbol = in.symbol();
+        BigDecimal price = in.price();
+        Instant time = in.time();
+        BigDecimal entryQty = in.entryQty();
+        BigDecimal tp = in.tp();
+        BigDecimal sl = in.sl();
+
+        if (chatId == null) return ExitResult.fail("chatId=null");
+        if (strategyType == null) return ExitResult.fail("strategyType=null");
+        if (symbol == null || symbol.isBlank()) return ExitResult.fail("symbol пустой");
+        if (price == null || price.signum() <= 0) return ExitResult.fail("price invalid");
+        if (entryQty == null || entryQty.signum() <= 0) return ExitResult.fail("entryQty invalid");
+        if (tp == null || sl == null) return ExitResult.fail("tp/sl null");
+
+        if (!in.isLong()) return ExitResult.fail("SPOT: short запрещён");
+
+        boolean tpHit = price.compareTo(tp) >= 0;
+        boolean slHit = price.compareTo(sl) <= 0;
+
+        if (!tpHit && !slHit) return ExitResult.fail("not hit");
+
+        fill(chatId, strategyType, symbol, "SELL", entryQty, price, time, tpHit ? "TP" : "SL");
+
+        safeLive(() -> live.clearTpSl(chatId, strategyType, symbol));
+        safeLive(() -> live.clearPriceLines(chatId, strategyType, symbol));
+        safeLive(() -> live.pushSignal(chatId, strategyType, symbol, null,
+                Signal.sell(price.doubleValue(), tpHit ? "TP" : "SL")));
+
+        return ExitResult.ok(tpHit, slHit, price, BigDecimal.ZERO);
+    }
+
+    // =====================================================
+    // RESULTS
+    // =====================================================
+
+    public synchronized List<PaperFill> getFills() {
+        return List.copyOf(fills);
+    }
+
+    // =====================================================
+    // helpers
+    // =====================================================
+
+    private long fill(Long chatId,
+                      StrategyType strategyType,
+                      String symbol,
+                      String side,
+                      BigDecimal qty,
+                      BigDecimal price,
+                      Instant time,
+                      String reason) {
+
+        long orderId = nextOrderId++;
+        fills.add(new PaperFill(orderId, time, symbol, side, qty, price, reason));
+
+        safeLive(() -> live.pushTrade(chatId, strategyType, symbol, side, price, qty, time));
+
+        log.debug("[PAPER] {} {} qty={} price={} reason={} chatId={}", side, symbol, qty, price, reason, chatId);
+        return orderId;
+    }
+
+    private BigDecimal resolveQuoteAmount(OrderIntent in) {
+
+        BigDecimal riskPct = in.riskPerTradePct();
+        if (riskPct == null || riskPct.signum() <= 0) return BigDecimal.ZERO;
+
+        BigDecimal budget = in.maxExposureUsd();
+        if (budget == null || budget.signum() <= 0) budget = fallbackBudget;
+        if (budget == null || budget.signum() <= 0) return BigDecimal.ZERO;
+
+        return budget
+                .multiply(riskPct)
+                .divide(BigDecimal.valueOf(100), 10, RoundingMode.HALF_UP);
+    }
+
+    private void safeLive(Runnable r) {
+        try { r.run(); } catch (Exception ignored) {}
+    }
+}
@@ -2,6 +2,7 @@ package com.chicu.aitradebot.trade;
 
 import com.chicu.aitradebot.common.enums.StrategyType;
 import com.chicu.aitradebot.domain.StrategySettings;
+import com.chicu.aitradebot.trade.pipeline.OrderIntent;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -44,4 +45,15 @@ public interface TradeExecutionService {
                                 BigDecimal entryQty,
                                 BigDecimal tp,
                                 BigDecimal sl);
+
+    /**
+     * Вход по снимку настроек из intent'а — в потоке вызывающего.
+     * Блокирующий (баланс, AI-guard, REST, БД): стратегии отправляют intent через OrderSubmitter.
+     */
+    EntryResult entry(OrderIntent intent);
+
+    /**
+     * Выход по TP/SL, если цена intent'а их пересекла — в потоке вызывающего.
+     */
+    ExitResult exit(OrderIntent intent);
 }
@@ -8,6 +8,10 @@ import com.chicu.aitradebot.exchange.model.Order;
 import com.chicu.aitradebot.service.OrderService;
 import com.chicu.aitradebot.strategy.core.signal.Signal;
 import com.chicu.aitradebot.strategy.live.StrategyLivePublisher;
+import com.chicu.aitradebot.trade.pipeline.OrderInFlightGuard;
+import com.chicu.aitradebot.trade.pipeline.OrderIntent;
+import com.chicu.aitradebot.trade.trigger.ExitTrigger;
+import com.chicu.aitradebot.trade.trigger.ExitTriggerBook;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -16,6 +20,9 @@ import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Service
@@ -28,6 +35,10 @@ public class TradeExecutionServiceImpl implements TradeExecutionService {
     private final OrderService orderService;
     private final StrategyLivePublisher live;
     private final AccountBalanceService accountBalanceService;
+    private final OrderInFlightGuard inFlight;
+
+    // 🎯 TP / SL / трейлинг всех позиций — по символу, одна книга на всех
+    private final ExitTriggerBook exitTriggers;
 
     /**
      * ✅ BACKWARD COMPAT:
@@ -65,9 +76,71 @@ public class TradeExecutionServiceImpl implements TradeExecutionService {
                                     BigDecimal tpPct,
                                     BigDecimal slPct) {
 
+        if (ss == null) return EntryResult.fail("StrategySettings=null");
+
+        OrderIntent intent = OrderIntent.entry(chatId, strategyType, symbol, price, diffPct, time, ss, tpPct, slPct);
+
+        if (chatId == null || symbol == null || symbol.isBlank()) return entry(intent);
+        if (!inFlight.tryAcquire(chatId, symbol, intent.intentId())) {
+            return EntryResult.fail("in_flight: ордер по символу ещё исполняется");
+        }
+        try {
+            return entry(intent);
+        } finally {
+            inFlight.release(chatId, symbol, intent.intentId());
+        }
+    }
+
+    @Override
+    public ExitResult executeExitIfHit(Long chatId,
+                                       StrategyType strategyType,
+                                       String symbol,
+                                       BigDecimal price,
+                                       Instant time,
+                                       boolean isLong,
+                                       BigDecimal entryQty,
+                                       BigDecimal tp,
+                                       BigDecimal sl) {
+
+        // вызывается на каждом тике в позиции — «не сработало» отсекаем до guard'а:
+        // книга выходов смотрит только пересечённые уровни (и подтягивает трейлинг)
+        if (price != null && tp != null && sl != null) {
+            boolean hit = chatId != null
+                    ? exitTriggers.check(chatId, strategyType, symbol, price, tp, sl, time) != null
+                    : isExitHit(price, tp, sl);
+            if (!hit) return ExitResult.fail("not hit");
+        }
+
+        OrderIntent intent = OrderIntent.exit(chatId, strategyType, symbol, price, time, isLong, entryQty, tp, sl);
+
+        if (chatId == null || symbol == null || symbol.isBlank()) return exit(intent);
+        if (!inFlight.tryAcquire(chatId, symbol, intent.intentId())) {
+            return ExitResult.fail("in_flight: ордер по символу ещё исполняется");
+        }
+        try {
+            return exit(intent);
+        } finally {
+            inFlight.release(chatId, symbol, intent.intentId());
+        }
+    }
+
+    // =====================================================
+    // INTENT EXECUTION (общая часть для sync API и OrderPipeline)
+    // =====================================================
+
+    @Override
+    public EntryResult entry(OrderIntent in) {
+
+        Long chatId = in.chatId();
+        StrategyType strategyType = in.strategyType();
+        String symbol = in.symbol();
+        BigDecimal price = in.price();
+        BigDecimal diffPct = in.diffPct();
+        BigDecimal tpPct = in.takeProfitPct();
+        BigDecimal slPct = in.stopLossPct();
+
         if (chatId == null) return EntryResult.fail("chatId=null");
         if (strategyType == null) return EntryResult.fail("strategyType=null");
-        if (ss == null) return EntryResult.fail("StrategySettings=null");
         if (symbol == null || symbol.isBlank()) return EntryResult.fail("symbol пустой");
         if (price == null || price.signum() <= 0) return EntryResult.fail("price invalid");
 
@@ -77,10 +150,10 @@ public class TradeExecutionServiceImpl implements TradeExecutionService {
         }
 
         // контекст обязателен (иначе баланс/лимиты не проверить корректно)
-        if (ss.getExchangeName() == null || ss.getExchangeName().isBlank()) {
+        if (in.exchangeName() == null || in.exchangeName().isBlank()) {
             return EntryResult.fail("exchangeName пустой в StrategySettings");
         }
-        if (ss.getNetworkType() == null) {
+        if (in.networkType() == null) {
             return EntryResult.fail("networkType пустой в StrategySettings");
         }
 
@@ -89,7 +162,7 @@ public class TradeExecutionServiceImpl implements TradeExecutionService {
         if (!isValidPct(slPct)) return EntryResult.fail("stopLossPct invalid (нужно в настройках стратегии)");
 
         // сумма входа в QUOTE (USDT/USDC/...)
-        BigDecimal quoteAmount = resolveQuoteAmount(chatId, strategyType, ss);
+        BigDecimal quoteAmount = resolveQuoteAmount(in);
         if (quoteAmount == null || quoteAmount.signum() <= 0) {
             return EntryResult.fail("недостаточно средств/лимит бюджета/риск=0");
         }
@@ -125,22 +198,24 @@ public class TradeExecutionServiceImpl implements TradeExecutionService {
 
         Long orderId = order != null ? order.getId() : null;
 
-        log.info("[TRADE] ENTRY SPOT BUY {} qty={} price={} quoteAmount={} tpPct={} slPct={} tp={} sl={} chatId={}",
-                symbol, qty, price, quoteAmount, tpPct, slPct, tp, sl, chatId);
+        exitTriggers.arm(chatId, strategyType, symbol, tp, sl, in.trailingStopPct());
+
+        log.info("[TRADE] ENTRY SPOT BUY {} qty={} price={} quoteAmount={} tpPct={} slPct={} trailPct={} tp={} sl={} chatId={}",
+                symbol, qty, price, quoteAmount, tpPct, slPct, in.trailingStopPct(), tp, sl, chatId);
 
         return EntryResult.ok(true, "BUY", qty, price, tp, sl, orderId);
     }
 
     @Override
-    public ExitResult executeExitIfHit(Long chatId,
-                                       StrategyType strategyType,
-                                       String symbol,
-                                       BigDecimal price,
-                                       Instant time,
-                                       boolean isLong,
-                                       BigDecimal entryQty,
-                                       BigDecimal tp,
-                                       BigDecimal sl) {
+    public ExitResult exit(OrderIntent in) {
+
+        Long chatId = in.chatId();
+        StrategyType strategyType = in.strategyType();
+        String symbol = in.symbol();
+        BigDecimal price = in.price();
+        BigDecimal entryQty = in.entryQty();
+        BigDecimal tp = in.tp();
+        BigDecimal sl = in.sl();
 
         if (chatId == null) return ExitResult.fail("chatId=null");
         if (strategyType == null) return ExitResult.fail("strategyType=null");
@@ -150,10 +225,13 @@ public class TradeExecutionServiceImpl implements TradeExecutionService {
         if (tp == null || sl == null) return ExitResult.fail("tp/sl null");
 
         // ✅ SPOT: у нас всегда long
-        if (!isLong) return ExitResult.fail("SPOT: short запрещён");
+        if (!in.isLong()) return ExitResult.fail("SPOT: short запрещён");
+
+        // сработавший уровень берём из книги: трейлинг-стоп стратегия в своём sl не видит
+        ExitTrigger hit = exitTriggers.fired(chatId, strategyType, symbol);
 
-        boolean tpHit = price.compareTo(tp) >= 0;
-        boolean slHit = price.compareTo(sl) <= 0;
+        boolean tpHit = hit != null ? hit.tpHit() : price.compareTo(tp) >= 0;
+        boolean slHit = hit != null ? hit.slHit() : price.compareTo(sl) <= 0;
 
         if (!tpHit && !slHit) return ExitResult.fail("not hit");
 
@@ -166,14 +244,18 @@ public class TradeExecutionServiceImpl implements TradeExecutionService {
                 strategyType.name()
         );
 
+        exitTriggers.disarm(chatId, strategyType, symbol);
+
+        String reason = hit != null && hit.kind() == ExitTrigger.Kind.TRAILING_STOP ? "TRAIL" : (tpHit ? "TP" : "SL");
+
         // UI
         safeLive(() -> live.clearTpSl(chatId, strategyType, symbol));
         safeLive(() -> live.clearPriceLines(chatId, strategyType, symbol));
         safeLive(() -> live.pushSignal(chatId, strategyType, symbol, null,
-                Signal.sell(price.doubleValue(), tpHit ? "TP" : "SL")));
+                Signal.sell(price.doubleValue(), reason)));
 
-        log.info("[TRADE] EXIT SPOT SELL {} qty={} price={} tpHit={} slHit={} chatId={}",
-                symbol, entryQty, price, tpHit, slHit, chatId);
+        log.info("[TRADE] EXIT SPOT SELL {} qty={} price={} reason={} level={} chatId={}",
+                symbol, entryQty, price, reason, hit != null ? hit.level() : null, chatId);
 
         return ExitResult.ok(tpHit, slHit, price, BigDecimal.ZERO);
     }
@@ -186,28 +268,53 @@ public class TradeExecutionServiceImpl implements TradeExecutionService {
         try { r.run(); } catch (Exception ignored) {}
     }
 
-    private static boolean isValidPct(BigDecimal pct) {
+    /**
+     * Дешёвая проверка на потоке стратегии: стоит ли отправлять EXIT intent.
+     */
+    public static boolean isExitHit(BigDecimal price, BigDecimal tp, BigDecimal sl) {
+        return price.compareTo(tp) >= 0 || price.compareTo(sl) <= 0;
+    }
+
+    static boolean isValidPct(BigDecimal pct) {
         if (pct == null) return false;
         if (pct.signum() <= 0) return false;
         // в процентах: 0 < pct < 100
         return pct.compareTo(BigDecimal.valueOf(100)) < 0;
     }
 
-    private BigDecimal calcTp(BigDecimal entryPrice, BigDecimal tpPct) {
+    static BigDecimal calcTp(BigDecimal entryPrice, BigDecimal tpPct) {
         BigDecimal k = tpPct.divide(BigDecimal.valueOf(100), 12, RoundingMode.HALF_UP);
         return entryPrice.multiply(BigDecimal.ONE.add(k)).setScale(PRICE_SCALE, RoundingMode.HALF_UP);
     }
 
-    private BigDecimal calcSl(BigDecimal entryPrice, BigDecimal slPct) {
+    static BigDecimal calcSl(BigDecimal entryPrice, BigDecimal slPct) {
         BigDecimal k = slPct.divide(BigDecimal.valueOf(100), 12, RoundingMode.HALF_UP);
         return entryPrice.multiply(BigDecimal.ONE.subtract(k)).setScale(PRICE_SCALE, RoundingMode.HALF_UP);
     }
 
-    private BigDecimal readBigDecimal(Object target, String getter) {
+    /**
+     * Поиск getter'а по классу делается один раз (ClassValue), дальше — только invoke.
+     */
+    private static final ClassValue<Map<String, Optional<Method>>> GETTERS = new ClassValue<>() {
+        @Override
+        protected Map<String, Optional<Method>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    static BigDecimal readBigDecimal(Object target, String getter) {
         if (target == null || getter == null) return null;
+        Class<?> type = target.getClass();
+        Optional<Method> m = GETTERS.get(type).computeIfAbsent(getter, g -> {
+            try {
+                return Optional.of(type.getMethod(g));
+            } catch (NoSuchMethodException e) {
+                return Optional.empty();
+            }
+        });
+        if (m.isEmpty()) return null;
         try {
-            Method m = target.getClass().getMethod(getter);
-            Object v = m.invoke(target);
+            Object v = m.get().invoke(target);
             if (v instanceof BigDecimal bd) return bd;
             return null;
         } catch (Exception ignored) {
@@ -215,49 +322,56 @@ public class TradeExecutionServiceImpl implements TradeExecutionService {
         }
     }
 
-    private BigDecimal resolveQuoteAmount(Long chatId, StrategyType strategyType, StrategySettings ss) {
+    private BigDecimal resolveQuoteAmount(OrderIntent in) {
 
-        BigDecimal riskPct = ss.getRiskPerTradePct();
+        BigDecimal riskPct = in.riskPerTradePct();
         if (riskPct == null || riskPct.signum() <= 0) {
             return BigDecimal.ZERO;
         }
 
         BigDecimal available = null;
 
-        AccountBalanceSnapshot snap = accountBalanceService.getSnapshot(
-                chatId, strategyType, ss.getExchangeName(), ss.getNetworkType()
-        );
-
-        if (snap != null && snap.isConnectionOk()) {
-            BigDecimal free = snap.getSelectedFreeBalance();
-            if (free != null && free.signum() > 0) {
-                available = free;
+        if (in.accountAsset() != null && !in.accountAsset().isBlank()) {
+            // ⚡ актив известен — только книга балансов в памяти, без StrategySettings из БД
+            available = accountBalanceService.getFreeBalance(
+                    in.chatId(), in.exchangeName(), in.networkType(), in.accountAsset());
+        } else {
+            // актив ещё не выбран — полный снимок (авто-выбор и сохранение accountAsset)
+            AccountBalanceSnapshot snap = accountBalanceService.getSnapshot(
+                    in.chatId(), in.strategyType(), in.exchangeName(), in.networkType()
+            );
+
+            if (snap != null && snap.isConnectionOk()) {
+                BigDecimal free = snap.getSelectedFreeBalance();
+                if (free != null && free.signum() > 0) {
+                    available = free;
+                }
             }
         }
 
         // offline/paper/ML: бюджета из maxExposureUsd
         if (available == null || available.signum() <= 0) {
-            BigDecimal budget = ss.getMaxExposureUsd();
+            BigDecimal budget = in.maxExposureUsd();
             if (budget == null || budget.signum() <= 0) return BigDecimal.ZERO;
             available = budget;
         }
 
-        BigDecimal budget = applyMaxExposureLimits(available, ss);
+        BigDecimal budget = applyMaxExposureLimits(available, in);
 
         return budget
                 .multiply(riskPct)
                 .divide(BigDecimal.valueOf(100), 10, RoundingMode.HALF_UP);
     }
 
-    private BigDecimal applyMaxExposureLimits(BigDecimal available, StrategySettings ss) {
+    private BigDecimal applyMaxExposureLimits(BigDecimal available, OrderIntent in) {
         if (available == null || available.signum() <= 0) return BigDecimal.ZERO;
 
-        BigDecimal maxUsd = ss.getMaxExposureUsd();
+        BigDecimal maxUsd = in.maxExposureUsd();
         if (maxUsd != null && maxUsd.signum() > 0) {
             return available.min(maxUsd);
         }
 
-        BigDecimal pct = ss.getMaxExposurePct();
+        BigDecimal pct = in.maxExposurePct();
         if (pct != null && pct.signum() > 0 && pct.compareTo(BigDecimal.valueOf(100)) <= 0) {
             BigDecimal byPct = available
                     .multiply(pct)
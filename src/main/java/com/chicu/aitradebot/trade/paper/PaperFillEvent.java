@@ -0,0 +1,42 @@
+package com.chicu.aitradebot.trade.paper;
+
+import com.chicu.aitradebot.common.enums.StrategyType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * ✅ Исполнение (полное или частичное) ордера в PaperMatchingEngine.
+ * Публикуется как Spring-событие: PaperFillRecorder пишет его в orders, дальше — позиции / UI.
+ *
+ * executedQty / avgPrice / totalFee — накопленные по ордеру значения (событие идемпотентно:
+ * повторное применение того же или более раннего события ничего не меняет).
+ */
+public record PaperFillEvent(
+        long orderId,
+        long chatId,
+        StrategyType strategyType,
+        String symbol,
+        String side,
+        Leg leg,
+        BigDecimal qty,
+        BigDecimal price,
+        boolean maker,
+        BigDecimal fee,
+        BigDecimal orderQty,
+        BigDecimal executedQty,
+        BigDecimal avgPrice,
+        BigDecimal totalFee,
+        boolean done,
+        Instant time
+) {
+
+    /**
+     * Какая нога исполнилась: обычный лимит или одна из ног OCO.
+     */
+    public enum Leg {
+        LIMIT,
+        TAKE_PROFIT,
+        STOP_LOSS
+    }
+}
@@ -0,0 +1,170 @@
+package com.chicu.aitradebot.trade.paper;
+
+import com.chicu.aitradebot.domain.OrderEntity;
+import com.chicu.aitradebot.repository.OrderRepository;
+import com.chicu.aitradebot.service.order.ChatExecutionContext;
+import com.chicu.aitradebot.service.order.ChatExecutionContextCache;
+import com.chicu.aitradebot.strategy.live.StrategyLivePublisher;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 💾 Исполнения бумажного стакана → таблица orders (+ сделка на график).
+ *
+ * ❗ Правила:
+ *  - поток ленты не пишет в БД: события уходят в один поток "paper-fills" (порядок исполнений сохраняется)
+ *  - событие из транзакции placeLimit/placeOco применяется после коммита — строка ордера уже видна
+ *  - применение идемпотентно (накопленные значения), отменённый ордер остаётся CANCELED
+ */
+@Slf4j
+@Component
+public class PaperFillRecorder {
+
+    private static final List<String> OPEN_STATUSES = List.of("NEW", "PARTIALLY_FILLED");
+
+    private final OrderRepository orderRepository;
+    private final PaperMatchingEngine engine;
+    private final ChatExecutionContextCache executionContexts;
+    private final StrategyLivePublisher live;
+    private final PaperMatchingProperties props;
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "paper-fills");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public PaperFillRecorder(OrderRepository orderRepository,
+                             PaperMatchingEngine engine,
+                             ChatExecutionContextCache executionContexts,
+                             StrategyLivePublisher live,
+                             PaperMatchingProperties props) {
+        this.orderRepository = orderRepository;
+        this.engine = engine;
+        this.executionContexts = executionContexts;
+        this.live = live;
+        this.props = props;
+    }
+
+    // =====================================================
+    // FILLS
+    // =====================================================
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFill(PaperFillEvent e) {
+        try {
+            writer.execute(() -> record(e));
+        } catch (RejectedExecutionException ex) {
+            log.warn("⚠️ paper fill #{} not recorded: shutting down", e.orderId());
+        }
+    }
+
+    private void record(PaperFillEvent e) {
+        try {
+            orderRepository.findById(e.orderId()).ifPresent(o -> {
+                if (apply(o, e)) orderRepository.save(o);
+            });
+        } catch (Exception ex) {
+            log.warn("⚠️ paper fill #{} save failed: {}", e.orderId(), ex.getMessage());
+        }
+
+        try {
+            live.pushTrade(e.chatId(), e.strategyType(), e.symbol(), e.side(), e.price(), e.qty(), e.time());
+        } catch (Exception ex) {
+            log.debug("Live trade publish skipped: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Исполнение → поля ордера. false — событие устарело (в ордере уже более позднее исполнение).
+     */
+    public static boolean apply(OrderEntity o, PaperFillEvent e) {
+        if (o.getExecutedQty() != null && o.getExecutedQty().compareTo(e.executedQty()) > 0) return false;
+
+        o.setExecutedQty(e.executedQty());
+        o.setAvgPrice(e.avgPrice());
+        o.setCommission(e.totalFee());
+        o.setUpdatedAt(LocalDateTime.now());
+
+        // отмена могла обогнать исполнение — статус не воскрешаем, как CANCELED с executedQty > 0 на бирже
+        if (!"CANCELED".equals(o.getStatus())) {
+            o.setStatus(e.done() ? "FILLED" : "PARTIALLY_FILLED");
+            o.setFilled(e.done());
+        }
+
+        if (e.leg() != PaperFillEvent.Leg.LIMIT) {
+            boolean tp = e.leg() == PaperFillEvent.Leg.TAKE_PROFIT;
+            o.setTpHit(tp);
+            o.setSlHit(!tp);
+            o.setExitPrice(e.avgPrice());
+            o.setExitTimestamp(e.time().toEpochMilli());
+            o.setExitReason(tp ? "OCO_TAKE_PROFIT" : "OCO_STOP_LOSS");
+        }
+        return true;
+    }
+
+    // =====================================================
+    // RESTORE
+    // =====================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreOpenOrders() {
+        if (!props.isRestoreOnStartup()) return;
+
+        List<OrderEntity> open;
+        try {
+            open = orderRepository.findByStatusIn(OPEN_STATUSES);
+        } catch (Exception e) {
+            log.warn("⚠️ paper orders restore skipped: {}", e.getMessage());
+            return;
+        }
+
+        Map<Long, ChatExecutionContext.FeeTier> fees = new HashMap<>();
+        int restored = 0;
+
+        for (OrderEntity o : open) {
+            try {
+                ChatExecutionContext.FeeTier f = fees.computeIfAbsent(o.getChatId(), this::feesOf);
+                engine.restore(o, f);
+                restored++;
+            } catch (Exception e) {
+                log.warn("⚠️ paper order #{} not restored: {}", o.getId(), e.getMessage());
+            }
+        }
+
+        if (restored > 0) log.info("🧮 paper orders restored: {}", restored);
+    }
+
+    private ChatExecutionContext.FeeTier feesOf(Long chatId) {
+        try {
+            return executionContexts.forChat(chatId).fees();
+        } catch (Exception e) {
+            return ChatExecutionContext.FeeTier.UNKNOWN;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                log.warn("⚠️ paper fills: {} not recorded on shutdown", writer.shutdownNow().size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.chicu.aitradebot.trade.paper;
+
+import com.chicu.aitradebot.common.enums.StrategyType;
+import com.chicu.aitradebot.domain.OrderEntity;
+import com.chicu.aitradebot.service.order.ChatExecutionContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 🧮 Бумажный matching engine: лимитки и OCO из OrderServiceImpl исполняются против ленты aggTrade.
+ *
+ * ❗ Правила:
+ *  - один PaperOrderBook на символ (общий для всех чатов — биржевой стакан тоже общий), замок — на стакан
+ *  - сделка ленты без исполнений — O(log n) (см. PaperOrderBook), лента не ждёт БД
+ *  - maker / taker комиссии — тариф аккаунта из ChatExecutionContext, биржа не отдала → paper.matching.default-*
+ *  - каждое исполнение → Spring-событие PaperFillEvent (PaperFillRecorder пишет его в orders)
+ */
+@Slf4j
+@Component
+public class PaperMatchingEngine {
+
+    private final PaperMatchingProperties props;
+    private final ApplicationEventPublisher events;
+
+    private final Map<String, PaperOrderBook> books = new ConcurrentHashMap<>();
+
+    private final LongAdder fills = new LongAdder();
+    private final LongAdder trades = new LongAdder();
+
+    public PaperMatchingEngine(PaperMatchingProperties props,
+                               ApplicationEventPublisher events,
+                               MeterRegistry registry) {
+        this.props = props;
+        this.events = events;
+
+        FunctionCounter.builder("paper.engine.fills", fills, LongAdder::sum)
+                .description("Paper order fills (partial and full)")
+                .register(registry);
+        FunctionCounter.builder("paper.engine.trades", trades, LongAdder::sum)
+                .description("Tape trades matched against paper order books")
+                .register(registry);
+        Gauge.builder("paper.engine.resting", this, PaperMatchingEngine::resting)
+                .description("Paper orders resting in all books")
+                .register(registry);
+    }
+
+    // =====================================================
+    // ORDERS
+    // =====================================================
+
+    /**
+     * Лимитка. Исполнима против последней цены → сразу taker-исполнение (оно же в результате),
+     * иначе встаёт в стакан.
+     */
+    public List<PaperFillEvent> submitLimit(long orderId,
+                                            long chatId,
+                                            StrategyType strategyType,
+                                            String symbol,
+                                            String side,
+                                            BigDecimal qty,
+                                            BigDecimal limitPrice,
+                                            ChatExecutionContext.FeeTier fees) {
+        requirePositive(qty, "qty");
+        requirePositive(limitPrice, "limitPrice");
+
+        ChatExecutionContext.FeeTier f = feesOrDefault(fees);
+        PaperOrder o = new PaperOrder(orderId, chatId, strategyType, "BUY".equals(side),
+                PaperFillEvent.Leg.LIMIT, qty, limitPrice, null, f.makerPct(), f.takerPct());
+
+        return publish(book(symbol).add(o, Instant.now()));
+    }
+
+    /**
+     * OCO на продажу: TAKE_PROFIT — лимитка по takeProfitPrice, STOP_LOSS — стоп по stopPrice,
+     * после срабатывания лимит stopLimitPrice (null → по рынку). Одна нога исполнилась / сработала — вторая снята.
+     */
+    public List<PaperFillEvent> submitOco(long orderId,
+                                          long chatId,
+                                          StrategyType strategyType,
+                                          String symbol,
+                                          BigDecimal qty,
+                                          BigDecimal takeProfitPrice,
+                                          BigDecimal stopPrice,
+                                          BigDecimal stopLimitPrice,
+                                          ChatExecutionContext.FeeTier fees) {
+        requirePositive(qty, "qty");
+        requirePositive(takeProfitPrice, "takeProfitPrice");
+        requirePositive(stopPrice, "stopPrice");
+
+        ChatExecutionContext.FeeTier f = feesOrDefault(fees);
+        PaperOrder tp = new PaperOrder(orderId, chatId, strategyType, false,
+                PaperFillEvent.Leg.TAKE_PROFIT, qty, takeProfitPrice, null, f.makerPct(), f.takerPct());
+        PaperOrder sl = new PaperOrder(orderId, chatId, strategyType, false,
+                PaperFillEvent.Leg.STOP_LOSS, qty, stopLimitPrice, stopPrice, f.makerPct(), f.takerPct());
+
+        return publish(book(symbol).addOco(tp, sl, Instant.now()));
+    }
+
+    /**
+     * Открытый ордер из БД (после рестарта) обратно в стакан — с уже исполненной частью.
+     * OCO с частичным исполнением: частичным бывает только TAKE_PROFIT, стоп к этому моменту уже снят.
+     */
+    public List<PaperFillEvent> restore(OrderEntity e, ChatExecutionContext.FeeTier fees) {
+        ChatExecutionContext.FeeTier f = feesOrDefault(fees);
+        StrategyType st = strategyOf(e.getStrategyType());
+        BigDecimal executed = e.getExecutedQty() == null ? BigDecimal.ZERO : e.getExecutedQty();
+        boolean oco = e.getTakeProfitPrice() != null && e.getStopLossPrice() != null;
+
+        PaperOrder primary = new PaperOrder(e.getId(), e.getChatId(), st, "BUY".equals(e.getSide()),
+                oco ? PaperFillEvent.Leg.TAKE_PROFIT : PaperFillEvent.Leg.LIMIT,
+                e.getQuantity(), oco ? e.getTakeProfitPrice() : e.getPrice(), null, f.makerPct(), f.takerPct());
+        prefill(primary, executed, e.getAvgPrice(), e.getCommission());
+
+        if (primary.remaining().signum() <= 0) return List.of();
+
+        if (!oco || executed.signum() > 0) {
+            return publish(book(e.getSymbol()).add(primary, Instant.now()));
+        }
+
+        // в БД лежит одна цена SL (stopLimit ?: stop) — после рестарта стоп исполняется по рынку
+        PaperOrder sl = new PaperOrder(e.getId(), e.getChatId(), st, false,
+                PaperFillEvent.Leg.STOP_LOSS, e.getQuantity(), null, e.getStopLossPrice(), f.makerPct(), f.takerPct());
+        return publish(book(e.getSymbol()).addOco(primary, sl, Instant.now()));
+    }
+
+    public boolean cancel(String symbol, long orderId) {
+        PaperOrderBook b = books.get(norm(symbol));
+        return b != null && b.cancel(orderId);
+    }
+
+    public int cancelAll(long chatId, String symbol) {
+        PaperOrderBook b = books.get(norm(symbol));
+        return b == null ? 0 : b.cancelChat(chatId).size();
+    }
+
+    // =====================================================
+    // MARKET DATA
+    // =====================================================
+
+    /**
+     * Сделка ленты (aggTrade). tradeId — id aggTrade или -1, если его нет.
+     */
+    public void onTrade(String symbol, long tradeId, BigDecimal price, BigDecimal qty, Instant time) {
+        if (symbol == null || price == null || price.signum() <= 0) return;
+
+        List<PaperFillEvent> out = book(symbol).onTrade(tradeId, price, qty, time);
+        trades.increment();
+        if (!out.isEmpty()) publish(out);
+    }
+
+    public BigDecimal lastPrice(String symbol) {
+        PaperOrderBook b = books.get(norm(symbol));
+        return b == null ? null : b.lastPrice();
+    }
+
+    public int resting() {
+        int n = 0;
+        for (PaperOrderBook b : books.values()) n += b.size();
+        return n;
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    private List<PaperFillEvent> publish(List<PaperFillEvent> out) {
+        for (PaperFillEvent e : out) {
+            fills.increment();
+            log.info("🧮 PAPER FILL #{} {} {} {} qty={} @ {} {} fee={} cum={}/{}{}",
+                    e.orderId(), e.symbol(), e.side(), e.leg(),
+                    e.qty().stripTrailingZeros().toPlainString(),
+                    e.price().stripTrailingZeros().toPlainString(),
+                    e.maker() ? "maker" : "taker",
+                    e.fee().stripTrailingZeros().toPlainString(),
+                    e.executedQty().stripTrailingZeros().toPlainString(),
+                    e.orderQty().stripTrailingZeros().toPlainString(),
+                    e.done() ? " FILLED" : "");
+            try {
+                events.publishEvent(e);
+            } catch (Exception ex) {
+                log.warn("⚠️ PaperFillEvent listener failed #{}: {}", e.orderId(), ex.getMessage());
+            }
+        }
+        return out;
+    }
+
+    private PaperOrderBook book(String symbol) {
+        return books.computeIfAbsent(norm(symbol), PaperOrderBook::new);
+    }
+
+    private static void prefill(PaperOrder o, BigDecimal executed, BigDecimal avgPrice, BigDecimal fee) {
+        if (executed.signum() <= 0) return;
+        o.executed = executed;
+        o.notional = avgPrice == null ? BigDecimal.ZERO : executed.multiply(avgPrice);
+        o.fee = fee == null ? BigDecimal.ZERO : fee;
+    }
+
+    private static StrategyType strategyOf(String name) {
+        try {
+            return StrategyType.valueOf(name);
+        } catch (Exception ignored) {
+            return StrategyType.values()[0];
+        }
+    }
+
+    private ChatExecutionContext.FeeTier feesOrDefault(ChatExecutionContext.FeeTier fees) {
+        if (fees != null && fees.known()) return fees;
+        return new ChatExecutionContext.FeeTier(props.getDefaultMakerPct(), props.getDefaultTakerPct());
+    }
+
+    private static void requirePositive(BigDecimal v, String name) {
+        if (v == null || v.signum() <= 0) throw new IllegalArgumentException(name + " must be > 0");
+    }
+
+    private static String norm(String symbol) {
+        return symbol == null ? "" : symbol.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,27 @@
+package com.chicu.aitradebot.trade.paper;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+
+@Data
+@ConfigurationProperties(prefix = "paper.matching")
+public class PaperMatchingProperties {
+
+    /**
+     * Maker-комиссия в %, если биржа не отдала комиссии аккаунта
+     * (то же значение по умолчанию, что у RealFeeService).
+     */
+    private BigDecimal defaultMakerPct = new BigDecimal("0.1");
+
+    /**
+     * Taker-комиссия в %, если биржа не отдала комиссии аккаунта.
+     */
+    private BigDecimal defaultTakerPct = new BigDecimal("0.1");
+
+    /**
+     * Поднимать в стакан открытые (NEW / PARTIALLY_FILLED) ордера из БД при старте.
+     */
+    private boolean restoreOnStartup = true;
+}
@@ -0,0 +1,86 @@
+package com.chicu.aitradebot.trade.paper;
+
+import com.chicu.aitradebot.common.enums.StrategyType;
+
+import java.math.BigDecimal;
+
+/**
+ * 📄 Заявка (или нога OCO) в бумажном стакане. Изменяется только под замком PaperOrderBook.
+ *
+ *  - stopPrice == null → обычный лимит по limitPrice
+ *  - stopPrice != null → стоп: после срабатывания становится лимитом по limitPrice
+ *    (stop-limit) или исполняется по рынку (limitPrice == null)
+ *  - sibling → вторая нога OCO: исполнение / срабатывание одной снимает другую
+ */
+final class PaperOrder {
+
+    final long orderId;
+    final long chatId;
+    final StrategyType strategyType;
+    final boolean buy;
+    final PaperFillEvent.Leg leg;
+    final BigDecimal qty;
+    final BigDecimal limitPrice;
+    final BigDecimal stopPrice;
+    final BigDecimal makerPct;
+    final BigDecimal takerPct;
+
+    PaperOrder sibling;
+    boolean triggered;
+    boolean closed;
+
+    BigDecimal executed = BigDecimal.ZERO;
+    BigDecimal notional = BigDecimal.ZERO;
+    BigDecimal fee = BigDecimal.ZERO;
+
+    PaperOrder(long orderId,
+               long chatId,
+               StrategyType strategyType,
+               boolean buy,
+               PaperFillEvent.Leg leg,
+               BigDecimal qty,
+               BigDecimal limitPrice,
+               BigDecimal stopPrice,
+               BigDecimal makerPct,
+               BigDecimal takerPct) {
+        this.orderId = orderId;
+        this.chatId = chatId;
+        this.strategyType = strategyType;
+        this.buy = buy;
+        this.leg = leg;
+        this.qty = qty;
+        this.limitPrice = limitPrice;
+        this.stopPrice = stopPrice;
+        this.makerPct = makerPct;
+        this.takerPct = takerPct;
+    }
+
+    BigDecimal remaining() {
+        return qty.subtract(executed);
+    }
+
+    boolean isStop() {
+        return stopPrice != null && !triggered;
+    }
+
+    /**
+     * Стоп сработал: SELL — цена опустилась до стопа, BUY — поднялась.
+     */
+    boolean stopHit(BigDecimal price) {
+        int c = price.compareTo(stopPrice);
+        return buy ? c >= 0 : c <= 0;
+    }
+
+    /**
+     * Лимит исполним против цены как taker (или рыночный после стопа).
+     */
+    boolean marketable(BigDecimal price) {
+        if (limitPrice == null) return true;
+        int c = price.compareTo(limitPrice);
+        return buy ? c <= 0 : c >= 0;
+    }
+
+    String side() {
+        return buy ? "BUY" : "SELL";
+    }
+}
@@ -0,0 +1,294 @@
+package com.chicu.aitradebot.trade.paper;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 📚 Бумажный стакан одного символа: лимитки по уровням цены (price-time priority) и стопы по цене срабатывания.
+ *
+ * Все четыре карты отсортированы так, что «задетые» ценой уровни — это префикс карты:
+ *  - bids      (по убыванию)  — исполняются, когда сделка прошла по цене ≤ уровня
+ *  - asks      (по возрастанию) — сделка по цене ≥ уровня
+ *  - sellStops (по убыванию)  — срабатывают при цене ≤ стопа
+ *  - buyStops  (по возрастанию) — при цене ≥ стопа
+ * Поэтому сделка без исполнений стоит четыре firstKey() — O(log n), сколько бы лимиток сетки ни стояло.
+ *
+ * ❗ Модель исполнения (консервативная):
+ *  - цена прошла сквозь уровень → заявки уровня исполняются целиком (maker, по своей цене)
+ *  - цена коснулась уровня → исполняется не больше объёма сделки (позиция в очереди неизвестна) — частичные исполнения
+ *  - заявка, исполнимая сразу против последней цены, и сработавший стоп — taker по последней цене
+ *  - объём сделки неизвестен (0) → касание исполняет уровень целиком
+ */
+final class PaperOrderBook {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+    private static final int SCALE = 12;
+
+    private final String symbol;
+
+    private final TreeMap<BigDecimal, ArrayDeque<PaperOrder>> bids = new TreeMap<>(Comparator.reverseOrder());
+    private final TreeMap<BigDecimal, ArrayDeque<PaperOrder>> asks = new TreeMap<>();
+    private final TreeMap<BigDecimal, ArrayDeque<PaperOrder>> sellStops = new TreeMap<>(Comparator.reverseOrder());
+    private final TreeMap<BigDecimal, ArrayDeque<PaperOrder>> buyStops = new TreeMap<>();
+
+    /** orderId → живая нога (для OCO — та, что ещё может исполниться) */
+    private final Map<Long, PaperOrder> byId = new HashMap<>();
+
+    private BigDecimal lastPrice;
+    private long lastTradeId = -1;
+
+    PaperOrderBook(String symbol) {
+        this.symbol = symbol;
+    }
+
+    // =====================================================
+    // ORDERS
+    // =====================================================
+
+    synchronized List<PaperFillEvent> add(PaperOrder order, Instant now) {
+        List<PaperFillEvent> out = new ArrayList<>(1);
+        byId.put(order.orderId, order);
+        accept(order, now, out);
+        return out;
+    }
+
+    synchronized List<PaperFillEvent> addOco(PaperOrder takeProfit, PaperOrder stop, Instant now) {
+        takeProfit.sibling = stop;
+        stop.sibling = takeProfit;
+
+        List<PaperFillEvent> out = new ArrayList<>(1);
+        byId.put(takeProfit.orderId, takeProfit);
+
+        // стоп первым: если цена уже за стопом — TP снимается и в стакан не попадает
+        accept(stop, now, out);
+        accept(takeProfit, now, out);
+        return out;
+    }
+
+    synchronized boolean cancel(long orderId) {
+        PaperOrder o = byId.remove(orderId);
+        if (o == null) return false;
+
+        detach(o);
+        if (o.sibling != null) detach(o.sibling);
+        return true;
+    }
+
+    synchronized List<Long> cancelChat(long chatId) {
+        List<Long> ids = new ArrayList<>();
+        for (PaperOrder o : byId.values()) {
+            if (o.chatId == chatId) ids.add(o.orderId);
+        }
+        ids.forEach(this::cancel);
+        return ids;
+    }
+
+    synchronized int size() {
+        return byId.size();
+    }
+
+    synchronized BigDecimal lastPrice() {
+        return lastPrice;
+    }
+
+    // =====================================================
+    // MARKET DATA
+    // =====================================================
+
+    /**
+     * Сделка с ленты. tradeId ≥ 0 — id aggTrade: одна сделка приходит по каждой подписке, матчим её один раз.
+     */
+    synchronized List<PaperFillEvent> onTrade(long tradeId, BigDecimal price, BigDecimal qty, Instant time) {
+        if (tradeId >= 0) {
+            if (tradeId <= lastTradeId) return List.of();
+            lastTradeId = tradeId;
+        }
+
+        lastPrice = price;
+        if (byId.isEmpty()) return List.of();
+
+        List<PaperFillEvent> out = new ArrayList<>(0);
+
+        triggerStops(sellStops, true, price, time, out);
+        triggerStops(buyStops, false, price, time, out);
+
+        matchLevels(bids, true, price, qty, time, out);
+        matchLevels(asks, false, price, qty, time, out);
+
+        return out;
+    }
+
+    // =====================================================
+    // MATCHING
+    // =====================================================
+
+    private void accept(PaperOrder o, Instant now, List<PaperFillEvent> out) {
+        if (o.closed) return;
+
+        if (o.isStop()) {
+            if (lastPrice != null && o.stopHit(lastPrice)) {
+                trigger(o, lastPrice, now, out);
+            } else {
+                insert(o.buy ? buyStops : sellStops, o.stopPrice, o);
+            }
+            return;
+        }
+
+        if (lastPrice != null && o.marketable(lastPrice)) {
+            fill(o, o.remaining(), lastPrice, false, now, out);
+            return;
+        }
+
+        insert(o.buy ? bids : asks, o.limitPrice, o);
+    }
+
+    private void trigger(PaperOrder o, BigDecimal price, Instant time, List<PaperFillEvent> out) {
+        o.triggered = true;
+        cancelSibling(o);
+
+        if (o.marketable(price)) {
+            fill(o, o.remaining(), price, false, time, out);
+        } else {
+            // stop-limit с лимитом хуже рынка — ждёт в стакане как обычная лимитка
+            insert(o.buy ? bids : asks, o.limitPrice, o);
+        }
+    }
+
+    private void triggerStops(TreeMap<BigDecimal, ArrayDeque<PaperOrder>> stops,
+                              boolean descending,
+                              BigDecimal price,
+                              Instant time,
+                              List<PaperFillEvent> out) {
+        while (!stops.isEmpty() && crossed(stops.firstKey(), descending, price) >= 0) {
+            ArrayDeque<PaperOrder> level = stops.pollFirstEntry().getValue();
+            for (PaperOrder o : level) {
+                if (!o.closed) trigger(o, price, time, out);
+            }
+        }
+    }
+
+    private void matchLevels(TreeMap<BigDecimal, ArrayDeque<PaperOrder>> side,
+                             boolean descending,
+                             BigDecimal price,
+                             BigDecimal qty,
+                             Instant time,
+                             List<PaperFillEvent> out) {
+        BigDecimal budget = (qty == null || qty.signum() <= 0) ? null : qty;
+
+        while (!side.isEmpty()) {
+            BigDecimal levelPrice = side.firstKey();
+            int c = crossed(levelPrice, descending, price);
+            if (c < 0) return;
+
+            ArrayDeque<PaperOrder> level = side.get(levelPrice);
+            while (!level.isEmpty()) {
+                PaperOrder o = level.peekFirst();
+
+                BigDecimal take = o.remaining();
+                if (c == 0 && budget != null) {
+                    if (budget.signum() <= 0) return;
+                    take = take.min(budget);
+                    budget = budget.subtract(take);
+                }
+
+                fill(o, take, o.limitPrice, true, time, out);
+                if (o.remaining().signum() > 0) return;
+
+                level.pollFirst();
+            }
+            side.remove(levelPrice);
+        }
+    }
+
+    /**
+     * > 0 — цена прошла сквозь уровень, 0 — коснулась, < 0 — не дошла.
+     */
+    private static int crossed(BigDecimal level, boolean descending, BigDecimal price) {
+        int c = level.compareTo(price);
+        return descending ? c : -c;
+    }
+
+    private void fill(PaperOrder o, BigDecimal qty, BigDecimal price, boolean maker, Instant time, List<PaperFillEvent> out) {
+        if (qty.signum() <= 0) return;
+
+        BigDecimal pct = maker ? o.makerPct : o.takerPct;
+        BigDecimal fee = qty.multiply(price).multiply(pct).divide(HUNDRED, SCALE, RoundingMode.HALF_UP);
+
+        o.executed = o.executed.add(qty);
+        o.notional = o.notional.add(qty.multiply(price));
+        o.fee = o.fee.add(fee);
+
+        cancelSibling(o);
+
+        boolean done = o.remaining().signum() <= 0;
+        if (done) {
+            o.closed = true;
+            byId.remove(o.orderId);
+        }
+
+        out.add(new PaperFillEvent(
+                o.orderId,
+                o.chatId,
+                o.strategyType,
+                symbol,
+                o.side(),
+                o.leg,
+                qty,
+                price,
+                maker,
+                fee,
+                o.qty,
+                o.executed,
+                o.notional.divide(o.executed, SCALE, RoundingMode.HALF_UP),
+                o.fee,
+                done,
+                time
+        ));
+    }
+
+    // =====================================================
+    // STRUCTURE
+    // =====================================================
+
+    private void cancelSibling(PaperOrder o) {
+        PaperOrder s = o.sibling;
+        if (s == null) return;
+
+        o.sibling = null;
+        s.sibling = null;
+        detach(s);
+
+        if (byId.get(o.orderId) == s) byId.put(o.orderId, o);
+    }
+
+    private void detach(PaperOrder o) {
+        if (o.closed) return;
+        o.closed = true;
+
+        if (o.isStop()) {
+            remove(o.buy ? buyStops : sellStops, o.stopPrice, o);
+        } else {
+            remove(o.buy ? bids : asks, o.limitPrice, o);
+        }
+    }
+
+    private static void insert(TreeMap<BigDecimal, ArrayDeque<PaperOrder>> side, BigDecimal price, PaperOrder o) {
+        side.computeIfAbsent(price, k -> new ArrayDeque<>()).addLast(o);
+    }
+
+    private static void remove(TreeMap<BigDecimal, ArrayDeque<PaperOrder>> side, BigDecimal price, PaperOrder o) {
+        ArrayDeque<PaperOrder> level = side.get(price);
+        if (level == null) return;
+
+        level.remove(o);
+        if (level.isEmpty()) side.remove(price);
+    }
+}
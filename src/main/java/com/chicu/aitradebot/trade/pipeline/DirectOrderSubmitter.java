@@ -0,0 +1,36 @@
+package com.chicu.aitradebot.trade.pipeline;
+
+import com.chicu.aitradebot.trade.TradeExecutionService;
+
+/**
+ * ⏩ Исполнение intent'а сразу в потоке вызывающего — для песочницы (PaperTradeExecutionService):
+ * виртуальное время replay не должно зависеть от пула потоков, handle возвращается уже завершённым.
+ * Не Spring-бин.
+ */
+public final class DirectOrderSubmitter implements OrderSubmitter {
+
+    private final TradeExecutionService execution;
+
+    public DirectOrderSubmitter(TradeExecutionService execution) {
+        this.execution = execution;
+    }
+
+    @Override
+    public OrderHandle submit(OrderIntent intent) {
+        OrderHandle handle = new OrderHandle(intent);
+
+        long started = System.nanoTime();
+        OrderFillEvent ev;
+        try {
+            ev = switch (intent.kind()) {
+                case ENTRY -> OrderFillEvent.ofEntry(intent, execution.entry(intent), 0L, System.nanoTime() - started);
+                case EXIT -> OrderFillEvent.ofExit(intent, execution.exit(intent), 0L, System.nanoTime() - started);
+            };
+        } catch (Exception e) {
+            ev = OrderFillEvent.rejected(intent, "error: " + e.getMessage());
+        }
+
+        handle.complete(ev);
+        return handle;
+    }
+}
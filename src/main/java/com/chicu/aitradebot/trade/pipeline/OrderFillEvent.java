@@ -0,0 +1,47 @@
+package com.chicu.aitradebot.trade.pipeline;
+
+import com.chicu.aitradebot.trade.EntryResult;
+import com.chicu.aitradebot.trade.ExitResult;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * ✅ Итог исполнения OrderIntent — приходит стратегии через OrderHandle
+ * и публикуется как Spring-событие (журналы, UI; книга позиций учитывает ордер раньше — в OrderServiceImpl.placeMarket).
+ *
+ * executed=false → ордер не выставлен, причина в reason
+ * (валидация, бюджет, in-flight, переполнение очереди, ошибка биржи).
+ */
+public record OrderFillEvent(
+        OrderIntent intent,
+        boolean executed,
+        String side,
+        BigDecimal qty,
+        BigDecimal price,
+        BigDecimal tp,
+        BigDecimal sl,
+        boolean tpHit,
+        boolean slHit,
+        Long orderId,
+        String reason,
+        Instant completedAt,
+        long queueNanos,
+        long execNanos
+) {
+
+    static OrderFillEvent ofEntry(OrderIntent intent, EntryResult r, long queueNanos, long execNanos) {
+        return new OrderFillEvent(intent, r.executed(), r.side(), r.qty(), r.entryPrice(), r.tp(), r.sl(),
+                false, false, r.orderId(), r.reason(), Instant.now(), queueNanos, execNanos);
+    }
+
+    static OrderFillEvent ofExit(OrderIntent intent, ExitResult r, long queueNanos, long execNanos) {
+        return new OrderFillEvent(intent, r.executed(), "SELL", intent.entryQty(), r.exitPrice(), intent.tp(), intent.sl(),
+                r.tpHit(), r.slHit(), null, r.reason(), Instant.now(), queueNanos, execNanos);
+    }
+
+    static OrderFillEvent rejected(OrderIntent intent, String reason) {
+        return new OrderFillEvent(intent, false, null, null, null, null, null,
+                false, false, null, reason, Instant.now(), 0L, 0L);
+    }
+}
@@ -0,0 +1,53 @@
+package com.chicu.aitradebot.trade.pipeline;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * 🎫 Квитанция на отправленный OrderIntent.
+ *
+ * Стратегия не ждёт биржу: сохраняет handle и на следующем тике проверяет poll().
+ * Так состояние стратегии меняется только в её собственном потоке тиков.
+ * onFill(...) — для тех, кому нужен колбэк (выполняется в потоке исполнителя ордеров).
+ */
+public final class OrderHandle {
+
+    private final OrderIntent intent;
+    private final CompletableFuture<OrderFillEvent> result = new CompletableFuture<>();
+
+    OrderHandle(OrderIntent intent) {
+        this.intent = intent;
+    }
+
+    public OrderIntent intent() {
+        return intent;
+    }
+
+    public String intentId() {
+        return intent.intentId();
+    }
+
+    public boolean isDone() {
+        return result.isDone();
+    }
+
+    /**
+     * @return итог исполнения или null, если ордер ещё в работе
+     */
+    public OrderFillEvent poll() {
+        return result.getNow(null);
+    }
+
+    public OrderHandle onFill(Consumer<OrderFillEvent> listener) {
+        result.thenAccept(listener);
+        return this;
+    }
+
+    public CompletableFuture<OrderFillEvent> future() {
+        return result.copy();
+    }
+
+    void complete(OrderFillEvent ev) {
+        result.complete(ev);
+    }
+}
@@ -0,0 +1,44 @@
+package com.chicu.aitradebot.trade.pipeline;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 🚧 Не больше одного ордера «в полёте» на (chatId, symbol).
+ *
+ * Пока вход/выход по символу не исполнен, повторный intent (следующий тик с тем же сигналом,
+ * вторая стратегия того же чата) отклоняется сразу, не доходя до баланса и биржи.
+ * Общий для асинхронного конвейера и синхронного TradeExecutionServiceImpl.
+ */
+@Component
+public class OrderInFlightGuard {
+
+    private record Key(long chatId, String symbol) {
+    }
+
+    /** key → intentId владельца */
+    private final Map<Key, String> inFlight = new ConcurrentHashMap<>();
+
+    public boolean tryAcquire(Long chatId, String symbol, String intentId) {
+        return inFlight.putIfAbsent(key(chatId, symbol), intentId) == null;
+    }
+
+    public void release(Long chatId, String symbol, String intentId) {
+        inFlight.remove(key(chatId, symbol), intentId);
+    }
+
+    public boolean isBusy(Long chatId, String symbol) {
+        return inFlight.containsKey(key(chatId, symbol));
+    }
+
+    public int size() {
+        return inFlight.size();
+    }
+
+    private static Key key(Long chatId, String symbol) {
+        return new Key(chatId, symbol.trim().toUpperCase(Locale.ROOT));
+    }
+}
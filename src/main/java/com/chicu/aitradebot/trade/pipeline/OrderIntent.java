@@ -0,0 +1,104 @@
+package com.chicu.aitradebot.trade.pipeline;
+
+import com.chicu.aitradebot.common.enums.NetworkType;
+import com.chicu.aitradebot.common.enums.StrategyType;
+import com.chicu.aitradebot.domain.StrategySettings;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * 📨 Намерение стратегии выставить ордер (неизменяемое).
+ *
+ * ❗ Всё, что нужно исполнителю, копируется в момент создания:
+ *  - StrategySettings — JPA-сущность, её нельзя отдавать в другой поток
+ *  - стратегия может менять своё состояние дальше, intent от этого не зависит
+ *
+ * ENTRY: бюджет/qty/TP/SL считает исполнитель (TradeExecutionServiceImpl) по снимку настроек.
+ * EXIT:  qty известна стратегии, TP/SL — только для проверки «сработало ли» на цене intent'а.
+ */
+public record OrderIntent(
+        String intentId,
+        Kind kind,
+
+        Long chatId,
+        StrategyType strategyType,
+        String symbol,
+
+        BigDecimal price,           // цена тика, на котором принято решение
+        BigDecimal diffPct,         // ENTRY: сила сигнала (>0 — рост)
+        Instant time,               // время тика
+        long submittedAtNanos,      // System.nanoTime() при создании (задержка очереди)
+
+        // ===== снимок StrategySettings (ENTRY) =====
+        String exchangeName,
+        NetworkType networkType,
+        BigDecimal riskPerTradePct,
+        BigDecimal maxExposureUsd,
+        BigDecimal maxExposurePct,
+        String accountAsset,        // выбранный актив счёта (USDT/...) — баланс читается из памяти без БД
+        BigDecimal takeProfitPct,
+        BigDecimal stopLossPct,
+        BigDecimal trailingStopPct, // null — без трейлинга
+
+        // ===== EXIT =====
+        boolean isLong,
+        BigDecimal entryQty,
+        BigDecimal tp,
+        BigDecimal sl
+) {
+
+    public enum Kind {
+        ENTRY,
+        EXIT
+    }
+
+    public static OrderIntent entry(Long chatId,
+                                    StrategyType strategyType,
+                                    String symbol,
+                                    BigDecimal price,
+                                    BigDecimal diffPct,
+                                    Instant time,
+                                    StrategySettings ss,
+                                    BigDecimal takeProfitPct,
+                                    BigDecimal stopLossPct) {
+        return new OrderIntent(
+                newId(), Kind.ENTRY,
+                chatId, strategyType, symbol,
+                price, diffPct, time, System.nanoTime(),
+                ss != null ? ss.getExchangeName() : null,
+                ss != null ? ss.getNetworkType() : null,
+                ss != null ? ss.getRiskPerTradePct() : null,
+                ss != null ? ss.getMaxExposureUsd() : null,
+                ss != null ? ss.getMaxExposurePct() : null,
+                ss != null ? ss.getAccountAsset() : null,
+                takeProfitPct,
+                stopLossPct,
+                ss != null ? ss.getTrailingStopPct() : null,
+                true, null, null, null
+        );
+    }
+
+    public static OrderIntent exit(Long chatId,
+                                   StrategyType strategyType,
+                                   String symbol,
+                                   BigDecimal price,
+                                   Instant time,
+                                   boolean isLong,
+                                   BigDecimal entryQty,
+                                   BigDecimal tp,
+                                   BigDecimal sl) {
+        return new OrderIntent(
+                newId(), Kind.EXIT,
+                chatId, strategyType, symbol,
+                price, null, time, System.nanoTime(),
+                null, null, null, null, null, null, null, null, null,
+                isLong, entryQty, tp, sl
+        );
+    }
+
+    private static String newId() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,233 @@
+package com.chicu.aitradebot.trade.pipeline;
+
+import com.chicu.aitradebot.trade.TradeExecutionService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 🚀 Асинхронный конвейер ордеров: стратегия отдаёт OrderIntent и сразу получает OrderHandle,
+ * а баланс, AI-guard, REST биржи и запись в БД выполняются в пуле "order-exec-N".
+ *
+ * ❗ Правила:
+ *  - поток тиков никогда не ждёт биржу/БД
+ *  - один ордер в полёте на (chatId, symbol) — OrderInFlightGuard
+ *  - очередь ограничена: переполнение → отказ (queue_full), а не блокировка стратегии
+ *  - итог всегда приходит: OrderHandle + Spring-событие OrderFillEvent (в т.ч. отказы)
+ */
+@Slf4j
+@Service
+public class OrderPipeline implements OrderSubmitter {
+
+    private final TradeExecutionService execution;
+    private final OrderInFlightGuard guard;
+    private final ApplicationEventPublisher events;
+    private final OrderPipelineProperties props;
+
+    private final ThreadPoolExecutor pool;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejectedInFlight = new LongAdder();
+    private final LongAdder rejectedQueueFull = new LongAdder();
+
+    private final Timer queueTimer;
+    private final Timer execTimer;
+
+    public OrderPipeline(TradeExecutionService execution,
+                         OrderInFlightGuard guard,
+                         ApplicationEventPublisher events,
+                         OrderPipelineProperties props,
+                         MeterRegistry registry) {
+        this.execution = execution;
+        this.guard = guard;
+        this.events = events;
+        this.props = props;
+
+        int threads = Math.max(1, props.getThreads());
+        AtomicInteger seq = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, props.getQueueCapacity())),
+                r -> {
+                    Thread t = new Thread(r, "order-exec-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        FunctionCounter.builder("order.pipeline.submitted", submitted, LongAdder::sum)
+                .description("Order intents accepted into the pipeline")
+                .register(registry);
+        FunctionCounter.builder("order.pipeline.executed", executed, LongAdder::sum)
+                .description("Order intents placed on the exchange")
+                .register(registry);
+        FunctionCounter.builder("order.pipeline.failed", failed, LongAdder::sum)
+                .description("Order intents finished without an order (validation, budget, exchange error)")
+                .register(registry);
+        FunctionCounter.builder("order.pipeline.rejected.inflight", rejectedInFlight, LongAdder::sum)
+                .description("Order intents rejected: another order for chat/symbol in flight")
+                .register(registry);
+        FunctionCounter.builder("order.pipeline.rejected.queue", rejectedQueueFull, LongAdder::sum)
+                .description("Order intents rejected: pipeline queue full")
+                .register(registry);
+        Gauge.builder("order.pipeline.queue.size", pool, p -> p.getQueue().size())
+                .description("Order intents waiting for an executor thread")
+                .register(registry);
+
+        this.queueTimer = Timer.builder("order.pipeline.queue.latency")
+                .description("Time from intent creation to execution start")
+                .register(registry);
+        this.execTimer = Timer.builder("order.pipeline.exec.latency")
+                .description("Order intent execution time (balance, guard, REST, persistence)")
+                .register(registry);
+    }
+
+    // =====================================================
+    // PUBLIC API
+    // =====================================================
+
+    @Override
+    public OrderHandle submit(OrderIntent intent) {
+        if (intent == null || intent.kind() == null) {
+            throw new IllegalArgumentException("OrderIntent is null");
+        }
+
+        OrderHandle handle = new OrderHandle(intent);
+
+        if (intent.chatId() == null || intent.symbol() == null || intent.symbol().isBlank()) {
+            finish(handle, OrderFillEvent.rejected(intent, "chatId/symbol пустые"));
+            return handle;
+        }
+
+        if (!guard.tryAcquire(intent.chatId(), intent.symbol(), intent.intentId())) {
+            rejectedInFlight.increment();
+            finish(handle, OrderFillEvent.rejected(intent, "in_flight: ордер по символу ещё исполняется"));
+            return handle;
+        }
+
+        try {
+            pool.execute(new Job(handle));
+            submitted.increment();
+        } catch (RejectedExecutionException e) {
+            guard.release(intent.chatId(), intent.symbol(), intent.intentId());
+            rejectedQueueFull.increment();
+            log.warn("⚠️ ORDER PIPELINE queue full: {} {} chatId={} symbol={}",
+                    intent.kind(), intent.intentId(), intent.chatId(), intent.symbol());
+            finish(handle, OrderFillEvent.rejected(intent, "queue_full"));
+        }
+
+        return handle;
+    }
+
+    public boolean isInFlight(Long chatId, String symbol) {
+        return guard.isBusy(chatId, symbol);
+    }
+
+    // =====================================================
+    // EXECUTION
+    // =====================================================
+
+    private void run(OrderHandle handle) {
+        OrderIntent intent = handle.intent();
+
+        long started = System.nanoTime();
+        long queueNanos = Math.max(0L, started - intent.submittedAtNanos());
+        queueTimer.record(queueNanos, TimeUnit.NANOSECONDS);
+
+        OrderFillEvent ev;
+        try {
+            ev = switch (intent.kind()) {
+                case ENTRY -> OrderFillEvent.ofEntry(intent, execution.entry(intent), queueNanos, System.nanoTime() - started);
+                case EXIT -> OrderFillEvent.ofExit(intent, execution.exit(intent), queueNanos, System.nanoTime() - started);
+            };
+        } catch (Exception e) {
+            log.error("❌ ORDER PIPELINE {} failed intent={} chatId={} symbol={}: {}",
+                    intent.kind(), intent.intentId(), intent.chatId(), intent.symbol(), e.getMessage(), e);
+            ev = OrderFillEvent.rejected(intent, "error: " + e.getMessage());
+        } finally {
+            guard.release(intent.chatId(), intent.symbol(), intent.intentId());
+        }
+
+        execTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        (ev.executed() ? executed : failed).increment();
+
+        finish(handle, ev);
+    }
+
+    /**
+     * Задача пула с доступом к handle: shutdownNow() возвращает невыполненные задачи — их надо завершить.
+     */
+    private final class Job implements Runnable {
+
+        final OrderHandle handle;
+
+        Job(OrderHandle handle) {
+            this.handle = handle;
+        }
+
+        @Override
+        public void run() {
+            OrderPipeline.this.run(handle);
+        }
+    }
+
+    private void finish(OrderHandle handle, OrderFillEvent ev) {
+        handle.complete(ev);
+        try {
+            events.publishEvent(ev);
+        } catch (Exception e) {
+            log.warn("⚠️ OrderFillEvent listener failed intent={}: {}", ev.intent().intentId(), e.getMessage());
+        }
+    }
+
+    // =====================================================
+    // SHUTDOWN
+    // =====================================================
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(props.getShutdownTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                dropQueued(pool.shutdownNow());
+            }
+        } catch (InterruptedException e) {
+            dropQueued(pool.shutdownNow());
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Намерения, не дошедшие до исполнения: отказ "shutdown" (handle не висит вечно) и освобождение in-flight.
+     */
+    private void dropQueued(List<Runnable> queued) {
+        if (queued.isEmpty()) return;
+        log.warn("⚠️ ORDER PIPELINE: {} intents not executed on shutdown", queued.size());
+
+        for (Runnable r : queued) {
+            if (!(r instanceof Job job)) continue;
+            OrderIntent intent = job.handle.intent();
+
+            guard.release(intent.chatId(), intent.symbol(), intent.intentId());
+            failed.increment();
+            finish(job.handle, OrderFillEvent.rejected(intent, "shutdown"));
+        }
+    }
+}
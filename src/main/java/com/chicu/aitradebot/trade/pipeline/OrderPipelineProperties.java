@@ -0,0 +1,26 @@
+package com.chicu.aitradebot.trade.pipeline;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "trade.pipeline")
+public class OrderPipelineProperties {
+
+    /**
+     * Потоков исполнения ордеров (баланс, AI-guard, REST биржи, запись в БД).
+     * Ограничивает и параллельные запросы к биржам, и соединения к БД.
+     */
+    private int threads = 4;
+
+    /**
+     * Очередь intent'ов. Переполнение → intent отклоняется (queue_full),
+     * стратегия не блокируется.
+     */
+    private int queueCapacity = 1_000;
+
+    /**
+     * Сколько ждать исполнения уже принятых ордеров при остановке приложения (мс).
+     */
+    private long shutdownTimeoutMs = 10_000L;
+}
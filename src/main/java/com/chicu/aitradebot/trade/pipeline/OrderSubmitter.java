@@ -0,0 +1,12 @@
+package com.chicu.aitradebot.trade.pipeline;
+
+/**
+ * 📤 Куда стратегия отдаёт OrderIntent.
+ *
+ * Live — OrderPipeline (пул исполнителей), песочница — DirectOrderSubmitter
+ * (бумажное исполнение сразу, в потоке replay).
+ */
+public interface OrderSubmitter {
+
+    OrderHandle submit(OrderIntent intent);
+}
@@ -0,0 +1,88 @@
+package com.chicu.aitradebot.trade.position;
+
+/**
+ * 📒 Позиция по средней цене (спот, только long).
+ *
+ * Пишет один поток за раз (synchronized apply), читают без блокировок: после каждого исполнения
+ * публикуется неизменяемый State через volatile.
+ *
+ *  - покупка: себестоимость += qty × price + комиссия; комиссия в базовом активе уменьшает qty
+ *  - продажа: realized += closeQty × (price − avgCost) − комиссия; себестоимость уменьшается по avgCost
+ *  - продажа сверх учтённого qty — монеты, купленные вне бота: в позицию не попадают (и их комиссия тоже)
+ */
+final class Position {
+
+    /** остаток меньше этого — ошибка округления double, позиция закрыта */
+    private static final double DUST = 1e-10;
+
+    record State(double qty, double avgCost, double fees, double realizedPnl, double boughtNotional,
+                 long fills, long updatedAtMs) {
+
+        static final State EMPTY = new State(0, 0, 0, 0, 0, 0, 0);
+    }
+
+    static final class Mark {
+        volatile double price = Double.NaN;
+    }
+
+    final PositionKey key;
+    final Mark mark;
+
+    private double qty;
+    private double cost;
+    private double fees;
+    private double realized;
+    private double bought;
+    private long fills;
+
+    private volatile State state = State.EMPTY;
+
+    Position(PositionKey key, Mark mark) {
+        this.key = key;
+        this.mark = mark;
+    }
+
+    /**
+     * @param feeQuote комиссия в валюте котировки
+     * @param feeBase  комиссия в базовом активе (Binance берёт её с купленных монет)
+     */
+    synchronized void apply(boolean buy, double fillQty, double price, double feeQuote, double feeBase, long timeMs) {
+        if (!(fillQty > 0) || !(price > 0)) return;
+
+        double feeTotal = feeQuote + feeBase * price;
+
+        if (buy) {
+            cost += fillQty * price + feeQuote;
+            qty += fillQty - feeBase;
+            bought += fillQty * price;
+        } else {
+            double close = Math.min(qty, fillQty);
+            if (close <= 0) return;
+
+            // комиссия — только за учтённую часть
+            feeTotal *= close / fillQty;
+            double avg = cost / qty;
+
+            realized += close * (price - avg) - feeTotal;
+            cost -= close * avg;
+            qty -= close;
+        }
+
+        if (qty <= DUST) {
+            qty = 0;
+            cost = 0;
+        }
+
+        fees += feeTotal;
+        fills++;
+
+        state = new State(qty, qty > 0 ? cost / qty : 0.0, fees, realized, bought, fills, timeMs);
+    }
+
+    PositionSnapshot snapshot() {
+        State s = state;
+        return new PositionSnapshot(key.chatId(), key.exchange(), key.symbol(),
+                s.qty(), s.avgCost(), s.fees(), s.realizedPnl(), s.boughtNotional(),
+                mark.price, s.fills(), s.updatedAtMs());
+    }
+}
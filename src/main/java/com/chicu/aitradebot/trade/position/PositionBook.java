@@ -0,0 +1,146 @@
+package com.chicu.aitradebot.trade.position;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 📒 Книга позиций в памяти: (chatId, exchange, symbol) → количество, средняя цена, комиссии,
+ * реализованный и нереализованный PnL.
+ *
+ * ❗ Правила:
+ *  - пишут только исполнения (PositionFillListener), стратегии позиции не трогают
+ *  - цена ленты по символу (MarketStreamService) — одна запись на все позиции символа,
+ *    нереализованный PnL считается при чтении
+ *  - чтение (снимок, итоги чата) без блокировок и без БД: дашборды и риск-проверки
+ */
+@Component
+public class PositionBook {
+
+    private final Map<PositionKey, Position> positions = new ConcurrentHashMap<>();
+    private final Map<Long, List<Position>> byChat = new ConcurrentHashMap<>();
+    private final Map<String, Position.Mark> marks = new ConcurrentHashMap<>();
+
+    private final LongAdder fills = new LongAdder();
+
+    public PositionBook(MeterRegistry registry) {
+        FunctionCounter.builder("positions.fills", fills, LongAdder::sum)
+                .description("Fills applied to the in-memory position book")
+                .register(registry);
+        Gauge.builder("positions.open", this, PositionBook::openCount)
+                .description("Open positions in the in-memory position book")
+                .register(registry);
+    }
+
+    // =====================================================
+    // WRITE
+    // =====================================================
+
+    /**
+     * Исполнение ордера.
+     *
+     * @param feeQuote комиссия в валюте котировки
+     * @param feeBase  комиссия в базовом активе
+     */
+    public void applyFill(PositionKey key, boolean buy, double qty, double price,
+                          double feeQuote, double feeBase, long timeMs) {
+        if (key == null || key.symbol().isEmpty()) return;
+
+        Position p = positions.computeIfAbsent(key, this::create);
+        p.apply(buy, qty, price, Math.max(0, feeQuote), Math.max(0, feeBase), timeMs);
+        fills.increment();
+
+        // цены ленты по символу ещё нет — цена исполнения лучше, чем ничего
+        if (Double.isNaN(p.mark.price) && price > 0) p.mark.price = price;
+    }
+
+    /**
+     * Цена ленты (aggTrade).
+     */
+    public void mark(String symbol, double price) {
+        if (symbol == null || !(price > 0)) return;
+        marks.computeIfAbsent(PositionKey.norm(symbol), k -> new Position.Mark()).price = price;
+    }
+
+    // =====================================================
+    // READ
+    // =====================================================
+
+    /**
+     * @return снимок позиции или null — исполнений по ней не было
+     */
+    public PositionSnapshot get(long chatId, String exchange, String symbol) {
+        Position p = positions.get(PositionKey.of(chatId, exchange, symbol));
+        return p == null ? null : p.snapshot();
+    }
+
+    /**
+     * Позиции чата (в т.ч. закрытые — с реализованным PnL).
+     */
+    public List<PositionSnapshot> positions(long chatId) {
+        List<Position> list = byChat.get(chatId);
+        if (list == null) return List.of();
+
+        List<PositionSnapshot> out = new ArrayList<>(list.size());
+        for (Position p : list) out.add(p.snapshot());
+        return out;
+    }
+
+    public PositionTotals totals(long chatId) {
+        List<Position> list = byChat.get(chatId);
+        if (list == null) return PositionTotals.EMPTY;
+
+        int open = 0;
+        double exposure = 0, cost = 0, realized = 0, unrealized = 0, fees = 0, bought = 0;
+
+        for (Position p : list) {
+            PositionSnapshot s = p.snapshot();
+            if (s.open()) {
+                open++;
+                exposure += s.marketValue();
+                cost += s.costBasis();
+                unrealized += s.unrealizedPnl();
+            }
+            realized += s.realizedPnl();
+            fees += s.fees();
+            bought += s.boughtNotional();
+        }
+
+        return new PositionTotals(open, exposure, cost, realized, unrealized, fees, bought);
+    }
+
+    /**
+     * Последняя цена символа (лента или исполнение), NaN — неизвестна.
+     */
+    public double markPrice(String symbol) {
+        if (symbol == null) return Double.NaN;
+        Position.Mark m = marks.get(PositionKey.norm(symbol));
+        return m == null ? Double.NaN : m.price;
+    }
+
+    public int openCount() {
+        int n = 0;
+        for (Position p : positions.values()) {
+            if (p.snapshot().open()) n++;
+        }
+        return n;
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    private Position create(PositionKey key) {
+        Position p = new Position(key, marks.computeIfAbsent(key.symbol(), k -> new Position.Mark()));
+        byChat.computeIfAbsent(key.chatId(), k -> new CopyOnWriteArrayList<>()).add(p);
+        return p;
+    }
+}
@@ -0,0 +1,211 @@
+package com.chicu.aitradebot.trade.position;
+
+import com.chicu.aitradebot.account.stream.ExchangeOrderUpdate;
+import com.chicu.aitradebot.service.order.ChatExecutionContext;
+import com.chicu.aitradebot.service.order.ChatExecutionContextCache;
+import com.chicu.aitradebot.trade.paper.PaperFillEvent;
+import com.chicu.aitradebot.trade.paper.PaperMatchingProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 📬 Исполнения → PositionBook.
+ *
+ *  - onMarketFill — каждый MARKET-ордер бота: OrderServiceImpl.placeMarket зовёт его после save
+ *    (стратегии напрямую и через конвейер, ручные ордера из веба — один путь, без двойного учёта)
+ *  - PaperFillEvent — бумажные LIMIT / OCO (PaperMatchingEngine)
+ *  - ExchangeOrderUpdate — ордера аккаунта на бирже (приватный поток)
+ *
+ * Ордера бота биржа не видит (OrderServiceImpl исполняет их сам), поэтому источники не пересекаются.
+ * Биржа позиции бота — активная связка чата (та же, что у OrderServiceImpl).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PositionFillListener {
+
+    private static final List<String> QUOTES = List.of("USDT", "USDC", "FDUSD", "BUSD", "TUSD", "DAI", "BTC", "ETH", "BNB", "EUR");
+
+    private static final Set<String> TERMINAL = Set.of("FILLED", "CANCELED", "REJECTED", "EXPIRED");
+
+    /** завершённые ордера помним, чтобы повтор события (переподключение потока) не задвоил исполнение */
+    private static final long DONE_TTL_MS = 10 * 60_000L;
+    private static final int PURGE_THRESHOLD = 4096;
+
+    private final PositionBook book;
+    private final ChatExecutionContextCache executionContexts;
+    private final PaperMatchingProperties paperProps;
+
+    /** накопленное исполнение ордеров биржи: события приходят с cumQty, позиции нужна дельта */
+    private final Map<String, Progress> exchangeOrders = new ConcurrentHashMap<>();
+
+    private static final class Progress {
+        double qty;
+        double notional;
+        double fee;
+        long doneAtMs;
+    }
+
+    // =====================================================
+    // BOT ORDERS
+    // =====================================================
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPaperFill(PaperFillEvent e) {
+        if (e == null || e.qty() == null || e.price() == null) return;
+
+        ChatExecutionContext ctx = context(e.chatId());
+        if (ctx == null) return;
+
+        book.applyFill(PositionKey.of(e.chatId(), ctx.exchange(), e.symbol()),
+                "BUY".equalsIgnoreCase(e.side()),
+                e.qty().doubleValue(), e.price().doubleValue(),
+                e.fee() != null ? e.fee().doubleValue() : 0.0, 0.0,
+                millis(e.time()));
+    }
+
+    /**
+     * Рыночный ордер бота (в т.ч. ручной из веба): комиссия — taker аккаунта.
+     * Внутри транзакции ордера — в книгу только после коммита (откат ордера позицию не трогает).
+     * Цены нет (ручной ордер без стакана) — последняя цена ленты.
+     */
+    public void onMarketFill(Long chatId, String symbol, String side, BigDecimal qty, BigDecimal price, Instant time) {
+        if (chatId == null || symbol == null || qty == null) return;
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyMarketFill(chatId, symbol, side, qty, price, time);
+                }
+            });
+        } else {
+            applyMarketFill(chatId, symbol, side, qty, price, time);
+        }
+    }
+
+    private void applyMarketFill(long chatId, String symbol, String side, BigDecimal qty, BigDecimal price, Instant time) {
+        double p = price != null && price.signum() > 0 ? price.doubleValue() : book.markPrice(symbol);
+        if (!(p > 0)) return;
+
+        ChatExecutionContext ctx = context(chatId);
+        if (ctx == null) return;
+
+        BigDecimal takerPct = ctx.fees().takerPct() != null ? ctx.fees().takerPct() : paperProps.getDefaultTakerPct();
+        double q = qty.doubleValue();
+        double fee = takerPct != null ? q * p * takerPct.doubleValue() / 100.0 : 0.0;
+
+        book.applyFill(PositionKey.of(chatId, ctx.exchange(), symbol), "BUY".equalsIgnoreCase(side),
+                q, p, fee, 0.0, millis(time));
+    }
+
+    // =====================================================
+    // EXCHANGE ORDERS
+    // =====================================================
+
+    @EventListener
+    public void onExchangeOrder(ExchangeOrderUpdate u) {
+        if (u == null || u.account() == null || u.symbol() == null || u.orderId() == null || u.cumQty() == null) return;
+
+        String id = u.account().chatId() + ":" + u.account().exchange() + ":" + u.account().network() + ":" + u.orderId();
+        boolean terminal = u.status() != null && TERMINAL.contains(u.status());
+
+        double cumQty = u.cumQty().doubleValue();
+        double qty;
+        double notional;
+        double fee;
+
+        if (exchangeOrders.size() > PURGE_THRESHOLD) purgeDone();
+
+        Progress p = exchangeOrders.computeIfAbsent(id, k -> new Progress());
+        synchronized (p) {
+            if (terminal && p.doneAtMs == 0) p.doneAtMs = System.currentTimeMillis();
+
+            qty = cumQty - p.qty;
+            if (qty <= 0) return;
+
+            double cumNotional = u.avgPrice() != null && u.avgPrice().signum() > 0
+                    ? cumQty * u.avgPrice().doubleValue()
+                    : p.notional + qty * (u.lastPrice() != null ? u.lastPrice().doubleValue() : 0.0);
+            notional = cumNotional - p.notional;
+
+            // Binance: n — комиссия последнего исполнения; Bybit: cumExecFee — накопленная
+            double f = u.fee() != null ? u.fee().doubleValue() : 0.0;
+            fee = u.lastQty() != null ? f : Math.max(0, f - p.fee);
+
+            p.qty = cumQty;
+            p.notional = cumNotional;
+            p.fee = u.lastQty() != null ? p.fee + f : f;
+        }
+
+        double price = u.lastQty() != null && u.lastPrice() != null && u.lastPrice().signum() > 0
+                ? u.lastPrice().doubleValue()
+                : notional / qty;
+        if (!(price > 0)) return;
+
+        String sym = PositionKey.norm(u.symbol());
+        String feeAsset = PositionKey.norm(u.feeAsset());
+        double feeQuote = 0.0;
+        double feeBase = 0.0;
+
+        if (fee > 0 && !feeAsset.isEmpty()) {
+            if (sym.endsWith(feeAsset)) {
+                feeQuote = fee;
+            } else if (sym.startsWith(feeAsset)) {
+                feeBase = fee;
+            } else {
+                feeQuote = fee * feeAssetPrice(sym, feeAsset);
+            }
+        }
+
+        book.applyFill(PositionKey.of(u.account().chatId(), u.account().exchange(), sym),
+                "BUY".equalsIgnoreCase(u.side()), qty, price, feeQuote, feeBase, u.time());
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    private void purgeDone() {
+        long cutoff = System.currentTimeMillis() - DONE_TTL_MS;
+        exchangeOrders.values().removeIf(p -> p.doneAtMs != 0 && p.doneAtMs < cutoff);
+    }
+
+    /**
+     * Цена актива комиссии (напр. BNB) в валюте котировки символа, 0 — неизвестна.
+     */
+    private double feeAssetPrice(String symbol, String feeAsset) {
+        for (String q : QUOTES) {
+            if (symbol.endsWith(q)) {
+                double m = book.markPrice(feeAsset + q);
+                return Double.isNaN(m) ? 0.0 : m;
+            }
+        }
+        return 0.0;
+    }
+
+    private ChatExecutionContext context(long chatId) {
+        try {
+            return executionContexts.forChat(chatId);
+        } catch (Exception e) {
+            log.debug("POSITION fill skipped chatId={}: {}", chatId, e.getMessage());
+            return null;
+        }
+    }
+
+    private static long millis(Instant t) {
+        return t != null ? t.toEpochMilli() : System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,17 @@
+package com.chicu.aitradebot.trade.position;
+
+import java.util.Locale;
+
+/**
+ * Позиция чата: (chatId, exchange, symbol). Сеть не входит — у чата одна активная связка на бирже.
+ */
+public record PositionKey(long chatId, String exchange, String symbol) {
+
+    public static PositionKey of(long chatId, String exchange, String symbol) {
+        return new PositionKey(chatId, norm(exchange), norm(symbol));
+    }
+
+    static String norm(String s) {
+        return s == null ? "" : s.trim().toUpperCase(Locale.ROOT);
+    }
+}
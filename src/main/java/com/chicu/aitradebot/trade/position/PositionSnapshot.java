@@ -0,0 +1,42 @@
+package com.chicu.aitradebot.trade.position;
+
+/**
+ * 📸 Неизменяемый снимок позиции (средняя цена, PnL) на момент чтения.
+ *
+ * avgCost включает комиссии покупок, realizedPnl — за вычетом комиссий продаж:
+ * realizedPnl + unrealizedPnl — чистый результат позиции.
+ * markPrice — последняя цена ленты по символу (NaN — цены ещё не было).
+ */
+public record PositionSnapshot(
+        long chatId,
+        String exchange,
+        String symbol,
+        double qty,
+        double avgCost,
+        double fees,
+        double realizedPnl,
+        double boughtNotional,
+        double markPrice,
+        long fills,
+        long updatedAtMs
+) {
+
+    public boolean open() {
+        return qty > 0;
+    }
+
+    public double costBasis() {
+        return qty * avgCost;
+    }
+
+    /**
+     * Стоимость позиции по рынку (без цены ленты — по себестоимости).
+     */
+    public double marketValue() {
+        return Double.isNaN(markPrice) ? costBasis() : qty * markPrice;
+    }
+
+    public double unrealizedPnl() {
+        return Double.isNaN(markPrice) || qty <= 0 ? 0.0 : qty * (markPrice - avgCost);
+    }
+}
@@ -0,0 +1,30 @@
+package com.chicu.aitradebot.trade.position;
+
+/**
+ * 📊 Сумма по всем позициям чата.
+ *
+ * boughtNotional — сколько всего куплено (в валюте котировки): база для процента доходности.
+ */
+public record PositionTotals(
+        int open,
+        double exposure,
+        double costBasis,
+        double realizedPnl,
+        double unrealizedPnl,
+        double fees,
+        double boughtNotional
+) {
+
+    public static final PositionTotals EMPTY = new PositionTotals(0, 0, 0, 0, 0, 0, 0);
+
+    public double pnl() {
+        return realizedPnl + unrealizedPnl;
+    }
+
+    /**
+     * Чистый PnL в % от всего купленного, 0 — покупок не было.
+     */
+    public double pnlPct() {
+        return boughtNotional > 0 ? pnl() / boughtNotional * 100.0 : 0.0;
+    }
+}
@@ -0,0 +1,30 @@
+package com.chicu.aitradebot.trade.trigger;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * 🎯 Сработавший выход позиции: какой уровень, по какой цене ленты и где стоял.
+ *
+ * level — уровень на момент срабатывания (для TRAILING_STOP — подтянутый стоп, а не исходный SL).
+ */
+public record ExitTrigger(Kind kind, double price, double level, Instant time) {
+
+    public enum Kind {
+        TAKE_PROFIT,
+        STOP_LOSS,
+        TRAILING_STOP
+    }
+
+    public boolean tpHit() {
+        return kind == Kind.TAKE_PROFIT;
+    }
+
+    public boolean slHit() {
+        return kind != Kind.TAKE_PROFIT;
+    }
+
+    public BigDecimal levelBd() {
+        return BigDecimal.valueOf(level);
+    }
+}
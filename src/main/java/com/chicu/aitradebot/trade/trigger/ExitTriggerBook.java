@@ -0,0 +1,143 @@
+package com.chicu.aitradebot.trade.trigger;
+
+import com.chicu.aitradebot.common.enums.StrategyType;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 🎯 Единая книга выходов: TP / SL / трейлинг-стоп всех открытых позиций, по символу.
+ *
+ * ❗ Правила:
+ *  - позиция = (chatId, strategyType, symbol); ставится на входе (TradeExecutionServiceImpl.entry)
+ *    или лениво при первой проверке выхода стратегией
+ *  - общую цену символа двигает только лента aggTrade (MarketStreamService); срабатывают только пересечённые уровни
+ *  - цена проверки стратегии (check) сравнивается лишь с уровнями самой позиции — чужие выходы она не запускает
+ *  - книга только фиксирует срабатывание — продаёт исполнитель (тот же путь, что и раньше: guard, биржа, журнал),
+ *    после успешной продажи — disarm; неуспех → выход остаётся сработавшим и повторяется на следующей проверке
+ */
+@Component
+public class ExitTriggerBook {
+
+    private final Map<String, SymbolTriggerBook> books = new ConcurrentHashMap<>();
+
+    private final LongAdder fired = new LongAdder();
+
+    public ExitTriggerBook(MeterRegistry registry) {
+        FunctionCounter.builder("exit.triggers.fired", fired, LongAdder::sum)
+                .description("Position exits (TP / SL / trailing stop) triggered by the trigger book")
+                .register(registry);
+        Gauge.builder("exit.triggers.armed", this, ExitTriggerBook::armed)
+                .description("Open positions with exit levels in the trigger book")
+                .register(registry);
+    }
+
+    // =====================================================
+    // POSITIONS
+    // =====================================================
+
+    /**
+     * Новая позиция: уровни ставятся заново, прежнее состояние (в т.ч. сработавший выход) забывается.
+     *
+     * @param trailingPct трейлинг-стоп в % от максимума цены, null / ≤ 0 — без трейлинга
+     */
+    public void arm(Long chatId, StrategyType type, String symbol, BigDecimal tp, BigDecimal sl, BigDecimal trailingPct) {
+        if (chatId == null || type == null || symbol == null || symbol.isBlank()) return;
+
+        book(symbol).arm(owner(chatId, type), tp, sl,
+                trailingPct != null ? trailingPct : BigDecimal.ZERO, true, Instant.now());
+    }
+
+    /**
+     * Проверка выхода стратегией на её цене: позиция без уровней ставится лениво (без трейлинга),
+     * изменённые TP / SL переставляются.
+     *
+     * @return сработавший выход или null
+     */
+    public ExitTrigger check(Long chatId,
+                             StrategyType type,
+                             String symbol,
+                             BigDecimal price,
+                             BigDecimal tp,
+                             BigDecimal sl,
+                             Instant time) {
+        if (chatId == null || type == null || symbol == null || symbol.isBlank()) return null;
+
+        SymbolTriggerBook b = book(symbol);
+        SymbolTriggerBook.Owner owner = owner(chatId, type);
+        Instant now = time != null ? time : Instant.now();
+
+        ExitTrigger t = b.arm(owner, tp, sl, null, false, now);
+        if (t == null && price != null && price.signum() > 0) {
+            t = b.probe(owner, price.doubleValue(), now);
+        }
+        return t;
+    }
+
+    public ExitTrigger fired(Long chatId, StrategyType type, String symbol) {
+        if (chatId == null || type == null || symbol == null) return null;
+        SymbolTriggerBook b = books.get(norm(symbol));
+        return b == null ? null : b.fired(owner(chatId, type));
+    }
+
+    public void disarm(Long chatId, StrategyType type, String symbol) {
+        if (chatId == null || type == null || symbol == null) return;
+        SymbolTriggerBook b = books.get(norm(symbol));
+        if (b != null) b.disarm(owner(chatId, type));
+    }
+
+    /**
+     * Текущий стоп позиции (SL или подтянутый трейлинг) или null.
+     */
+    public BigDecimal currentStop(Long chatId, StrategyType type, String symbol) {
+        if (chatId == null || type == null || symbol == null) return null;
+        SymbolTriggerBook b = books.get(norm(symbol));
+        if (b == null) return null;
+        double s = b.stop(owner(chatId, type));
+        return Double.isFinite(s) ? BigDecimal.valueOf(s) : null;
+    }
+
+    public int armed() {
+        int n = 0;
+        for (SymbolTriggerBook b : books.values()) n += b.armed();
+        return n;
+    }
+
+    // =====================================================
+    // MARKET DATA
+    // =====================================================
+
+    /**
+     * Сделка ленты (aggTrade). tradeId — id aggTrade или -1, если его нет.
+     */
+    public void onTrade(String symbol, long tradeId, BigDecimal price, Instant time) {
+        if (symbol == null || price == null || price.signum() <= 0) return;
+
+        SymbolTriggerBook b = books.get(norm(symbol));
+        if (b != null) b.onTrade(tradeId, price.doubleValue(), time);
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    private SymbolTriggerBook book(String symbol) {
+        return books.computeIfAbsent(norm(symbol), k -> new SymbolTriggerBook(fired));
+    }
+
+    private static SymbolTriggerBook.Owner owner(long chatId, StrategyType type) {
+        return new SymbolTriggerBook.Owner(chatId, type);
+    }
+
+    private static String norm(String symbol) {
+        return symbol.trim().toUpperCase(Locale.ROOT);
+    }
+}
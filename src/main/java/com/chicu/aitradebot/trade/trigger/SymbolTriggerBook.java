@@ -0,0 +1,247 @@
+package com.chicu.aitradebot.trade.trigger;
+
+import com.chicu.aitradebot.common.enums.StrategyType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 📌 Уровни выхода всех открытых позиций одного символа в двух кучах на примитивах.
+ *
+ *  - above (min-куча) — уровни выше цены: TP (слот 2i) и «новый максимум» трейлинга (слот 2i+1)
+ *  - below (max-куча) — уровни ниже цены: стоп позиции (слот i) = max(SL, трейлинг-стоп)
+ *
+ * Тик: пока вершина above ≤ цены / вершина below ≥ цены — снимаем её. Без пересечений — два peek,
+ * k пересечений — O(k log n). Новый максимум двигает трейлинг-стоп сменой ключа в below — O(log n).
+ *
+ * Сработавшая позиция из куч удаляется и ждёт, пока исполнитель заберёт выход (fired → disarm).
+ */
+final class SymbolTriggerBook {
+
+    record Owner(long chatId, StrategyType type) {
+    }
+
+    private static final class Armed {
+        final int index;
+        final Owner owner;
+
+        BigDecimal tpBd;
+        BigDecimal slBd;
+        double tp;
+        double sl;
+        double trailFrac;
+        double peak = Double.NaN;
+        double stop;
+
+        ExitTrigger fired;
+
+        Armed(int index, Owner owner) {
+            this.index = index;
+            this.owner = owner;
+        }
+
+        boolean trailing() {
+            return stop > sl;
+        }
+    }
+
+    private final TriggerHeap above = TriggerHeap.min();
+    private final TriggerHeap below = TriggerHeap.max();
+
+    private final Map<Owner, Armed> byOwner = new HashMap<>();
+    private Armed[] byIndex = new Armed[8];
+    private int[] free = new int[8];
+    private int freeCount;
+    private int nextIndex;
+
+    private final LongAdder firedCounter;
+
+    private double lastPrice = Double.NaN;
+    private long lastTradeId = -1;
+
+    SymbolTriggerBook(LongAdder firedCounter) {
+        this.firedCounter = firedCounter;
+    }
+
+    // =====================================================
+    // POSITIONS
+    // =====================================================
+
+    /**
+     * Поставить / обновить уровни позиции.
+     *
+     * @param reset    true — новая позиция (вход): прежнее состояние, в т.ч. сработавший выход, забывается
+     * @param trailPct трейлинг в % от максимума, null — оставить как был (≤ 0 — без трейлинга)
+     * @return сработавший выход позиции (уже был или сработал сразу по последней цене) или null
+     */
+    synchronized ExitTrigger arm(Owner owner, BigDecimal tp, BigDecimal sl, BigDecimal trailPct, boolean reset, Instant now) {
+        Armed a = byOwner.get(owner);
+
+        if (a != null && reset) {
+            release(a);
+            a = null;
+        }
+
+        if (a != null) {
+            if (a.fired != null) return a.fired;
+            boolean same = sameLevel(a.tpBd, tp) && sameLevel(a.slBd, sl) && trailPct == null;
+            if (same) return null;
+        } else {
+            a = allocate(owner);
+        }
+
+        a.tpBd = tp;
+        a.slBd = sl;
+        a.tp = tp != null ? tp.doubleValue() : Double.POSITIVE_INFINITY;
+        a.sl = sl != null ? sl.doubleValue() : Double.NEGATIVE_INFINITY;
+        if (trailPct != null) {
+            a.trailFrac = trailPct.signum() > 0 ? trailPct.doubleValue() / 100.0 : 0.0;
+        }
+
+        if (Double.isFinite(a.tp)) above.put(2 * a.index, a.tp); else above.remove(2 * a.index);
+
+        if (a.trailFrac > 0) {
+            // максимум неизвестен → первая же цена его задаст
+            double rearm = Double.isNaN(a.peak) ? Double.NEGATIVE_INFINITY : Math.nextUp(a.peak);
+            above.put(2 * a.index + 1, rearm);
+            a.stop = Math.max(a.sl, Double.isNaN(a.peak) ? a.sl : a.peak * (1 - a.trailFrac));
+        } else {
+            above.remove(2 * a.index + 1);
+            a.stop = a.sl;
+        }
+
+        if (Double.isFinite(a.stop)) below.put(a.index, a.stop); else below.remove(a.index);
+
+        if (!Double.isNaN(lastPrice)) evaluate(lastPrice, now);
+        return a.fired;
+    }
+
+    synchronized ExitTrigger fired(Owner owner) {
+        Armed a = byOwner.get(owner);
+        return a == null ? null : a.fired;
+    }
+
+    synchronized boolean disarm(Owner owner) {
+        Armed a = byOwner.get(owner);
+        if (a == null) return false;
+        release(a);
+        return true;
+    }
+
+    /**
+     * Текущий стоп позиции (с учётом трейлинга) или NaN.
+     */
+    synchronized double stop(Owner owner) {
+        Armed a = byOwner.get(owner);
+        return a == null ? Double.NaN : a.stop;
+    }
+
+    synchronized int armed() {
+        return byOwner.size();
+    }
+
+    // =====================================================
+    // MARKET DATA
+    // =====================================================
+
+    /**
+     * Цена ленты. tradeId ≥ 0 — id aggTrade: одна сделка приходит по каждой подписке, обрабатываем её один раз.
+     */
+    synchronized void onTrade(long tradeId, double price, Instant time) {
+        if (tradeId >= 0) {
+            if (tradeId <= lastTradeId) return;
+            lastTradeId = tradeId;
+        }
+        lastPrice = price;
+        evaluate(price, time);
+    }
+
+    /**
+     * Цена, на которой стратегия проверяет выход (свечные стратегии ленту не получают).
+     *
+     * ❗ Сравниваются только уровни owner: цена стратегии (close свечи, в т.ч. старшего ТФ) —
+     * не цена рынка, lastPrice и чужие позиции она не трогает, трейлинг не двигает.
+     */
+    synchronized ExitTrigger probe(Owner owner, double price, Instant time) {
+        Armed a = byOwner.get(owner);
+        if (a == null) return null;
+        if (a.fired != null) return a.fired;
+
+        if (price >= a.tp) {
+            fire(a, ExitTrigger.Kind.TAKE_PROFIT, price, a.tp, time);
+        } else if (price <= a.stop) {
+            fire(a, a.trailing() ? ExitTrigger.Kind.TRAILING_STOP : ExitTrigger.Kind.STOP_LOSS, price, a.stop, time);
+        }
+        return a.fired;
+    }
+
+    private void evaluate(double price, Instant time) {
+        while (!above.isEmpty() && above.peekKey() <= price) {
+            int slot = above.poll();
+            Armed a = byIndex[slot >>> 1];
+            if ((slot & 1) == 0) {
+                fire(a, ExitTrigger.Kind.TAKE_PROFIT, price, a.tp, time);
+            } else {
+                trail(a, price);
+            }
+        }
+
+        while (!below.isEmpty() && below.peekKey() >= price) {
+            Armed a = byIndex[below.poll()];
+            fire(a, a.trailing() ? ExitTrigger.Kind.TRAILING_STOP : ExitTrigger.Kind.STOP_LOSS, price, a.stop, time);
+        }
+    }
+
+    private void trail(Armed a, double price) {
+        a.peak = price;
+        double candidate = price * (1 - a.trailFrac);
+        if (candidate > a.stop) {
+            a.stop = candidate;
+            below.put(a.index, candidate);
+        }
+        above.put(2 * a.index + 1, Math.nextUp(price));
+    }
+
+    private void fire(Armed a, ExitTrigger.Kind kind, double price, double level, Instant time) {
+        above.remove(2 * a.index);
+        above.remove(2 * a.index + 1);
+        below.remove(a.index);
+        a.fired = new ExitTrigger(kind, price, level, time);
+        firedCounter.increment();
+    }
+
+    // =====================================================
+    // SLOTS
+    // =====================================================
+
+    private Armed allocate(Owner owner) {
+        int index = freeCount > 0 ? free[--freeCount] : nextIndex++;
+        if (index >= byIndex.length) byIndex = Arrays.copyOf(byIndex, byIndex.length * 2);
+
+        Armed a = new Armed(index, owner);
+        byIndex[index] = a;
+        byOwner.put(owner, a);
+        return a;
+    }
+
+    private void release(Armed a) {
+        above.remove(2 * a.index);
+        above.remove(2 * a.index + 1);
+        below.remove(a.index);
+
+        byOwner.remove(a.owner);
+        byIndex[a.index] = null;
+
+        if (freeCount == free.length) free = Arrays.copyOf(free, free.length * 2);
+        free[freeCount++] = a.index;
+    }
+
+    private static boolean sameLevel(BigDecimal a, BigDecimal b) {
+        if (a == null || b == null) return a == b;
+        return a.compareTo(b) == 0;
+    }
+}
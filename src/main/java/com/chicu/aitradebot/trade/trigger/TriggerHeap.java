@@ -0,0 +1,151 @@
+package com.chicu.aitradebot.trade.trigger;
+
+import java.util.Arrays;
+
+/**
+ * 🔢 Индексированная двоичная куча на примитивах: ключ — уровень цены (double), значение — слот (int).
+ *
+ * peek — O(1), put / poll / remove / смена ключа слота — O(log n), без боксинга и аллокаций на тике.
+ * max=false — сверху минимальный уровень (триггеры выше цены), max=true — максимальный (ниже цены).
+ */
+final class TriggerHeap {
+
+    private final boolean max;
+
+    private double[] keys = new double[16];
+    private int[] slots = new int[16];
+    /** слот → позиция в куче + 1 (0 — слота в куче нет) */
+    private int[] pos = new int[16];
+    private int size;
+
+    private TriggerHeap(boolean max) {
+        this.max = max;
+    }
+
+    static TriggerHeap min() {
+        return new TriggerHeap(false);
+    }
+
+    static TriggerHeap max() {
+        return new TriggerHeap(true);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    double peekKey() {
+        return keys[0];
+    }
+
+    int peekSlot() {
+        return slots[0];
+    }
+
+    boolean contains(int slot) {
+        return slot < pos.length && pos[slot] != 0;
+    }
+
+    /**
+     * Новый слот или новый уровень уже стоящего слота.
+     */
+    void put(int slot, double key) {
+        if (contains(slot)) {
+            int i = pos[slot] - 1;
+            double old = keys[i];
+            keys[i] = key;
+            if (before(key, old)) up(i); else down(i);
+            return;
+        }
+
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            slots = Arrays.copyOf(slots, size * 2);
+        }
+        if (slot >= pos.length) {
+            pos = Arrays.copyOf(pos, Math.max(pos.length * 2, slot + 1));
+        }
+
+        keys[size] = key;
+        slots[size] = slot;
+        pos[slot] = size + 1;
+        up(size++);
+    }
+
+    int poll() {
+        int slot = slots[0];
+        removeAt(0);
+        return slot;
+    }
+
+    boolean remove(int slot) {
+        if (!contains(slot)) return false;
+        removeAt(pos[slot] - 1);
+        return true;
+    }
+
+    // =====================================================
+    // HEAP
+    // =====================================================
+
+    private void removeAt(int i) {
+        pos[slots[i]] = 0;
+        int last = --size;
+        if (i == last) return;
+
+        move(last, i);
+        int moved = slots[i];
+        up(i);
+        down(pos[moved] - 1);
+    }
+
+    private boolean before(double a, double b) {
+        return max ? a > b : a < b;
+    }
+
+    private void up(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!before(keys[i], keys[parent])) return;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void down(int i) {
+        while (true) {
+            int l = 2 * i + 1;
+            if (l >= size) return;
+
+            int r = l + 1;
+            int best = (r < size && before(keys[r], keys[l])) ? r : l;
+            if (!before(keys[best], keys[i])) return;
+
+            swap(i, best);
+            i = best;
+        }
+    }
+
+    private void move(int from, int to) {
+        keys[to] = keys[from];
+        slots[to] = slots[from];
+        pos[slots[to]] = to + 1;
+    }
+
+    private void swap(int a, int b) {
+        double k = keys[a];
+        int s = slots[a];
+
+        keys[a] = keys[b];
+        slots[a] = slots[b];
+        pos[slots[a]] = a + 1;
+
+        keys[b] = k;
+        slots[b] = s;
+        pos[s] = b + 1;
+    }
+}
@@ -1,11 +1,15 @@
 package com.chicu.aitradebot.web.controller.api;
 
+import com.chicu.aitradebot.service.order.OrderFilter;
+import com.chicu.aitradebot.service.order.OrderQueryService;
 import com.chicu.aitradebot.web.facade.WebOrderFacade;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 @Slf4j
 @RestController
@@ -42,11 +46,25 @@ public class OrderApiController {
         return orderFacade.cancel(chatId, symbol, orderId);
     }
 
+    /**
+     * Ордера символа, новые → старые, по limit за раз.
+     * Следующая страница — с cursor из заголовка X-Next-Cursor (нет заголовка — страница последняя).
+     */
     @GetMapping("/list")
-    public Object list(
+    public ResponseEntity<List<WebOrderFacade.OrderInfo>> list(
             @RequestParam Long chatId,
-            @RequestParam String symbol
+            @RequestParam String symbol,
+            @RequestParam(required = false) String strategy,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + OrderQueryService.DEFAULT_LIMIT) int limit
     ) {
-        return orderFacade.list(chatId, symbol);
+        var page = orderFacade.page(chatId, symbol, OrderFilter.of(strategy, status, from, to), cursor, limit);
+
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (page.nextCursor() != null) ok.header(StrategyTradesApiController.NEXT_CURSOR_HEADER, page.nextCursor());
+        return ok.body(page.items());
     }
 }
@@ -1,6 +1,7 @@
 package com.chicu.aitradebot.web.controller.api;
 
 import com.chicu.aitradebot.common.enums.StrategyType;
+import com.chicu.aitradebot.web.dto.StrategyChartDeltasDto;
 import com.chicu.aitradebot.web.dto.StrategyChartDto;
 import com.chicu.aitradebot.web.facade.WebChartFacade;
 import lombok.RequiredArgsConstructor;
@@ -44,6 +45,26 @@ public class StrategyChartApiController {
         return chartFacade.buildChart(chatId, type, sym, tf, lim);
     }
 
+    /**
+     * 🔁 Докачка после реконнекта: только пропущенные delta (O(пропущенного), а не вся история).
+     */
+    @GetMapping("/stream/resume")
+    public StrategyChartDeltasDto resume(
+            @RequestParam String symbol,
+            @RequestParam String timeframe,
+            @RequestParam(defaultValue = "0") long sinceSeq
+    ) {
+        if (symbol == null || symbol.isBlank()) throw new IllegalArgumentException("symbol must be provided");
+        if (timeframe == null || timeframe.isBlank()) throw new IllegalArgumentException("timeframe must be provided");
+
+        StrategyChartDeltasDto dto = chartFacade.resume(symbol, timeframe, sinceSeq);
+
+        log.debug("🔁 Chart RESUME → symbol={} tf={} since={} → seq={} reset={} deltas={}",
+                symbol, timeframe, sinceSeq, dto.getSeq(), dto.isReset(), dto.getDeltas().size());
+
+        return dto;
+    }
+
     private static String normalizeOptional(String v) {
         if (v == null) return null;
         String s = v.trim().toLowerCase(Locale.ROOT);
@@ -1,19 +1,27 @@
 package com.chicu.aitradebot.web.controller.api;
 
 import com.chicu.aitradebot.common.enums.StrategyType;
-import com.chicu.aitradebot.orchestrator.AiStrategyOrchestrator;
+import com.chicu.aitradebot.strategy.live.StrategyLiveWsBridge;
+import com.chicu.aitradebot.strategy.replay.ReplayEngine;
+import com.chicu.aitradebot.strategy.replay.ReplayStatus;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
+import java.util.Map;
+
 @Slf4j
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/strategy")
 public class StrategyReplayApiController {
 
-    private final AiStrategyOrchestrator orchestrator;
+    private final StrategyLiveWsBridge liveBridge;
+    private final ReplayEngine replayEngine;
 
     /**
      * Перерисовать/переотправить уровни/слои (grid lines, TP/SL, зоны и т.п.) в веб-дашборд.
@@ -24,8 +32,51 @@ public class StrategyReplayApiController {
                                        @PathVariable StrategyType type) {
         log.info("🔁 [WEB] replay request: chatId={}, type={}", chatId, type);
 
-
+        // слои берём из памяти (UiStrategyLayerStore), без обращения к БД
+        liveBridge.replayLayers(chatId, type);
 
         return ResponseEntity.ok().build();
     }
+
+    /**
+     * ▶ Прогон стратегии по истории в песочнице (бумажные ордера, виртуальные часы).
+     * События сессии идут в /topic/replay/{sessionId}.
+     *
+     * speed: 1 = реальное время, 10 = x10, 0 = максимально быстро.
+     * source: candles (история свечей) | ticks (записанные тики, см. MmapTickRecorder).
+     */
+    @PostMapping("/{chatId}/{type}/replay/session")
+    public ResponseEntity<?> startSession(@PathVariable long chatId,
+                                          @PathVariable StrategyType type,
+                                          @RequestParam(required = false) String symbol,
+                                          @RequestParam(required = false) String timeframe,
+                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                          @RequestParam(defaultValue = "0") double speed,
+                                          @RequestParam(defaultValue = ReplayEngine.SOURCE_CANDLES) String source) {
+
+        log.info("▶ [WEB] replay session: chatId={}, type={}, symbol={}, tf={}, {} → {}, speed={}, source={}",
+                chatId, type, symbol, timeframe, from, to, speed, source);
+
+        try {
+            return ResponseEntity.ok(replayEngine.start(chatId, type, symbol, timeframe, from, to, speed, source));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", String.valueOf(e.getMessage())));
+        }
+    }
+
+    @GetMapping("/replay/session/{sessionId}")
+    public ResponseEntity<ReplayStatus> sessionStatus(@PathVariable String sessionId) {
+        ReplayStatus st = replayEngine.status(sessionId);
+        return st != null ? ResponseEntity.ok(st) : ResponseEntity.notFound().build();
+    }
+
+    @DeleteMapping("/replay/session/{sessionId}")
+    public ResponseEntity<Void> stopSession(@PathVariable String sessionId) {
+        return replayEngine.stop(sessionId)
+                ? ResponseEntity.ok().build()
+                : ResponseEntity.notFound().build();
+    }
 }
@@ -189,6 +189,10 @@ public class StrategySettingsApiController {
                 s.setMinRiskReward(validatePositiveOrNull(parseBdOrNull(req.getMinRiskReward())));
             }
 
+            if (req.getTrailingStopPct() != null) {
+                s.setTrailingStopPct(validatePctOrNull(parseBdOrNull(req.getTrailingStopPct())));
+            }
+
             if (req.getLeverage() != null) {
                 Integer lev = parseIntOrNull(req.getLeverage());
                 if (lev != null) s.setLeverage(Math.max(1, lev));
@@ -456,6 +460,7 @@ public class StrategySettingsApiController {
         // risk
         private String riskPerTradePct;
         private String minRiskReward;
+        private String trailingStopPct;
         private String leverage;
 
         private Boolean allowAveraging;
@@ -1,12 +1,28 @@
 package com.chicu.aitradebot.web.controller.api;
 
-import com.chicu.aitradebot.domain.OrderEntity;
-import com.chicu.aitradebot.service.OrderService;
+import com.chicu.aitradebot.service.order.OrderFilter;
+import com.chicu.aitradebot.service.order.OrderPage;
+import com.chicu.aitradebot.service.order.OrderQueryService;
+import com.chicu.aitradebot.service.order.OrderRow;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 
 @Slf4j
 @RestController
@@ -14,7 +30,10 @@ import java.util.List;
 @RequestMapping("/api/chart")
 public class StrategyTradesApiController {
 
-    private final OrderService orderService;
+    /** курсор следующей (более старой) страницы; заголовка нет — страница последняя */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final OrderQueryService orderQueryService;
 
     // DTO для фронтенда
     public record TradeDto(
@@ -25,35 +44,124 @@ public class StrategyTradesApiController {
             double pnl
     ) {}
 
+    /**
+     * Последние limit сделок (по возрастанию времени — как ждёт график).
+     * Более старые — тем же запросом с cursor из заголовка X-Next-Cursor.
+     */
     @GetMapping("/trades")
-    public List<TradeDto> getTrades(
+    public ResponseEntity<List<TradeDto>> getTrades(
+            @RequestParam long chatId,
+            @RequestParam String symbol,
+            @RequestParam(required = false) String strategy,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + OrderQueryService.DEFAULT_LIMIT) int limit
+    ) {
+
+        log.debug("📊 /api/chart/trades → chatId={}, symbol={}, cursor={}, limit={}", chatId, symbol, cursor, limit);
+
+        OrderPage<OrderRow> page = orderQueryService.page(
+                chatId, symbol, OrderFilter.of(strategy, status, from, to), cursor, limit);
+
+        List<TradeDto> trades = new ArrayList<>(page.items().size());
+        for (OrderRow o : page.items()) {
+            trades.add(new TradeDto(
+                    o.timestamp() != null ? o.timestamp() : 0L,
+                    o.side(),
+                    o.price() != null ? o.price().doubleValue() : 0.0,
+                    o.quantity() != null ? o.quantity().doubleValue() : 0.0,
+                    // 🔥 PnL — realizedPnlUsd
+                    o.realizedPnlUsd() != null ? o.realizedPnlUsd().doubleValue() : 0.0
+            ));
+        }
+        // страница идёт новые → старые, графику нужен порядок по времени
+        Collections.reverse(trades);
+
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (page.nextCursor() != null) ok.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        return ok.body(trades);
+    }
+
+    /**
+     * CSV всех ордеров символа (новые → старые) с теми же фильтрами.
+     * Строки пишутся в ответ страницами по мере чтения — выборка целиком в памяти не бывает.
+     */
+    @GetMapping("/trades/export.csv")
+    public ResponseEntity<StreamingResponseBody> exportTrades(
             @RequestParam long chatId,
-            @RequestParam String symbol
+            @RequestParam String symbol,
+            @RequestParam(required = false) String strategy,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to
     ) {
+        OrderFilter filter = OrderFilter.of(strategy, status, from, to);
+        String file = "orders_" + chatId + "_" + symbol.replaceAll("[^A-Za-z0-9]", "").toUpperCase(Locale.ROOT) + ".csv";
 
-        log.info("📊 /api/chart/trades → chatId={}, symbol={}", chatId, symbol);
+        StreamingResponseBody body = out -> {
+            Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            w.write("id,created_at,timestamp,symbol,side,status,strategy,price,quantity,executed_qty,avg_price,commission,realized_pnl_usd\n");
+            try {
+                orderQueryService.forEach(chatId, symbol, filter, o -> writeCsv(w, o));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            w.flush();
+        };
 
-        // 🔥 Используем новый нужный метод
-        List<OrderEntity> list = orderService.getOrderEntitiesByChatIdAndSymbol(chatId, symbol);
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file + "\"")
+                .body(body);
+    }
 
-        return list.stream().map(o -> {
-            long time = o.getTimestamp() != null ? o.getTimestamp() : 0L;
+    // =====================================================
+    // CSV
+    // =====================================================
 
-            double price = o.getPrice() != null ? o.getPrice().doubleValue() : 0.0;
-            double qty = o.getQuantity() != null ? o.getQuantity().doubleValue() : 0.0;
+    private static void writeCsv(Writer w, OrderRow o) {
+        try {
+            w.write(String.valueOf(o.id()));
+            w.write(',');
+            w.write(o.createdAt() != null ? o.createdAt().toString() : "");
+            w.write(',');
+            w.write(o.timestamp() != null ? o.timestamp().toString() : "");
+            w.write(',');
+            w.write(csv(o.symbol()));
+            w.write(',');
+            w.write(csv(o.side()));
+            w.write(',');
+            w.write(csv(o.status()));
+            w.write(',');
+            w.write(csv(o.strategyType()));
+            w.write(',');
+            w.write(num(o.price()));
+            w.write(',');
+            w.write(num(o.quantity()));
+            w.write(',');
+            w.write(num(o.executedQty()));
+            w.write(',');
+            w.write(num(o.avgPrice()));
+            w.write(',');
+            w.write(num(o.commission()));
+            w.write(',');
+            w.write(num(o.realizedPnlUsd()));
+            w.write('\n');
+        } catch (IOException e) {
+            // клиент оборвал загрузку — прекращаем обход страниц
+            throw new UncheckedIOException(e);
+        }
+    }
 
-            // 🔥 PnL теперь берём из realizedPnlUsd (оно у тебя в OrderEntity!)
-            double pnl = o.getRealizedPnlUsd() != null
-                    ? o.getRealizedPnlUsd().doubleValue()
-                    : 0.0;
+    private static String num(BigDecimal v) {
+        return v != null ? v.stripTrailingZeros().toPlainString() : "";
+    }
 
-            return new TradeDto(
-                    time,
-                    o.getSide(),
-                    price,
-                    qty,
-                    pnl
-            );
-        }).toList();
+    private static String csv(String s) {
+        if (s == null) return "";
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0) return s;
+        return '"' + s.replace("\"", "\"\"") + '"';
     }
 }
@@ -267,6 +267,7 @@ public class StrategySettingsController {
             case "risk" -> {
                 s.setRiskPerTradePct(validatePct(parseBigDecimalOrNull(params.get("riskPerTradePct"))));
                 s.setMinRiskReward(validatePositiveOrNull(parseBigDecimalOrNull(params.get("minRiskReward"))));
+                s.setTrailingStopPct(validatePct(parseBigDecimalOrNull(params.get("trailingStopPct"))));
 
                 Integer leverage = parseIntOrNull(params.get("leverage"));
                 if (leverage != null && leverage >= 1) s.setLeverage(leverage);
@@ -0,0 +1,41 @@
+package com.chicu.aitradebot.web.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * 🔁 Докачка графика после реконнекта: только изменённые бары после seq клиента.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StrategyChartDeltasDto {
+
+    /** текущий seq потока (клиент продолжает с него) */
+    private long seq;
+
+    /** true — пропуск длиннее кольца: нужен новый полный snapshot */
+    private boolean reset;
+
+    @Builder.Default
+    private List<DeltaDto> deltas = List.of();
+
+    @Getter
+    @Setter
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DeltaDto {
+        private long seq;
+        /** epoch millis (как у live candle) */
+        private long time;
+        private double open;
+        private double high;
+        private double low;
+        private double close;
+        private double volume;
+    }
+}
@@ -18,6 +18,17 @@ public class StrategyChartDto {
 
     private Double lastPrice;
 
+    /** ⏱ Таймфрейм снапшота (UI фильтрует live-свечи по нему) */
+    private String timeframe;
+
+    /**
+     * 🔢 Версия потока графика на момент снапшота.
+     * Дальше клиент применяет delta с seq больше этого и докачивает
+     * пропущенное через /api/chart/stream/resume.
+     */
+    @Builder.Default
+    private long seq = 0L;
+
     @Builder.Default
     private Layers layers = Layers.empty();
 
@@ -1,6 +1,7 @@
 package com.chicu.aitradebot.web.facade;
 
 import com.chicu.aitradebot.common.enums.StrategyType;
+import com.chicu.aitradebot.web.dto.StrategyChartDeltasDto;
 import com.chicu.aitradebot.web.dto.StrategyChartDto;
 
 public interface WebChartFacade {
@@ -19,4 +20,14 @@ public interface WebChartFacade {
             String timeframe,
             int limit
     );
+
+    /**
+     * Докачка live-графика после реконнекта:
+     * бары, изменённые после sinceSeq (или reset=true, если нужен новый snapshot).
+     */
+    StrategyChartDeltasDto resume(
+            String symbol,
+            String timeframe,
+            long sinceSeq
+    );
 }
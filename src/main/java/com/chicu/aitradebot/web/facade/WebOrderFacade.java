@@ -1,5 +1,7 @@
 package com.chicu.aitradebot.web.facade;
 
+import com.chicu.aitradebot.service.order.OrderFilter;
+
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -11,8 +13,12 @@ public interface WebOrderFacade {
 
     OrderResult cancel(Long chatId, String symbol, long orderId);
 
+    // старые → новые, но только последние 500 ордеров (OrderQueryService.DEFAULT_LIMIT); глубже — page()
     List<OrderInfo> list(Long chatId, String symbol);
 
+    // keyset-страница (новые → старые), cursor — из nextCursor предыдущей страницы
+    OrderInfoPage page(Long chatId, String symbol, OrderFilter filter, String cursor, int limit);
+
     // =============================================================
     // DTO
     // =============================================================
@@ -26,6 +32,11 @@ public interface WebOrderFacade {
             BigDecimal price
     ) {}
 
+    record OrderInfoPage(
+            List<OrderInfo> items,
+            String nextCursor
+    ) {}
+
     record OrderResult(
             boolean success,
             String message,
@@ -8,6 +8,8 @@ import com.chicu.aitradebot.exchange.client.ExchangeClientFactory;
 import com.chicu.aitradebot.market.model.Candle;
 import com.chicu.aitradebot.market.stream.MarketDataStreamService;
 import com.chicu.aitradebot.service.StrategySettingsService;
+import com.chicu.aitradebot.strategy.live.LiveChartStream;
+import com.chicu.aitradebot.web.dto.StrategyChartDeltasDto;
 import com.chicu.aitradebot.web.dto.StrategyChartDto;
 import com.chicu.aitradebot.web.facade.WebChartFacade;
 import lombok.RequiredArgsConstructor;
@@ -15,9 +17,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
+import java.util.TreeMap;
 
 @Slf4j
 @Service
@@ -30,6 +34,7 @@ public class WebChartFacadeImpl implements WebChartFacade {
     private final MarketDataStreamService streamService;
     private final ExchangeClientFactory exchangeClientFactory;
     private final StrategySettingsService settingsService;
+    private final LiveChartStream chartStream;
 
     @Override
     public StrategyChartDto buildChart(
@@ -76,32 +81,75 @@ public class WebChartFacadeImpl implements WebChartFacade {
         List<Candle> all = safeCandles(streamService.getCandles(chatId, strategyType, sym, tf));
         if (all.isEmpty()) return empty();
 
+        // 7) версия потока: seq + последние live-бары из кольца
+        //    (кэш свечей может отставать — накладываем кольцо, чтобы snapshot был согласован с seq)
+        LiveChartStream.Replay live = chartStream.snapshot(sym, tf);
+
         // последние N свечей
         int size = all.size();
         int from = Math.max(0, size - finalLimit);
         List<Candle> slice = all.subList(from, size);
 
-        List<StrategyChartDto.CandleDto> candleDtos = slice.stream()
-                .map(c -> StrategyChartDto.CandleDto.builder()
-                        .time(c.getTime() / 1000L) // контракт: seconds
-                        .open(c.getOpen())
-                        .high(c.getHigh())
-                        .low(c.getLow())
-                        .close(c.getClose())
-                        .build()
-                )
-                .toList();
+        TreeMap<Long, StrategyChartDto.CandleDto> bySec = new TreeMap<>();
+        for (Candle c : slice) {
+            bySec.put(c.getTime() / 1000L, StrategyChartDto.CandleDto.ofMillis(
+                    c.getTime(), c.getOpen(), c.getHigh(), c.getLow(), c.getClose()));
+        }
+
+        long firstSec = bySec.firstKey();
+        for (LiveChartStream.Bar b : live.bars()) {
+            if (b.time() / 1000L < firstSec) continue;
+            bySec.put(b.time() / 1000L, StrategyChartDto.CandleDto.ofMillis(
+                    b.time(), b.open(), b.high(), b.low(), b.close()));
+        }
+
+        List<StrategyChartDto.CandleDto> candleDtos = new ArrayList<>(bySec.values());
+        if (candleDtos.size() > finalLimit) {
+            candleDtos = candleDtos.subList(candleDtos.size() - finalLimit, candleDtos.size());
+        }
 
-        double lastClose = slice.get(slice.size() - 1).getClose();
+        double lastClose = candleDtos.get(candleDtos.size() - 1).getClose();
 
         // ВАЖНО: фасад графика не рисует “специфичные слои” (windowZone и т.п.)
         return StrategyChartDto.builder()
                 .candles(candleDtos)
                 .lastPrice(lastClose)
+                .timeframe(tf)
+                .seq(live.seq())
                 .layers(StrategyChartDto.Layers.empty())
                 .build();
     }
 
+    @Override
+    public StrategyChartDeltasDto resume(String symbol, String timeframe, long sinceSeq) {
+
+        if (symbol == null || symbol.isBlank() || timeframe == null || timeframe.isBlank()) {
+            return StrategyChartDeltasDto.builder().reset(true).build();
+        }
+
+        LiveChartStream.Replay r = chartStream.since(
+                symbol.trim().toUpperCase(Locale.ROOT),
+                timeframe.trim().toLowerCase(Locale.ROOT),
+                sinceSeq
+        );
+
+        return StrategyChartDeltasDto.builder()
+                .seq(r.seq())
+                .reset(r.reset())
+                .deltas(r.bars().stream()
+                        .map(b -> StrategyChartDeltasDto.DeltaDto.builder()
+                                .seq(b.seq())
+                                .time(b.time())
+                                .open(b.open())
+                                .high(b.high())
+                                .low(b.low())
+                                .close(b.close())
+                                .volume(b.volume())
+                                .build())
+                        .toList())
+                .build();
+    }
+
     /**
      * ✅ ВАЖНО:
      * Раньше было findLatest(chatId,type,null,null) — теперь метода нет и “latest без контекста”
@@ -1,5 +1,6 @@
 package com.chicu.aitradebot.web.facade.impl;
 
+import com.chicu.aitradebot.service.order.OrderFilter;
 import com.chicu.aitradebot.web.facade.WebOrderFacade;
 import com.chicu.aitradebot.orchestrator.AiStrategyOrchestrator;
 import lombok.RequiredArgsConstructor;
@@ -34,14 +35,24 @@ public class WebOrderFacadeImpl implements WebOrderFacade {
     @Override
     public List<OrderInfo> list(Long chatId, String symbol) {
         return orchestrator.listOrders(chatId, symbol).stream()
-                .map(o -> new OrderInfo(
-                        o.id(),          // Long
-                        o.symbol(),      // String
-                        o.side(),        // String
-                        o.status(),      // String
-                        o.quantity(),    // BigDecimal (аналог executedQty)
-                        o.price()        // BigDecimal
-                ))
+                .map(this::toInfo)
                 .toList();
     }
+
+    @Override
+    public OrderInfoPage page(Long chatId, String symbol, OrderFilter filter, String cursor, int limit) {
+        var p = orchestrator.listOrders(chatId, symbol, filter, cursor, limit);
+        return new OrderInfoPage(p.items().stream().map(this::toInfo).toList(), p.nextCursor());
+    }
+
+    private OrderInfo toInfo(AiStrategyOrchestrator.OrderView o) {
+        return new OrderInfo(
+                o.id(),          // Long
+                o.symbol(),      // String
+                o.side(),        // String
+                o.status(),      // String
+                o.quantity(),    // BigDecimal (аналог executedQty)
+                o.price()        // BigDecimal
+        );
+    }
 }
@@ -0,0 +1,19 @@
+package com.chicu.aitradebot.web.ui;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "ui.layers")
+public class UiLayerStoreProperties {
+
+    /**
+     * Как часто сбрасывать изменённые слои в БД (мс).
+     */
+    private long flushIntervalMs = 2_000L;
+
+    /**
+     * Размер JDBC batch при upsert.
+     */
+    private int batchSize = 200;
+}
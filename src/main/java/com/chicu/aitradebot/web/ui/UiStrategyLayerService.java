@@ -2,8 +2,6 @@ package com.chicu.aitradebot.web.ui;
 
 import com.chicu.aitradebot.common.enums.StrategyType;
 import com.chicu.aitradebot.web.ui.entity.UiStrategyLayerEntity;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -19,7 +17,7 @@ import java.util.*;
 public class UiStrategyLayerService {
 
     private final UiStrategyLayerRepository repository;
-    private final ObjectMapper objectMapper;
+    private final UiStrategyLayerStore store;
 
     // =====================================================
     // TTL
@@ -43,9 +41,9 @@ public class UiStrategyLayerService {
 
     // =====================================================
     // ✅ READ — ПОСЛЕДНИЕ СНАПШОТЫ (ТО ЧТО НУЖНО UI)
+    // из памяти (UiStrategyLayerStore), БД — только при промахе
     // =====================================================
 
-    @Transactional(readOnly = true)
     public List<Double> loadLatestLevels(
             Long chatId,
             StrategyType strategyType,
@@ -56,18 +54,15 @@ public class UiStrategyLayerService {
                 .orElseGet(List::of);
     }
 
-    @Transactional(readOnly = true)
     public Map<String, Object> loadLatestZone(
             Long chatId,
             StrategyType strategyType,
             String symbol
     ) {
         return loadLatest(chatId, strategyType, symbol, "ZONE")
-                .flatMap(this::parseMap)
                 .orElse(null);
     }
 
-    @Transactional(readOnly = true)
     public List<Map<String, Object>> loadLatestOrders(
             Long chatId,
             StrategyType strategyType,
@@ -78,32 +73,27 @@ public class UiStrategyLayerService {
                 .orElseGet(List::of);
     }
 
-    @Transactional(readOnly = true)
     public Map<String, Object> loadLatestTpSl(
             Long chatId,
             StrategyType strategyType,
             String symbol
     ) {
         return loadLatest(chatId, strategyType, symbol, "TPSL")
-                .flatMap(this::parseMap)
                 .orElse(null);
     }
 
-    @Transactional(readOnly = true)
     public Map<String, Object> loadLatestBuySellZones(
             Long chatId,
             StrategyType strategyType,
             String symbol
     ) {
         return loadLatest(chatId, strategyType, symbol, "BUYSELL_ZONES")
-                .flatMap(this::parseMap)
                 .orElse(null);
     }
 
     // =====================================================
     // 🧠 SAVE — LEVELS
     // =====================================================
-    @Transactional
     public void saveLevels(
             Long chatId,
             StrategyType strategyType,
@@ -113,23 +103,20 @@ public class UiStrategyLayerService {
     ) {
         if (levels == null || levels.isEmpty() || symbol == null) return;
 
-        // ✅ ВСЕГДА один актуальный снапшот
-        repository.deleteByType(chatId, strategyType, symbol, "LEVELS");
-
+        // ✅ ВСЕГДА один актуальный снапшот (upsert по слоту)
         saveLayer(
                 chatId,
                 strategyType,
                 symbol,
                 "LEVELS",
                 candleTime,
-                Map.of("levels", levels)
+                Map.<String, Object>of("levels", levels)
         );
     }
 
     // =====================================================
     // 🟠 SAVE — ZONE
     // =====================================================
-    @Transactional
     public void saveZone(
             Long chatId,
             StrategyType strategyType,
@@ -141,15 +128,13 @@ public class UiStrategyLayerService {
     ) {
         if (symbol == null) return;
 
-        repository.deleteByType(chatId, strategyType, symbol, "ZONE");
-
         saveLayer(
                 chatId,
                 strategyType,
                 symbol,
                 "ZONE",
                 candleTime,
-                Map.of(
+                Map.<String, Object>of(
                         "top", top,
                         "bottom", bottom,
                         "color", color
@@ -161,7 +146,6 @@ public class UiStrategyLayerService {
     // 🟢 SAVE — ORDERS (лимитки / рыночные)
     // payload: { orders: [ {side, price, qty, id, status} ] }
     // =====================================================
-    @Transactional
     public void saveOrders(
             Long chatId,
             StrategyType strategyType,
@@ -171,15 +155,13 @@ public class UiStrategyLayerService {
     ) {
         if (symbol == null || orders == null) return;
 
-        repository.deleteByType(chatId, strategyType, symbol, "ORDERS");
-
         saveLayer(
                 chatId,
                 strategyType,
                 symbol,
                 "ORDERS",
                 candleTime,
-                Map.of("orders", orders)
+                Map.<String, Object>of("orders", orders)
         );
     }
 
@@ -187,7 +169,6 @@ public class UiStrategyLayerService {
     // 🎯 SAVE — TP / SL
     // payload: { tp, sl, colorTp, colorSl }
     // =====================================================
-    @Transactional
     public void saveTpSl(
             Long chatId,
             StrategyType strategyType,
@@ -198,8 +179,6 @@ public class UiStrategyLayerService {
     ) {
         if (symbol == null) return;
 
-        repository.deleteByType(chatId, strategyType, symbol, "TPSL");
-
         Map<String, Object> payload = new LinkedHashMap<>();
         if (tp != null) payload.put("tp", tp);
         if (sl != null) payload.put("sl", sl);
@@ -212,7 +191,6 @@ public class UiStrategyLayerService {
     // =====================================================
     // 🔴 SAVE — BUY / SELL ZONES
     // =====================================================
-    @Transactional
     public void saveBuySellZones(
             Long chatId,
             StrategyType strategyType,
@@ -223,8 +201,6 @@ public class UiStrategyLayerService {
     ) {
         if (symbol == null) return;
 
-        repository.deleteByType(chatId, strategyType, symbol, "BUYSELL_ZONES");
-
         Map<String, Object> payload = new LinkedHashMap<>();
         if (buyZone != null) payload.put("buy", buyZone);
         if (sellZone != null) payload.put("sell", sellZone);
@@ -233,7 +209,7 @@ public class UiStrategyLayerService {
     }
 
     // =====================================================
-    // 🔵 INTERNAL SAVE
+    // 🔵 INTERNAL SAVE (write-behind: в память, в БД — пачкой)
     // =====================================================
     private void saveLayer(
             Long chatId,
@@ -241,35 +217,24 @@ public class UiStrategyLayerService {
             String symbol,
             String layerType,
             Instant candleTime,
-            Object payloadObj
+            Map<String, Object> payload
     ) {
-        try {
-            String json = objectMapper.writeValueAsString(payloadObj);
-
-            UiStrategyLayerEntity entity = UiStrategyLayerEntity.builder()
-                    .chatId(chatId)
-                    .strategyType(strategyType)
-                    .symbol(symbol)
-                    .layerType(layerType)
-                    .payload(json)
-                    .candleTime(candleTime != null ? candleTime : Instant.now())
-                    .createdAt(Instant.now())
-                    .build();
-
-            repository.save(entity);
-
-            log.debug("💾 UI layer saved type={} chatId={} symbol={}",
-                    layerType, chatId, symbol);
-
-        } catch (JsonProcessingException e) {
-            log.error("❌ Failed to serialize UI layer payload {}", payloadObj, e);
-        }
+        if (chatId == null || strategyType == null) return;
+
+        store.put(
+                new UiStrategyLayerStore.LayerKey(chatId, strategyType, symbol, layerType),
+                payload,
+                candleTime
+        );
+
+        log.debug("💾 UI layer queued type={} chatId={} symbol={}",
+                layerType, chatId, symbol);
     }
 
     // =====================================================
     // 🔍 INTERNAL LOAD
     // =====================================================
-    private Optional<UiStrategyLayerEntity> loadLatest(
+    private Optional<Map<String, Object>> loadLatest(
             Long chatId,
             StrategyType strategyType,
             String symbol,
@@ -279,53 +244,37 @@ public class UiStrategyLayerService {
             return Optional.empty();
         }
 
-        return repository.findLatestByType(chatId, strategyType, symbol, layerType)
-                .stream()
-                .findFirst();
+        return store.get(new UiStrategyLayerStore.LayerKey(chatId, strategyType, symbol, layerType))
+                .map(UiStrategyLayerStore.LayerSnapshot::payload);
     }
 
     // =====================================================
-    // 🧩 JSON PARSERS
+    // 🧩 PAYLOAD PARSERS
     // =====================================================
-    private Optional<Map<String, Object>> parseMap(UiStrategyLayerEntity e) {
-        try {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> map =
-                    objectMapper.readValue(e.getPayload(), Map.class);
-            return Optional.of(map);
-        } catch (Exception ex) {
-            return Optional.empty();
+    private Optional<List<Double>> parseLevels(Map<String, Object> m) {
+        Object raw = m.get("levels");
+        if (!(raw instanceof List<?> list)) return Optional.of(List.of());
+
+        List<Double> out = new ArrayList<>();
+        for (Object v : list) {
+            if (v instanceof Number n) out.add(n.doubleValue());
         }
+        return Optional.of(out);
     }
 
-    private Optional<List<Double>> parseLevels(UiStrategyLayerEntity e) {
-        return parseMap(e).map(m -> {
-            Object raw = m.get("levels");
-            if (!(raw instanceof List<?> list)) return List.<Double>of();
+    private Optional<List<Map<String, Object>>> parseOrders(Map<String, Object> m) {
+        Object raw = m.get("orders");
+        if (!(raw instanceof List<?> list)) return Optional.of(List.of());
 
-            List<Double> out = new ArrayList<>();
-            for (Object v : list) {
-                if (v instanceof Number n) out.add(n.doubleValue());
+        List<Map<String, Object>> out = new ArrayList<>();
+        for (Object o : list) {
+            if (o instanceof Map<?, ?> mm) {
+                Map<String, Object> one = new LinkedHashMap<>();
+                mm.forEach((k, v) -> one.put(String.valueOf(k), v));
+                out.add(one);
             }
-            return out;
-        });
-    }
-
-    private Optional<List<Map<String, Object>>> parseOrders(UiStrategyLayerEntity e) {
-        return parseMap(e).map(m -> {
-            Object raw = m.get("orders");
-            if (!(raw instanceof List<?> list)) return List.<Map<String, Object>>of();
-
-            List<Map<String, Object>> out = new ArrayList<>();
-            for (Object o : list) {
-                if (o instanceof Map<?, ?> mm) {
-                    Map<String, Object> one = new LinkedHashMap<>();
-                    mm.forEach((k, v) -> one.put(String.valueOf(k), v));
-                    out.add(one);
-                }
-            }
-            return out;
-        });
+        }
+        return Optional.of(out);
     }
 
     // =====================================================
@@ -334,16 +283,16 @@ public class UiStrategyLayerService {
     @Transactional
     public int cleanupOld() {
         Instant before = Instant.now().minus(TTL);
+        store.evictOlderThan(before);
         return repository.deleteOlderThan(before);
     }
 
-    @Transactional
     public void clearStrategy(
             Long chatId,
             StrategyType strategyType,
             String symbol
     ) {
-        if (symbol == null) return;
-        repository.deleteForStrategy(chatId, strategyType, symbol);
+        if (chatId == null || strategyType == null || symbol == null) return;
+        store.clear(chatId, strategyType, symbol);
     }
 }
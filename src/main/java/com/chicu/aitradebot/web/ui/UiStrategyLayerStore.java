@@ -0,0 +1,337 @@
+package com.chicu.aitradebot.web.ui;
+
+import com.chicu.aitradebot.common.enums.StrategyType;
+import com.chicu.aitradebot.web.ui.entity.UiStrategyLayerEntity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 🧠 Write-behind хранилище UI-слоёв.
+ *
+ * ❗ Назначение:
+ *  - последнее значение на (chatId, strategy, symbol, layerType) живёт в памяти
+ *  - запись из live-потока = put в map, без БД
+ *  - изменённые слои сбрасываются пачкой (JDBC batch upsert) по таймеру и на shutdown
+ *  - чтение (replay / snapshot) — из памяти, БД только при первом промахе (отсутствие тоже кэшируется)
+ *
+ * ❗ Upsert опирается на ux_ui_layer_slot. ddl-auto=update не создаёт его на таблице с дублями
+ *    (старый deleteByType+save не был атомарным), поэтому на старте: нет ограничения —
+ *    дубли удаляются (остаётся последняя запись) и ограничение создаётся явно.
+ *    Не вышло — сброс идёт update, затем insert, без on conflict.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UiStrategyLayerStore {
+
+    private static final String UPSERT_SQL = """
+            insert into ui_strategy_layers
+                (chat_id, strategy_type, symbol, layer_type, payload, candle_time, created_at)
+            values (?, ?, ?, ?, cast(? as jsonb), ?, ?)
+            on conflict (chat_id, strategy_type, symbol, layer_type) do update
+               set payload     = excluded.payload,
+                   candle_time = excluded.candle_time,
+                   created_at  = excluded.created_at
+            """;
+
+    private static final String SLOT_EXISTS_SQL = """
+            select exists (select 1 from pg_indexes
+                            where tablename = 'ui_strategy_layers' and indexname = 'ux_ui_layer_slot')
+            """;
+
+    /** остаётся последняя запись слота (IDENTITY растёт) */
+    private static final String DEDUP_SQL = """
+            delete from ui_strategy_layers a
+             using ui_strategy_layers b
+             where a.chat_id = b.chat_id
+               and a.strategy_type = b.strategy_type
+               and a.symbol = b.symbol
+               and a.layer_type = b.layer_type
+               and a.id < b.id
+            """;
+
+    private static final String ADD_SLOT_SQL = """
+            alter table ui_strategy_layers
+              add constraint ux_ui_layer_slot unique (chat_id, strategy_type, symbol, layer_type)
+            """;
+
+    private static final String UPDATE_SQL = """
+            update ui_strategy_layers
+               set payload = cast(? as jsonb), candle_time = ?, created_at = ?
+             where chat_id = ? and strategy_type = ? and symbol = ? and layer_type = ?
+            """;
+
+    private static final String INSERT_SQL = """
+            insert into ui_strategy_layers
+                (chat_id, strategy_type, symbol, layer_type, payload, candle_time, created_at)
+            values (?, ?, ?, ?, cast(? as jsonb), ?, ?)
+            """;
+
+    private final UiStrategyLayerRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final UiLayerStoreProperties props;
+
+    public record LayerKey(Long chatId, StrategyType strategyType, String symbol, String layerType) {
+    }
+
+    public record LayerSnapshot(Map<String, Object> payload, Instant candleTime, Instant updatedAt) {
+    }
+
+    private final Map<LayerKey, LayerSnapshot> latest = new ConcurrentHashMap<>();
+    private final Set<LayerKey> dirty = ConcurrentHashMap.newKeySet();
+
+    /** ключи, которых нет ни в памяти, ни в БД: повторный промах не идёт в БД */
+    private final Set<LayerKey> absent = ConcurrentHashMap.newKeySet();
+
+    /** false — ux_ui_layer_slot нет, сброс через update + insert */
+    private volatile boolean upsert = true;
+
+    /**
+     * flush и удаление из БД не должны пересекаться,
+     * иначе сброс может «воскресить» только что очищенный слой.
+     */
+    private final Object dbLock = new Object();
+
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    void start() {
+        upsert = ensureSlotConstraint();
+
+        long interval = Math.max(100L, props.getFlushIntervalMs());
+
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ui-layer-flush");
+            t.setDaemon(true);
+            return t;
+        });
+
+        flusher.scheduleWithFixedDelay(this::flushSafe, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    // =====================================================
+    // WRITE
+    // =====================================================
+
+    public void put(LayerKey key, Map<String, Object> payload, Instant candleTime) {
+        if (key == null || payload == null) return;
+
+        Instant now = Instant.now();
+        latest.put(key, new LayerSnapshot(payload, candleTime != null ? candleTime : now, now));
+        dirty.add(key);
+        absent.remove(key);
+    }
+
+    // =====================================================
+    // READ
+    // =====================================================
+
+    public Optional<LayerSnapshot> get(LayerKey key) {
+        if (key == null) return Optional.empty();
+
+        LayerSnapshot snap = latest.get(key);
+        if (snap != null) return Optional.of(snap);
+        if (absent.contains(key)) return Optional.empty();
+
+        // промах — поднимаем из БД (например, после рестарта) и кэшируем, в т.ч. отсутствие
+        Optional<LayerSnapshot> loaded = repository.findLatestByType(
+                        key.chatId(), key.strategyType(), key.symbol(), key.layerType())
+                .stream()
+                .findFirst()
+                .flatMap(this::toSnapshot);
+
+        if (loaded.isEmpty()) {
+            // память проверяется раньше: put, случившийся во время запроса, отметка не спрячет
+            absent.add(key);
+            return Optional.empty();
+        }
+
+        latest.putIfAbsent(key, loaded.get());
+        return Optional.of(latest.getOrDefault(key, loaded.get()));
+    }
+
+    /**
+     * Все слои стратегии в памяти (по всем символам).
+     */
+    public Map<LayerKey, LayerSnapshot> snapshotFor(Long chatId, StrategyType strategyType) {
+        Map<LayerKey, LayerSnapshot> out = new LinkedHashMap<>();
+        latest.forEach((k, v) -> {
+            if (k.chatId().equals(chatId) && k.strategyType() == strategyType) {
+                out.put(k, v);
+            }
+        });
+        return out;
+    }
+
+    // =====================================================
+    // CLEANUP
+    // =====================================================
+
+    public void clear(Long chatId, StrategyType strategyType, String symbol) {
+        synchronized (dbLock) {
+            latest.keySet().removeIf(k -> matches(k, chatId, strategyType, symbol));
+            dirty.removeIf(k -> matches(k, chatId, strategyType, symbol));
+            absent.removeIf(k -> matches(k, chatId, strategyType, symbol));
+            repository.deleteForStrategy(chatId, strategyType, symbol);
+        }
+    }
+
+    public void evictOlderThan(Instant before) {
+        latest.entrySet().removeIf(e ->
+                !dirty.contains(e.getKey()) && e.getValue().updatedAt().isBefore(before));
+        absent.clear();
+    }
+
+    // =====================================================
+    // FLUSH
+    // =====================================================
+
+    public int flush() {
+        synchronized (dbLock) {
+            if (dirty.isEmpty()) return 0;
+
+            List<LayerKey> keys = new ArrayList<>();
+            List<Object[]> rows = new ArrayList<>();
+
+            Iterator<LayerKey> it = dirty.iterator();
+            while (it.hasNext()) {
+                LayerKey key = it.next();
+                it.remove();
+                keys.add(key);
+
+                LayerSnapshot snap = latest.get(key);
+                if (snap == null) continue;
+
+                try {
+                    rows.add(new Object[]{
+                            key.chatId(),
+                            key.strategyType().name(),
+                            key.symbol(),
+                            key.layerType(),
+                            objectMapper.writeValueAsString(snap.payload()),
+                            Timestamp.from(snap.candleTime()),
+                            Timestamp.from(snap.updatedAt())
+                    });
+                } catch (Exception e) {
+                    log.error("❌ Failed to serialize UI layer payload {} {}", key, snap.payload(), e);
+                }
+            }
+
+            if (rows.isEmpty()) return 0;
+
+            int batchSize = Math.max(1, props.getBatchSize());
+            try {
+                for (int from = 0; from < rows.size(); from += batchSize) {
+                    List<Object[]> chunk = rows.subList(from, Math.min(rows.size(), from + batchSize));
+                    if (upsert) {
+                        jdbcTemplate.batchUpdate(UPSERT_SQL, chunk);
+                    } else {
+                        updateOrInsert(chunk);
+                    }
+                }
+            } catch (RuntimeException e) {
+                // upsert идемпотентен — повторим весь набор на следующем тике
+                dirty.addAll(keys);
+                throw e;
+            }
+
+            log.debug("💾 UI layers flushed: {}", rows.size());
+            return rows.size();
+        }
+    }
+
+    private void flushSafe() {
+        try {
+            flush();
+        } catch (Throwable t) {
+            // ❗ НИКОГДА не даём потоку сброса умереть
+            log.warn("⚠️ UI layers flush failed: {}", t.getMessage(), t);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        try {
+            int n = flush();
+            log.info("💤 UiStrategyLayerStore shutdown, flushed {} layers", n);
+        } catch (Exception e) {
+            log.warn("⚠️ UI layers final flush failed: {}", e.getMessage());
+        }
+    }
+
+    // =====================================================
+    // SCHEMA
+    // =====================================================
+
+    /**
+     * @return true — ux_ui_layer_slot есть (или создан), можно on conflict
+     */
+    boolean ensureSlotConstraint() {
+        try {
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(SLOT_EXISTS_SQL, Boolean.class))) return true;
+
+            synchronized (dbLock) {
+                int removed = jdbcTemplate.update(DEDUP_SQL);
+                jdbcTemplate.execute(ADD_SLOT_SQL);
+                log.info("🧹 ui_strategy_layers: removed {} duplicate layers, ux_ui_layer_slot created", removed);
+            }
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("⚠️ ux_ui_layer_slot unavailable, UI layers flush via update + insert: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Сброс без уникального ограничения: update слота, нет строки — insert.
+     */
+    private void updateOrInsert(List<Object[]> rows) {
+        for (Object[] r : rows) {
+            int n = jdbcTemplate.update(UPDATE_SQL, r[4], r[5], r[6], r[0], r[1], r[2], r[3]);
+            if (n == 0) jdbcTemplate.update(INSERT_SQL, r);
+        }
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    private Optional<LayerSnapshot> toSnapshot(UiStrategyLayerEntity e) {
+        try {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> map = objectMapper.readValue(e.getPayload(), Map.class);
+            return Optional.of(new LayerSnapshot(map, e.getCandleTime(), e.getCreatedAt()));
+        } catch (Exception ex) {
+            return Optional.empty();
+        }
+    }
+
+    private static boolean matches(LayerKey k, Long chatId, StrategyType strategyType, String symbol) {
+        return k.chatId().equals(chatId)
+               && k.strategyType() == strategyType
+               && k.symbol().equals(symbol);
+    }
+}
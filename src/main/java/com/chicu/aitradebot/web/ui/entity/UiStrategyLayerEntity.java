@@ -16,6 +16,13 @@ import java.time.Instant;
 @Entity
 @Table(
         name = "ui_strategy_layers",
+        uniqueConstraints = {
+                // один актуальный снапшот на слой (нужно для upsert в UiStrategyLayerStore)
+                @UniqueConstraint(
+                        name = "ux_ui_layer_slot",
+                        columnNames = {"chat_id", "strategy_type", "symbol", "layer_type"}
+                )
+        },
         indexes = {
                 @Index(
                         name = "idx_ui_layer_ctx",
@@ -39,6 +39,7 @@ window.SettingsTabRisk = (function () {
         // =====================================================
         const riskPerTradePctInput       = document.getElementById("riskPerTradePctInput");
         const minRiskRewardInput         = document.getElementById("minRiskRewardInput");
+        const trailingStopPctInput       = document.getElementById("trailingStopPctInput");
         const leverageInput              = document.getElementById("leverageInput");
 
         const allowAveragingInput        = document.getElementById("allowAveragingInput");
@@ -345,6 +346,7 @@ window.SettingsTabRisk = (function () {
 
                 riskPerTradePct: (riskPerTradePctInput?.value || "").trim() || null,
                 minRiskReward: (minRiskRewardInput?.value || "").trim() || null,
+                trailingStopPct: (trailingStopPctInput?.value || "").trim() || null,
                 leverage: (leverageInput?.value || "").trim() || null,
 
                 allowAveraging: allowAveragingInput ? !!allowAveragingInput.checked : null,
@@ -485,6 +487,7 @@ window.SettingsTabRisk = (function () {
         // =====================================================
         bindNumberInput(riskPerTradePctInput, "riskPerTradePct");
         bindNumberInput(minRiskRewardInput, "minRiskReward");
+        bindNumberInput(trailingStopPctInput, "trailingStopPct");
         bindNumberInput(leverageInput, "leverage", {
             onBeforeSave: () => {
                 const n = parseNumberLoose(leverageInput.value);
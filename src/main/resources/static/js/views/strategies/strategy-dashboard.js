@@ -152,12 +152,18 @@ document.addEventListener("DOMContentLoaded", () => {
         `&type=${encodeURIComponent(type)}` +
         `&symbol=${encodeURIComponent(symbol)}`;
 
-    fetch(snapshotUrl)
+    // 🔢 версия потока графика: snapshot несёт seq, каждая live-свеча — свой seq
+    let lastSeq = 0;
+    let historyLoaded = false;
+
+    const loadSnapshot = () => fetch(snapshotUrl)
         .then(r => r.json())
         .then(data => {
             // 1) история → в график
             if (Array.isArray(data?.candles)) {
                 chartCtrl.setHistory(data.candles);
+                lastSeq = Number(data.seq) || 0;
+                historyLoaded = true;
 
                 // прогреваем фичи стратегии историей
                 strategy.onCandleHistory?.(chartCtrl.candlesData);
@@ -183,6 +189,8 @@ document.addEventListener("DOMContentLoaded", () => {
         })
         .catch(err => console.error("❌ REST snapshot error", err));
 
+    loadSnapshot();
+
     // =========================================================================
     // WEBSOCKET (STOMP)
     // =========================================================================
@@ -191,45 +199,109 @@ document.addEventListener("DOMContentLoaded", () => {
         return;
     }
 
-    const socket = new SockJS("/ws/strategy/");
-    const stomp  = Stomp.over(socket);
-    stomp.debug = null;
-
-    stomp.connect({}, () => {
-        console.log("✅ STOMP CONNECTED");
-
-        const destinations = [
-            `/topic/strategy/${chatId}/${type}/${symbol}`,
-            `/topic/strategy/${chatId}/${type}`,
-            `/topic/strategy/${chatId}`,
-        ];
-
-        destinations.forEach(dest => {
-            stomp.subscribe(dest, msg => {
-                let ev;
-                try { ev = JSON.parse(msg.body); } catch { return; }
-
-                const evSymbol = (ev?.symbol || "").trim().toUpperCase();
-                if (evSymbol && evSymbol !== symbol) return;
-
-                // 🔥 ЕДИНСТВЕННЫЙ ВХОД В ГРАФИК
-                chartCtrl.onWsMessage(ev);
-
-                // стратегия получает ВСЁ
-                strategy.onEvent?.(ev);
-
-                // обновление зон по свечам (если нужно)
-                if ((type === "SCALPING" || type === "WINDOW_SCALPING") && (ev.type === "candle" || ev.kline)) {
-                    strategy.onCandleHistory?.(chartCtrl.candlesData);
+    const handleEvent = ev => {
+        if (!ev) return;
+
+        const evSymbol = (ev.symbol || "").trim().toUpperCase();
+        if (evSymbol && evSymbol !== symbol) return;
+
+        // 📈 market-topic общий для символа: свечи чужих таймфреймов пропускаем
+        if (ev.type === "candle" && ev.timeframe && chartCtrl.timeframe
+            && String(ev.timeframe).toLowerCase() !== chartCtrl.timeframe) return;
+
+        // 🔢 delta уже учтена в snapshot / докачке — пропускаем
+        if (ev.type === "candle" && ev.seq != null && historyLoaded) {
+            if (ev.seq <= lastSeq) return;
+            lastSeq = ev.seq;
+        }
+
+        // 🔥 ЕДИНСТВЕННЫЙ ВХОД В ГРАФИК
+        chartCtrl.onWsMessage(ev);
+
+        // стратегия получает ВСЁ
+        strategy.onEvent?.(ev);
+
+        // обновление зон по свечам (если нужно)
+        if ((type === "SCALPING" || type === "WINDOW_SCALPING") && (ev.type === "candle" || ev.kline)) {
+            strategy.onCandleHistory?.(chartCtrl.candlesData);
+        }
+    };
+
+    // 🔁 после реконнекта докачиваем только пропущенные бары (или берём новый snapshot)
+    const resume = () => {
+        if (!historyLoaded || !chartCtrl.timeframe) return loadSnapshot();
+
+        const url =
+            `/api/chart/stream/resume` +
+            `?symbol=${encodeURIComponent(symbol)}` +
+            `&timeframe=${encodeURIComponent(chartCtrl.timeframe)}` +
+            `&sinceSeq=${encodeURIComponent(lastSeq)}`;
+
+        return fetch(url)
+            .then(r => r.json())
+            .then(data => {
+                if (!data || data.reset) {
+                    console.log("🔁 RESUME → reset, reload snapshot");
+                    return loadSnapshot();
                 }
+
+                (data.deltas || []).forEach(d => handleEvent({
+                    type: "candle",
+                    symbol,
+                    timeframe: chartCtrl.timeframe,
+                    time: d.time,
+                    seq: d.seq,
+                    kline: { open: d.open, high: d.high, low: d.low, close: d.close, volume: d.volume }
+                }));
+
+                console.log("🔁 RESUME → deltas:", (data.deltas || []).length, "seq:", data.seq);
+            })
+            .catch(err => console.error("❌ RESUME error", err));
+    };
+
+    let connectedOnce = false;
+
+    const connect = () => {
+        const socket = new SockJS("/ws/strategy/");
+        const stomp  = Stomp.over(socket);
+        stomp.debug = null;
+
+        stomp.connect({}, () => {
+            console.log("✅ STOMP CONNECTED");
+
+            const destinations = [
+                `/topic/strategy/${chatId}/${type}/${symbol}`,
+                `/topic/strategy/${chatId}/${type}`,
+                `/topic/strategy/${chatId}`,
+                // price / candle — общий topic символа (один кадр на всех подписчиков)
+                `/topic/market/${symbol}`,
+            ];
+
+            destinations.forEach(dest => {
+                stomp.subscribe(dest, msg => {
+                    let body;
+                    try { body = JSON.parse(msg.body); } catch { return; }
+
+                    // ✅ бек шлёт кадр (массив событий); одиночное событие — для совместимости
+                    const events = Array.isArray(body) ? body : [body];
+                    events.forEach(handleEvent);
+                });
+
+                console.log("✅ SUBSCRIBED", dest);
             });
 
-            console.log("✅ SUBSCRIBED", dest);
+            if (connectedOnce) resume();
+            connectedOnce = true;
+
+            // replay после подписки
+            fetch(`/api/strategy/${chatId}/${type}/replay`, { method: "POST" });
+        }, () => {
+            console.warn("⚠️ STOMP disconnected, reconnecting...");
+            setTimeout(connect, 3000);
         });
+    };
 
-        // replay после подписки
-        fetch(`/api/strategy/${chatId}/${type}/replay`, { method: "POST" });
-    });
+    connect();
 
     // =========================================================================
     // RESIZE
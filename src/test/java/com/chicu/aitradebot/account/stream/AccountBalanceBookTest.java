@@ -0,0 +1,65 @@
+package com.chicu.aitradebot.account.stream;
+
+import com.chicu.aitradebot.common.enums.NetworkType;
+import com.chicu.aitradebot.exchange.client.ExchangeClient.Balance;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountBalanceBookTest {
+
+    private final AccountBalanceBook book = new AccountBalanceBook();
+    private final AccountKey key = AccountKey.of(1L, "binance", NetworkType.MAINNET);
+
+    @Test
+    void streamDelta_updatesOnlyChangedAssets_andDropsZeroed() {
+        book.replaceAll(key, Map.of(
+                "USDT", new Balance("USDT", 1000, 0),
+                "BTC", new Balance("BTC", 0.5, 0)
+        ), System.currentTimeMillis());
+
+        book.apply(key, List.of(
+                new Balance("USDT", 900, 100),
+                new Balance("BTC", 0, 0)
+        ));
+
+        AccountBalanceBook.Entry e = book.get(key);
+        assertEquals(AccountBalanceBook.Source.STREAM, e.source());
+        assertTrue(e.live());
+        assertEquals(900, e.balances().get("USDT").free());
+        assertEquals(100, e.balances().get("USDT").locked());
+        assertFalse(e.balances().containsKey("BTC"));
+    }
+
+    @Test
+    void restSnapshot_olderThanStreamEvent_isDiscarded() {
+        long requestedAt = System.currentTimeMillis() - 1_000;
+
+        book.apply(key, List.of(new Balance("USDT", 50, 0)));
+        book.replaceAll(key, Map.of("USDT", new Balance("USDT", 10, 0)), requestedAt);
+
+        assertEquals(50, book.get(key).balances().get("USDT").free());
+    }
+
+    @Test
+    void restSnapshot_keepsLiveFlag() {
+        book.apply(key, List.of(new Balance("USDT", 50, 0)));
+        book.replaceAll(key, Map.of("USDT", new Balance("USDT", 60, 0)), System.currentTimeMillis() + 1);
+
+        AccountBalanceBook.Entry e = book.get(key);
+        assertEquals(AccountBalanceBook.Source.REST, e.source());
+        assertTrue(e.live());
+        assertEquals(60, e.balances().get("USDT").free());
+
+        book.markLive(key, false);
+        assertFalse(book.get(key).live());
+    }
+
+    @Test
+    void keyNormalizesExchange() {
+        assertEquals(key, AccountKey.of(1L, " BINANCE ", NetworkType.MAINNET));
+    }
+}
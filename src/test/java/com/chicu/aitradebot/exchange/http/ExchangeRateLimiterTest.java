@@ -0,0 +1,45 @@
+package com.chicu.aitradebot.exchange.http;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExchangeRateLimiterTest {
+
+    private static final String MAIN = "https://api.binance.com/api/v3/order";
+    private static final String TEST = "https://testnet.binance.vision/api/v3/order";
+
+    private final ExchangeRateLimitProperties props = new ExchangeRateLimitProperties();
+    private final ExchangeRateLimiter limiter = new ExchangeRateLimiter(props, new SimpleMeterRegistry());
+
+    {
+        props.setMaxWaitMs(0);
+    }
+
+    @Test
+    void testnetBanDoesNotStopMainnet() {
+        RateLimitScope test = RateLimitScope.of(ExchangeRateLimiter.BINANCE, TEST, "k1", null);
+        RateLimitScope main = RateLimitScope.of(ExchangeRateLimiter.BINANCE, MAIN, "k1", null);
+
+        limiter.backoff(test, 418, 60);
+
+        assertThrows(IllegalStateException.class, () -> limiter.acquire(test, RequestPriority.ORDER, 1, true));
+        assertDoesNotThrow(() -> limiter.acquire(main, RequestPriority.ORDER, 1, true));
+    }
+
+    @Test
+    void orderCountIsPerAccount() {
+        RateLimitScope busy = RateLimitScope.of(ExchangeRateLimiter.BINANCE, MAIN, "busy", null);
+        RateLimitScope quiet = RateLimitScope.of(ExchangeRateLimiter.BINANCE, MAIN, "quiet", null);
+
+        // биржа сообщила: у busy счётчик ордеров за 10 с исчерпан
+        HttpHeaders h = new HttpHeaders();
+        h.set("X-MBX-ORDER-COUNT-10S", String.valueOf(props.getBinanceOrdersPer10s()));
+        limiter.onResponse(busy, h);
+
+        assertThrows(IllegalStateException.class, () -> limiter.acquire(busy, RequestPriority.ORDER, 1, true));
+        assertDoesNotThrow(() -> limiter.acquire(quiet, RequestPriority.ORDER, 1, true));
+    }
+}
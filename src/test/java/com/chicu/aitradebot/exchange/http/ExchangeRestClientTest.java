@@ -0,0 +1,58 @@
+package com.chicu.aitradebot.exchange.http;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ExchangeRestClientTest {
+
+    private static final String ORDER = "https://api.binance.com/api/v3/order";
+
+    private final RestTemplate rest = mock(RestTemplate.class);
+    private final ExchangeRateLimiter limiter = mock(ExchangeRateLimiter.class);
+    private final ExchangeRestClient client = new ExchangeRestClient(rest, limiter, new ExchangeRateLimitProperties());
+
+    @Test
+    void signedRequestIsBuiltAfterAcquire_andAgainOnRetry() {
+        List<String> steps = new ArrayList<>();
+        List<String> sent = new ArrayList<>();
+        AtomicInteger ts = new AtomicInteger();
+
+        doAnswer(inv -> steps.add("acquire")).when(limiter).acquire(any(), any(), anyInt(), anyBoolean());
+
+        HttpHeaders retryAfter = new HttpHeaders();
+        retryAfter.set(HttpHeaders.RETRY_AFTER, "1");
+        when(rest.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class)))
+                .thenAnswer(inv -> {
+                    sent.add(inv.getArgument(0));
+                    if (sent.size() == 1) {
+                        throw HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "429", retryAfter, null, null);
+                    }
+                    return ResponseEntity.ok("{}");
+                });
+
+        ResponseEntity<String> r = client.exchange(ExchangeRateLimiter.BINANCE, ORDER, "key", HttpMethod.POST, () -> {
+            steps.add("sign");
+            return new ExchangeRequest(ORDER + "?timestamp=" + ts.incrementAndGet(), HttpEntity.EMPTY);
+        }, RequestPriority.ORDER, 1);
+
+        assertEquals("{}", r.getBody());
+        // подпись — только после места в окне, и свежая на повторе (иначе -1021 за пределами recvWindow)
+        assertEquals(List.of("acquire", "sign", "acquire", "sign"), steps);
+        assertEquals(List.of(ORDER + "?timestamp=1", ORDER + "?timestamp=2"), sent);
+        verify(limiter).backoff(any(), eq(429), eq(1L));
+    }
+}
@@ -0,0 +1,65 @@
+package com.chicu.aitradebot.exchange.http;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeightWindowTest {
+
+    private static final long T0 = 1_700_000_040_000L; // начало минутного окна
+
+    @Test
+    void lowerClassHitsLimitFirst() {
+        WeightWindow w = new WeightWindow(60_000, 100);
+
+        assertEquals(0, w.tryAcquire(60, 0.7, T0));
+        // MARKET упёрся в 70% — ждёт конца окна
+        assertEquals(60_000 - 1_000, w.tryAcquire(20, 0.7, T0 + 1_000));
+        // ORDER проходит в запас
+        assertEquals(0, w.tryAcquire(20, 1.0, T0 + 1_000));
+        assertEquals(80, w.used(T0 + 1_000));
+    }
+
+    @Test
+    void windowRollsAndServerUsageRaisesLocalCount() {
+        WeightWindow w = new WeightWindow(60_000, 100);
+
+        w.tryAcquire(10, 1.0, T0);
+        // биржа насчитала больше: на IP есть другие клиенты
+        w.sync(95, T0 + 10);
+        assertTrue(w.tryAcquire(10, 1.0, T0 + 20) > 0);
+
+        // новое окно — корзина снова полная
+        assertEquals(0, w.tryAcquire(10, 1.0, T0 + 60_000));
+        assertEquals(10, w.used(T0 + 60_000));
+
+        w.release(10, T0 + 60_001);
+        assertEquals(0, w.used(T0 + 60_001));
+    }
+
+    @Test
+    void retryAfterBlocksEveryClass() {
+        WeightWindow w = new WeightWindow(60_000, 100);
+
+        w.block(T0 + 3_000);
+        assertTrue(w.blocked(T0));
+        assertEquals(3_000, w.tryAcquire(1, 1.0, T0));
+        assertEquals(0, w.tryAcquire(1, 1.0, T0 + 3_000));
+    }
+
+    @Test
+    void heavyRequestPassesInEmptyWindow() {
+        WeightWindow w = new WeightWindow(60_000, 100);
+        assertEquals(0, w.tryAcquire(250, 0.7, T0));
+        assertTrue(w.tryAcquire(1, 1.0, T0) > 0);
+    }
+
+    @Test
+    void hmacMatchesRfc4231() {
+        assertEquals("5bdcc146bf60754e6a042426089575c75a003f089d2739839dec58b964ec3843",
+                HmacSha256.hex("Jefe", "what do ya want for nothing?"));
+        // смена ключа на том же потоке
+        assertNotEquals(HmacSha256.hex("Jefe", "x"), HmacSha256.hex("other", "x"));
+        assertEquals(HmacSha256.hex("Jefe", "x"), HmacSha256.hex("Jefe", "x"));
+    }
+}
@@ -0,0 +1,152 @@
+package com.chicu.aitradebot.exchange.sim;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class SimAccountTest {
+
+    private static final double EPS = 1e-9;
+
+    private final ExchangeSimProperties props = new ExchangeSimProperties();
+    private final SimMarket market = mock(SimMarket.class);
+    private final SimAccount account;
+    private final SimMarket.Listener ticks;
+
+    SimAccountTest() {
+        props.setStartBalanceUsdt(10_000.0);
+        props.setTakerFee(0.001);
+        props.setMakerFee(0.0005);
+
+        when(market.has(anyString())).thenReturn(true);
+        // bid 99.9 / ask 100.1
+        when(market.top(anyString())).thenReturn(new double[]{99.9, 1.0, 100.1, 1.0});
+
+        account = new SimAccount(props, market);
+
+        ArgumentCaptor<SimMarket.Listener> listener = ArgumentCaptor.forClass(SimMarket.Listener.class);
+        verify(market).addListener(listener.capture());
+        ticks = listener.getValue();
+    }
+
+    @Test
+    void market_buyAtAsk_sellAtBid_takerFeeFromReceivedAsset() {
+        SimAccount.SimOrder buy = account.place("BTC/USDT", "BUY", "MARKET", 1.0, null);
+
+        assertEquals("FILLED", buy.status());
+        assertEquals("BTCUSDT", buy.symbol());
+        assertEquals(1.0, buy.executedQty(), EPS);
+        assertEquals(100.1, buy.avgPrice(), EPS);
+        assertEquals(10_000.0 - 100.1, free("USDT"), EPS);
+        assertEquals(0.999, free("BTC"), EPS);
+
+        SimAccount.SimOrder sell = account.place("BTCUSDT", "SELL", "MARKET", 0.5, null);
+
+        assertEquals(99.9, sell.avgPrice(), EPS);
+        assertEquals(0.499, free("BTC"), EPS);
+        assertEquals(10_000.0 - 100.1 + 0.5 * 99.9 * 0.999, free("USDT"), EPS);
+        assertNotEquals(buy.orderId(), sell.orderId());
+    }
+
+    @Test
+    void insufficientBalance_rejected_balancesUntouched() {
+        SimAccount.SimRejected e = assertThrows(SimAccount.SimRejected.class,
+                () -> account.place("BTCUSDT", "BUY", "MARKET", 1_000.0, null));
+        assertTrue(e.getMessage().startsWith("Account has insufficient balance"));
+
+        assertThrows(SimAccount.SimRejected.class, () -> account.place("BTCUSDT", "SELL", "LIMIT", 1.0, 120.0));
+
+        assertEquals(10_000.0, free("USDT"), EPS);
+        assertEquals(0.0, locked("USDT"), EPS);
+        assertTrue(account.openOrders().isEmpty());
+    }
+
+    @Test
+    void invalidInput_rejected() {
+        when(market.has("DOGEUSDT")).thenReturn(false);
+
+        assertThrows(SimAccount.SimRejected.class, () -> account.place("DOGEUSDT", "BUY", "MARKET", 1.0, null));
+        assertThrows(SimAccount.SimRejected.class, () -> account.place("BTCUSDT", "BUY", "MARKET", 0.0, null));
+        assertThrows(SimAccount.SimRejected.class, () -> account.place("BTCUSDT", "BUY", "LIMIT", 1.0, null));
+        assertThrows(SimAccount.SimRejected.class, () -> account.cancel("BTCUSDT", 42L));
+    }
+
+    @Test
+    void limitBuy_locksQuote_fillsWhenTickCrosses_makerFee() {
+        SimAccount.SimOrder o = account.place("BTCUSDT", "BUY", "LIMIT", 1.0, 95.0);
+
+        assertEquals("NEW", o.status());
+        assertEquals(10_000.0 - 95.0, free("USDT"), EPS);
+        assertEquals(95.0, locked("USDT"), EPS);
+        assertEquals(1, account.openOrders().size());
+
+        // тик другого символа и тик выше лимита — не исполняют
+        ticks.onTick(tick("ETHUSDT", 90.0));
+        ticks.onTick(tick("BTCUSDT", 95.5));
+        assertEquals(1, account.openOrders().size());
+
+        ticks.onTick(tick("BTCUSDT", 95.0));
+
+        assertTrue(account.openOrders().isEmpty());
+        assertEquals(0.0, locked("USDT"), EPS);
+        assertEquals(10_000.0 - 95.0, free("USDT"), EPS);
+        assertEquals(1.0 * (1 - 0.0005), free("BTC"), EPS);
+    }
+
+    @Test
+    void limitSell_locksBase_fillsAtOwnPrice() {
+        account.place("BTCUSDT", "BUY", "MARKET", 1.0, null);
+        double usdt = free("USDT");
+
+        account.place("BTCUSDT", "SELL", "LIMIT", 0.5, 110.0);
+        assertEquals(0.499, free("BTC"), EPS);
+        assertEquals(0.5, locked("BTC"), EPS);
+
+        // тик выше лимита — исполнение по цене ордера, не по тику
+        ticks.onTick(tick("BTCUSDT", 112.0));
+
+        assertEquals(0.0, locked("BTC"), EPS);
+        assertEquals(usdt + 0.5 * 110.0 * (1 - 0.0005), free("USDT"), EPS);
+    }
+
+    @Test
+    void cancel_unlocksFunds() {
+        SimAccount.SimOrder o = account.place("BTCUSDT", "BUY", "LIMIT", 2.0, 90.0);
+        assertEquals(180.0, locked("USDT"), EPS);
+
+        SimAccount.SimOrder c = account.cancel("BTCUSDT", o.orderId());
+
+        assertEquals("CANCELED", c.status());
+        assertEquals(0.0, locked("USDT"), EPS);
+        assertEquals(10_000.0, free("USDT"), EPS);
+        assertTrue(account.openOrders().isEmpty());
+
+        // после отмены тик уже ничего не исполняет
+        ticks.onTick(tick("BTCUSDT", 80.0));
+        assertEquals(0.0, free("BTC"), EPS);
+    }
+
+    @Test
+    void feesInBasisPoints() {
+        assertEquals(10.0, account.takerBps(), EPS);
+        assertEquals(5.0, account.makerBps(), EPS);
+    }
+
+    private double free(String asset) {
+        double[] b = account.balances().get(asset);
+        return b == null ? 0.0 : b[0];
+    }
+
+    private double locked(String asset) {
+        double[] b = account.balances().get(asset);
+        return b == null ? 0.0 : b[1];
+    }
+
+    private static SimMarket.SimTick tick(String symbol, double price) {
+        return new SimMarket.SimTick(symbol, 1L, System.currentTimeMillis(), price, 1.0, false, 1L,
+                new double[0], new double[0], price - 0.1, 1.0, price + 0.1, 1.0);
+    }
+}
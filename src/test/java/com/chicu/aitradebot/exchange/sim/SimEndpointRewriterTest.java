@@ -0,0 +1,33 @@
+package com.chicu.aitradebot.exchange.sim;
+
+import okhttp3.HttpUrl;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimEndpointRewriterTest {
+
+    private final SimEndpointRewriter rewriter = new SimEndpointRewriter("http://localhost:8080/");
+
+    @Test
+    void rewrite_shouldMapExchangeHosts_keepingPathAndQuery() {
+        assertEquals("http://localhost:8080/sim/binance/api/v3/klines?symbol=BTCUSDT&interval=1m",
+                rewriter.rewrite(HttpUrl.get("https://api.binance.com/api/v3/klines?symbol=BTCUSDT&interval=1m")).toString());
+
+        // wss → OkHttp отдаёт interceptor'у https, порт 9443 отбрасывается
+        assertEquals("http://localhost:8080/sim/binance/stream?streams=btcusdt@kline_1m",
+                rewriter.rewrite(HttpUrl.get("https://stream.binance.com:9443/stream?streams=btcusdt@kline_1m")).toString());
+
+        assertEquals("http://localhost:8080/sim/bybit/v5/public/spot",
+                rewriter.rewrite(HttpUrl.get("https://stream.bybit.com/v5/public/spot")).toString());
+
+        assertEquals("http://localhost:8080/sim/bybit/v5/account/wallet-balance?accountType=UNIFIED",
+                rewriter.rewrite(HttpUrl.get("https://api-demo.bybit.com/v5/account/wallet-balance?accountType=UNIFIED")).toString());
+    }
+
+    @Test
+    void rewrite_shouldIgnoreOtherHosts() {
+        assertNull(rewriter.rewrite(HttpUrl.get("https://api.telegram.org/bot/getMe")));
+        assertNull(rewriter.rewrite(HttpUrl.get("http://localhost:8000/predict")));
+    }
+}
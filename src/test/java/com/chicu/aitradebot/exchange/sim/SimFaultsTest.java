@@ -0,0 +1,48 @@
+package com.chicu.aitradebot.exchange.sim;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimFaultsTest {
+
+    private final ExchangeSimProperties props = new ExchangeSimProperties();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void noLimit_neverThrottles() {
+        SimFaults faults = new SimFaults(props, registry);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, faults.acquire(50));
+        }
+        assertEquals(5_000, faults.usedWeight());
+        assertEquals(0.0, registry.get("exchange.sim.throttled").functionCounter().count());
+    }
+
+    @Test
+    void overLimit_returnsRetryAfterWithinWindow_andCounts() {
+        props.setRestWeightPerMinute(10);
+        SimFaults faults = new SimFaults(props, registry);
+
+        // первый запрос всегда открывает новое окно — перебор веса детерминирован
+        long retryAfter = faults.acquire(20);
+
+        assertTrue(retryAfter >= 1 && retryAfter <= 60, "Retry-After=" + retryAfter);
+        assertEquals(20, faults.usedWeight());
+        assertEquals(1.0, registry.get("exchange.sim.throttled").functionCounter().count());
+    }
+
+    @Test
+    void latency_sampledWithinJitter() {
+        props.setLatencyMs(5);
+        props.setLatencyJitterMs(3);
+        SimFaults faults = new SimFaults(props, registry);
+
+        for (int i = 0; i < 50; i++) {
+            long ms = faults.sampleDelayMs();
+            assertTrue(ms >= 5 && ms < 8, "delay=" + ms);
+        }
+    }
+}
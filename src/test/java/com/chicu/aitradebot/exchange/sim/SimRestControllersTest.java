@@ -0,0 +1,195 @@
+package com.chicu.aitradebot.exchange.sim;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Ответы симулятора, прогнанные через JSON и разобранные так же, как это делают
+ * BinanceExchangeClient / BybitExchangeClient (org.json, те же поля и индексы).
+ */
+class SimRestControllersTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final ExchangeSimProperties props = new ExchangeSimProperties();
+    private final SimMarket market;
+    private final SimAccount account;
+    private final SimFaults faults;
+
+    private final SimBinanceRestController binance;
+    private final SimBybitRestController bybit;
+
+    @SuppressWarnings("unchecked")
+    SimRestControllersTest() {
+        props.setSymbols(List.of("BTCUSDT"));
+        props.setHistoryMinutes(5);
+        props.setTickIntervalMs(3_600_000L); // генератор не тикает во время теста
+
+        market = new SimMarket(props, mock(ObjectProvider.class));
+        market.start();
+        account = new SimAccount(props, market);
+        faults = new SimFaults(props, new SimpleMeterRegistry());
+
+        binance = new SimBinanceRestController(market, account, faults);
+        bybit = new SimBybitRestController(market, account, faults);
+    }
+
+    @AfterEach
+    void stop() {
+        market.shutdown();
+    }
+
+    // =====================================================
+    // BINANCE
+    // =====================================================
+
+    @Test
+    void binance_klinesAndPrice_parseLikeClient() throws Exception {
+        JSONArray arr = new JSONArray(body(binance.klines("BTCUSDT", "1m", 3, null, null)));
+
+        assertEquals(3, arr.length());
+        long prevOpen = 0;
+        for (int i = 0; i < arr.length(); i++) {
+            JSONArray c = arr.getJSONArray(i);
+            long open = c.getLong(0);
+            assertTrue(open > prevOpen, "по возрастанию времени");
+            prevOpen = open;
+            assertTrue(c.getDouble(2) >= c.getDouble(3));
+            assertTrue(c.getDouble(5) > 0);
+            assertEquals(open + 59_999, c.getLong(6));
+        }
+
+        JSONObject price = new JSONObject(body(binance.tickerPrice("btc/usdt")));
+        assertEquals("BTCUSDT", price.getString("symbol"));
+        assertEquals(100.0, price.getDouble("price"), 1e-9);
+    }
+
+    @Test
+    void binance_orderRoundTrip() throws Exception {
+        ResponseEntity<Object> placed = binance.placeOrder("BTCUSDT", "BUY", "MARKET", 0.01, null);
+        assertEquals(HttpStatus.OK, placed.getStatusCode());
+        assertNotNull(placed.getHeaders().getFirst("X-MBX-USED-WEIGHT-1M"));
+
+        JSONObject o = new JSONObject(body(placed));
+        assertFalse(o.optString("orderId").isEmpty());
+        assertEquals("FILLED", o.optString("status"));
+        assertEquals(0.01, o.getDouble("executedQty"), 1e-8);
+        JSONObject fill = o.getJSONArray("fills").getJSONObject(0);
+        assertEquals("BTC", fill.getString("commissionAsset"));
+        assertEquals(0.00001, fill.getDouble("commission"), 1e-8);
+
+        JSONObject acc = new JSONObject(body(binance.account()));
+        assertEquals(10, acc.getInt("takerCommission"));
+        JSONArray balances = acc.getJSONArray("balances");
+        double btc = 0;
+        for (int i = 0; i < balances.length(); i++) {
+            JSONObject b = balances.getJSONObject(i);
+            if ("BTC".equals(b.getString("asset"))) btc = Double.parseDouble(b.getString("free"));
+        }
+        assertEquals(0.00999, btc, 1e-8);
+
+        JSONObject limit = new JSONObject(body(binance.placeOrder("BTCUSDT", "BUY", "LIMIT", 0.01, 50.0)));
+        assertEquals("NEW", limit.getString("status"));
+        assertEquals(0, limit.getJSONArray("fills").length());
+
+        JSONObject canceled = new JSONObject(body(binance.cancelOrder("BTCUSDT", limit.getLong("orderId"))));
+        assertEquals("CANCELED", canceled.getString("status"));
+    }
+
+    @Test
+    void binance_rejections_useBinanceCodes() throws Exception {
+        ResponseEntity<Object> r = binance.placeOrder("BTCUSDT", "BUY", "MARKET", 1_000.0, null);
+        assertEquals(HttpStatus.BAD_REQUEST, r.getStatusCode());
+        assertEquals(-2010, new JSONObject(body(r)).getInt("code"));
+
+        assertEquals(-1121, new JSONObject(body(binance.tickerPrice("DOGEUSDT"))).getInt("code"));
+        assertEquals(-2011, new JSONObject(body(binance.cancelOrder("BTCUSDT", 999L))).getInt("code"));
+    }
+
+    @Test
+    void binance_overWeight_429WithRetryAfter() throws Exception {
+        props.setRestWeightPerMinute(10);
+
+        ResponseEntity<Object> r = binance.exchangeInfo(); // вес 20 > 10
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, r.getStatusCode());
+        long retryAfter = Long.parseLong(r.getHeaders().getFirst("Retry-After"));
+        assertTrue(retryAfter >= 1 && retryAfter <= 60);
+        assertEquals("20", r.getHeaders().getFirst("X-MBX-USED-WEIGHT-1M"));
+        assertEquals(-1003, new JSONObject(body(r)).getInt("code"));
+    }
+
+    // =====================================================
+    // BYBIT
+    // =====================================================
+
+    @Test
+    void bybit_klines_v5Envelope_newestFirst() throws Exception {
+        JSONObject root = new JSONObject(body(bybit.kline("BTCUSDT", "1", 3, null, null)));
+
+        assertEquals(0, root.optInt("retCode", -1));
+        JSONArray list = root.getJSONObject("result").optJSONArray("list");
+        assertEquals(3, list.length());
+        assertTrue(list.getJSONArray(0).getLong(0) > list.getJSONArray(2).getLong(0));
+        assertTrue(list.getJSONArray(0).getDouble(5) > 0);
+    }
+
+    @Test
+    void bybit_orderRoundTrip_v3Envelope() throws Exception {
+        JSONObject root = new JSONObject(body(bybit.placeOrderV3("BTCUSDT", "Buy", "MARKET", 0.01, null)));
+
+        assertEquals(0, root.optInt("ret_code", -1));
+        JSONObject r = root.optJSONObject("result");
+        assertFalse(r.optString("orderId").isEmpty());
+        assertEquals("FILLED", r.optString("orderStatus"));
+
+        JSONObject wallet = new JSONObject(body(bybit.walletBalance()));
+        JSONArray coins = wallet.getJSONObject("result").getJSONArray("list").getJSONObject(0).getJSONArray("coin");
+        boolean hasBtc = false;
+        for (int i = 0; i < coins.length(); i++) {
+            if ("BTC".equals(coins.getJSONObject(i).optString("coin"))) hasBtc = true;
+        }
+        assertTrue(hasBtc);
+
+        JSONObject fees = new JSONObject(body(bybit.feeRate("BTCUSDT")));
+        assertEquals(0.001, fees.getJSONObject("result").getJSONArray("list").getJSONObject(0)
+                .getDouble("takerFeeRate"), 1e-8);
+
+        // бизнес-ошибка — HTTP 200 и ret_code != 0, как у Bybit
+        ResponseEntity<Object> rejected = bybit.placeOrderV3("BTCUSDT", "Buy", "MARKET", 1_000.0, null);
+        assertEquals(HttpStatus.OK, rejected.getStatusCode());
+        assertEquals(10001, new JSONObject(body(rejected)).optInt("ret_code", 0));
+    }
+
+    @Test
+    void bybit_overWeight_429WithRetCode10006() throws Exception {
+        props.setRestWeightPerMinute(1);
+
+        ResponseEntity<Object> r = bybit.instruments(); // вес 5 > 1
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, r.getStatusCode());
+        long retryAfter = Long.parseLong(r.getHeaders().getFirst("Retry-After"));
+        assertTrue(retryAfter >= 1 && retryAfter <= 60);
+
+        JSONObject root = new JSONObject(body(r));
+        assertEquals(10006, root.getInt("retCode"));
+        assertEquals("Too many visits!", root.getString("retMsg"));
+    }
+
+    private static String body(ResponseEntity<Object> r) throws Exception {
+        assertNotNull(r.getBody());
+        return JSON.writeValueAsString(r.getBody());
+    }
+}
@@ -0,0 +1,97 @@
+package com.chicu.aitradebot.journal;
+
+import com.chicu.aitradebot.common.enums.NetworkType;
+import com.chicu.aitradebot.common.enums.StrategyType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class JournalWriterTest {
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final TradeIntentEventRepository intentRepo = mock(TradeIntentEventRepository.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private JournalWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        // без start(): сбрасываем руками, без фонового потока
+        writer = new JournalWriter(jdbc, intentRepo, new JournalWriterProperties(), registry);
+    }
+
+    @Test
+    void clientOrderIdInSameBatchIsWrittenIntoIntentRow() {
+        writer.submit(intent("cid-1"));
+        writer.submit(new JournalRecord.ClientOrder("cid-1", "ATB-cid-1-E"));
+        writer.submit(link("cid-1", "ATB-cid-1-E"));
+
+        assertEquals(3, writer.flush());
+        assertEquals(0, writer.pending());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbc).batchUpdate(contains("insert into trade_intent_event"), rows.capture());
+        assertEquals("ATB-cid-1-E", rows.getValue().getFirst()[7]);
+        assertEquals("BTCUSDT", rows.getValue().getFirst()[4]);
+
+        verify(jdbc, never()).batchUpdate(contains("update trade_intent_event"), anyList());
+        verify(jdbc).batchUpdate(contains("insert into trade_order_link"), anyList());
+    }
+
+    @Test
+    void batchIsKeptAndRetriedWhileDatabaseIsDown() {
+        when(jdbc.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("db down"))
+                .thenReturn(new int[]{1});
+
+        writer.submit(intent("cid-2"));
+
+        assertThrows(DataAccessResourceFailureException.class, writer::flush);
+        assertEquals(1, writer.pending());
+        assertTrue(writer.lagMs() >= 0);
+
+        assertEquals(1, writer.flush());
+        assertEquals(0, writer.pending());
+        verify(jdbc, times(2)).batchUpdate(contains("insert into trade_intent_event"), anyList());
+    }
+
+    @Test
+    void rejectedRowIsDroppedWithoutBlockingTheRest() {
+        when(jdbc.batchUpdate(contains("insert into trade_order_link"), anyList()))
+                .thenThrow(new DataIntegrityViolationException("bad row"));
+        when(jdbc.update(contains("insert into trade_order_link"), any(Object[].class)))
+                .thenThrow(new DataIntegrityViolationException("bad row"))
+                .thenReturn(1);
+
+        writer.submit(link("cid-3", "c-bad"));
+        writer.submit(link("cid-4", "c-ok"));
+
+        assertEquals(2, writer.flush());
+        assertEquals(0, writer.pending());
+        assertEquals(1.0, registry.get("journal.writer.failed").functionCounter().count());
+        assertEquals(1.0, registry.get("journal.writer.written").functionCounter().count());
+    }
+
+    private static JournalRecord.Intent intent(String cid) {
+        return new JournalRecord.Intent(1L, StrategyType.SCALPING, "binance", NetworkType.MAINNET,
+                " btcusdt ", "1m", cid, TradeIntentEvent.Signal.BUY, TradeIntentEvent.Decision.ALLOW,
+                "ok", null, null, null, null, null, null, Instant.now());
+    }
+
+    private static JournalRecord.Link link(String cid, String clientOrderId) {
+        return new JournalRecord.Link(1L, StrategyType.SCALPING, "BINANCE", NetworkType.MAINNET,
+                "BTCUSDT", "1m", cid, clientOrderId, "entry", Instant.now());
+    }
+}
@@ -0,0 +1,132 @@
+package com.chicu.aitradebot.loadtest;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 🗑 Паузы GC (по JMX-нотификациям) и использование heap (сэмплирование).
+ *
+ * ❗ Считаются только stop-the-world сборщики: "G1 Concurrent GC", "ZGC ... Cycles" и т.п.
+ *    сообщают длительность конкурентного цикла, а не паузы — их пропускаем.
+ */
+final class JvmSampler implements AutoCloseable {
+
+    private static final long HEAP_SAMPLE_MS = 100;
+    private static final double MB = 1024.0 * 1024.0;
+
+    private final LatencyHistogram pausesMs = new LatencyHistogram();
+    private final AtomicLong pauseTotalMs = new AtomicLong();
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final ScheduledExecutorService sampler;
+    private final List<Runnable> unregister = new ArrayList<>();
+
+    private volatile long heapPeak;
+    private volatile long heapSum;
+    private volatile long heapSamples;
+
+    JvmSampler() {
+        NotificationListener listener = (n, handback) -> {
+            if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(n.getType())) return;
+
+            GarbageCollectionNotificationInfo info =
+                    GarbageCollectionNotificationInfo.from((CompositeData) n.getUserData());
+            if (isConcurrent(info.getGcName())) return;
+
+            long ms = info.getGcInfo().getDuration();
+            pausesMs.record(ms);
+            pauseTotalMs.addAndGet(ms);
+        };
+
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gc instanceof NotificationEmitter emitter) {
+                emitter.addNotificationListener(listener, null, null);
+                unregister.add(() -> {
+                    try {
+                        emitter.removeNotificationListener(listener);
+                    } catch (ListenerNotFoundException ignored) {
+                        // уже снят
+                    }
+                });
+            }
+        }
+
+        sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "loadtest-heap-sampler");
+            t.setDaemon(true);
+            return t;
+        });
+        sampler.scheduleAtFixedRate(this::sampleHeap, 0, HEAP_SAMPLE_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private static boolean isConcurrent(String gcName) {
+        return gcName.contains("Concurrent") || gcName.contains("Cycles");
+    }
+
+    private synchronized void sampleHeap() {
+        long used = memory.getHeapMemoryUsage().getUsed();
+        heapPeak = Math.max(heapPeak, used);
+        heapSum += used;
+        heapSamples++;
+    }
+
+    /**
+     * Сброс после прогрева.
+     */
+    synchronized void reset() {
+        pausesMs.reset();
+        pauseTotalMs.set(0);
+        heapPeak = 0;
+        heapSum = 0;
+        heapSamples = 0;
+    }
+
+    Map<String, Object> gcSummary(double seconds) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("pauses", pausesMs.count());
+        m.put("pauseTotalMs", pauseTotalMs.get());
+        m.put("pauseP99Ms", pausesMs.quantile(0.99));
+        m.put("pauseMaxMs", pausesMs.quantile(1.0));
+        m.put("pauseTimePct", seconds > 0 ? pauseTotalMs.get() / (seconds * 10.0) : 0.0);
+        m.put("collectors", ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .map(GarbageCollectorMXBean::getName).toList());
+        return m;
+    }
+
+    synchronized Map<String, Object> heapSummary() {
+        MemoryUsage now = memory.getHeapMemoryUsage();
+
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("peakUsedMb", round(heapPeak / MB));
+        m.put("avgUsedMb", round(heapSamples > 0 ? heapSum / (double) heapSamples / MB : 0));
+        m.put("committedMb", round(now.getCommitted() / MB));
+        m.put("maxMb", round(now.getMax() / MB));
+        return m;
+    }
+
+    private static double round(double v) {
+        return Math.round(v * 10.0) / 10.0;
+    }
+
+    @Override
+    public void close() {
+        sampler.shutdownNow();
+        unregister.forEach(Runnable::run);
+    }
+}
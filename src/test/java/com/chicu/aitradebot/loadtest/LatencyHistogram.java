@@ -0,0 +1,84 @@
+package com.chicu.aitradebot.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 📊 Лог-линейная гистограмма без аллокаций на запись (точность ~3%).
+ *
+ * Значение v попадает в "октаву" floor(log2 v), внутри октавы — 32 линейных под-корзины.
+ * Для p999 на миллионах записей этого достаточно, а хранить сырые значения не нужно.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int OCTAVES = 64 - SUB_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(OCTAVES * SUB + SUB);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    void record(long v) {
+        if (v < 0) v = 0;
+        counts.incrementAndGet(index(v));
+        total.incrementAndGet();
+        max.accumulateAndGet(v, Math::max);
+    }
+
+    long count() {
+        return total.get();
+    }
+
+    void reset() {
+        for (int i = 0; i < counts.length(); i++) counts.set(i, 0);
+        total.set(0);
+        max.set(0);
+    }
+
+    /**
+     * @param q 0..1
+     * @return верхняя граница корзины, в которую попал квантиль
+     */
+    long quantile(double q) {
+        long n = total.get();
+        if (n == 0) return 0;
+
+        long rank = (long) Math.ceil(q * n);
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(upper(i), max.get());
+        }
+        return max.get();
+    }
+
+    Map<String, Object> summary() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("count", count());
+        m.put("p50", quantile(0.50));
+        m.put("p90", quantile(0.90));
+        m.put("p99", quantile(0.99));
+        m.put("p999", quantile(0.999));
+        m.put("max", max.get());
+        return m;
+    }
+
+    static int index(long v) {
+        if (v < SUB) return (int) v;
+        int octave = 63 - Long.numberOfLeadingZeros(v);           // >= SUB_BITS
+        int sub = (int) ((v >>> (octave - SUB_BITS)) & (SUB - 1));
+        return (octave - SUB_BITS + 1) * SUB + sub;
+    }
+
+    static long upper(int index) {
+        if (index < SUB) return index;
+        int octave = index / SUB + SUB_BITS - 1;
+        int sub = index % SUB;
+        long base = 1L << octave;
+        long step = 1L << (octave - SUB_BITS);
+        return base + (sub + 1) * step - 1;
+    }
+}
@@ -0,0 +1,373 @@
+package com.chicu.aitradebot.loadtest;
+
+import com.chicu.aitradebot.common.enums.NetworkType;
+import com.chicu.aitradebot.common.enums.StrategyType;
+import com.chicu.aitradebot.domain.StrategySettings;
+import com.chicu.aitradebot.exchange.service.ExchangeSettingsService;
+import com.chicu.aitradebot.exchange.sim.SimMarket;
+import com.chicu.aitradebot.market.stream.MarketDataStreamService;
+import com.chicu.aitradebot.service.StrategySettingsService;
+import com.chicu.aitradebot.strategy.core.TradingStrategy;
+import com.chicu.aitradebot.strategy.registry.StrategyRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.InterceptableChannel;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 🏋 Нагрузочный прогон: N чатов × M стратегий на K символах против встроенного симулятора бирж.
+ *
+ * Запуск (нужна та же БД, что и для AiTradeBotApplicationTests):
+ *   mvn -Ploadtest test -Dloadtest.chats=50 -Dloadtest.strategies=SCALPING,EMA_CROSSOVER -Dloadtest.symbols=8 \
+ *       -Dloadtest.ticksPerSec=20 -Dloadtest.durationSec=120
+ *
+ * ❗ Путь тика — боевой: SimMarket → WS /sim/binance/stream → BinanceSpotWebSocketClient →
+ *    MarketStreamService.onAggTrade → TradingStrategy.onPriceUpdate.
+ *    Стратегии в реестре на время прогона обёрнуты TimedStrategy:
+ *     - tickToDecisionMs — от времени сделки (T, часы симулятора = часы JVM) до возврата onPriceUpdate
+ *     - decisionUs       — длительность самого onPriceUpdate
+ *
+ * Отчёт — JSON в loadtest.reportDir (load-report-<время>.json + load-report-latest.json),
+ * поля стабильны, чтобы сравнивать версии между собой.
+ */
+@Slf4j
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
+class LoadTestHarness {
+
+    private static final String EXCHANGE = "BINANCE";
+    private static final NetworkType NETWORK = NetworkType.MAINNET;
+    private static final String TIMEFRAME = "1m";
+
+    private static final List<String> SYMBOL_POOL = List.of(
+            "BTCUSDT", "ETHUSDT", "SOLUSDT", "BNBUSDT", "XRPUSDT", "ADAUSDT", "DOGEUSDT", "AVAXUSDT",
+            "LINKUSDT", "DOTUSDT", "LTCUSDT", "TRXUSDT", "ATOMUSDT", "NEARUSDT", "APTUSDT", "ARBUSDT"
+    );
+
+    // =====================================================
+    // CONFIG (system properties)
+    // =====================================================
+
+    private static final int CHATS = Integer.getInteger("loadtest.chats", 10);
+    private static final List<StrategyType> STRATEGIES = Arrays.stream(
+                    System.getProperty("loadtest.strategies", "SCALPING,EMA_CROSSOVER,RSI_OBOS").split(","))
+            .map(String::trim).filter(s -> !s.isEmpty()).map(StrategyType::valueOf).toList();
+    private static final int SYMBOLS = Math.min(SYMBOL_POOL.size(), Integer.getInteger("loadtest.symbols", 4));
+    private static final int TICKS_PER_SEC = Math.max(1, Integer.getInteger("loadtest.ticksPerSec", 10));
+    private static final int WARMUP_SEC = Integer.getInteger("loadtest.warmupSec", 15);
+    private static final int DURATION_SEC = Integer.getInteger("loadtest.durationSec", 60);
+    private static final int PORT = Integer.getInteger("loadtest.port", 18080);
+    private static final long CHAT_ID_BASE = Long.getLong("loadtest.chatIdBase", 900_000_000L);
+    private static final String SOURCE = System.getProperty("loadtest.source", "synthetic");
+    private static final String DAY = System.getProperty("loadtest.day", "");
+
+    @DynamicPropertySource
+    static void simulator(DynamicPropertyRegistry r) {
+        r.add("server.port", () -> PORT);
+        r.add("exchange.sim.enabled", () -> true);
+        r.add("exchange.sim.base-url", () -> "http://localhost:" + PORT);
+        r.add("exchange.sim.symbols", () -> String.join(",", SYMBOL_POOL.subList(0, SYMBOLS)));
+        r.add("exchange.sim.tick-interval-ms", () -> Math.max(1, 1000 / TICKS_PER_SEC));
+        r.add("exchange.sim.source", () -> SOURCE);
+        if (!DAY.isBlank()) r.add("exchange.sim.recorded-day", () -> DAY);
+    }
+
+    @Autowired
+    StrategyRegistry registry;
+    @Autowired
+    StrategySettingsService strategySettings;
+    @Autowired
+    ExchangeSettingsService exchangeSettings;
+    @Autowired
+    MarketDataStreamService marketData;
+    @Autowired
+    SimMarket simMarket;
+    @Autowired
+    SimpMessagingTemplate stomp;
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private final LatencyHistogram tickToDecisionMs = new LatencyHistogram();
+    private final LatencyHistogram decisionUs = new LatencyHistogram();
+    private final LongAdder dispatches = new LongAdder();
+    private final LongAdder dispatchErrors = new LongAdder();
+    private final LongAdder ticksGenerated = new LongAdder();
+    private final LongAdder stompFrames = new LongAdder();
+
+    private volatile boolean measuring;
+
+    private record Instance(long chatId, StrategyType type, String symbol) {
+    }
+
+    @Test
+    void run() throws Exception {
+        Map<StrategyType, TradingStrategy> originals = wrapStrategies();
+        instrumentStomp();
+        simMarket.addListener(t -> {
+            if (measuring) ticksGenerated.increment();
+        });
+
+        List<Instance> started = new ArrayList<>();
+        int failedStarts = 0;
+
+        try (JvmSampler jvm = new JvmSampler()) {
+
+            // ---------- старт N × M ----------
+            for (int c = 0; c < CHATS; c++) {
+                long chatId = CHAT_ID_BASE + c;
+                exchangeSettings.saveKeys(chatId, EXCHANGE, NETWORK, "loadtest", "loadtest", null, null);
+
+                for (int m = 0; m < STRATEGIES.size(); m++) {
+                    StrategyType type = STRATEGIES.get(m);
+                    String symbol = SYMBOL_POOL.get((c * STRATEGIES.size() + m) % SYMBOLS);
+                    try {
+                        start(chatId, type, symbol);
+                        started.add(new Instance(chatId, type, symbol));
+                    } catch (Exception e) {
+                        failedStarts++;
+                        log.warn("🏋 start failed chatId={} type={} {}: {}", chatId, type, symbol, e.getMessage());
+                    }
+                }
+            }
+            log.info("🏋 LOADTEST started {} instances ({} failed), warmup {}s", started.size(), failedStarts, WARMUP_SEC);
+
+            // ---------- прогрев → замер ----------
+            TimeUnit.SECONDS.sleep(WARMUP_SEC);
+
+            tickToDecisionMs.reset();
+            decisionUs.reset();
+            dispatches.reset();
+            dispatchErrors.reset();
+            stompFrames.reset();
+            jvm.reset();
+            measuring = true;
+
+            long t0 = System.nanoTime();
+            TimeUnit.SECONDS.sleep(DURATION_SEC);
+            measuring = false;
+            double seconds = (System.nanoTime() - t0) / 1e9;
+
+            Map<String, Object> report = report(seconds, started.size(), failedStarts, jvm);
+            Path file = write(report);
+            log.info("🏋 LOADTEST report → {}\n{}", file,
+                    objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report));
+
+        } finally {
+            for (Instance i : started) {
+                try {
+                    registry.get(i.type()).stop(i.chatId(), i.symbol(), EXCHANGE, NETWORK);
+                } catch (Exception ignored) {
+                    // контекст всё равно закрывается
+                }
+            }
+            for (int c = 0; c < CHATS; c++) {
+                marketData.unsubscribeAll(CHAT_ID_BASE + c);
+            }
+            originals.forEach(registry::register);
+        }
+
+        assertTrue(dispatches.sum() > 0, "no ticks reached strategies — check simulator / DB setup");
+    }
+
+    // =====================================================
+    // SETUP
+    // =====================================================
+
+    private void start(long chatId, StrategyType type, String symbol) {
+        StrategySettings s = strategySettings.getOrCreate(chatId, type, EXCHANGE, NETWORK);
+        s.setSymbol(symbol);
+        s.setTimeframe(TIMEFRAME);
+        strategySettings.save(s);
+
+        registry.get(type).start(chatId, symbol, EXCHANGE, NETWORK);
+        marketData.subscribeCandles(chatId, type, symbol, TIMEFRAME);
+    }
+
+    private Map<StrategyType, TradingStrategy> wrapStrategies() {
+        Map<StrategyType, TradingStrategy> originals = new HashMap<>();
+        for (StrategyType type : STRATEGIES) {
+            TradingStrategy s = registry.get(type);
+            if (s == null) throw new IllegalStateException("strategy not registered: " + type);
+            originals.put(type, s);
+            registry.register(type, new TimedStrategy(s));
+        }
+        return originals;
+    }
+
+    private void instrumentStomp() {
+        MessageChannel channel = stomp.getMessageChannel();
+        if (channel instanceof InterceptableChannel ic) {
+            ic.addInterceptor(new ChannelInterceptor() {
+                @Override
+                public Message<?> preSend(Message<?> message, MessageChannel ch) {
+                    if (measuring) stompFrames.increment();
+                    return message;
+                }
+            });
+        } else {
+            log.warn("🏋 STOMP channel {} is not interceptable — frames/sec will be 0", channel.getClass());
+        }
+    }
+
+    // =====================================================
+    // REPORT
+    // =====================================================
+
+    private Map<String, Object> report(double seconds, int instances, int failedStarts, JvmSampler jvm) {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("chats", CHATS);
+        config.put("strategies", STRATEGIES.stream().map(Enum::name).toList());
+        config.put("symbols", SYMBOLS);
+        config.put("ticksPerSecPerSymbol", TICKS_PER_SEC);
+        config.put("source", SOURCE);
+        config.put("warmupSec", WARMUP_SEC);
+        config.put("durationSec", DURATION_SEC);
+        config.put("instances", instances);
+        config.put("failedStarts", failedStarts);
+
+        Map<String, Object> env = new LinkedHashMap<>();
+        env.put("java", System.getProperty("java.version"));
+        env.put("cpus", Runtime.getRuntime().availableProcessors());
+        env.put("os", System.getProperty("os.name") + " " + System.getProperty("os.arch"));
+
+        Map<String, Object> throughput = new LinkedHashMap<>();
+        throughput.put("ticksGenerated", ticksGenerated.sum());
+        throughput.put("ticksGeneratedPerSec", rate(ticksGenerated.sum(), seconds));
+        throughput.put("dispatches", dispatches.sum());
+        throughput.put("ticksPerSec", rate(dispatches.sum(), seconds));
+        throughput.put("dispatchErrors", dispatchErrors.sum());
+
+        Map<String, Object> stompStats = new LinkedHashMap<>();
+        stompStats.put("frames", stompFrames.sum());
+        stompStats.put("framesPerSec", rate(stompFrames.sum(), seconds));
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("schema", 1);
+        out.put("version", System.getProperty("loadtest.version", "dev"));
+        out.put("finishedAt", Instant.now().toString());
+        out.put("measuredSec", Math.round(seconds * 10.0) / 10.0);
+        out.put("config", config);
+        out.put("env", env);
+        out.put("throughput", throughput);
+        out.put("tickToDecisionMs", tickToDecisionMs.summary());
+        out.put("decisionUs", decisionUs.summary());
+        out.put("gc", jvm.gcSummary(seconds));
+        out.put("heap", jvm.heapSummary());
+        out.put("stomp", stompStats);
+        return out;
+    }
+
+    private Path write(Map<String, Object> report) throws Exception {
+        Path dir = Path.of(System.getProperty("loadtest.reportDir", "target/loadtest"));
+        Files.createDirectories(dir);
+
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss", Locale.ROOT));
+        Path file = dir.resolve("load-report-" + stamp + ".json");
+
+        byte[] json = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(report);
+        Files.write(file, json);
+        Files.write(dir.resolve("load-report-latest.json"), json);
+        return file;
+    }
+
+    private static double rate(long n, double seconds) {
+        return seconds > 0 ? Math.round(n / seconds * 10.0) / 10.0 : 0.0;
+    }
+
+    // =====================================================
+    // TIMING DECORATOR
+    // =====================================================
+
+    private final class TimedStrategy implements TradingStrategy {
+
+        private final TradingStrategy delegate;
+
+        TimedStrategy(TradingStrategy delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void onPriceUpdate(Long chatId, String symbol, BigDecimal price, Instant ts) {
+            long start = System.nanoTime();
+            try {
+                delegate.onPriceUpdate(chatId, symbol, price, ts);
+            } catch (RuntimeException e) {
+                if (measuring) dispatchErrors.increment();
+                throw e;
+            } finally {
+                if (measuring) {
+                    decisionUs.record((System.nanoTime() - start) / 1_000);
+                    if (ts != null) tickToDecisionMs.record(System.currentTimeMillis() - ts.toEpochMilli());
+                    dispatches.increment();
+                }
+            }
+        }
+
+        @Override
+        public void start(Long chatId, String symbol) {
+            delegate.start(chatId, symbol);
+        }
+
+        @Override
+        public void start(Long chatId, String symbol, String exchange, NetworkType network) {
+            delegate.start(chatId, symbol, exchange, network);
+        }
+
+        @Override
+        public void stop(Long chatId, String symbol) {
+            delegate.stop(chatId, symbol);
+        }
+
+        @Override
+        public void stop(Long chatId, String symbol, String exchange, NetworkType network) {
+            delegate.stop(chatId, symbol, exchange, network);
+        }
+
+        @Override
+        public boolean isActive(Long chatId) {
+            return delegate.isActive(chatId);
+        }
+
+        @Override
+        public Instant getStartedAt(Long chatId) {
+            return delegate.getStartedAt(chatId);
+        }
+
+        @Override
+        public String getThreadName(Long chatId) {
+            return delegate.getThreadName(chatId);
+        }
+
+        @Override
+        public void replayLayers(Long chatId) {
+            delegate.replayLayers(chatId);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.chicu.aitradebot.market.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymbolFiltersTest {
+
+    private static SymbolDescriptor descriptor(String minNotional, String step, String tick) {
+        return SymbolDescriptor.of("BTCUSDT", "BTC", "USDT", null, null, null,
+                minNotional == null ? null : new BigDecimal(minNotional),
+                step == null ? null : new BigDecimal(step),
+                tick == null ? null : new BigDecimal(tick),
+                null, true, "BINANCE");
+    }
+
+    @Test
+    void stepsAreParsedIntoScaledUnits() {
+        SymbolFilters f = SymbolFilters.of(descriptor("5", "0.00010000", "0.01"));
+
+        assertEquals(2, f.priceScale());
+        assertEquals(1, f.tickUnits());
+        assertEquals(4, f.qtyScale());
+        assertEquals(1, f.stepUnits());
+
+        SymbolFilters coarse = SymbolFilters.of(descriptor(null, "10", "0.05"));
+        assertEquals(0, coarse.qtyScale());
+        assertEquals(10, coarse.stepUnits());
+        assertEquals(5, coarse.tickUnits());
+        assertFalse(coarse.hasMinNotional());
+    }
+
+    @Test
+    void snapsDownLikeExchange() {
+        SymbolFilters f = SymbolFilters.of(descriptor("5", "0.0001", "0.05"));
+
+        assertEquals(new BigDecimal("0.0123"), f.snapQtyDown(new BigDecimal("0.012399")));
+        assertEquals(new BigDecimal("42000.15"), f.snapPriceDown(new BigDecimal("42000.1999")));
+        assertEquals(new BigDecimal("42000.00"), f.snapPriceDown(new BigDecimal("42000")));
+        assertEquals(new BigDecimal("0.0000"), f.snapQtyDown(new BigDecimal("0.00009")));
+    }
+
+    @Test
+    void minQtyForNotionalRoundsUpToStep() {
+        SymbolFilters f = SymbolFilters.of(descriptor("10", "0.001", "0.01"));
+
+        // 10 / 3333 = 0.0030003 → 0.004
+        assertEquals(new BigDecimal("0.004"), f.minQtyForNotional(new BigDecimal("3333")));
+        // ровно на границе — без лишнего шага
+        assertEquals(new BigDecimal("0.010"), f.minQtyForNotional(new BigDecimal("1000")));
+    }
+
+    @Test
+    void unknownFiltersDoNothing() {
+        SymbolFilters f = SymbolFilters.of(descriptor(null, null, null));
+
+        assertFalse(f.hasStep());
+        assertFalse(f.hasTick());
+        BigDecimal qty = new BigDecimal("1.23456789");
+        assertSame(qty, f.snapQtyDown(qty));
+        assertNull(f.minQtyForNotional(new BigDecimal("100")));
+    }
+}
@@ -0,0 +1,91 @@
+package com.chicu.aitradebot.market.orderbook;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalOrderBookTest {
+
+    private static double[] lv(double... pq) {
+        return pq;
+    }
+
+    @Test
+    void snapshot_shouldDropOldBufferedEvents_andApplyBridgingOnes() {
+        LocalOrderBook book = new LocalOrderBook("BTCUSDT", 100, 100);
+
+        assertEquals(LocalOrderBook.ApplyResult.BUFFERED, book.onDiff(90, 95, lv(99, 9), lv()));     // старее snapshot'а
+        assertEquals(LocalOrderBook.ApplyResult.BUFFERED, book.onDiff(96, 102, lv(100, 0), lv(101, 3)));
+        assertTrue(Double.isNaN(book.bestBid()));
+
+        assertTrue(book.applySnapshot(100, lv(100, 1, 99, 2), lv(101, 1, 102, 5)));
+
+        assertEquals(LocalOrderBook.Status.LIVE, book.status());
+        assertEquals(102, book.lastUpdateId());
+        assertEquals(99, book.bestBid());          // уровень 100 удалён diff'ом
+        assertEquals(101, book.bestAsk());
+        assertEquals(3, book.depthAt(false, 101));
+        assertEquals(2, book.depthAt(true, 99));   // событие 90..95 не применилось (иначе было бы 9)
+
+        assertEquals(LocalOrderBook.ApplyResult.STALE, book.onDiff(101, 102, lv(99, 50), lv()));
+        assertEquals(LocalOrderBook.ApplyResult.APPLIED, book.onDiff(103, 104, lv(99.5, 4), lv()));
+        assertEquals(99.5, book.bestBid());
+    }
+
+    @Test
+    void snapshotOlderThanBuffer_shouldBeRejected() {
+        LocalOrderBook book = new LocalOrderBook("BTCUSDT", 100, 100);
+        book.onDiff(110, 115, lv(100, 1), lv(101, 1));
+
+        assertFalse(book.applySnapshot(100, lv(100, 1), lv(101, 1)));
+        assertEquals(LocalOrderBook.Status.SYNCING, book.status());
+
+        assertTrue(book.applySnapshot(112, lv(100, 2), lv(101, 2)));
+        assertEquals(115, book.lastUpdateId());
+    }
+
+    @Test
+    void gap_shouldResetBook() {
+        LocalOrderBook book = new LocalOrderBook("BTCUSDT", 100, 100);
+        assertTrue(book.applySnapshot(10, lv(100, 1), lv(101, 1)));
+
+        assertEquals(LocalOrderBook.ApplyResult.GAP, book.onDiff(13, 14, lv(100, 2), lv()));
+        assertEquals(LocalOrderBook.Status.SYNCING, book.status());
+        assertNull(book.estimate(true, 1));
+
+        // пропущенное событие осталось в буфере и применится поверх нового snapshot'а
+        assertTrue(book.applySnapshot(12, lv(100, 1), lv(101, 1)));
+        assertEquals(2, book.depthAt(true, 100));
+    }
+
+    @Test
+    void estimate_shouldWalkLevels() {
+        LocalOrderBook book = new LocalOrderBook("BTCUSDT", 100, 100);
+        book.applySnapshot(1, lv(99, 1, 98, 1), lv(100, 1, 101, 1, 102, 1));
+
+        FillEstimate buy = book.estimate(true, 2);
+        assertTrue(buy.complete());
+        assertEquals(100.5, buy.avgPrice(), 1e-9);
+        assertEquals(101, buy.worstPrice());
+        assertEquals(50.0, buy.slippageBps(), 1e-9);
+        assertEquals(2, buy.levels());
+
+        FillEstimate sell = book.estimate(false, 5);
+        assertFalse(sell.complete());
+        assertEquals(2, sell.filledQty());
+        assertEquals(98.5, sell.avgPrice(), 1e-9);
+
+        assertEquals(3, book.depthUpTo(false, 102));
+        assertEquals(1, book.depthUpTo(true, 98.5));
+    }
+
+    @Test
+    void maxLevels_shouldKeepOnlyBestLevels() {
+        LocalOrderBook book = new LocalOrderBook("BTCUSDT", 2, 100);
+        book.applySnapshot(1, lv(97, 1, 99, 1, 98, 1), lv());
+
+        assertEquals(99, book.bestBid());
+        assertEquals(1, book.depthAt(true, 98));
+        assertEquals(0, book.depthAt(true, 97));
+    }
+}
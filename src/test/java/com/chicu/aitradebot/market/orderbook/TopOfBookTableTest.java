@@ -0,0 +1,84 @@
+package com.chicu.aitradebot.market.orderbook;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopOfBookTableTest {
+
+    @Test
+    void update_shouldKeepMissingSide_andRejectHalfQuotes() {
+        TopOfBookTable table = new TopOfBookTable(4);
+        int slot = table.slot(TopOfBookTable.key("BYBIT", "BTCUSDT"));
+
+        assertNull(table.read(slot));
+
+        table.update(slot, 100, 1, Double.NaN, Double.NaN, 1L, 1L);
+        assertNull(table.read(slot)); // ask ещё не было
+
+        table.update(slot, Double.NaN, Double.NaN, 101, 2, 2L, 2L);
+        TopOfBookQuote q = table.read(slot);
+        assertEquals(100, q.bid());
+        assertEquals(101, q.ask());
+        assertEquals(100.5, q.mid());
+        assertEquals(2, q.exchangeTs());
+        assertEquals(101, q.touch(true));
+    }
+
+    @Test
+    void slots_shouldBeStable_andBounded() {
+        TopOfBookTable table = new TopOfBookTable(2);
+
+        assertEquals(0, table.slot("BINANCE:BTCUSDT"));
+        assertEquals(1, table.slot("BYBIT:BTCUSDT"));
+        assertEquals(0, table.slot("BINANCE:BTCUSDT"));
+        assertEquals(-1, table.slot("BINANCE:ETHUSDT"));
+        assertEquals(-1, table.find("BINANCE:ETHUSDT"));
+    }
+
+    @Test
+    void release_shouldFreeSlot_andClearQuote() {
+        TopOfBookTable table = new TopOfBookTable(1);
+
+        int slot = table.slot("BINANCE:BTCUSDT");
+        table.update(slot, 100, 1, 101, 1, 1L, 1L);
+
+        assertTrue(table.release("BINANCE:BTCUSDT"));
+        assertFalse(table.release("BINANCE:BTCUSDT"));
+        assertEquals(-1, table.find("BINANCE:BTCUSDT"));
+
+        // слот достался новому ключу без чужой вершины
+        assertEquals(slot, table.slot("BINANCE:ETHUSDT"));
+        assertNull(table.read(slot));
+    }
+
+    @Test
+    void reader_shouldNeverSeeTornQuote() throws Exception {
+        TopOfBookTable table = new TopOfBookTable(1);
+        int slot = table.slot("BINANCE:BTCUSDT");
+        table.update(slot, 1, 1, 2, 1, 0L, 0L);
+
+        AtomicBoolean stop = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            // инвариант записи: ask = bid + 1, qty = bid
+            for (int i = 1; !stop.get(); i++) {
+                table.update(slot, i, i, i + 1, i, i, i);
+            }
+        });
+        writer.start();
+
+        try {
+            for (int n = 0; n < 200_000; n++) {
+                TopOfBookQuote q = table.read(slot);
+                assertEquals(q.bid() + 1, q.ask());
+                assertEquals(q.bid(), q.bidQty());
+                assertEquals(q.bid(), q.askQty());
+            }
+        } finally {
+            stop.set(true);
+            writer.join();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.chicu.aitradebot.market.recorder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MmapTickRecorderTest {
+
+    @TempDir
+    Path dir;
+
+    private MmapTickRecorder recorder() {
+        TickRecorderProperties props = new TickRecorderProperties();
+        props.setDir(dir.toString());
+        props.setSegmentMb(1);
+        MmapTickRecorder r = new MmapTickRecorder(props, new SimpleMeterRegistry());
+        r.start();
+        return r;
+    }
+
+    @Test
+    void recordedTicks_shouldBeReadBack_andDuplicateAggIdsSkipped() throws Exception {
+        MmapTickRecorder r = recorder();
+
+        r.recordAggTrade("btcusdt", 10, 1_000L, 100.5, 0.25, true);
+        r.recordAggTrade("BTCUSDT", 10, 1_000L, 100.5, 0.25, true); // та же сделка с другой подписки
+        r.recordAggTrade("ETHUSDT", 7, 1_001L, 2_000.0, 1.0, false);
+        r.recordKline("BTCUSDT", "1m", 60_000L, 1, 2, 0.5, 1.5, 10, true);
+        r.recordKline("BTCUSDT", "1m", 60_000L, 1, 2, 0.5, 1.5, 10, true); // без изменений
+
+        List<String> seen = new ArrayList<>();
+        TickDictionary dict = r.dictionary();
+
+        long n = r.readDay(LocalDate.now(ZoneOffset.UTC), new TickVisitor() {
+            @Override
+            public void onAggTrade(int symbolId, long exchangeTs, long receiptTs, double price, double qty, int flags) {
+                seen.add("agg " + dict.nameOf(symbolId) + " " + exchangeTs + " " + price + " " + qty + " " + flags);
+                assertTrue(receiptTs >= exchangeTs);
+            }
+
+            @Override
+            public void onKline(int symbolId, int tfSeconds, long openTime, long receiptTs,
+                                double open, double high, double low, double close, double volume, int flags) {
+                seen.add("kline " + dict.nameOf(symbolId) + " " + TickSegmentFormat.tfLabel(tfSeconds)
+                         + " " + openTime + " " + close + " " + flags);
+            }
+        });
+
+        r.shutdown();
+
+        assertEquals(3, n);
+        assertEquals(List.of(
+                "agg BTCUSDT 1000 100.5 0.25 1",
+                "agg ETHUSDT 1001 2000.0 1.0 0",
+                "kline BTCUSDT 1m 60000 1.5 1"
+        ), seen);
+    }
+
+    @Test
+    void dictionary_shouldSurviveRestart() throws Exception {
+        MmapTickRecorder first = recorder();
+        first.recordAggTrade("BTCUSDT", 1, 1L, 1, 1, false);
+        first.recordAggTrade("ETHUSDT", 1, 1L, 1, 1, false);
+        first.shutdown();
+
+        MmapTickRecorder second = recorder();
+        assertEquals(1, second.dictionary().find("ETHUSDT"));
+        assertEquals(-1, second.dictionary().find("SOLUSDT"));
+
+        // новый запуск — новый сегмент, старый не дописывается
+        second.recordAggTrade("BTCUSDT", 2, 2L, 1, 1, false);
+        second.shutdown();
+
+        assertEquals(2, second.segments(LocalDate.now(ZoneOffset.UTC)).size());
+    }
+}
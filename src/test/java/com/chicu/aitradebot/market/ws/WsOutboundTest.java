@@ -0,0 +1,101 @@
+package com.chicu.aitradebot.market.ws;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class WsOutboundTest {
+
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final WsOutbound outbound = new WsOutbound(new WsOutboundProperties(), registry, new ObjectMapper());
+
+    @BeforeEach
+    void setUp() {
+        // без пула: задачи отправки выполняем руками
+        outbound.start(tasks::add);
+    }
+
+    @Test
+    void fullBufferDropsOldest_andSendsOnOutboundThreadOnly() throws Exception {
+        WebSocketSession ws = session("s1");
+        WsOutbound.Channel channel = outbound.channel("market", 2);
+        channel.attach(ws);
+
+        channel.broadcast(outbound.encode("a"));
+        channel.broadcast(outbound.encode("b"));
+        channel.broadcast(outbound.encode("c"));
+
+        // на потоке вызова — ни одной отправки, одна задача drain на сессию
+        verify(ws, never()).sendMessage(any());
+        assertEquals(1, tasks.size());
+
+        runAll();
+
+        ArgumentCaptor<TextMessage> sent = ArgumentCaptor.forClass(TextMessage.class);
+        verify(ws, times(2)).sendMessage(sent.capture());
+        assertEquals(List.of("b", "c"), sent.getAllValues().stream().map(TextMessage::getPayload).toList());
+        assertEquals(1.0, registry.get("ws.outbound.dropped").tag("channel", "market").functionCounter().count());
+        assertEquals(2.0, registry.get("ws.outbound.sent").tag("channel", "market").functionCounter().count());
+    }
+
+    @Test
+    void payloadIsEncodedOnceAsJson() throws Exception {
+        WebSocketSession a = session("a");
+        WebSocketSession b = session("b");
+        WsOutbound.Channel channel = outbound.channel("trades", 16);
+        channel.attach(a);
+        channel.attach(b);
+
+        TextMessage msg = outbound.encode(Map.of("p", 1));
+        channel.broadcast(msg);
+        runAll();
+
+        verify(a).sendMessage(same(msg));
+        verify(b).sendMessage(same(msg));
+        assertEquals("{\"p\":1}", msg.getPayload());
+    }
+
+    @Test
+    void failedSendClosesSession() throws Exception {
+        WebSocketSession ws = session("s1");
+        doThrow(new IOException("broken pipe")).when(ws).sendMessage(any());
+
+        WsOutbound.Channel channel = outbound.channel("market", 16);
+        channel.attach(ws);
+
+        channel.broadcast(outbound.encode("a"));
+        channel.broadcast(outbound.encode("b"));
+        runAll();
+
+        verify(ws, times(1)).sendMessage(any());
+        verify(ws).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(0, channel.get(ws).queued());
+    }
+
+    private void runAll() {
+        Runnable r;
+        while ((r = tasks.poll()) != null) r.run();
+    }
+
+    private static WebSocketSession session(String id) {
+        WebSocketSession ws = mock(WebSocketSession.class);
+        when(ws.getId()).thenReturn(id);
+        when(ws.isOpen()).thenReturn(true);
+        return ws;
+    }
+}
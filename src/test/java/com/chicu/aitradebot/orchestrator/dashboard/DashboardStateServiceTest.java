@@ -0,0 +1,86 @@
+package com.chicu.aitradebot.orchestrator.dashboard;
+
+import com.chicu.aitradebot.account.stream.AccountBalanceBook;
+import com.chicu.aitradebot.orchestrator.AiStrategyOrchestrator.GlobalState;
+import com.chicu.aitradebot.service.StrategySettingsService;
+import com.chicu.aitradebot.trade.position.PositionBook;
+import com.chicu.aitradebot.trade.position.PositionKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DashboardStateServiceTest {
+
+    private final StrategySettingsService settings = mock(StrategySettingsService.class);
+    private final PositionBook positions = new PositionBook(new SimpleMeterRegistry());
+    private final SimpMessagingTemplate ws = mock(SimpMessagingTemplate.class);
+    private final DashboardStateService service;
+
+    DashboardStateServiceTest() {
+        DashboardStateProperties props = new DashboardStateProperties();
+        props.setCacheTtlMs(60_000);
+        props.setPushEnabled(true);
+        service = new DashboardStateService(settings, positions, mock(AccountBalanceBook.class), ws, props);
+    }
+
+    @Test
+    void stateIsCachedUntilInvalidated() {
+        when(settings.countActive(7L)).thenReturn(2L, 3L);
+
+        assertEquals(2, service.get(7L).activeStrategies());
+        assertEquals(2, service.get(7L).activeStrategies());
+        verify(settings, times(1)).countActive(7L);
+
+        service.invalidate(7L);
+        assertEquals(3, service.get(7L).activeStrategies());
+    }
+
+    @Test
+    void profitComesFromPositionBook() {
+        positions.applyFill(PositionKey.of(7L, "BINANCE", "BTCUSDT"), true, 1.0, 100.0, 0.0, 0.0, 1);
+        positions.mark("BTCUSDT", 110.0);
+
+        assertEquals(new BigDecimal("10.00"), service.get(7L).totalProfitPct());
+    }
+
+    @Test
+    void pushOnlyToWatchedChats_andOnlyOnChange() {
+        when(settings.countActive(7L)).thenReturn(1L, 1L, 2L);
+
+        service.push();
+        verifyNoInteractions(ws);
+
+        service.onSubscribe(new SessionSubscribeEvent(this, subscribe("/topic/dashboard/7")));
+
+        service.push();
+        service.push();
+        verify(ws, times(1)).convertAndSend(eq("/topic/dashboard/7"), any(GlobalState.class));
+
+        service.invalidate(7L);
+        service.push();
+        verify(ws, times(1)).convertAndSend(eq("/topic/dashboard/7"), any(GlobalState.class));
+
+        service.invalidate(7L);
+        service.push();
+        verify(ws, times(2)).convertAndSend(eq("/topic/dashboard/7"), any(GlobalState.class));
+    }
+
+    private static Message<byte[]> subscribe(String dest) {
+        StompHeaderAccessor h = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        h.setSessionId("s1");
+        h.setSubscriptionId("sub-1");
+        h.setDestination(dest);
+        return MessageBuilder.createMessage(new byte[0], h.getMessageHeaders());
+    }
+}
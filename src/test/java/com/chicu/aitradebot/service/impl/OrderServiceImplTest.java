@@ -2,19 +2,22 @@ package com.chicu.aitradebot.service.impl;
 
 import com.chicu.aitradebot.common.enums.NetworkType;
 import com.chicu.aitradebot.common.enums.StrategyType;
-import com.chicu.aitradebot.domain.ExchangeSettings;
 import com.chicu.aitradebot.domain.OrderEntity;
 import com.chicu.aitradebot.exchange.client.ExchangeClient;
-import com.chicu.aitradebot.exchange.client.ExchangeClientFactory;
 import com.chicu.aitradebot.journal.TradeIntentEvent;
 import com.chicu.aitradebot.market.guard.ExchangeAIGuard;
 import com.chicu.aitradebot.market.guard.GuardResult;
-import com.chicu.aitradebot.market.service.MarketSymbolService;
+import com.chicu.aitradebot.market.model.IndexedSymbol;
+import com.chicu.aitradebot.market.orderbook.LocalOrderBookService;
+import com.chicu.aitradebot.market.orderbook.TopOfBookService;
 import com.chicu.aitradebot.repository.OrderRepository;
 import com.chicu.aitradebot.service.OrderService;
 import com.chicu.aitradebot.service.TradeJournalGateway;
-import com.chicu.aitradebot.exchange.service.ExchangeSettingsService;
+import com.chicu.aitradebot.service.order.ChatExecutionContext;
+import com.chicu.aitradebot.service.order.ChatExecutionContextCache;
 import com.chicu.aitradebot.strategy.live.StrategyLivePublisher;
+import com.chicu.aitradebot.trade.paper.PaperMatchingEngine;
+import com.chicu.aitradebot.trade.position.PositionFillListener;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -22,8 +25,7 @@ import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
-import java.time.Instant;
-import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -34,11 +36,13 @@ class OrderServiceImplTest {
 
     @Mock private OrderRepository orderRepository;
     @Mock private StrategyLivePublisher livePublisher;
-    @Mock private ExchangeClientFactory exchangeClientFactory;
-    @Mock private ExchangeSettingsService exchangeSettingsService;
+    @Mock private ChatExecutionContextCache executionContexts;
     @Mock private ExchangeAIGuard aiGuard;
-    @Mock private MarketSymbolService marketSymbolService;
     @Mock private TradeJournalGateway tradeJournalGateway;
+    @Mock private LocalOrderBookService orderBooks;
+    @Mock private TopOfBookService topOfBook;
+    @Mock private PaperMatchingEngine paperEngine;
+    @Mock private PositionFillListener positionFills;
     @Mock private ExchangeClient exchangeClient;
 
     @InjectMocks
@@ -46,16 +50,16 @@ class OrderServiceImplTest {
 
     @BeforeEach
     void setupCommonMocks() {
-        when(exchangeClientFactory.getByChat(anyLong())).thenReturn(exchangeClient);
-        when(exchangeClient.getExchangeName()).thenReturn("BINANCE");
-
-        ExchangeSettings es = new ExchangeSettings();
-        es.setEnabled(true);
-        es.setExchange("BINANCE");
-        es.setNetwork(NetworkType.MAINNET);
-        es.setUpdatedAt(Instant.now()); // ✅ FIX: было Instant.from(LocalDateTime.now())
-
-        when(exchangeSettingsService.findAllByChatId(anyLong())).thenReturn(List.of(es));
+        when(executionContexts.forChat(anyLong())).thenAnswer(inv -> new ChatExecutionContext(
+                inv.<Long>getArgument(0),
+                "BINANCE",
+                NetworkType.MAINNET,
+                exchangeClient,
+                "****abcd",
+                null,
+                Map.of(),
+                System.currentTimeMillis()
+        ));
 
         when(tradeJournalGateway.recordIntent(
                 anyLong(),
@@ -80,7 +84,7 @@ class OrderServiceImplTest {
     void placeMarket_legacy_shouldSaveEntity_andCallJournal_andPublishTrade_whenGuardOk() {
         GuardResult guard = GuardResult.pass(new BigDecimal("0.010"), new BigDecimal("42000"));
 
-        when(aiGuard.validateAndAdjust(anyString(), any(), any(), any(), anyBoolean()))
+        when(aiGuard.validateAndAdjust(anyString(), nullable(IndexedSymbol.class), any(), any(), anyBoolean()))
                 .thenReturn(guard);
 
         // repository save возвращает сущность (обычно так и бывает)
@@ -143,6 +147,10 @@ class OrderServiceImplTest {
                 eq("ENTRY")
         );
 
+        // позиция — по сохранённым qty / цене (после guard'а)
+        verify(positionFills, times(1)).onMarketFill(
+                eq(10L), eq("BTCUSDT"), eq("BUY"), eq(new BigDecimal("0.010")), eq(new BigDecimal("42000")), any());
+
         // пушим trade в лайв
         verify(livePublisher, times(1)).pushTrade(
                 eq(10L),
@@ -163,7 +171,7 @@ class OrderServiceImplTest {
                 "BLOCKED"
         );
 
-        when(aiGuard.validateAndAdjust(anyString(), any(), any(), any(), anyBoolean()))
+        when(aiGuard.validateAndAdjust(anyString(), nullable(IndexedSymbol.class), any(), any(), anyBoolean()))
                 .thenReturn(guard);
 
         assertThrows(IllegalArgumentException.class, () -> service.placeMarket(
@@ -192,6 +200,7 @@ class OrderServiceImplTest {
 
         // ❌ никаких ордеров/лайва при блоке
         verify(orderRepository, never()).save(any());
+        verify(positionFills, never()).onMarketFill(any(), any(), any(), any(), any(), any());
         verify(livePublisher, never()).pushTrade(anyLong(), any(), anyString(), anyString(), any(), any(), any());
 
         // ❌ clientOrderId не привязываем при REJECT
@@ -203,7 +212,7 @@ class OrderServiceImplTest {
     void placeMarket_context_shouldBehaveSameAsLegacy() {
         GuardResult guard = GuardResult.pass(new BigDecimal("0.005"), new BigDecimal("40000"));
 
-        when(aiGuard.validateAndAdjust(anyString(), any(), any(), any(), anyBoolean()))
+        when(aiGuard.validateAndAdjust(anyString(), nullable(IndexedSymbol.class), any(), any(), anyBoolean()))
                 .thenReturn(guard);
 
         when(orderRepository.save(any(OrderEntity.class))).thenAnswer(inv -> inv.getArgument(0));
@@ -0,0 +1,113 @@
+package com.chicu.aitradebot.service.order;
+
+import com.chicu.aitradebot.common.enums.NetworkType;
+import com.chicu.aitradebot.domain.ExchangeSettings;
+import com.chicu.aitradebot.exchange.client.ExchangeClient;
+import com.chicu.aitradebot.exchange.client.ExchangeClientFactory;
+import com.chicu.aitradebot.exchange.service.ExchangeSettingsChangedEvent;
+import com.chicu.aitradebot.exchange.service.ExchangeSettingsService;
+import com.chicu.aitradebot.market.model.IndexedSymbol;
+import com.chicu.aitradebot.market.model.SymbolDescriptor;
+import com.chicu.aitradebot.market.service.MarketSymbolService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChatExecutionContextCacheTest {
+
+    @Mock private ExchangeClientFactory clientFactory;
+    @Mock private ExchangeSettingsService settingsService;
+    @Mock private MarketSymbolService marketSymbolService;
+    @Mock private ExchangeClient client;
+
+    private ChatExecutionContextCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ChatExecutionContextCache(clientFactory, settingsService, marketSymbolService);
+    }
+
+    private void stubChat() {
+        when(settingsService.findAllByChatId(7L)).thenReturn(List.of(settings("secret-key-1234")));
+        when(clientFactory.get("BYBIT", NetworkType.TESTNET)).thenReturn(client);
+        when(marketSymbolService.index(eq("BYBIT"), eq(NetworkType.TESTNET), anyString()))
+                .thenReturn(Map.of("BTCUSDT", IndexedSymbol.of(SymbolDescriptor.of("btcusdt", "BTC", "USDT", null, null, null,
+                        new BigDecimal("5"), new BigDecimal("0.0001"), new BigDecimal("0.1"), null, true, "BYBIT"))));
+    }
+
+    @Test
+    void secondOrderIsServedFromMemory() {
+        stubChat();
+
+        ChatExecutionContext first = cache.forChat(7L);
+        ChatExecutionContext second = cache.forChat(7L);
+
+        assertSame(first, second);
+        assertEquals("BYBIT", first.exchange());
+        assertEquals(NetworkType.TESTNET, first.network());
+        assertEquals("****1234", first.apiKeyHandle());
+        assertEquals(new BigDecimal("0.0001"), first.symbol("BTCUSDT").descriptor().stepSize());
+        assertNull(first.symbol("ETHUSDT"));
+
+        verify(settingsService, times(1)).findAllByChatId(7L);
+        verify(marketSymbolService, times(1)).index(any(), any(), any());
+    }
+
+    @Test
+    void contextWithoutFiltersIsCachedBriefly() {
+        when(settingsService.findAllByChatId(7L)).thenReturn(List.of(settings("secret-key-1234")));
+        when(clientFactory.get("BYBIT", NetworkType.TESTNET)).thenReturn(client);
+        when(marketSymbolService.index(any(), any(), any())).thenThrow(new IllegalStateException("exchange down"));
+
+        ChatExecutionContext first = cache.forChat(7L);
+        ChatExecutionContext second = cache.forChat(7L);
+
+        // биржа лежит — второй ордер не идёт заново в БД / за комиссиями / за exchangeInfo
+        assertSame(first, second);
+        assertTrue(first.symbols().isEmpty());
+        verify(settingsService, times(1)).findAllByChatId(7L);
+        verify(marketSymbolService, times(1)).index(any(), any(), any());
+    }
+
+    @Test
+    void settingsEventInvalidatesWholeChat() {
+        stubChat();
+
+        ChatExecutionContext first = cache.forChat(7L);
+
+        cache.onSettingsChanged(new ExchangeSettingsChangedEvent(
+                7L, "BYBIT", NetworkType.TESTNET, ExchangeSettingsChangedEvent.Change.KEYS));
+        assertEquals(0, cache.size());
+
+        ChatExecutionContext second = cache.forChat(7L);
+        assertNotSame(first, second);
+        verify(settingsService, times(2)).findAllByChatId(7L);
+    }
+
+    @Test
+    void maskKeyNeverLeaksWholeKey() {
+        assertNull(ChatExecutionContextCache.maskKey("  "));
+        assertEquals("****", ChatExecutionContextCache.maskKey("abc"));
+        assertEquals("****wxyz", ChatExecutionContextCache.maskKey("0123456789wxyz"));
+    }
+
+    private static ExchangeSettings settings(String apiKey) {
+        ExchangeSettings s = new ExchangeSettings();
+        s.setChatId(7L);
+        s.setExchange("BYBIT");
+        s.setNetwork(NetworkType.TESTNET);
+        s.setApiKey(apiKey);
+        return s;
+    }
+}
@@ -0,0 +1,76 @@
+package com.chicu.aitradebot.service.order;
+
+import com.chicu.aitradebot.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OrderQueryServiceTest {
+
+    private final OrderRepository repo = mock(OrderRepository.class);
+    private final OrderQueryService service = new OrderQueryService(repo);
+
+    private static final LocalDateTime T = LocalDateTime.of(2026, 3, 1, 12, 0, 0, 123_456_000);
+
+    @Test
+    void cursorRoundTripKeepsMicroseconds() {
+        OrderCursor c = new OrderCursor(T, 42L);
+        assertEquals(c, OrderCursor.parse(c.encode()));
+        assertNull(OrderCursor.parse(" "));
+        assertThrows(IllegalArgumentException.class, () -> OrderCursor.parse("not-a-cursor"));
+    }
+
+    @Test
+    void fullPageReturnsCursorOfLastRow_andNextPageSeeksBeforeIt() {
+        when(repo.findPage(anyLong(), anyString(), any(), any(), anyLong(), any(), any(), any()))
+                .thenReturn(List.of(row(3, T.plusSeconds(2)), row(2, T.plusSeconds(1))));
+
+        OrderPage<OrderRow> page = service.page(1L, "btcusdt", OrderFilter.of("grid", null, null, null), null, 2);
+
+        assertEquals(2, page.items().size());
+        assertEquals(new OrderCursor(T.plusSeconds(1), 2), OrderCursor.parse(page.nextCursor()));
+        verify(repo).findPage(eq(1L), eq("BTCUSDT"), any(), any(), eq(Long.MAX_VALUE), eq("GRID"), isNull(), eq(Limit.of(2)));
+
+        service.page(1L, "BTCUSDT", OrderFilter.NONE, page.nextCursor(), 2);
+        verify(repo).findPage(eq(1L), eq("BTCUSDT"), any(), eq(T.plusSeconds(1)), eq(2L), isNull(), isNull(), eq(Limit.of(2)));
+    }
+
+    @Test
+    void shortPageIsLast() {
+        when(repo.findPage(anyLong(), anyString(), any(), any(), anyLong(), any(), any(), any()))
+                .thenReturn(List.of(row(1, T)));
+
+        assertNull(service.page(1L, "BTCUSDT", null, null, 10).nextCursor());
+    }
+
+    @Test
+    void forEachWalksAllPages() {
+        List<OrderRow> first = new ArrayList<>();
+        for (int i = 0; i < OrderQueryService.SCAN_PAGE; i++) {
+            first.add(row(10_000 - i, T.minusSeconds(i)));
+        }
+        when(repo.findPage(anyLong(), anyString(), any(), any(), anyLong(), any(), any(), any()))
+                .thenReturn(first, List.of(row(5, T.minusDays(1))));
+
+        List<Long> seen = new ArrayList<>();
+        service.forEach(1L, "BTCUSDT", OrderFilter.NONE, o -> seen.add(o.id()));
+
+        assertEquals(OrderQueryService.SCAN_PAGE + 1, seen.size());
+        assertEquals(5L, seen.get(seen.size() - 1));
+        verify(repo, times(2)).findPage(anyLong(), anyString(), any(), any(), anyLong(), any(), any(), any());
+    }
+
+    private static OrderRow row(long id, LocalDateTime createdAt) {
+        return new OrderRow(id, "BTCUSDT", "BUY", "FILLED", true, "GRID",
+                BigDecimal.ONE, BigDecimal.ONE, BigDecimal.ONE, BigDecimal.ONE, BigDecimal.ZERO, BigDecimal.ZERO,
+                1L, createdAt);
+    }
+}
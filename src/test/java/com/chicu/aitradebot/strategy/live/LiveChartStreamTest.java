@@ -0,0 +1,74 @@
+package com.chicu.aitradebot.strategy.live;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiveChartStreamTest {
+
+    private LiveChartStream stream(int ringSize) {
+        StrategyLiveProperties props = new StrategyLiveProperties();
+        props.setChartRingSize(ringSize);
+        return new LiveChartStream(props);
+    }
+
+    @Test
+    void record_shouldAppendNewBar_andUpdateLastBar() {
+        LiveChartStream s = stream(16);
+
+        LiveChartStream.Delta d1 = s.record("BTCUSDT", "1m", 60_000, 1, 2, 0.5, 1.5, 10);
+        LiveChartStream.Delta d2 = s.record("BTCUSDT", "1m", 60_000, 1, 3, 0.5, 2.5, 12);
+        LiveChartStream.Delta d3 = s.record("BTCUSDT", "1m", 120_000, 2.5, 2.6, 2.4, 2.5, 1);
+
+        assertEquals(LiveChartStream.OP_APPEND, d1.op());
+        assertEquals(LiveChartStream.OP_UPDATE, d2.op());
+        assertEquals(LiveChartStream.OP_APPEND, d3.op());
+        assertEquals(3L, d3.seq());
+
+        LiveChartStream.Replay snap = s.snapshot("BTCUSDT", "1m");
+        assertEquals(3L, snap.seq());
+        assertEquals(2, snap.bars().size(), "на один бар — одна запись");
+        assertEquals(2.5, snap.bars().get(0).close(), 1e-9);
+    }
+
+    @Test
+    void record_shouldNotBumpSeq_forIdenticalBar_andRejectOlderBar() {
+        LiveChartStream s = stream(16);
+
+        s.record("BTCUSDT", "1m", 120_000, 1, 2, 0.5, 1.5, 10);
+        LiveChartStream.Delta same = s.record("BTCUSDT", "1m", 120_000, 1, 2, 0.5, 1.5, 10);
+
+        assertEquals(1L, same.seq());
+        assertNull(s.record("BTCUSDT", "1m", 60_000, 1, 2, 0.5, 1.5, 10));
+    }
+
+    @Test
+    void since_shouldReturnOnlyMissedBars() {
+        LiveChartStream s = stream(16);
+
+        s.record("BTCUSDT", "1m", 60_000, 1, 1, 1, 1, 1);
+        s.record("BTCUSDT", "1m", 120_000, 2, 2, 2, 2, 1);
+        s.record("BTCUSDT", "1m", 180_000, 3, 3, 3, 3, 1);
+
+        LiveChartStream.Replay r = s.since("BTCUSDT", "1m", 1L);
+
+        assertFalse(r.reset());
+        assertEquals(3L, r.seq());
+        assertEquals(2, r.bars().size());
+        assertEquals(120_000L, r.bars().get(0).time());
+    }
+
+    @Test
+    void since_shouldRequestReset_whenGapLongerThanRing_orSeqFromFuture() {
+        LiveChartStream s = stream(16);
+
+        for (int i = 1; i <= 40; i++) {
+            s.record("BTCUSDT", "1m", i * 60_000L, i, i, i, i, 1);
+        }
+
+        assertTrue(s.since("BTCUSDT", "1m", 5L).reset(), "пропуск вытеснен из кольца");
+        assertTrue(s.since("BTCUSDT", "1m", 100L).reset(), "сервер перезапущен");
+        assertFalse(s.since("BTCUSDT", "1m", 30L).reset());
+        assertTrue(s.since("ETHUSDT", "1m", 3L).reset(), "неизвестный поток при seq > 0");
+    }
+}
@@ -0,0 +1,66 @@
+package com.chicu.aitradebot.strategy.live;
+
+import com.chicu.aitradebot.common.enums.StrategyType;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LiveSubscriptionRegistryTest {
+
+    private final StrategyLiveWsBridge bridge = mock(StrategyLiveWsBridge.class);
+    private final LiveSubscriptionRegistry registry = new LiveSubscriptionRegistry(bridge);
+
+    @Test
+    void subscribe_shouldMarkStrategyWatched_andSendSnapshot() {
+        assertFalse(registry.hasStrategySubscribers(42L, StrategyType.GRID));
+
+        registry.onSubscribe(new SessionSubscribeEvent(this, frame(StompCommand.SUBSCRIBE, "s1", "sub-1",
+                "/topic/strategy/42/GRID")));
+
+        assertTrue(registry.hasStrategySubscribers(42L, StrategyType.GRID));
+        assertFalse(registry.hasStrategySubscribers(42L, StrategyType.DCA));
+        verify(bridge).replayLayers(42L, StrategyType.GRID);
+    }
+
+    @Test
+    void unsubscribe_andDisconnect_shouldReleaseTopics() {
+        registry.onSubscribe(new SessionSubscribeEvent(this, frame(StompCommand.SUBSCRIBE, "s1", "sub-1",
+                "/topic/strategy/42/GRID")));
+        registry.onSubscribe(new SessionSubscribeEvent(this, frame(StompCommand.SUBSCRIBE, "s1", "sub-2",
+                "/topic/market/BTCUSDT")));
+
+        registry.onUnsubscribe(new SessionUnsubscribeEvent(this, frame(StompCommand.UNSUBSCRIBE, "s1", "sub-1", null)));
+        assertFalse(registry.hasStrategySubscribers(42L, StrategyType.GRID));
+        assertTrue(registry.hasMarketSubscribers("BTCUSDT"));
+
+        registry.onDisconnect(new SessionDisconnectEvent(this, frame(StompCommand.DISCONNECT, "s1", null, null),
+                "s1", CloseStatus.NORMAL));
+        assertFalse(registry.hasMarketSubscribers("BTCUSDT"));
+    }
+
+    @Test
+    void foreignDestinations_shouldBeIgnored() {
+        registry.onSubscribe(new SessionSubscribeEvent(this, frame(StompCommand.SUBSCRIBE, "s1", "sub-1",
+                "/topic/strategy/42/GRID/BTCUSDT")));
+
+        assertFalse(registry.hasStrategySubscribers(42L, StrategyType.GRID));
+        verifyNoInteractions(bridge);
+    }
+
+    private static Message<byte[]> frame(StompCommand cmd, String sessionId, String subscriptionId, String dest) {
+        StompHeaderAccessor h = StompHeaderAccessor.create(cmd);
+        h.setSessionId(sessionId);
+        if (subscriptionId != null) h.setSubscriptionId(subscriptionId);
+        if (dest != null) h.setDestination(dest);
+        return MessageBuilder.createMessage(new byte[0], h.getMessageHeaders());
+    }
+}
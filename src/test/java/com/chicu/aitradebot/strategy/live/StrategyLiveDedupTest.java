@@ -0,0 +1,55 @@
+package com.chicu.aitradebot.strategy.live;
+
+import com.chicu.aitradebot.common.enums.StrategyType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StrategyLiveDedupTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final StrategyLiveDedup dedup = new StrategyLiveDedup(new StrategyLiveProperties(), registry);
+
+    @Test
+    void isDuplicate_shouldSkipSamePayload_andPassChangedPayload() {
+        assertFalse(dedup.isDuplicate(zone(1L, "100", "90")));
+        assertTrue(dedup.isDuplicate(zone(1L, "100", "90")));
+        assertFalse(dedup.isDuplicate(zone(1L, "101", "90")), "изменённая зона должна уйти в UI");
+        assertFalse(dedup.isDuplicate(zone(2L, "101", "90")), "другой чат — другой слот");
+    }
+
+    @Test
+    void evict_shouldForgetStoppedStrategy() {
+        assertFalse(dedup.isDuplicate(zone(1L, "100", "90")));
+
+        dedup.evict(1L, StrategyType.GRID);
+
+        assertFalse(dedup.isDuplicate(zone(1L, "100", "90")));
+    }
+
+    @Test
+    void metrics_shouldExposeHitRatio() {
+        dedup.isDuplicate(zone(1L, "100", "90"));
+        dedup.isDuplicate(zone(1L, "100", "90"));
+
+        assertEquals(0.5, dedup.hitRatio(), 1e-9);
+        assertEquals(1.0, registry.get("live.dedup.hits").functionCounter().count(), 1e-9);
+        assertEquals(1.0, registry.get("live.dedup.misses").functionCounter().count(), 1e-9);
+    }
+
+    private static StrategyLiveEvent zone(long chatId, String top, String bottom) {
+        return StrategyLiveEvent.builder()
+                .type("zone")
+                .chatId(chatId)
+                .strategyType(StrategyType.GRID)
+                .symbol("BTCUSDT")
+                .zone(StrategyLiveEvent.ZonePayload.builder()
+                        .top(new BigDecimal(top))
+                        .bottom(new BigDecimal(bottom))
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,140 @@
+package com.chicu.aitradebot.strategy.live;
+
+import com.chicu.aitradebot.common.enums.StrategyType;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class StrategyLiveFrameBufferTest {
+
+    private static final String DEST = "/topic/strategy/1/SCALPING";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpMessagingTemplate ws = mock(SimpMessagingTemplate.class);
+    private final StrategyLiveFrameBuffer buffer =
+            new StrategyLiveFrameBuffer(ws, new StrategyLiveProperties(), objectMapper);
+
+    @Test
+    void flush_shouldKeepOnlyLastPrice_andAllTrades_inOneFrame() {
+        buffer.offer(DEST, price("100"));
+        buffer.offer(DEST, trade("BUY"));
+        buffer.offer(DEST, price("101"));
+        buffer.offer(DEST, trade("SELL"));
+        buffer.offer(DEST, price("102"));
+
+        buffer.flush();
+
+        List<StrategyLiveEvent> frame = captureFrame();
+        assertEquals(3, frame.size(), "1 price + 2 trade");
+        assertEquals(1, frame.stream().filter(e -> "price".equals(e.getType())).count());
+        assertEquals(new BigDecimal("102"), frame.get(frame.size() - 1).getPrice(), "последняя цена — в конце кадра");
+        assertEquals(2, frame.stream().filter(e -> "trade".equals(e.getType())).count());
+    }
+
+    @Test
+    void flush_shouldKeepDifferentCandleBars() {
+        buffer.offer(DEST, candle(60_000L, "1"));
+        buffer.offer(DEST, candle(60_000L, "2"));
+        buffer.offer(DEST, candle(120_000L, "3"));
+
+        buffer.flush();
+
+        List<StrategyLiveEvent> frame = captureFrame();
+        assertEquals(2, frame.size(), "закрытие старого бара не должно теряться");
+        assertEquals(new BigDecimal("2"), frame.get(0).getKline().getClose());
+    }
+
+    @Test
+    void overflow_shouldDropOldestTrade_andKeepPrice() {
+        StrategyLiveProperties props = new StrategyLiveProperties();
+        props.setMaxEventsPerFrame(3);
+        StrategyLiveFrameBuffer small = new StrategyLiveFrameBuffer(ws, props, objectMapper);
+
+        small.offer(DEST, price("100"));
+        small.offer(DEST, trade("BUY"));
+        small.offer(DEST, trade("SELL"));
+        small.offer(DEST, trade("BUY2"));
+
+        small.flush();
+
+        List<StrategyLiveEvent> frame = captureFrame();
+        assertEquals(3, frame.size());
+        assertEquals("price", frame.get(0).getType(), "state-слот не вытесняется");
+        assertEquals(List.of("SELL", "BUY2"), frame.stream()
+                .filter(e -> "trade".equals(e.getType()))
+                .map(e -> e.getTrade().getSide())
+                .toList());
+    }
+
+    @Test
+    void flush_shouldSendNothing_whenFrameIsEmpty() {
+        buffer.flush();
+        verifyNoInteractions(ws);
+    }
+
+    @Test
+    void flush_shouldSendPreEncodedJsonArray() {
+        buffer.offer(DEST, price("100"));
+
+        buffer.flush();
+
+        Message<?> msg = captureMessage();
+        assertInstanceOf(byte[].class, msg.getPayload(), "payload уже сериализован");
+        assertTrue(new String((byte[]) msg.getPayload()).startsWith("["), "кадр — JSON-массив");
+        verify(ws, never()).convertAndSend(anyString(), any(Object.class));
+    }
+
+    private List<StrategyLiveEvent> captureFrame() {
+        try {
+            return objectMapper.readValue(
+                    (byte[]) captureMessage().getPayload(),
+                    new TypeReference<List<StrategyLiveEvent>>() {}
+            );
+        } catch (Exception e) {
+            throw new AssertionError("frame is not a JSON array of events", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Message<?> captureMessage() {
+        ArgumentCaptor<Message<?>> captor = ArgumentCaptor.forClass((Class) Message.class);
+        verify(ws, times(1)).send(eq(DEST), captor.capture());
+        return captor.getValue();
+    }
+
+    private static StrategyLiveEvent price(String p) {
+        return base("price").price(new BigDecimal(p)).build();
+    }
+
+    private static StrategyLiveEvent trade(String side) {
+        return base("trade")
+                .trade(StrategyLiveEvent.TradePayload.builder().side(side).build())
+                .build();
+    }
+
+    private static StrategyLiveEvent candle(long time, String close) {
+        return base("candle")
+                .time(time)
+                .kline(StrategyLiveEvent.CandlePayload.builder().close(new BigDecimal(close)).build())
+                .build();
+    }
+
+    private static StrategyLiveEvent.StrategyLiveEventBuilder base(String type) {
+        return StrategyLiveEvent.builder()
+                .type(type)
+                .chatId(1L)
+                .strategyType(StrategyType.SCALPING)
+                .symbol("BTCUSDT")
+                .timeframe("1m");
+    }
+}
@@ -0,0 +1,96 @@
+package com.chicu.aitradebot.strategy.replay;
+
+import com.chicu.aitradebot.common.enums.StrategyType;
+import com.chicu.aitradebot.domain.StrategySettings;
+import com.chicu.aitradebot.strategy.core.signal.Signal;
+import com.chicu.aitradebot.strategy.live.StrategyLiveEvent;
+import com.chicu.aitradebot.strategy.live.StrategyLiveProperties;
+import com.chicu.aitradebot.trade.EntryResult;
+import com.chicu.aitradebot.trade.PaperTradeExecutionService;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayLivePublisherTest {
+
+    private static final long T0 = 1_700_000_000_000L;
+
+    @Test
+    void publish_shouldStampVirtualTime_andSkipSubscriberGate() {
+        List<StrategyLiveEvent> out = new ArrayList<>();
+        ReplayClock clock = new ReplayClock(T0);
+        ReplayLivePublisher live = new ReplayLivePublisher(clock, out::add, new StrategyLiveProperties());
+
+        clock.advanceTo(T0 + 60_000);
+        live.pushSignal(1L, StrategyType.SCALPING, "btcusdt", null, Signal.hold("wait"));
+
+        assertEquals(1, out.size());
+        assertEquals(T0 + 60_000, out.getFirst().getTime(), "время сигнала — виртуальное, не wall-clock");
+        assertEquals("BTCUSDT", out.getFirst().getSymbol());
+    }
+
+    @Test
+    void marketData_shouldReachSink_withoutSubscriptionRegistry() {
+        List<StrategyLiveEvent> out = new ArrayList<>();
+        ReplayClock clock = new ReplayClock(T0);
+        ReplayLivePublisher live = new ReplayLivePublisher(clock, out::add, new StrategyLiveProperties());
+
+        live.pushCandleOhlc(1L, StrategyType.SCALPING, "BTCUSDT", "1m",
+                new BigDecimal("100"), new BigDecimal("102"), new BigDecimal("99"), new BigDecimal("101"),
+                BigDecimal.ONE, Instant.ofEpochMilli(T0));
+        clock.advanceTo(T0 + 5_000);
+        live.pushPriceTick(1L, StrategyType.SCALPING, "BTCUSDT", "1m", new BigDecimal("101.5"), clock.instant());
+
+        assertEquals(List.of("candle", "price"), out.stream().map(StrategyLiveEvent::getType).toList());
+        assertEquals(T0, out.get(0).getTime(), "у свечи — время бара");
+        assertEquals(0, new BigDecimal("101.5").compareTo(out.get(1).getPrice()));
+    }
+
+    @Test
+    void sameInputs_shouldProduceSameDigest() {
+        ReplayLivePublisher a = session();
+        ReplayLivePublisher b = session();
+
+        assertEquals(a.digest(), b.digest());
+        assertEquals(2, a.signals());
+        assertEquals(1, a.trades());
+    }
+
+    @Test
+    void paperEntry_shouldFillDeterministically() {
+        ReplayClock clock = new ReplayClock(T0);
+        ReplayLivePublisher live = new ReplayLivePublisher(clock, ev -> { }, new StrategyLiveProperties());
+        PaperTradeExecutionService paper = new PaperTradeExecutionService(live, new BigDecimal("1000"));
+
+        StrategySettings ss = new StrategySettings();
+        ss.setRiskPerTradePct(new BigDecimal("10"));
+
+        EntryResult r = paper.executeEntry(1L, StrategyType.SCALPING, "BTCUSDT",
+                new BigDecimal("100"), BigDecimal.ONE, Instant.ofEpochMilli(T0), ss,
+                new BigDecimal("1"), new BigDecimal("1"));
+
+        assertTrue(r.executed(), r.reason());
+        assertEquals(1L, r.orderId());
+        assertEquals(0, new BigDecimal("1").compareTo(r.qty()), "1000 * 10% / 100");
+        assertEquals(1, paper.getFills().size());
+    }
+
+    private static ReplayLivePublisher session() {
+        ReplayClock clock = new ReplayClock(T0);
+        ReplayLivePublisher live = new ReplayLivePublisher(clock, ev -> { }, new StrategyLiveProperties());
+
+        clock.advanceTo(T0 + 1_000);
+        live.pushSignal(1L, StrategyType.SCALPING, "BTCUSDT", null, Signal.buy(100.0, "entry"));
+        live.pushTrade(1L, StrategyType.SCALPING, "BTCUSDT", "BUY",
+                new BigDecimal("100"), new BigDecimal("0.5"), clock.instant());
+
+        clock.advanceTo(T0 + 2_000);
+        live.pushSignal(1L, StrategyType.SCALPING, "BTCUSDT", null, Signal.sell(101.0, "TP"));
+        return live;
+    }
+}
@@ -0,0 +1,228 @@
+package com.chicu.aitradebot.strategy.replay;
+
+import com.chicu.aitradebot.common.enums.StrategyType;
+import com.chicu.aitradebot.exchange.client.ExchangeClientFactory;
+import com.chicu.aitradebot.market.model.UnifiedKline;
+import com.chicu.aitradebot.service.StrategySettingsService;
+import com.chicu.aitradebot.strategy.core.TradingStrategy;
+import com.chicu.aitradebot.strategy.core.signal.Signal;
+import com.chicu.aitradebot.strategy.live.StrategyLiveEvent;
+import com.chicu.aitradebot.strategy.live.StrategyLiveProperties;
+import com.chicu.aitradebot.strategy.live.StrategyLivePublisher;
+import com.chicu.aitradebot.trade.TradeExecutionService;
+import com.chicu.aitradebot.trade.trigger.ExitTriggerBook;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReplaySandboxTest {
+
+    private static final long T0 = 1_700_000_000_000L;
+    private static final long CHAT = 7L;
+    private static final String SYMBOL = "BTCUSDT";
+
+    private final ApplicationContext context = mock(ApplicationContext.class);
+
+    {
+        when(context.getBean(StrategySettingsService.class)).thenReturn(mock(StrategySettingsService.class));
+    }
+
+    @Test
+    void sameTapeTwice_producesSameSignals() throws Exception {
+        List<ReplayEvent> tape = tape();
+
+        List<String> first = run(tape);
+        Thread.sleep(5); // стенные часы ушли вперёд — на сигналы это влиять не должно
+        List<String> second = run(tape);
+
+        assertFalse(first.isEmpty());
+        assertEquals(first, second);
+        // перечитывание настроек — по времени ленты: каждые 5 минут ленты, независимо от скорости прогона
+        assertTrue(first.getLast().contains("reloads=3"), first.getLast());
+    }
+
+    @Test
+    void klineAndTrades_reachReplaySinkAsMarketData() {
+        List<StrategyLiveEvent> events = new ArrayList<>();
+        ReplayClock clock = new ReplayClock(T0);
+        ReplaySandbox sb = sandbox(new TapeStrategy(null, null, null, Clock.systemUTC()), clock, events::add);
+
+        sb.feed(ReplayEvent.kline(UnifiedKline.builder()
+                .symbol(SYMBOL).timeframe("1m")
+                .openTime(T0).closeTime(T0 + 59_999)
+                .open(new BigDecimal("100")).high(new BigDecimal("101"))
+                .low(new BigDecimal("99")).close(new BigDecimal("100.5"))
+                .volume(BigDecimal.TEN)
+                .build()));
+        clock.advanceTo(T0 + 1_000);
+        sb.feed(ReplayEvent.aggTrade(T0 + 1_000, new BigDecimal("100.7"), BigDecimal.ONE));
+
+        List<String> types = events.stream().map(StrategyLiveEvent::getType).toList();
+        assertEquals(2, types.stream().filter("candle"::equals).count(), types.toString());
+        assertEquals(1, types.stream().filter("price"::equals).count(), types.toString());
+    }
+
+    @Test
+    void unknownLiveDependency_failsFast() {
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> sandbox(new StatefulStrategy(null), new ReplayClock(T0), ev -> { }));
+        assertTrue(e.getMessage().contains(ExitTriggerBook.class.getName()), e.getMessage());
+        verify(context, never()).getBean(ExitTriggerBook.class);
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    private List<String> run(List<ReplayEvent> tape) {
+        List<String> signals = new ArrayList<>();
+        ReplayClock clock = new ReplayClock(tape.getFirst().time());
+
+        ReplaySandbox sb = sandbox(new TapeStrategy(null, null, null, Clock.systemUTC()), clock, ev -> {
+            if ("signal".equals(ev.getType())) {
+                signals.add(ev.getTime() + " " + ev.getSignal().getName() + " " + ev.getSignal().getReason());
+            }
+        });
+
+        sb.strategy.start(CHAT, SYMBOL);
+        for (ReplayEvent ev : tape) {
+            clock.advanceTo(ev.time());
+            sb.feed(ev);
+        }
+        sb.strategy.stop(CHAT, SYMBOL);
+        return signals;
+    }
+
+    private ReplaySandbox sandbox(TradingStrategy prototype,
+                                  ReplayClock clock,
+                                  Consumer<StrategyLiveEvent> sink) {
+        ReplayLivePublisher live = new ReplayLivePublisher(clock, sink, new StrategyLiveProperties());
+        return new ReplaySandbox(context, prototype, CHAT, StrategyType.SCALPING, SYMBOL, "1m",
+                clock, live, new BigDecimal("1000"), mock(ExchangeClientFactory.class), new ObjectMapper());
+    }
+
+    /**
+     * 20 минут ленты: сделка раз в минуту, цена пилой.
+     */
+    private static List<ReplayEvent> tape() {
+        List<ReplayEvent> out = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            BigDecimal price = BigDecimal.valueOf(100 + (i % 4) - (i % 3));
+            out.add(ReplayEvent.aggTrade(T0 + i * 60_000L, price, BigDecimal.ONE));
+        }
+        return out;
+    }
+
+    // =====================================================
+    // TEST STRATEGIES
+    // =====================================================
+
+    /**
+     * Повторяет устройство боевых стратегий: startedAt и перечитывание настроек по часам.
+     */
+    static final class TapeStrategy implements TradingStrategy {
+
+        private static final Duration SETTINGS_REFRESH_EVERY = Duration.ofMinutes(5);
+
+        private final StrategyLivePublisher live;
+        private final Clock clock;
+
+        private final Map<Long, Instant> startedAt = new ConcurrentHashMap<>();
+        private Instant lastSettingsLoadAt;
+        private BigDecimal prev;
+        private int reloads;
+
+        TapeStrategy(StrategyLivePublisher live,
+                     TradeExecutionService tradeExecutionService,
+                     StrategySettingsService strategySettingsService,
+                     Clock clock) {
+            this.live = live;
+            this.clock = clock;
+        }
+
+        @Override
+        public void start(Long chatId, String symbol) {
+            startedAt.put(chatId, Instant.now(clock));
+            lastSettingsLoadAt = Instant.now(clock);
+        }
+
+        @Override
+        public void stop(Long chatId, String symbol) {
+            startedAt.remove(chatId);
+        }
+
+        @Override
+        public boolean isActive(Long chatId) {
+            return startedAt.containsKey(chatId);
+        }
+
+        @Override
+        public Instant getStartedAt(Long chatId) {
+            return startedAt.get(chatId);
+        }
+
+        @Override
+        public void onPriceUpdate(Long chatId, String symbol, BigDecimal price, Instant ts) {
+            Instant time = ts != null ? ts : Instant.now(clock);
+
+            if (Duration.between(lastSettingsLoadAt, time).compareTo(SETTINGS_REFRESH_EVERY) >= 0) {
+                reloads++;
+                lastSettingsLoadAt = time;
+            }
+
+            long age = Duration.between(startedAt.get(chatId), time).toSeconds();
+            String reason = "age=" + age + " reloads=" + reloads;
+
+            Signal s = prev == null || price.compareTo(prev) == 0 ? Signal.hold(reason)
+                    : price.compareTo(prev) > 0 ? Signal.buy(price.doubleValue(), reason)
+                    : Signal.sell(price.doubleValue(), reason);
+            prev = price;
+
+            live.pushSignal(chatId, StrategyType.SCALPING, symbol, null, s);
+        }
+    }
+
+    /**
+     * Зависит от боевой книги выходов — такой бин песочнице брать нельзя.
+     */
+    static final class StatefulStrategy implements TradingStrategy {
+
+        StatefulStrategy(ExitTriggerBook exitTriggers) {
+        }
+
+        @Override
+        public void start(Long chatId, String symbol) {
+        }
+
+        @Override
+        public void stop(Long chatId, String symbol) {
+        }
+
+        @Override
+        public boolean isActive(Long chatId) {
+            return false;
+        }
+
+        @Override
+        public Instant getStartedAt(Long chatId) {
+            return null;
+        }
+
+        @Override
+        public void onPriceUpdate(Long chatId, String symbol, BigDecimal price, Instant ts) {
+        }
+    }
+}
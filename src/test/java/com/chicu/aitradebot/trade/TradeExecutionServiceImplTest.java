@@ -0,0 +1,101 @@
+package com.chicu.aitradebot.trade;
+
+import com.chicu.aitradebot.account.AccountBalanceService;
+import com.chicu.aitradebot.common.enums.NetworkType;
+import com.chicu.aitradebot.common.enums.StrategyType;
+import com.chicu.aitradebot.domain.OrderEntity;
+import com.chicu.aitradebot.domain.StrategySettings;
+import com.chicu.aitradebot.exchange.client.ExchangeClient;
+import com.chicu.aitradebot.market.guard.ExchangeAIGuard;
+import com.chicu.aitradebot.market.guard.GuardResult;
+import com.chicu.aitradebot.market.model.IndexedSymbol;
+import com.chicu.aitradebot.market.orderbook.LocalOrderBookService;
+import com.chicu.aitradebot.market.orderbook.TopOfBookService;
+import com.chicu.aitradebot.repository.OrderRepository;
+import com.chicu.aitradebot.service.TradeJournalGateway;
+import com.chicu.aitradebot.service.impl.OrderServiceImpl;
+import com.chicu.aitradebot.service.order.ChatExecutionContext;
+import com.chicu.aitradebot.service.order.ChatExecutionContextCache;
+import com.chicu.aitradebot.strategy.live.StrategyLivePublisher;
+import com.chicu.aitradebot.trade.paper.PaperMatchingEngine;
+import com.chicu.aitradebot.trade.paper.PaperMatchingProperties;
+import com.chicu.aitradebot.trade.pipeline.OrderInFlightGuard;
+import com.chicu.aitradebot.trade.position.PositionBook;
+import com.chicu.aitradebot.trade.position.PositionFillListener;
+import com.chicu.aitradebot.trade.position.PositionSnapshot;
+import com.chicu.aitradebot.trade.trigger.ExitTriggerBook;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Вход стратегии (executeEntry → OrderServiceImpl.placeMarket) доходит до книги позиций
+ * без OrderPipeline — так торгуют стратегии без конвейера.
+ */
+class TradeExecutionServiceImplTest {
+
+    private static final long CHAT = 5L;
+
+    private final PositionBook book = new PositionBook(new SimpleMeterRegistry());
+    private final ChatExecutionContextCache contexts = mock(ChatExecutionContextCache.class);
+    private final ExchangeAIGuard aiGuard = mock(ExchangeAIGuard.class);
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final TradeJournalGateway journal = mock(TradeJournalGateway.class);
+
+    private final TradeExecutionServiceImpl execution;
+
+    TradeExecutionServiceImplTest() {
+        when(contexts.forChat(anyLong())).thenAnswer(inv -> new ChatExecutionContext(
+                inv.<Long>getArgument(0), "BINANCE", NetworkType.MAINNET, mock(ExchangeClient.class),
+                "****abcd", null, Map.of(), System.currentTimeMillis()));
+        when(orderRepository.save(any(OrderEntity.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(journal.recordIntent(anyLong(), any(), anyString(), any(), anyString(), anyString(),
+                any(), any(), anyString(), any(), any(), any(), any(), any(), any())).thenReturn("cid");
+
+        PositionFillListener fills = new PositionFillListener(book, contexts, new PaperMatchingProperties());
+
+        OrderServiceImpl orders = new OrderServiceImpl(orderRepository, mock(StrategyLivePublisher.class), contexts,
+                aiGuard, journal, mock(LocalOrderBookService.class), mock(TopOfBookService.class),
+                mock(PaperMatchingEngine.class), fills);
+
+        execution = new TradeExecutionServiceImpl(orders, mock(StrategyLivePublisher.class),
+                mock(AccountBalanceService.class), new OrderInFlightGuard(), mock(ExitTriggerBook.class));
+    }
+
+    @Test
+    void entryFillReachesPositionBook_withGuardAdjustedQtyAndPrice() {
+        // guard округлил qty под шаг лота и подвинул цену — в книгу идёт именно это, не qty намерения
+        when(aiGuard.validateAndAdjust(anyString(), nullable(IndexedSymbol.class), any(), any(), anyBoolean()))
+                .thenReturn(GuardResult.pass(new BigDecimal("0.9"), new BigDecimal("101")));
+
+        var res = execution.executeEntry(CHAT, StrategyType.SCALPING, "BTCUSDT",
+                new BigDecimal("100"), BigDecimal.ONE, Instant.now(), settings(),
+                new BigDecimal("2"), new BigDecimal("1"));
+
+        assertTrue(res.executed(), res.toString());
+
+        PositionSnapshot s = book.get(CHAT, "BINANCE", "BTCUSDT");
+        assertNotNull(s);
+        assertEquals(0.9, s.qty(), 1e-9);
+        assertEquals(1, s.fills());
+        // taker по умолчанию 0.1% входит в среднюю
+        assertEquals(101 * 1.001, s.avgCost(), 1e-9);
+    }
+
+    private static StrategySettings settings() {
+        StrategySettings ss = new StrategySettings();
+        ss.setChatId(CHAT);
+        ss.setExchangeName("BINANCE");
+        ss.setNetworkType(NetworkType.MAINNET);
+        ss.setRiskPerTradePct(new BigDecimal("10"));
+        ss.setMaxExposureUsd(new BigDecimal("1000"));
+        return ss;
+    }
+}
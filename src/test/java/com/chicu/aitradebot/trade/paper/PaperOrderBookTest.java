@@ -0,0 +1,104 @@
+package com.chicu.aitradebot.trade.paper;
+
+import com.chicu.aitradebot.common.enums.StrategyType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaperOrderBookTest {
+
+    private static final BigDecimal MAKER = new BigDecimal("0.1");
+    private static final BigDecimal TAKER = new BigDecimal("0.2");
+
+    private final PaperOrderBook book = new PaperOrderBook("BTCUSDT");
+    private final Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Test
+    void gridBidsFillOnlyWhenTapeReachesThem() {
+        book.onTrade(1, bd("100"), bd("1"), now);
+        for (int i = 1; i <= 5; i++) {
+            assertTrue(book.add(limit(i, true, "1", String.valueOf(100 - i)), now).isEmpty());
+        }
+
+        assertTrue(book.onTrade(2, bd("99.5"), bd("10"), now).isEmpty());
+
+        // 97 прошла сквозь 99 и 98, 97 — касание на 0.4 из 1
+        List<PaperFillEvent> fills = book.onTrade(3, bd("97"), bd("0.4"), now);
+
+        assertEquals(3, fills.size());
+        assertEquals(1L, fills.get(0).orderId());
+        assertTrue(fills.get(0).done());
+        assertEquals(2L, fills.get(1).orderId());
+        assertEquals(0, bd("0.4").compareTo(fills.get(2).qty()));
+        assertFalse(fills.get(2).done());
+        assertTrue(fills.get(2).maker());
+        assertEquals(0, bd("0.0388").compareTo(fills.get(2).fee()));
+        assertEquals(3, book.size());
+
+        List<PaperFillEvent> rest = book.onTrade(4, bd("97"), bd("5"), now);
+        assertEquals(1, rest.size());
+        assertTrue(rest.getFirst().done());
+        assertEquals(0, bd("1").compareTo(rest.getFirst().executedQty()));
+        assertEquals(2, book.size());
+    }
+
+    @Test
+    void marketableLimitFillsAsTakerAtLastPrice() {
+        book.onTrade(1, bd("100"), bd("1"), now);
+
+        List<PaperFillEvent> fills = book.add(limit(7, true, "2", "101"), now);
+
+        assertEquals(1, fills.size());
+        assertFalse(fills.getFirst().maker());
+        assertEquals(0, bd("100").compareTo(fills.getFirst().price()));
+        assertEquals(0, bd("0.4").compareTo(fills.getFirst().fee()));
+        assertEquals(0, book.size());
+    }
+
+    @Test
+    void ocoStopTriggerCancelsTakeProfit() {
+        book.onTrade(1, bd("100"), bd("1"), now);
+
+        PaperOrder tp = new PaperOrder(9, 1L, StrategyType.SCALPING, false,
+                PaperFillEvent.Leg.TAKE_PROFIT, bd("1"), bd("110"), null, MAKER, TAKER);
+        PaperOrder sl = new PaperOrder(9, 1L, StrategyType.SCALPING, false,
+                PaperFillEvent.Leg.STOP_LOSS, bd("1"), null, bd("95"), MAKER, TAKER);
+        assertTrue(book.addOco(tp, sl, now).isEmpty());
+
+        List<PaperFillEvent> fills = book.onTrade(2, bd("94"), bd("0.01"), now);
+
+        assertEquals(1, fills.size());
+        assertEquals(PaperFillEvent.Leg.STOP_LOSS, fills.getFirst().leg());
+        assertFalse(fills.getFirst().maker());
+        assertTrue(fills.getFirst().done());
+        assertEquals(0, book.size());
+
+        assertTrue(book.onTrade(3, bd("120"), bd("5"), now).isEmpty());
+        assertFalse(book.cancel(9));
+    }
+
+    @Test
+    void duplicateTradeFromSecondSubscriptionIsIgnored() {
+        book.onTrade(1, bd("100"), bd("1"), now);
+        book.add(limit(1, false, "1", "101"), now);
+
+        assertEquals(1, book.onTrade(5, bd("101"), bd("0.5"), now).size());
+        assertTrue(book.onTrade(5, bd("101"), bd("0.5"), now).isEmpty());
+
+        assertTrue(book.cancel(1));
+        assertEquals(0, book.size());
+    }
+
+    private static PaperOrder limit(long id, boolean buy, String qty, String price) {
+        return new PaperOrder(id, 1L, StrategyType.SCALPING, buy,
+                PaperFillEvent.Leg.LIMIT, bd(qty), bd(price), null, MAKER, TAKER);
+    }
+
+    private static BigDecimal bd(String v) {
+        return new BigDecimal(v);
+    }
+}
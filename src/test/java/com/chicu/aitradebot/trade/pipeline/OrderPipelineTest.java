@@ -0,0 +1,183 @@
+package com.chicu.aitradebot.trade.pipeline;
+
+import com.chicu.aitradebot.common.enums.StrategyType;
+import com.chicu.aitradebot.domain.StrategySettings;
+import com.chicu.aitradebot.trade.EntryResult;
+import com.chicu.aitradebot.trade.ExitResult;
+import com.chicu.aitradebot.trade.TradeExecutionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderPipelineTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<String> executedOn = new CopyOnWriteArrayList<>();
+    private final List<OrderFillEvent> published = new CopyOnWriteArrayList<>();
+
+    private OrderPipeline pipeline;
+
+    /** Исполнитель «висит» на бирже, пока тест не отпустит release. */
+    private final TradeExecutionService slowExchange = new TradeExecutionService() {
+        @Override
+        public EntryResult entry(OrderIntent intent) {
+            executedOn.add(Thread.currentThread().getName());
+            await();
+            return EntryResult.ok(true, "BUY", new BigDecimal("0.01"), intent.price(),
+                    new BigDecimal("101"), new BigDecimal("99"), 7L);
+        }
+
+        @Override
+        public ExitResult exit(OrderIntent intent) {
+            executedOn.add(Thread.currentThread().getName());
+            return ExitResult.ok(true, false, intent.price(), BigDecimal.ZERO);
+        }
+
+        @Override
+        public EntryResult executeEntry(Long chatId, StrategyType strategyType, String symbol, BigDecimal price,
+                                        BigDecimal diffPct, Instant time, StrategySettings strategySettings) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public EntryResult executeEntry(Long chatId, StrategyType strategyType, String symbol, BigDecimal price,
+                                        BigDecimal diffPct, Instant time, StrategySettings strategySettings,
+                                        BigDecimal takeProfitPct, BigDecimal stopLossPct) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ExitResult executeExitIfHit(Long chatId, StrategyType strategyType, String symbol, BigDecimal price,
+                                           Instant time, boolean isLong, BigDecimal entryQty, BigDecimal tp, BigDecimal sl) {
+            throw new UnsupportedOperationException();
+        }
+
+        private void await() {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    };
+
+    private OrderPipeline pipeline(int threads, int queue) {
+        OrderPipelineProperties props = new OrderPipelineProperties();
+        props.setThreads(threads);
+        props.setQueueCapacity(queue);
+        props.setShutdownTimeoutMs(1_000);
+        pipeline = new OrderPipeline(slowExchange, new OrderInFlightGuard(),
+                ev -> published.add((OrderFillEvent) ev), props, new SimpleMeterRegistry());
+        return pipeline;
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (pipeline != null) pipeline.shutdown();
+    }
+
+    @Test
+    void submit_returnsImmediately_andFillArrivesFromExecutorThread() throws Exception {
+        OrderPipeline p = pipeline(2, 10);
+
+        OrderHandle h = p.submit(entry(1L, "BTCUSDT"));
+
+        assertFalse(h.isDone(), "стратегия не ждёт биржу");
+        assertNull(h.poll());
+        assertTrue(p.isInFlight(1L, "btcusdt"));
+
+        release.countDown();
+        OrderFillEvent fill = h.future().get(5, TimeUnit.SECONDS);
+
+        assertTrue(fill.executed());
+        assertEquals(7L, fill.orderId());
+        assertEquals(new BigDecimal("101"), fill.tp());
+        assertSame(h.intent(), fill.intent());
+        assertTrue(executedOn.getFirst().startsWith("order-exec-"));
+        assertFalse(p.isInFlight(1L, "BTCUSDT"));
+        assertTrue(published.contains(fill), "итог публикуется и как Spring-событие");
+    }
+
+    @Test
+    void secondIntentForSameChatAndSymbol_isRejectedWhileFirstInFlight() throws Exception {
+        OrderPipeline p = pipeline(2, 10);
+
+        OrderHandle first = p.submit(entry(1L, "BTCUSDT"));
+        OrderHandle dup = p.submit(entry(1L, "BTCUSDT"));
+        OrderHandle otherSymbol = p.submit(entry(1L, "ETHUSDT"));
+
+        OrderFillEvent rejected = dup.poll();
+        assertNotNull(rejected, "дубль отклоняется сразу, без очереди");
+        assertFalse(rejected.executed());
+        assertTrue(rejected.reason().startsWith("in_flight"));
+
+        release.countDown();
+        assertTrue(first.future().get(5, TimeUnit.SECONDS).executed());
+        assertTrue(otherSymbol.future().get(5, TimeUnit.SECONDS).executed());
+
+        // после исполнения по символу снова можно отправлять
+        OrderHandle next = p.submit(OrderIntent.exit(1L, StrategyType.WINDOW_SCALPING, "BTCUSDT",
+                new BigDecimal("101"), Instant.now(), true, new BigDecimal("0.01"),
+                new BigDecimal("101"), new BigDecimal("99")));
+        assertTrue(next.future().get(5, TimeUnit.SECONDS).executed());
+    }
+
+    @Test
+    void fullQueue_rejectsInsteadOfBlockingStrategy() throws Exception {
+        OrderPipeline p = pipeline(1, 1);
+
+        OrderHandle running = p.submit(entry(1L, "AUSDT"));
+        // дождаться, пока первый заберёт единственный поток
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executedOn.isEmpty() && System.nanoTime() < deadline) Thread.onSpinWait();
+
+        OrderHandle queued = p.submit(entry(2L, "AUSDT"));
+        OrderHandle overflow = p.submit(entry(3L, "AUSDT"));
+
+        assertEquals("queue_full", overflow.poll().reason());
+        assertFalse(p.isInFlight(3L, "AUSDT"), "guard освобождается при отказе очереди");
+
+        release.countDown();
+        assertTrue(running.future().get(5, TimeUnit.SECONDS).executed());
+        assertTrue(queued.future().get(5, TimeUnit.SECONDS).executed());
+    }
+
+    @Test
+    void shutdown_rejectsQueuedIntents_andReleasesGuard() throws Exception {
+        OrderPipeline p = pipeline(1, 5);
+
+        p.submit(entry(1L, "AUSDT"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executedOn.isEmpty() && System.nanoTime() < deadline) Thread.onSpinWait();
+
+        OrderHandle queued = p.submit(entry(2L, "AUSDT"));
+        assertTrue(p.isInFlight(2L, "AUSDT"));
+
+        // первый висит на бирже дольше shutdownTimeoutMs → shutdownNow() вернёт второй из очереди
+        p.shutdown();
+
+        OrderFillEvent dropped = queued.poll();
+        assertNotNull(dropped, "handle из очереди не висит вечно");
+        assertFalse(dropped.executed());
+        assertEquals("shutdown", dropped.reason());
+        assertTrue(published.contains(dropped));
+        assertFalse(p.isInFlight(2L, "AUSDT"));
+    }
+
+    private static OrderIntent entry(long chatId, String symbol) {
+        StrategySettings ss = new StrategySettings();
+        ss.setExchangeName("BINANCE");
+        return OrderIntent.entry(chatId, StrategyType.WINDOW_SCALPING, symbol, new BigDecimal("100"),
+                BigDecimal.ONE, Instant.now(), ss, new BigDecimal("1"), new BigDecimal("1"));
+    }
+}
@@ -0,0 +1,78 @@
+package com.chicu.aitradebot.trade.position;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositionBookTest {
+
+    private static final double EPS = 1e-9;
+
+    private final PositionBook book = new PositionBook(new SimpleMeterRegistry());
+    private final PositionKey key = PositionKey.of(1L, "binance", "btcusdt");
+
+    @Test
+    void buyFeesRaiseAverageCost() {
+        book.applyFill(key, true, 1.0, 100.0, 0.1, 0.0, 1);
+        book.applyFill(key, true, 1.0, 110.0, 0.1, 0.0, 2);
+
+        PositionSnapshot s = book.get(1L, "BINANCE", "BTCUSDT");
+        assertEquals(2.0, s.qty(), EPS);
+        assertEquals(105.1, s.avgCost(), EPS);
+        assertEquals(0.2, s.fees(), EPS);
+        assertEquals(210.0, s.boughtNotional(), EPS);
+    }
+
+    @Test
+    void partialSellRealizesNetOfFees() {
+        book.applyFill(key, true, 2.0, 100.0, 0.0, 0.0, 1);
+        book.applyFill(key, false, 0.5, 120.0, 0.06, 0.0, 2);
+
+        PositionSnapshot s = book.get(1L, "BINANCE", "BTCUSDT");
+        assertEquals(1.5, s.qty(), EPS);
+        assertEquals(100.0, s.avgCost(), EPS);
+        assertEquals(0.5 * 20.0 - 0.06, s.realizedPnl(), EPS);
+    }
+
+    @Test
+    void markDrivesUnrealizedPnl() {
+        book.applyFill(key, true, 2.0, 100.0, 0.0, 0.0, 1);
+        assertEquals(0.0, book.totals(1L).unrealizedPnl(), EPS);
+
+        book.mark("BTCUSDT", 90.0);
+
+        PositionTotals t = book.totals(1L);
+        assertEquals(1, t.open());
+        assertEquals(180.0, t.exposure(), EPS);
+        assertEquals(-20.0, t.unrealizedPnl(), EPS);
+        assertEquals(-10.0, t.pnlPct(), EPS);
+    }
+
+    @Test
+    void sellBeyondTrackedQtyIsIgnored() {
+        book.applyFill(key, false, 1.0, 100.0, 0.1, 0.0, 1);
+        PositionSnapshot s = book.get(1L, "BINANCE", "BTCUSDT");
+        assertEquals(0.0, s.qty(), EPS);
+        assertEquals(0.0, s.realizedPnl(), EPS);
+        assertEquals(0.0, s.fees(), EPS);
+
+        book.applyFill(key, true, 1.0, 100.0, 0.0, 0.0, 2);
+        book.applyFill(key, false, 2.0, 110.0, 0.2, 0.0, 3);
+
+        s = book.get(1L, "BINANCE", "BTCUSDT");
+        assertFalse(s.open());
+        assertEquals(10.0 - 0.1, s.realizedPnl(), EPS);
+        assertEquals(0, book.openCount());
+    }
+
+    @Test
+    void baseAssetFeeReducesQty() {
+        book.applyFill(key, true, 1.0, 100.0, 0.0, 0.001, 1);
+
+        PositionSnapshot s = book.get(1L, "BINANCE", "BTCUSDT");
+        assertEquals(0.999, s.qty(), EPS);
+        assertEquals(100.0 / 0.999, s.avgCost(), EPS);
+        assertEquals(0.1, s.fees(), EPS);
+    }
+}
@@ -0,0 +1,113 @@
+package com.chicu.aitradebot.trade.trigger;
+
+import com.chicu.aitradebot.common.enums.StrategyType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymbolTriggerBookTest {
+
+    private final LongAdder fired = new LongAdder();
+    private final SymbolTriggerBook book = new SymbolTriggerBook(fired);
+    private final Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+    private static final SymbolTriggerBook.Owner A = new SymbolTriggerBook.Owner(1L, StrategyType.GRID);
+    private static final SymbolTriggerBook.Owner B = new SymbolTriggerBook.Owner(2L, StrategyType.DCA);
+
+    @Test
+    void onlyCrossedLevelsFire() {
+        book.onTrade(1, 100, now);
+        assertNull(book.arm(A, bd("110"), bd("90"), null, true, now));
+        assertNull(book.arm(B, bd("105"), bd("95"), null, true, now));
+
+        book.onTrade(2, 104, now);
+        assertNull(book.fired(A));
+        assertNull(book.fired(B));
+
+        book.onTrade(3, 106, now);
+        assertEquals(ExitTrigger.Kind.TAKE_PROFIT, book.fired(B).kind());
+        assertNull(book.fired(A));
+
+        book.onTrade(4, 89, now);
+        assertEquals(ExitTrigger.Kind.STOP_LOSS, book.fired(A).kind());
+        assertEquals(2, fired.sum());
+
+        // сработавший выход висит до disarm и не срабатывает повторно
+        book.onTrade(5, 120, now);
+        assertEquals(ExitTrigger.Kind.TAKE_PROFIT, book.fired(B).kind());
+        assertEquals(2, fired.sum());
+
+        assertTrue(book.disarm(B));
+        assertEquals(1, book.armed());
+    }
+
+    @Test
+    void trailingStopFollowsNewHighs() {
+        book.onTrade(1, 100, now);
+        book.arm(A, bd("200"), bd("90"), bd("5"), true, now);
+        assertEquals(95.0, book.stop(A), 1e-9);
+
+        book.onTrade(2, 120, now);
+        assertEquals(114.0, book.stop(A), 1e-9);
+
+        // откат выше стопа — стоп не опускается
+        book.onTrade(3, 115, now);
+        assertNull(book.fired(A));
+        assertEquals(114.0, book.stop(A), 1e-9);
+
+        book.onTrade(4, 113.5, now);
+        ExitTrigger t = book.fired(A);
+        assertEquals(ExitTrigger.Kind.TRAILING_STOP, t.kind());
+        assertEquals(114.0, t.level(), 1e-9);
+        assertTrue(t.slHit());
+    }
+
+    @Test
+    void movedLevelsAreReindexedAndCrossedLevelFiresOnArm() {
+        book.onTrade(1, 100, now);
+        book.arm(A, bd("110"), bd("90"), null, true, now);
+
+        // стратегия подтянула SL в безубыток выше текущей цены → срабатывает сразу
+        ExitTrigger t = book.arm(A, bd("110"), bd("101"), null, false, now);
+        assertNotNull(t);
+        assertEquals(ExitTrigger.Kind.STOP_LOSS, t.kind());
+
+        // новый вход сбрасывает сработавший выход
+        assertNull(book.arm(A, bd("110"), bd("90"), null, true, now));
+        assertNull(book.fired(A));
+    }
+
+    @Test
+    void strategyPriceFiresOnlyItsOwnPosition() {
+        book.onTrade(1, 100, now);
+        book.arm(A, bd("110"), bd("90"), null, true, now);
+        book.arm(B, bd("105"), bd("95"), null, true, now);
+
+        // close свечи старшего ТФ у A — выше TP у B, но B его не видит
+        assertNull(book.probe(A, 106, now));
+        assertNull(book.fired(B));
+
+        assertEquals(ExitTrigger.Kind.STOP_LOSS, book.probe(A, 89, now).kind());
+        assertNull(book.fired(B));
+        assertEquals(1, fired.sum());
+
+        // общая цена осталась ценой ленты: повторная постановка B ничего не запускает
+        assertNull(book.arm(B, bd("105"), bd("96"), null, false, now));
+    }
+
+    @Test
+    void duplicateTradeIdIsIgnored() {
+        book.arm(A, bd("110"), bd("90"), null, true, now);
+        book.onTrade(7, 100, now);
+        book.onTrade(7, 80, now);
+        assertNull(book.fired(A));
+    }
+
+    private static BigDecimal bd(String v) {
+        return new BigDecimal(v);
+    }
+}
@@ -0,0 +1,75 @@
+package com.chicu.aitradebot.web.ui;
+
+import com.chicu.aitradebot.common.enums.StrategyType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UiStrategyLayerStoreTest {
+
+    private static final UiStrategyLayerStore.LayerKey KEY =
+            new UiStrategyLayerStore.LayerKey(1L, StrategyType.SCALPING, "BTCUSDT", "levels");
+
+    private final UiStrategyLayerRepository repository = mock(UiStrategyLayerRepository.class);
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final UiLayerStoreProperties props = new UiLayerStoreProperties();
+    private final UiStrategyLayerStore store = new UiStrategyLayerStore(repository, jdbc, new ObjectMapper(), props);
+
+    {
+        props.setFlushIntervalMs(3_600_000L); // сбрасываем вручную
+    }
+
+    @AfterEach
+    void stop() {
+        store.shutdown();
+    }
+
+    @Test
+    void missingLayer_isLookedUpOnce() {
+        when(repository.findLatestByType(any(), any(), any(), any())).thenReturn(List.of());
+
+        assertTrue(store.get(KEY).isEmpty());
+        assertTrue(store.get(KEY).isEmpty());
+        verify(repository, times(1)).findLatestByType(1L, StrategyType.SCALPING, "BTCUSDT", "levels");
+
+        store.put(KEY, Map.of("a", 1), Instant.now());
+        assertTrue(store.get(KEY).isPresent());
+    }
+
+    @Test
+    void missingSlotConstraint_removesDuplicates_andCreatesIt() {
+        when(jdbc.queryForObject(contains("pg_indexes"), eq(Boolean.class))).thenReturn(false);
+
+        assertTrue(store.ensureSlotConstraint());
+
+        verify(jdbc).update(contains("delete from ui_strategy_layers"));
+        verify(jdbc).execute(contains("add constraint ux_ui_layer_slot"));
+    }
+
+    @Test
+    void slotConstraintUnavailable_flushFallsBackToUpdateThenInsert() {
+        when(jdbc.queryForObject(contains("pg_indexes"), eq(Boolean.class))).thenReturn(false);
+        doThrow(new DataIntegrityViolationException("could not create unique index"))
+                .when(jdbc).execute(contains("add constraint"));
+        store.start();
+
+        store.put(KEY, Map.of("a", 1), Instant.now());
+        assertEquals(1, store.flush());
+
+        verify(jdbc, never()).batchUpdate(anyString(), anyList());
+        verify(jdbc).update(contains("update ui_strategy_layers"), any(Object[].class));
+        // update не нашёл строку → insert без on conflict
+        verify(jdbc).update(argThat((String sql) -> sql.contains("insert into") && !sql.contains("on conflict")),
+                any(Object[].class));
+    }
+}